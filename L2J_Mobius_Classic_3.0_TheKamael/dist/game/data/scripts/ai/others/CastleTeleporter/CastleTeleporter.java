@@ -24,7 +24,6 @@ import org.l2jmobius.gameserver.enums.PlayerCondOverride;
 import org.l2jmobius.gameserver.instancemanager.MapRegionManager;
 import org.l2jmobius.gameserver.model.Location;
 import org.l2jmobius.gameserver.model.StatSet;
-import org.l2jmobius.gameserver.model.World;
 import org.l2jmobius.gameserver.model.actor.Npc;
 import org.l2jmobius.gameserver.model.actor.Player;
 import org.l2jmobius.gameserver.model.siege.Siege;
@@ -158,12 +157,9 @@ public class CastleTeleporter extends AbstractNpcAI
 				msg.addStringParameter(npc.getCastle().getName());
 				npc.getCastle().oustAllPlayers();
 				npc.setScriptValue(0);
-				for (Player pl : World.getInstance().getPlayers()) // TODO: Is it possible to get all the players for that region, instead of all players?
+				for (Player pl : MapRegionManager.getInstance().getPlayers(region))
 				{
-					if (region == MapRegionManager.getInstance().getMapRegionLocId(pl))
-					{
-						pl.sendPacket(msg);
-					}
+					pl.sendPacket(msg);
 				}
 				break;
 			}
@@ -851,9 +851,9 @@ public class TvT extends Event
 		EVENT_ACTIVE = true;
 		
 		// Cancel timers. (In case event started immediately after another event was canceled.)
-		for (List<QuestTimer> timers : getQuestTimers().values())
+		for (Map<Long, QuestTimer> timers : getQuestTimers().values())
 		{
-			for (QuestTimer timer : timers)
+			for (QuestTimer timer : timers.values())
 			{
 				timer.cancel();
 			}
@@ -890,9 +890,9 @@ public class TvT extends Event
 		// Despawn event manager.
 		MANAGER_NPC_INSTANCE.deleteMe();
 		// Cancel timers.
-		for (List<QuestTimer> timers : getQuestTimers().values())
+		for (Map<Long, QuestTimer> timers : getQuestTimers().values())
 		{
-			for (QuestTimer timer : timers)
+			for (QuestTimer timer : timers.values())
 			{
 				timer.cancel();
 			}
@@ -21,6 +21,7 @@ import java.util.logging.Logger;
 
 import org.l2jmobius.Config;
 import org.l2jmobius.gameserver.data.xml.AdminData;
+import org.l2jmobius.gameserver.data.xml.NpcData;
 import org.l2jmobius.gameserver.enums.ChatType;
 import org.l2jmobius.gameserver.handler.IAdminCommandHandler;
 import org.l2jmobius.gameserver.model.World;
@@ -267,6 +268,7 @@ public class AdminAdmin implements IAdminCommandHandler
 					case "RateDropSpoil":
 					{
 						Config.RATE_SPOIL_DROP_CHANCE_MULTIPLIER = Float.parseFloat(pValue);
+						NpcData.getInstance().compileDrops();
 						break;
 					}
 				}
@@ -19,7 +19,7 @@ package handlers.admincommandhandlers;
 import java.io.File;
 import java.nio.file.Paths;
 import java.util.Arrays;
-import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.TreeSet;
@@ -253,9 +253,9 @@ public class AdminQuest implements IAdminCommandHandler
 				items = quest.getRegisteredItemIds().length + ":" + items.substring(2);
 			}
 			
-			for (List<QuestTimer> list : quest.getQuestTimers().values())
+			for (Map<Long, QuestTimer> list : quest.getQuestTimers().values())
 			{
-				for (QuestTimer timer : list)
+				for (QuestTimer timer : list.values())
 				{
 					timers += "<tr><td colspan=\"4\"><table width=270 border=0 bgcolor=131210><tr><td width=270><font color=\"LEVEL\">" + timer.toString() + ":</font> <font color=00FF00>Active: " + timer.isActive() + " Repeatable: " + timer.isRepeating() + " Player: " + timer.getPlayer() + " Npc: " + timer.getNpc() + "</font></td></tr></table></td></tr>";
 					counter++;
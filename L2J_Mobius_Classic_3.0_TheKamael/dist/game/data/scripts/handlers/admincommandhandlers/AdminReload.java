@@ -101,6 +101,7 @@ public class AdminReload implements IAdminCommandHandler
 				case "config":
 				{
 					Config.load(ServerMode.GAME);
+					NpcData.getInstance().compileDrops();
 					AdminData.getInstance().broadcastMessageToGMs(activeChar.getName() + ": Reloaded Configs.");
 					break;
 				}
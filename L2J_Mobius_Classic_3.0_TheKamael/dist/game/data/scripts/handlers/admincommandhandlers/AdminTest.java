@@ -18,15 +18,29 @@ package handlers.admincommandhandlers;
 
 import java.util.StringTokenizer;
 
+import org.l2jmobius.commons.database.DatabaseWriteQueue;
+import org.l2jmobius.commons.network.SharedPacket;
 import org.l2jmobius.commons.threads.ThreadPool;
+import org.l2jmobius.commons.threads.TimingWheel;
 import org.l2jmobius.gameserver.data.xml.SkillData;
+import org.l2jmobius.gameserver.geoengine.LosCache;
+import org.l2jmobius.gameserver.geoengine.geodata.regions.Region;
+import org.l2jmobius.gameserver.geoengine.pathfinding.PathFinding;
 import org.l2jmobius.gameserver.handler.IAdminCommandHandler;
+import org.l2jmobius.gameserver.instancemanager.IdManager;
+import org.l2jmobius.gameserver.instancemanager.ItemCommissionManager;
 import org.l2jmobius.gameserver.model.WorldObject;
 import org.l2jmobius.gameserver.model.actor.Creature;
 import org.l2jmobius.gameserver.model.actor.Player;
 import org.l2jmobius.gameserver.model.skill.Skill;
+import org.l2jmobius.gameserver.model.zone.ZoneRegion;
+import org.l2jmobius.gameserver.network.PacketExecutionManager;
 import org.l2jmobius.gameserver.network.serverpackets.MagicSkillUse;
+import org.l2jmobius.gameserver.taskmanager.AttackableThinkTaskManager;
+import org.l2jmobius.gameserver.taskmanager.EffectTickTaskManager;
+import org.l2jmobius.gameserver.taskmanager.RegenerationTaskManager;
 import org.l2jmobius.gameserver.util.BuilderUtil;
+import org.l2jmobius.log.handler.AsyncFileHandler;
 
 /**
  * @version $Revision: 1.2 $ $Date: 2004/06/27 08:12:59 $
@@ -48,6 +62,66 @@ public class AdminTest implements IAdminCommandHandler
 			{
 				activeChar.sendMessage(line);
 			}
+			for (String line : SharedPacket.getStats())
+			{
+				activeChar.sendMessage(line);
+			}
+			for (String line : PacketExecutionManager.getInstance().getStats())
+			{
+				activeChar.sendMessage(line);
+			}
+			for (String line : TimingWheel.getStats())
+			{
+				activeChar.sendMessage(line);
+			}
+			for (String line : AttackableThinkTaskManager.getInstance().getStats())
+			{
+				activeChar.sendMessage(line);
+			}
+			for (String line : RegenerationTaskManager.getInstance().getStats())
+			{
+				activeChar.sendMessage(line);
+			}
+			for (String line : EffectTickTaskManager.getInstance().getStats())
+			{
+				activeChar.sendMessage(line);
+			}
+			for (String line : DatabaseWriteQueue.getInstance().getStats())
+			{
+				activeChar.sendMessage(line);
+			}
+			for (String line : IdManager.getInstance().getStats())
+			{
+				activeChar.sendMessage(line);
+			}
+			for (String line : ItemCommissionManager.getInstance().getStats())
+			{
+				activeChar.sendMessage(line);
+			}
+			for (String line : AsyncFileHandler.getStats())
+			{
+				activeChar.sendMessage(line);
+			}
+			for (String line : ZoneRegion.getStats())
+			{
+				activeChar.sendMessage(line);
+			}
+			for (String line : Region.getStats())
+			{
+				activeChar.sendMessage(line);
+			}
+			for (String line : LosCache.getStats())
+			{
+				activeChar.sendMessage(line);
+			}
+			final String[] pathFindingStats = PathFinding.getInstance().getStat();
+			if (pathFindingStats != null)
+			{
+				for (String line : pathFindingStats)
+				{
+					activeChar.sendMessage(line);
+				}
+			}
 		}
 		else if (command.startsWith("admin_skill_test"))
 		{
@@ -17,6 +17,8 @@
 package handlers.chathandlers;
 
 import org.l2jmobius.Config;
+import org.l2jmobius.gameserver.data.sql.CharNameTable;
+import org.l2jmobius.gameserver.data.sql.OfflineTraderTable;
 import org.l2jmobius.gameserver.data.xml.FakePlayerData;
 import org.l2jmobius.gameserver.enums.ChatType;
 import org.l2jmobius.gameserver.enums.PlayerCondOverride;
@@ -128,6 +130,10 @@ public class ChatWhisper implements IChatHandler
 				activeChar.sendPacket(SystemMessageId.THAT_PERSON_IS_IN_MESSAGE_REFUSAL_MODE);
 			}
 		}
+		else if ((receiver == null) && (OfflineTraderTable.getInstance().getTrader(CharNameTable.getInstance().getIdByName(target)) != null))
+		{
+			activeChar.sendMessage("Player is in offline mode.");
+		}
 		else
 		{
 			activeChar.sendPacket(SystemMessageId.THAT_PLAYER_IS_NOT_ONLINE);
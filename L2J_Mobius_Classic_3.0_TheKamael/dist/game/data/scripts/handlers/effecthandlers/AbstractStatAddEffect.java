@@ -46,4 +46,10 @@ public class AbstractStatAddEffect extends AbstractEffect
 	{
 		effected.getStat().mergeAdd(_stat, _amount);
 	}
+	
+	@Override
+	public boolean isPumpCacheable()
+	{
+		return true;
+	}
 }
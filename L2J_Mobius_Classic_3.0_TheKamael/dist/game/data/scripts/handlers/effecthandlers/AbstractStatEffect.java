@@ -41,6 +41,7 @@ public abstract class AbstractStatEffect extends AbstractEffect
 	protected final double _amount;
 	protected final StatModifierType _mode;
 	protected final List<Condition> _conditions = new ArrayList<>();
+	private final boolean _pumpCacheable;
 	
 	public AbstractStatEffect(StatSet params, Stat stat)
 	{
@@ -106,6 +107,9 @@ public abstract class AbstractStatEffect extends AbstractEffect
 		{
 			_conditions.add(new ConditionPlayerIsInCombat(params.getBoolean("inCombat")));
 		}
+		
+		// Combat state changes do not recalculate stats, weapon and armor changes do.
+		_pumpCacheable = !params.contains("inCombat");
 	}
 	
 	@Override
@@ -128,4 +132,10 @@ public abstract class AbstractStatEffect extends AbstractEffect
 			}
 		}
 	}
+	
+	@Override
+	public boolean isPumpCacheable()
+	{
+		return _pumpCacheable;
+	}
 }
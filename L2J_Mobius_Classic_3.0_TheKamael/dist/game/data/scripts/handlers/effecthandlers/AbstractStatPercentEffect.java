@@ -46,4 +46,10 @@ public class AbstractStatPercentEffect extends AbstractEffect
 	{
 		effected.getStat().mergeMul(_stat, (_amount / 100) + 1);
 	}
+	
+	@Override
+	public boolean isPumpCacheable()
+	{
+		return true;
+	}
 }
@@ -20,7 +20,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
-import org.l2jmobius.gameserver.geoengine.GeoEngine;
+import org.l2jmobius.gameserver.geoengine.LineOfSight;
 import org.l2jmobius.gameserver.handler.AffectObjectHandler;
 import org.l2jmobius.gameserver.handler.IAffectObjectHandler;
 import org.l2jmobius.gameserver.handler.IAffectScopeHandler;
@@ -50,6 +50,7 @@ public class FanPB implements IAffectScopeHandler
 		
 		// Target checks.
 		final AtomicInteger affected = new AtomicInteger(0);
+		final LineOfSight los = new LineOfSight(creature);
 		final Predicate<Creature> filter = c ->
 		{
 			if ((affectLimit > 0) && (affected.get() >= affectLimit))
@@ -68,7 +69,7 @@ public class FanPB implements IAffectScopeHandler
 			{
 				return false;
 			}
-			if (!GeoEngine.getInstance().canSeeTarget(creature, c))
+			if (!los.canSee(c))
 			{
 				return false;
 			}
@@ -20,7 +20,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
-import org.l2jmobius.gameserver.geoengine.GeoEngine;
+import org.l2jmobius.gameserver.geoengine.LineOfSight;
 import org.l2jmobius.gameserver.handler.AffectObjectHandler;
 import org.l2jmobius.gameserver.handler.IAffectObjectHandler;
 import org.l2jmobius.gameserver.handler.IAffectScopeHandler;
@@ -48,6 +48,7 @@ public class PointBlank implements IAffectScopeHandler
 		
 		// Target checks.
 		final AtomicInteger affected = new AtomicInteger(0);
+		final LineOfSight los = new LineOfSight(target);
 		final Predicate<Creature> filter = c ->
 		{
 			if ((affectLimit > 0) && (affected.get() >= affectLimit))
@@ -65,7 +66,7 @@ public class PointBlank implements IAffectScopeHandler
 					return false;
 				}
 			}
-			if (!GeoEngine.getInstance().canSeeTarget(target, c))
+			if (!los.canSee(c))
 			{
 				return false;
 			}
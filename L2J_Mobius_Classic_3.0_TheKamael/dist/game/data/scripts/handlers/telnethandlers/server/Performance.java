@@ -17,8 +17,22 @@
 package handlers.telnethandlers.server;
 
 import org.l2jmobius.Config;
+import org.l2jmobius.commons.database.DatabaseWriteQueue;
+import org.l2jmobius.commons.network.SharedPacket;
 import org.l2jmobius.commons.threads.ThreadPool;
+import org.l2jmobius.commons.threads.TimingWheel;
+import org.l2jmobius.gameserver.geoengine.LosCache;
+import org.l2jmobius.gameserver.geoengine.geodata.regions.Region;
+import org.l2jmobius.gameserver.geoengine.pathfinding.PathFinding;
+import org.l2jmobius.gameserver.instancemanager.IdManager;
+import org.l2jmobius.gameserver.instancemanager.ItemCommissionManager;
+import org.l2jmobius.gameserver.model.zone.ZoneRegion;
+import org.l2jmobius.gameserver.network.PacketExecutionManager;
 import org.l2jmobius.gameserver.network.telnet.ITelnetCommand;
+import org.l2jmobius.gameserver.taskmanager.AttackableThinkTaskManager;
+import org.l2jmobius.gameserver.taskmanager.EffectTickTaskManager;
+import org.l2jmobius.gameserver.taskmanager.RegenerationTaskManager;
+import org.l2jmobius.log.handler.AsyncFileHandler;
 
 import io.netty.channel.ChannelHandlerContext;
 
@@ -48,6 +62,66 @@ public class Performance implements ITelnetCommand
 		{
 			sb.append(line + Config.EOL);
 		}
+		for (String line : SharedPacket.getStats())
+		{
+			sb.append(line + Config.EOL);
+		}
+		for (String line : PacketExecutionManager.getInstance().getStats())
+		{
+			sb.append(line + Config.EOL);
+		}
+		for (String line : TimingWheel.getStats())
+		{
+			sb.append(line + Config.EOL);
+		}
+		for (String line : AttackableThinkTaskManager.getInstance().getStats())
+		{
+			sb.append(line + Config.EOL);
+		}
+		for (String line : RegenerationTaskManager.getInstance().getStats())
+		{
+			sb.append(line + Config.EOL);
+		}
+		for (String line : EffectTickTaskManager.getInstance().getStats())
+		{
+			sb.append(line + Config.EOL);
+		}
+		for (String line : DatabaseWriteQueue.getInstance().getStats())
+		{
+			sb.append(line + Config.EOL);
+		}
+		for (String line : IdManager.getInstance().getStats())
+		{
+			sb.append(line + Config.EOL);
+		}
+		for (String line : ItemCommissionManager.getInstance().getStats())
+		{
+			sb.append(line + Config.EOL);
+		}
+		for (String line : AsyncFileHandler.getStats())
+		{
+			sb.append(line + Config.EOL);
+		}
+		for (String line : ZoneRegion.getStats())
+		{
+			sb.append(line + Config.EOL);
+		}
+		for (String line : Region.getStats())
+		{
+			sb.append(line + Config.EOL);
+		}
+		for (String line : LosCache.getStats())
+		{
+			sb.append(line + Config.EOL);
+		}
+		final String[] pathFindingStats = PathFinding.getInstance().getStat();
+		if (pathFindingStats != null)
+		{
+			for (String line : pathFindingStats)
+			{
+				sb.append(line + Config.EOL);
+			}
+		}
 		return sb.toString();
 	}
 }
@@ -81,6 +81,7 @@ public class Reload implements ITelnetCommand
 			case "config":
 			{
 				Config.load(ServerMode.GAME);
+				NpcData.getInstance().compileDrops();
 				return AdminData.getInstance().broadcastMessageToGMs("Telnet Admin: Reloaded Configs.");
 			}
 			case "access":
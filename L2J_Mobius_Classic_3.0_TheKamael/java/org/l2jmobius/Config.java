@@ -484,6 +484,8 @@ public class Config
 	public static int INSTANT_THREAD_POOL_COUNT;
 	public static int THREADS_PER_INSTANT_THREAD_POOL;
 	public static int IO_PACKET_THREAD_CORE_SIZE;
+	public static int PACKET_EXECUTION_THREAD_POOL_SIZE;
+	public static int CLIENT_PACKET_QUEUE_SIZE;
 	public static boolean THREADS_FOR_LOADING;
 	public static boolean DEADLOCK_DETECTOR;
 	public static int DEADLOCK_CHECK_INTERVAL;
@@ -506,6 +508,8 @@ public class Config
 	public static boolean CLEAR_DROPPED_ITEM_TABLE;
 	public static boolean ORDER_QUEST_LIST_BY_QUESTID;
 	public static boolean AUTODELETE_INVALID_QUEST_DATA;
+	public static int QUEST_STATE_STORE_INTERVAL;
+	public static int QUEST_STATE_MAX_CHANGED_VARIABLES;
 	public static boolean ENABLE_STORY_QUEST_BUFF_REWARD;
 	public static boolean MULTIPLE_ITEM_DROP;
 	public static boolean LAZY_CACHE;
@@ -793,6 +797,8 @@ public class Config
 	public static String DATABASE_LOGIN;
 	public static String DATABASE_PASSWORD;
 	public static int DATABASE_MAX_CONNECTIONS;
+	public static int DATABASE_WRITE_INTERVAL;
+	public static int DATABASE_WRITE_BATCH_SIZE;
 	public static boolean BACKUP_DATABASE;
 	public static String MYSQL_BIN_PATH;
 	public static String BACKUP_PATH;
@@ -940,6 +946,7 @@ public class Config
 	public static float DIAGONAL_WEIGHT;
 	public static int MAX_POSTFILTER_PASSES;
 	public static boolean DEBUG_PATH;
+	public static int LOS_CACHE_SIZE;
 	
 	/** Attribute System */
 	public static int S_WEAPON_STONE;
@@ -1083,6 +1090,7 @@ public class Config
 	public static boolean OFFLINE_MODE_IN_PEACE_ZONE;
 	public static boolean OFFLINE_MODE_NO_DAMAGE;
 	public static boolean RESTORE_OFFLINERS;
+	public static boolean OFFLINE_LAZY_RESTORE;
 	public static int OFFLINE_MAX_DAYS;
 	public static boolean OFFLINE_DISCONNECT_FINISHED;
 	public static boolean OFFLINE_DISCONNECT_SAME_ACCOUNT;
@@ -1342,6 +1350,8 @@ public class Config
 			DATABASE_LOGIN = serverConfig.getString("Login", "root");
 			DATABASE_PASSWORD = serverConfig.getString("Password", "");
 			DATABASE_MAX_CONNECTIONS = serverConfig.getInt("MaximumDbConnections", 10);
+			DATABASE_WRITE_INTERVAL = serverConfig.getInt("DatabaseWriteInterval", 1000);
+			DATABASE_WRITE_BATCH_SIZE = serverConfig.getInt("DatabaseWriteBatchSize", 1000);
 			BACKUP_DATABASE = serverConfig.getBoolean("BackupDatabase", false);
 			MYSQL_BIN_PATH = serverConfig.getString("MySqlBinLocation", "C:/xampp/mysql/bin/");
 			BACKUP_PATH = serverConfig.getString("BackupPath", "../backup/");
@@ -1419,6 +1429,12 @@ public class Config
 			{
 				IO_PACKET_THREAD_CORE_SIZE = Runtime.getRuntime().availableProcessors();
 			}
+			PACKET_EXECUTION_THREAD_POOL_SIZE = serverConfig.getInt("PacketExecutionThreadPoolSize", -1);
+			if (PACKET_EXECUTION_THREAD_POOL_SIZE == -1)
+			{
+				PACKET_EXECUTION_THREAD_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+			}
+			CLIENT_PACKET_QUEUE_SIZE = serverConfig.getInt("ClientPacketQueueSize", 100);
 			THREADS_FOR_LOADING = serverConfig.getBoolean("ThreadsForLoading", false);
 			DEADLOCK_DETECTOR = serverConfig.getBoolean("DeadLockDetector", true);
 			DEADLOCK_CHECK_INTERVAL = serverConfig.getInt("DeadLockCheckInterval", 20);
@@ -2035,6 +2051,8 @@ public class Config
 			CLEAR_DROPPED_ITEM_TABLE = generalConfig.getBoolean("ClearDroppedItemTable", false);
 			ORDER_QUEST_LIST_BY_QUESTID = generalConfig.getBoolean("OrderQuestListByQuestId", true);
 			AUTODELETE_INVALID_QUEST_DATA = generalConfig.getBoolean("AutoDeleteInvalidQuestData", false);
+			QUEST_STATE_STORE_INTERVAL = generalConfig.getInt("QuestStateStoreInterval", 10000);
+			QUEST_STATE_MAX_CHANGED_VARIABLES = generalConfig.getInt("QuestStateMaxChangedVariables", 16);
 			ENABLE_STORY_QUEST_BUFF_REWARD = generalConfig.getBoolean("StoryQuestRewardBuff", true);
 			MULTIPLE_ITEM_DROP = generalConfig.getBoolean("MultipleItemDrop", true);
 			LAZY_CACHE = generalConfig.getBoolean("LazyCache", true);
@@ -2516,6 +2534,7 @@ public class Config
 			DIAGONAL_WEIGHT = geoEngineConfig.getFloat("DiagonalWeight", 0.707f);
 			MAX_POSTFILTER_PASSES = geoEngineConfig.getInt("MaxPostfilterPasses", 3);
 			DEBUG_PATH = geoEngineConfig.getBoolean("DebugPath", false);
+			LOS_CACHE_SIZE = geoEngineConfig.getInt("LosCacheSize", 65536);
 			
 			// Load AllowedPlayerRaces config file (if exists)
 			final PropertiesParser allowedPlayerRacesConfig = new PropertiesParser(CUSTOM_ALLOWED_PLAYER_RACES_CONFIG_FILE);
@@ -3313,6 +3332,7 @@ public class Config
 			OFFLINE_NAME_COLOR = Integer.decode("0x" + offlineTradeConfig.getString("OfflineNameColor", "808080"));
 			OFFLINE_FAME = offlineTradeConfig.getBoolean("OfflineFame", true);
 			RESTORE_OFFLINERS = offlineTradeConfig.getBoolean("RestoreOffliners", false);
+			OFFLINE_LAZY_RESTORE = offlineTradeConfig.getBoolean("OfflineLazyRestore", true);
 			OFFLINE_MAX_DAYS = offlineTradeConfig.getInt("OfflineMaxDays", 10);
 			OFFLINE_DISCONNECT_FINISHED = offlineTradeConfig.getBoolean("OfflineDisconnectFinished", true);
 			OFFLINE_DISCONNECT_SAME_ACCOUNT = offlineTradeConfig.getBoolean("OfflineDisconnectSameAccount", false);
@@ -3541,6 +3561,18 @@ public class Config
 			DATABASE_LOGIN = loginConfig.getString("Login", "root");
 			DATABASE_PASSWORD = loginConfig.getString("Password", "");
 			DATABASE_MAX_CONNECTIONS = loginConfig.getInt("MaximumDbConnections", 10);
+			SCHEDULED_THREAD_POOL_COUNT = loginConfig.getInt("ScheduledThreadPoolCount", 1);
+			if (SCHEDULED_THREAD_POOL_COUNT == -1)
+			{
+				SCHEDULED_THREAD_POOL_COUNT = Runtime.getRuntime().availableProcessors();
+			}
+			THREADS_PER_SCHEDULED_THREAD_POOL = loginConfig.getInt("ThreadsPerScheduledThreadPool", 2);
+			INSTANT_THREAD_POOL_COUNT = loginConfig.getInt("InstantThreadPoolCount", 1);
+			if (INSTANT_THREAD_POOL_COUNT == -1)
+			{
+				INSTANT_THREAD_POOL_COUNT = Runtime.getRuntime().availableProcessors();
+			}
+			THREADS_PER_INSTANT_THREAD_POOL = loginConfig.getInt("ThreadsPerInstantThreadPool", 4);
 			BACKUP_DATABASE = loginConfig.getBoolean("BackupDatabase", false);
 			MYSQL_BIN_PATH = loginConfig.getString("MySqlBinLocation", "C:/xampp/mysql/bin/");
 			BACKUP_PATH = loginConfig.getString("BackupPath", "../backup/");
@@ -0,0 +1,388 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.commons.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.l2jmobius.Config;
+
+/**
+ * Write-behind queue for database rows that are saved repeatedly, like character data.<br>
+ * Writes are queued as a {@link Batch} for a table and owner, a newer batch for the same table and owner replaces the queued one.<br>
+ * Queued rows are written by a single database thread, grouped by statement with JDBC batches, in the order each statement was first queued.<br>
+ * A flush is one transaction. When it fails it is rolled back and written again with one transaction per owner, so only the owner of a bad row loses its rows.
+ */
+public class DatabaseWriteQueue
+{
+	private static final Logger LOGGER = Logger.getLogger(DatabaseWriteQueue.class.getName());
+	
+	private final ScheduledThreadPoolExecutor _executor = new ScheduledThreadPoolExecutor(1, runnable ->
+	{
+		final Thread thread = new Thread(runnable, "DatabaseWriteQueue");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	private Map<Key, Batch> _pending = new LinkedHashMap<>();
+	private int _pendingRows = 0;
+	private boolean _flushScheduled = false;
+	
+	private final AtomicLong _queuedBatches = new AtomicLong();
+	private final AtomicLong _coalescedBatches = new AtomicLong();
+	private final AtomicLong _writtenRows = new AtomicLong();
+	private final AtomicLong _failedRows = new AtomicLong();
+	private final AtomicLong _flushes = new AtomicLong();
+	private final AtomicLong _flushTime = new AtomicLong();
+	private volatile int _lastFlushRows;
+	private volatile long _lastFlushTime;
+	private volatile long _maxFlushTime;
+	
+	protected DatabaseWriteQueue()
+	{
+		_executor.scheduleWithFixedDelay(this::write, Config.DATABASE_WRITE_INTERVAL, Config.DATABASE_WRITE_INTERVAL, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Queues the rows of a table for an owner, replacing the rows queued before for the same table and owner.
+	 * @param table the table name
+	 * @param ownerId the object id of the owner
+	 * @param batch the rows
+	 */
+	public void queue(String table, int ownerId, Batch batch)
+	{
+		queue(table, ownerId, 0, batch);
+	}
+	
+	/**
+	 * Queues the rows of a table for an owner, replacing the rows queued before for the same table, owner and index.
+	 * @param table the table name
+	 * @param ownerId the object id of the owner
+	 * @param index the index of the rows, when the owner keeps several row sets in the table (for example per class index)
+	 * @param batch the rows
+	 */
+	public void queue(String table, int ownerId, int index, Batch batch)
+	{
+		queue(table, ownerId, Integer.valueOf(index), batch);
+	}
+	
+	/**
+	 * Queues the rows of a table for an owner, replacing the rows queued before for the same table, owner and index.
+	 * @param table the table name
+	 * @param ownerId the object id of the owner
+	 * @param index the index of the rows, compared with {@link Object#equals}, when the owner keeps several row sets in the table (for example a list of key column values)
+	 * @param batch the rows
+	 */
+	public void queue(String table, int ownerId, Object index, Batch batch)
+	{
+		_queuedBatches.incrementAndGet();
+		synchronized (this)
+		{
+			final Batch old = _pending.put(new Key(table, ownerId, index), batch);
+			if (old != null)
+			{
+				_pendingRows -= old.size();
+				_coalescedBatches.incrementAndGet();
+			}
+			_pendingRows += batch.size();
+			
+			if ((_pendingRows >= Config.DATABASE_WRITE_BATCH_SIZE) && !_flushScheduled)
+			{
+				_flushScheduled = true;
+				_executor.execute(this::write);
+			}
+		}
+	}
+	
+	/**
+	 * Writes all queued rows and waits until they are written.
+	 */
+	public void flush()
+	{
+		if (_executor.isShutdown())
+		{
+			write();
+			return;
+		}
+		
+		try
+		{
+			_executor.submit(this::write).get();
+		}
+		catch (Exception e)
+		{
+			LOGGER.log(Level.WARNING, getClass().getSimpleName() + ": Problem waiting for queued rows to be written.", e);
+		}
+	}
+	
+	/**
+	 * Writes all queued rows and stops the database thread.
+	 */
+	public void shutdown()
+	{
+		_executor.shutdown();
+		try
+		{
+			_executor.awaitTermination(1, TimeUnit.MINUTES);
+		}
+		catch (InterruptedException e)
+		{
+			// Ignore.
+		}
+		write();
+	}
+	
+	private void write()
+	{
+		final Map<Key, Batch> pending;
+		synchronized (this)
+		{
+			_flushScheduled = false;
+			if (_pending.isEmpty())
+			{
+				return;
+			}
+			
+			pending = _pending;
+			_pending = new LinkedHashMap<>();
+			_pendingRows = 0;
+		}
+		
+		final long start = System.nanoTime();
+		int rows = 0;
+		try (Connection con = DatabaseFactory.getConnection())
+		{
+			con.setAutoCommit(false);
+			try
+			{
+				// All queued rows in one transaction, grouped by statement.
+				rows = writeBatches(con, pending.values());
+				con.commit();
+			}
+			catch (Exception e)
+			{
+				con.rollback();
+				LOGGER.log(Level.WARNING, getClass().getSimpleName() + ": Could not write queued rows together, writing them owner by owner.", e);
+				
+				// Each owner in its own transaction, so a bad row only loses the rows of its owner and never leaves deleted rows without the rows that replace them.
+				final Map<Integer, List<Batch>> owners = new LinkedHashMap<>();
+				for (Entry<Key, Batch> entry : pending.entrySet())
+				{
+					owners.computeIfAbsent(entry.getKey()._ownerId, k -> new ArrayList<>()).add(entry.getValue());
+				}
+				for (Entry<Integer, List<Batch>> owner : owners.entrySet())
+				{
+					try
+					{
+						rows += writeBatches(con, owner.getValue());
+						con.commit();
+					}
+					catch (Exception ex)
+					{
+						con.rollback();
+						int ownerRows = 0;
+						for (Batch batch : owner.getValue())
+						{
+							ownerRows += batch.size();
+						}
+						_failedRows.addAndGet(ownerRows);
+						LOGGER.log(Level.WARNING, getClass().getSimpleName() + ": Could not write " + ownerRows + " queued rows of owner " + owner.getKey(), ex);
+					}
+				}
+			}
+			finally
+			{
+				con.setAutoCommit(true);
+			}
+		}
+		catch (Exception e)
+		{
+			LOGGER.log(Level.WARNING, getClass().getSimpleName() + ": Could not write queued rows.", e);
+		}
+		
+		final long duration = System.nanoTime() - start;
+		_writtenRows.addAndGet(rows);
+		_flushes.incrementAndGet();
+		_flushTime.addAndGet(duration);
+		_lastFlushRows = rows;
+		_lastFlushTime = duration;
+		if (duration > _maxFlushTime)
+		{
+			_maxFlushTime = duration;
+		}
+	}
+	
+	/**
+	 * Writes batches on a connection, rows are grouped by statement in the order each statement was first queued.
+	 * @param con the connection, committed by the caller
+	 * @param batches the batches to write
+	 * @return the number of written rows
+	 * @throws SQLException if a statement fails
+	 */
+	private int writeBatches(Connection con, Collection<Batch> batches) throws SQLException
+	{
+		final Map<String, List<Object[]>> statements = new LinkedHashMap<>();
+		for (Batch batch : batches)
+		{
+			for (int i = 0; i < batch.size(); i++)
+			{
+				statements.computeIfAbsent(batch._statements.get(i), k -> new ArrayList<>()).add(batch._parameters.get(i));
+			}
+		}
+		
+		int rows = 0;
+		for (Entry<String, List<Object[]>> entry : statements.entrySet())
+		{
+			final List<Object[]> parameters = entry.getValue();
+			try (PreparedStatement statement = con.prepareStatement(entry.getKey()))
+			{
+				int count = 0;
+				for (Object[] values : parameters)
+				{
+					for (int i = 0; i < values.length; i++)
+					{
+						statement.setObject(i + 1, values[i]);
+					}
+					statement.addBatch();
+					
+					if ((++count % Config.DATABASE_WRITE_BATCH_SIZE) == 0)
+					{
+						statement.executeBatch();
+					}
+				}
+				statement.executeBatch();
+			}
+			rows += parameters.size();
+		}
+		return rows;
+	}
+	
+	public String[] getStats()
+	{
+		final int pendingBatches;
+		final int pendingRows;
+		synchronized (this)
+		{
+			pendingBatches = _pending.size();
+			pendingRows = _pendingRows;
+		}
+		
+		final long flushes = Math.max(1, _flushes.get());
+		return new String[]
+		{
+			"Database write queue:",
+			" |- QueuedBatches: .... " + pendingBatches,
+			" |- QueuedRows: ....... " + pendingRows,
+			" |- TotalBatches: ..... " + _queuedBatches.get(),
+			" |- CoalescedBatches: . " + _coalescedBatches.get(),
+			" |- WrittenRows: ...... " + _writtenRows.get(),
+			" |- FailedRows: ....... " + _failedRows.get(),
+			" |- Flushes: .......... " + _flushes.get(),
+			" |- LastFlushRows: .... " + _lastFlushRows,
+			" |- AverageFlushRows: . " + (_writtenRows.get() / flushes),
+			" |- LastFlushTime: .... " + (_lastFlushTime / 1000000) + "ms",
+			" |- AverageFlushTime: . " + (_flushTime.get() / flushes / 1000000) + "ms",
+			" |- MaxFlushTime: ..... " + (_maxFlushTime / 1000000) + "ms",
+			" | -------"
+		};
+	}
+	
+	/**
+	 * Rows written together for a table and owner.<br>
+	 * Parameter values are read when the batch is built, so later changes of the owner are not written by it.
+	 */
+	public static class Batch
+	{
+		private final List<String> _statements = new ArrayList<>();
+		private final List<Object[]> _parameters = new ArrayList<>();
+		
+		/**
+		 * @param statement the SQL statement
+		 * @param parameters the parameter values, in statement order
+		 * @return this batch
+		 */
+		public Batch add(String statement, Object... parameters)
+		{
+			_statements.add(statement);
+			_parameters.add(parameters);
+			return this;
+		}
+		
+		public int size()
+		{
+			return _statements.size();
+		}
+	}
+	
+	private static class Key
+	{
+		private final String _table;
+		private final int _ownerId;
+		private final Object _index;
+		
+		public Key(String table, int ownerId, Object index)
+		{
+			_table = table;
+			_ownerId = ownerId;
+			_index = index;
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			return (31 * ((31 * _table.hashCode()) + _ownerId)) + _index.hashCode();
+		}
+		
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+			{
+				return true;
+			}
+			if (!(obj instanceof Key))
+			{
+				return false;
+			}
+			final Key other = (Key) obj;
+			return (_ownerId == other._ownerId) && Objects.equals(_index, other._index) && Objects.equals(_table, other._table);
+		}
+	}
+	
+	public static DatabaseWriteQueue getInstance()
+	{
+		return SingletonHolder.INSTANCE;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final DatabaseWriteQueue INSTANCE = new DatabaseWriteQueue();
+	}
+}
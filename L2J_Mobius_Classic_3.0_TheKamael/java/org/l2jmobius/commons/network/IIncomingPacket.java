@@ -31,4 +31,14 @@ public interface IIncomingPacket<T>
 	boolean read(T client, PacketReader packet);
 	
 	void run(T client) throws Exception;
+	
+	/**
+	 * Packets that do no blocking work can be executed directly by the network thread that decoded them.<br>
+	 * All other packets are offloaded to the packet execution pool.
+	 * @return {@code true} if this packet can run on the network thread, {@code false} otherwise.
+	 */
+	default boolean canRunInline()
+	{
+		return false;
+	}
 }
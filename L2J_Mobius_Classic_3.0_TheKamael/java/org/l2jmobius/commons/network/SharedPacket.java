@@ -0,0 +1,132 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.commons.network;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+
+/**
+ * An outgoing packet that is serialized only once and shared by every receiver of a broadcast.<br>
+ * The packet is written lazily on first use into a pooled reference-counted buffer and each receiver gets a retained duplicate of it.<br>
+ * Duplicates skip the packet encoder and go straight to the crypt codec, which never modifies the buffer it receives.<br>
+ * <font color=#FF0000><b><u>Caution</u>: Instances are meant to be used by a single thread and must always be released after use.</b></font>
+ */
+public class SharedPacket
+{
+	private static final Logger LOGGER = Logger.getLogger(SharedPacket.class.getName());
+	
+	private static final AtomicLong ENCODED_PACKETS = new AtomicLong();
+	private static final AtomicLong ENCODED_BYTES = new AtomicLong();
+	private static final AtomicLong SHARED_WRITES = new AtomicLong();
+	private static final AtomicLong SHARED_BYTES = new AtomicLong();
+	
+	private final IOutgoingPacket _packet;
+	private final int _maxPacketSize;
+	private ByteBuf _buffer;
+	private boolean _failed;
+	
+	public SharedPacket(IOutgoingPacket packet, int maxPacketSize)
+	{
+		_packet = packet;
+		_maxPacketSize = maxPacketSize;
+	}
+	
+	public IOutgoingPacket getPacket()
+	{
+		return _packet;
+	}
+	
+	/**
+	 * Serializes the packet on first call and returns a retained duplicate of the shared buffer.<br>
+	 * The returned buffer is released by the channel pipeline once it has been written.
+	 * @return the retained duplicate, or {@code null} if the packet could not be written.
+	 */
+	public ByteBuf retainedBuffer()
+	{
+		if (_buffer == null)
+		{
+			if (_failed)
+			{
+				return null;
+			}
+			
+			final ByteBuf buffer = PooledByteBufAllocator.DEFAULT.buffer();
+			try
+			{
+				if (!_packet.write(new PacketWriter(buffer)))
+				{
+					buffer.release();
+					_failed = true;
+					return null;
+				}
+				
+				if (buffer.writerIndex() > _maxPacketSize)
+				{
+					throw new IllegalStateException("Packet (" + _packet + ") size (" + buffer.writerIndex() + ") is bigger than the expected client limit (" + _maxPacketSize + ")");
+				}
+			}
+			catch (Throwable e)
+			{
+				LOGGER.log(Level.WARNING, "Failed sending Packet(" + _packet + ")", e);
+				buffer.release();
+				_failed = true;
+				return null;
+			}
+			
+			_buffer = buffer;
+			ENCODED_PACKETS.incrementAndGet();
+			ENCODED_BYTES.addAndGet(buffer.readableBytes());
+		}
+		
+		SHARED_WRITES.incrementAndGet();
+		SHARED_BYTES.addAndGet(_buffer.readableBytes());
+		return _buffer.retainedDuplicate();
+	}
+	
+	/**
+	 * Releases the reference held by this object. Duplicates still pending in channel pipelines keep the buffer alive until written.
+	 */
+	public void release()
+	{
+		if (_buffer != null)
+		{
+			_buffer.release();
+			_buffer = null;
+		}
+		_failed = true;
+	}
+	
+	public static String[] getStats()
+	{
+		final long encoded = ENCODED_PACKETS.get();
+		final long writes = SHARED_WRITES.get();
+		return new String[]
+		{
+			"Shared packets:",
+			" |- EncodedPackets: ..... " + encoded,
+			" |- EncodedBytes: ....... " + ENCODED_BYTES.get(),
+			" |- SharedWrites: ....... " + writes,
+			" |- SharedBytes: ........ " + SHARED_BYTES.get(),
+			" |- WritesPerEncode: .... " + (encoded == 0 ? 0 : (writes / encoded)),
+			" | -------"
+		};
+	}
+}
@@ -50,10 +50,11 @@ public class CryptCodec extends ByteToMessageCodec<ByteBuf>
 			return;
 		}
 		
-		msg.resetReaderIndex();
-		_crypt.encrypt(msg);
+		// Encrypt the copy instead of the message, so shared broadcast buffers are never modified.
 		msg.resetReaderIndex();
 		out.writeBytes(msg);
+		_crypt.encrypt(out);
+		out.resetReaderIndex();
 	}
 	
 	/*
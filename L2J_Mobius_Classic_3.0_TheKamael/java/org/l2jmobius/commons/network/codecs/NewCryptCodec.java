@@ -0,0 +1,74 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.commons.network.codecs;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.l2jmobius.commons.network.BaseSendablePacket;
+import org.l2jmobius.commons.util.crypt.NewCrypt;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageCodec;
+
+/**
+ * Blowfish and checksum codec of the Login Server <-> Game Server link.<br>
+ * Decodes each frame into the decrypted packet bytes and encodes {@link BaseSendablePacket} content.<br>
+ * The key is changed during the handshake, so {@link #setCrypt(NewCrypt)} must be called from the event loop of the channel to keep the order with the written packets.
+ */
+public class NewCryptCodec extends ByteToMessageCodec<BaseSendablePacket>
+{
+	private static final Logger LOGGER = Logger.getLogger(NewCryptCodec.class.getName());
+	
+	/** The key used until the handshake sends a new one. */
+	public static final String DEFAULT_KEY = "_;v.]05-31!|+-%xT!^[$\00";
+	
+	private volatile NewCrypt _crypt = new NewCrypt(DEFAULT_KEY);
+	
+	/**
+	 * @param crypt the blowfish engine used for the next packets, in both directions
+	 */
+	public void setCrypt(NewCrypt crypt)
+	{
+		_crypt = crypt;
+	}
+	
+	@Override
+	protected void encode(ChannelHandlerContext ctx, BaseSendablePacket packet, ByteBuf out) throws Exception
+	{
+		final byte[] data = packet.getContent();
+		NewCrypt.appendChecksum(data);
+		_crypt.crypt(data, 0, data.length);
+		out.writeBytes(data);
+	}
+	
+	@Override
+	protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out)
+	{
+		final byte[] data = new byte[in.readableBytes()];
+		in.readBytes(data);
+		_crypt.decrypt(data, 0, data.length);
+		if (!NewCrypt.verifyChecksum(data))
+		{
+			LOGGER.warning(getClass().getSimpleName() + ": Incorrect packet checksum from " + ctx.channel().remoteAddress() + ", closing connection.");
+			ctx.close();
+			return;
+		}
+		out.add(data);
+	}
+}
@@ -38,11 +38,23 @@ public class PacketDecoder<T>extends ByteToMessageDecoder
 	
 	private final IIncomingPackets<T>[] _incomingPackets;
 	private final T _client;
+	private final boolean _checkStateOnRun;
 	
 	public PacketDecoder(IIncomingPackets<T>[] incomingPackets, T client)
+	{
+		this(incomingPackets, client, false);
+	}
+	
+	/**
+	 * @param incomingPackets the incoming packets, by id
+	 * @param client the client
+	 * @param checkStateOnRun {@code true} when packets do not run in the decoding thread, so the connection state is checked when the packet runs and not when it is read, {@code false} otherwise.
+	 */
+	public PacketDecoder(IIncomingPackets<T>[] incomingPackets, T client, boolean checkStateOnRun)
 	{
 		_incomingPackets = incomingPackets;
 		_client = client;
+		_checkStateOnRun = checkStateOnRun;
 	}
 	
 	@Override
@@ -69,6 +81,17 @@ public class PacketDecoder<T>extends ByteToMessageDecoder
 				return;
 			}
 			
+			if (_checkStateOnRun)
+			{
+				// Packets queued before this one can still change the connection state.
+				final IIncomingPacket<T> packet = incomingPacket.newIncomingPacket();
+				if ((packet != null) && packet.read(_client, new PacketReader(in)))
+				{
+					out.add(new StateCheckedPacket<>(incomingPacket, packet, ctx.channel()));
+				}
+				return;
+			}
+			
 			final IConnectionState connectionState = ctx.channel().attr(IConnectionState.ATTRIBUTE_KEY).get();
 			if ((connectionState == null) || !incomingPacket.getConnectionStates().contains(connectionState))
 			{
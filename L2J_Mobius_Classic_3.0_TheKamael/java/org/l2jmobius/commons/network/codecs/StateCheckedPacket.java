@@ -0,0 +1,70 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.commons.network.codecs;
+
+import org.l2jmobius.commons.network.IConnectionState;
+import org.l2jmobius.commons.network.IIncomingPacket;
+import org.l2jmobius.commons.network.IIncomingPackets;
+import org.l2jmobius.commons.network.PacketReader;
+
+import io.netty.channel.Channel;
+
+/**
+ * A read packet that checks the connection state of its channel when it runs, instead of when it is read.
+ * @param <T>
+ */
+public class StateCheckedPacket<T> implements IIncomingPacket<T>
+{
+	private final IIncomingPackets<T> _incomingPackets;
+	private final IIncomingPacket<T> _packet;
+	private final Channel _channel;
+	
+	public StateCheckedPacket(IIncomingPackets<T> incomingPackets, IIncomingPacket<T> packet, Channel channel)
+	{
+		_incomingPackets = incomingPackets;
+		_packet = packet;
+		_channel = channel;
+	}
+	
+	@Override
+	public boolean read(T client, PacketReader packet)
+	{
+		return _packet.read(client, packet);
+	}
+	
+	@Override
+	public void run(T client) throws Exception
+	{
+		final IConnectionState connectionState = _channel.attr(IConnectionState.ATTRIBUTE_KEY).get();
+		if ((connectionState == null) || !_incomingPackets.getConnectionStates().contains(connectionState))
+		{
+			return;
+		}
+		_packet.run(client);
+	}
+	
+	@Override
+	public boolean canRunInline()
+	{
+		return _packet.canRunInline();
+	}
+	
+	public IIncomingPacket<T> getPacket()
+	{
+		return _packet;
+	}
+}
@@ -0,0 +1,374 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.commons.threads;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hierarchical timing wheel that fires a single action for keys whose deadline has passed.<br>
+ * Deadlines are kept in {@value #LEVELS} levels of {@value #WHEEL_SIZE} slots, each level covering {@value #WHEEL_SIZE} times the span of the one below.<br>
+ * On every tick only the slot that is due is visited; entries of higher levels are moved down when their slot is reached.<br>
+ * Scheduling, rescheduling and cancelling are constant time.<br>
+ * An entry fires on the first tick after its deadline, like the former "time > deadline" scans of the task managers.
+ * @param <T> the type of scheduled keys
+ */
+public class TimingWheel<T>
+{
+	private static final Logger LOGGER = Logger.getLogger(TimingWheel.class.getName());
+	
+	private static final List<TimingWheel<?>> WHEELS = new CopyOnWriteArrayList<>();
+	
+	private static final int WHEEL_BITS = 6;
+	private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+	private static final int LEVELS = 5;
+	private static final long MAX_TICKS = (1L << (WHEEL_BITS * LEVELS)) - 1;
+	
+	private final String _name;
+	private final long _tickDuration;
+	private final Consumer<T> _action;
+	private final Map<T, Node<T>> _nodes = new ConcurrentHashMap<>();
+	private final Node<?>[] _slots = new Node<?>[LEVELS * WHEEL_SIZE];
+	private long _nextTick;
+	
+	private volatile int _lastFired;
+	private volatile long _lastDuration;
+	private volatile long _maxDuration;
+	private final AtomicLong _totalFired = new AtomicLong();
+	private final AtomicLong _totalTicks = new AtomicLong();
+	
+	/**
+	 * Creates a timing wheel and schedules its ticks on the {@link ThreadPool}.
+	 * @param name the name reported in statistics
+	 * @param tickDuration the duration of a tick in milliseconds
+	 * @param action the action executed for each key when its deadline passes
+	 */
+	public TimingWheel(String name, long tickDuration, Consumer<T> action)
+	{
+		_name = name;
+		_tickDuration = tickDuration;
+		_action = action;
+		_nextTick = System.currentTimeMillis() / tickDuration;
+		WHEELS.add(this);
+		ThreadPool.scheduleAtFixedRate(this::tick, tickDuration, tickDuration);
+	}
+	
+	/**
+	 * Schedules a key, replacing its previous deadline if it was already scheduled.
+	 * @param key the key
+	 * @param time the deadline in milliseconds
+	 */
+	public void schedule(T key, long time)
+	{
+		final Node<T> node = new Node<>(key, time, (time / _tickDuration) + 1);
+		synchronized (this)
+		{
+			final Node<T> old = _nodes.put(key, node);
+			if (old != null)
+			{
+				unlink(old);
+			}
+			insert(node);
+		}
+	}
+	
+	/**
+	 * Changes the deadline of a key only if it is currently scheduled.
+	 * @param key the key
+	 * @param time the new deadline in milliseconds
+	 * @return {@code true} if the key was scheduled, {@code false} otherwise
+	 */
+	public boolean reschedule(T key, long time)
+	{
+		final Node<T> node = new Node<>(key, time, (time / _tickDuration) + 1);
+		synchronized (this)
+		{
+			final Node<T> old = _nodes.get(key);
+			if (old == null)
+			{
+				return false;
+			}
+			
+			_nodes.put(key, node);
+			unlink(old);
+			insert(node);
+		}
+		return true;
+	}
+	
+	/**
+	 * @param key the key
+	 * @return {@code true} if the key was scheduled, {@code false} otherwise
+	 */
+	public boolean cancel(T key)
+	{
+		synchronized (this)
+		{
+			final Node<T> node = _nodes.remove(key);
+			if (node == null)
+			{
+				return false;
+			}
+			
+			unlink(node);
+		}
+		return true;
+	}
+	
+	public boolean contains(T key)
+	{
+		return _nodes.containsKey(key);
+	}
+	
+	/**
+	 * @param key the key
+	 * @return the deadline of the key in milliseconds, or -1 if it is not scheduled
+	 */
+	public long getTime(T key)
+	{
+		final Node<T> node = _nodes.get(key);
+		return node != null ? node._time : -1;
+	}
+	
+	public void forEach(ObjLongConsumer<T> consumer)
+	{
+		for (Entry<T, Node<T>> entry : _nodes.entrySet())
+		{
+			consumer.accept(entry.getKey(), entry.getValue()._time);
+		}
+	}
+	
+	public int size()
+	{
+		return _nodes.size();
+	}
+	
+	private void tick()
+	{
+		final long start = System.nanoTime();
+		final long currentTick = System.currentTimeMillis() / _tickDuration;
+		
+		// Detach the due entries while locked, run them afterwards so actions can schedule again.
+		Node<T> due = null;
+		synchronized (this)
+		{
+			while (_nextTick <= currentTick)
+			{
+				final int index = (int) (_nextTick & WHEEL_MASK);
+				if (index == 0)
+				{
+					int level = 1;
+					while ((level < LEVELS) && (cascade(level) == 0))
+					{
+						level++;
+					}
+				}
+				
+				Node<T> node = detach(index);
+				while (node != null)
+				{
+					final Node<T> next = node._next;
+					if (node._tick <= _nextTick)
+					{
+						_nodes.remove(node._key, node);
+						node._next = due;
+						due = node;
+					}
+					else
+					{
+						insert(node);
+					}
+					node = next;
+				}
+				_nextTick++;
+			}
+		}
+		
+		int fired = 0;
+		while (due != null)
+		{
+			try
+			{
+				_action.accept(due._key);
+			}
+			catch (Exception e)
+			{
+				LOGGER.log(Level.WARNING, "TimingWheel " + _name + ": Problem running action for " + due._key, e);
+			}
+			due = due._next;
+			fired++;
+		}
+		
+		final long duration = System.nanoTime() - start;
+		_lastFired = fired;
+		_lastDuration = duration;
+		if (duration > _maxDuration)
+		{
+			_maxDuration = duration;
+		}
+		_totalFired.addAndGet(fired);
+		_totalTicks.incrementAndGet();
+	}
+	
+	/**
+	 * Moves all entries of the current slot of a level to the lower levels.
+	 * @param level the level
+	 * @return the slot index that was cascaded
+	 */
+	private int cascade(int level)
+	{
+		final int index = (int) ((_nextTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+		Node<T> node = detach((level * WHEEL_SIZE) + index);
+		while (node != null)
+		{
+			final Node<T> next = node._next;
+			insert(node);
+			node = next;
+		}
+		return index;
+	}
+	
+	private void insert(Node<T> node)
+	{
+		long ticks = node._tick - _nextTick;
+		long tick = node._tick;
+		if (ticks < 0)
+		{
+			// Already expired, run on next tick.
+			ticks = 0;
+			tick = _nextTick;
+		}
+		else if (ticks > MAX_TICKS)
+		{
+			// Beyond the wheel span, park on the last slot and place it again when cascaded.
+			ticks = MAX_TICKS;
+			tick = _nextTick + MAX_TICKS;
+		}
+		
+		int level = 0;
+		while ((level < (LEVELS - 1)) && (ticks >= (1L << (WHEEL_BITS * (level + 1)))))
+		{
+			level++;
+		}
+		
+		final int slot = (level * WHEEL_SIZE) + (int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+		final Node<T> head = getSlot(slot);
+		node._slot = slot;
+		node._prev = null;
+		node._next = head;
+		if (head != null)
+		{
+			head._prev = node;
+		}
+		_slots[slot] = node;
+	}
+	
+	private void unlink(Node<T> node)
+	{
+		if (node._slot < 0)
+		{
+			return;
+		}
+		
+		if (node._prev != null)
+		{
+			node._prev._next = node._next;
+		}
+		else
+		{
+			_slots[node._slot] = node._next;
+		}
+		
+		if (node._next != null)
+		{
+			node._next._prev = node._prev;
+		}
+		
+		node._slot = -1;
+		node._prev = null;
+		node._next = null;
+	}
+	
+	private Node<T> detach(int slot)
+	{
+		final Node<T> head = getSlot(slot);
+		_slots[slot] = null;
+		Node<T> node = head;
+		while (node != null)
+		{
+			node._slot = -1;
+			node._prev = null;
+			node = node._next;
+		}
+		return head;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private Node<T> getSlot(int slot)
+	{
+		return (Node<T>) _slots[slot];
+	}
+	
+	public String getName()
+	{
+		return _name;
+	}
+	
+	public static String[] getStats()
+	{
+		final List<String> stats = new ArrayList<>();
+		for (TimingWheel<?> wheel : WHEELS)
+		{
+			final long ticks = Math.max(1, wheel._totalTicks.get());
+			stats.add("Timing wheel " + wheel._name + ":");
+			stats.add(" |- Scheduled: ........ " + wheel.size());
+			stats.add(" |- LastTickFired: .... " + wheel._lastFired);
+			stats.add(" |- LastTickTime: ..... " + (wheel._lastDuration / 1000) + "us");
+			stats.add(" |- MaxTickTime: ...... " + (wheel._maxDuration / 1000) + "us");
+			stats.add(" |- AverageFired: ..... " + (wheel._totalFired.get() / ticks));
+			stats.add(" | -------");
+		}
+		return stats.toArray(new String[stats.size()]);
+	}
+	
+	private static class Node<T>
+	{
+		final T _key;
+		final long _time;
+		final long _tick;
+		int _slot = -1;
+		Node<T> _prev;
+		Node<T> _next;
+		
+		Node(T key, long time, long tick)
+		{
+			_key = key;
+			_time = time;
+			_tick = tick;
+		}
+	}
+}
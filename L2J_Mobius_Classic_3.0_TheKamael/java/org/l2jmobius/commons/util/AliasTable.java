@@ -0,0 +1,115 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.commons.util;
+
+/**
+ * Walker's alias method, built with Vose's algorithm.<br>
+ * Picks one of N weighted outcomes in constant time with two random values, whatever the number of outcomes.
+ */
+public class AliasTable
+{
+	private final double[] _probabilities;
+	private final int[] _aliases;
+	
+	/**
+	 * @param weights the weights of the outcomes, negative weights count as zero and at least one weight must be positive
+	 */
+	public AliasTable(double[] weights)
+	{
+		final int size = weights.length;
+		double total = 0;
+		for (double weight : weights)
+		{
+			if (weight > 0)
+			{
+				total += weight;
+			}
+		}
+		if (!(total > 0))
+		{
+			throw new IllegalArgumentException("AliasTable: No positive weight.");
+		}
+		
+		_probabilities = new double[size];
+		_aliases = new int[size];
+		
+		// Weights scaled so their average is 1, then split in two work lists.
+		final double[] scaled = new double[size];
+		final int[] small = new int[size];
+		final int[] large = new int[size];
+		int smallCount = 0;
+		int largeCount = 0;
+		for (int i = 0; i < size; i++)
+		{
+			scaled[i] = weights[i] > 0 ? (weights[i] * size) / total : 0;
+			if (scaled[i] < 1)
+			{
+				small[smallCount++] = i;
+			}
+			else
+			{
+				large[largeCount++] = i;
+			}
+		}
+		
+		// Each small column is topped up by a large one, which goes back to the small list when it falls under 1.
+		while ((smallCount > 0) && (largeCount > 0))
+		{
+			final int less = small[--smallCount];
+			final int more = large[--largeCount];
+			_probabilities[less] = scaled[less];
+			_aliases[less] = more;
+			scaled[more] = (scaled[more] + scaled[less]) - 1;
+			if (scaled[more] < 1)
+			{
+				small[smallCount++] = more;
+			}
+			else
+			{
+				large[largeCount++] = more;
+			}
+		}
+		
+		// What is left is 1 give or take rounding errors.
+		while (largeCount > 0)
+		{
+			final int column = large[--largeCount];
+			_probabilities[column] = 1;
+			_aliases[column] = column;
+		}
+		while (smallCount > 0)
+		{
+			final int column = small[--smallCount];
+			_probabilities[column] = 1;
+			_aliases[column] = column;
+		}
+	}
+	
+	/**
+	 * @return the index of a random outcome, each outcome comes with the probability of its weight
+	 */
+	public int next()
+	{
+		final int column = Rnd.get(_probabilities.length);
+		return Rnd.nextDouble() < _probabilities[column] ? column : _aliases[column];
+	}
+	
+	public int size()
+	{
+		return _probabilities.length;
+	}
+}
@@ -0,0 +1,289 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.commons.util;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free bitmap of the used ids from 0 to a given size.<br>
+ * Used ids are kept in lazily created pages of 64 bit words. Each thread leases a whole word by CAS and hands out its free bits locally, so shared state is only touched once every 64 ids.<br>
+ * A released id clears its bit and is handed out again when the lease cursor wraps around to its word.<br>
+ * The ids a thread leased but did not hand out are cleared again when it releases its lease, or by the next thread that starts leasing once it has died.
+ */
+public class IdBitmap
+{
+	private static final int PAGE_SHIFT = 10;
+	private static final int PAGE_WORDS = 1 << PAGE_SHIFT;
+	
+	private final int _size;
+	private final int _words;
+	private final AtomicReferenceArray<AtomicLongArray> _pages;
+	private final AtomicInteger _nextWord = new AtomicInteger();
+	private final LongAdder _usedCount = new LongAdder();
+	private final LongAdder _leasedWords = new LongAdder();
+	private final LongAdder _leaseRetries = new LongAdder();
+	private final LongAdder _abandonedLeases = new LongAdder();
+	private final Set<Lease> _leases = ConcurrentHashMap.newKeySet();
+	private final ThreadLocal<Lease> _lease = ThreadLocal.withInitial(this::createLease);
+	
+	/**
+	 * @param size the number of ids
+	 */
+	public IdBitmap(int size)
+	{
+		_size = size;
+		_words = (int) ((size + 63L) >>> 6);
+		_pages = new AtomicReferenceArray<>((_words + PAGE_WORDS - 1) >>> PAGE_SHIFT);
+	}
+	
+	/**
+	 * @return a free id, now used, or -1 if there are none left
+	 */
+	public int next()
+	{
+		final Lease lease = _lease.get();
+		if ((lease._ids == 0) && !lease(lease))
+		{
+			return -1;
+		}
+		
+		final long bit = Long.lowestOneBit(lease._ids);
+		lease._ids &= ~bit;
+		_usedCount.increment();
+		return (lease._word << 6) + Long.numberOfTrailingZeros(bit);
+	}
+	
+	/**
+	 * Gives back the ids the current thread leased and did not hand out yet.<br>
+	 * Threads that stop taking ids for good may call it, the leases of dead threads are given back anyway.
+	 */
+	public void releaseLease()
+	{
+		final Lease lease = _lease.get();
+		clear(lease._word, lease._ids);
+		lease._ids = 0;
+	}
+	
+	/**
+	 * Leases the free ids of the next word that has any, moving forward from the last leased word like a "next clear bit" search.
+	 * @param lease the lease of the current thread
+	 * @return {@code true} if a word was leased
+	 */
+	private boolean lease(Lease lease)
+	{
+		for (int i = 0; i < _words; i++)
+		{
+			final int wordIndex = Math.floorMod(_nextWord.getAndIncrement(), _words);
+			final AtomicLongArray page = getPage(wordIndex);
+			final int index = wordIndex & (PAGE_WORDS - 1);
+			long word;
+			while ((word = page.get(index)) != -1L)
+			{
+				if (page.compareAndSet(index, word, -1L))
+				{
+					_leasedWords.increment();
+					lease._word = wordIndex;
+					lease._ids = ~word;
+					return true;
+				}
+				_leaseRetries.increment();
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Registers the lease of a thread that starts taking ids, after giving back the leases of the threads that died.
+	 * @return the lease of the current thread
+	 */
+	private Lease createLease()
+	{
+		for (Lease lease : _leases)
+		{
+			// The end of a thread happens-before isAlive returns false, so its last lease is seen here.
+			if (!lease._owner.isAlive() && _leases.remove(lease))
+			{
+				clear(lease._word, lease._ids);
+				_abandonedLeases.increment();
+			}
+		}
+		
+		final Lease lease = new Lease(Thread.currentThread());
+		_leases.add(lease);
+		return lease;
+	}
+	
+	/**
+	 * Clears leased ids that were not handed out.
+	 * @param wordIndex the index of the word
+	 * @param ids the mask of the ids
+	 */
+	private void clear(int wordIndex, long ids)
+	{
+		if (ids == 0)
+		{
+			return;
+		}
+		
+		final AtomicLongArray page = getPage(wordIndex);
+		final int index = wordIndex & (PAGE_WORDS - 1);
+		long word;
+		do
+		{
+			word = page.get(index);
+		}
+		while (!page.compareAndSet(index, word, word & ~ids));
+	}
+	
+	/**
+	 * @param id the id
+	 * @return {@code true} if the id was free
+	 */
+	public boolean setUsed(int id)
+	{
+		final AtomicLongArray page = getPage(id >>> 6);
+		final int index = (id >>> 6) & (PAGE_WORDS - 1);
+		final long bit = 1L << id;
+		long word;
+		do
+		{
+			word = page.get(index);
+			if ((word & bit) != 0)
+			{
+				return false;
+			}
+		}
+		while (!page.compareAndSet(index, word, word | bit));
+		_usedCount.increment();
+		return true;
+	}
+	
+	/**
+	 * @param id the id
+	 * @return {@code true} if the id was used
+	 */
+	public boolean release(int id)
+	{
+		final AtomicLongArray page = getPage(id >>> 6);
+		final int index = (id >>> 6) & (PAGE_WORDS - 1);
+		final long bit = 1L << id;
+		long word;
+		do
+		{
+			word = page.get(index);
+			if ((word & bit) == 0)
+			{
+				return false;
+			}
+		}
+		while (!page.compareAndSet(index, word, word & ~bit));
+		_usedCount.decrement();
+		return true;
+	}
+	
+	private AtomicLongArray getPage(int wordIndex)
+	{
+		final int pageIndex = wordIndex >>> PAGE_SHIFT;
+		AtomicLongArray page = _pages.get(pageIndex);
+		if (page == null)
+		{
+			page = new AtomicLongArray(PAGE_WORDS);
+			if (pageIndex == (_pages.length() - 1))
+			{
+				// Ids after the last one are never free.
+				for (int index = ((_words - 1) & (PAGE_WORDS - 1)) + 1; index < PAGE_WORDS; index++)
+				{
+					page.set(index, -1L);
+				}
+				final int lastBits = _size & 63;
+				if (lastBits != 0)
+				{
+					page.set((_words - 1) & (PAGE_WORDS - 1), -1L << lastBits);
+				}
+			}
+			if (!_pages.compareAndSet(pageIndex, null, page))
+			{
+				page = _pages.get(pageIndex);
+			}
+		}
+		return page;
+	}
+	
+	public long getUsedCount()
+	{
+		return _usedCount.sum();
+	}
+	
+	public long getFreeCount()
+	{
+		return _size - _usedCount.sum();
+	}
+	
+	public int getPageCount()
+	{
+		int pages = 0;
+		for (int i = 0; i < _pages.length(); i++)
+		{
+			if (_pages.get(i) != null)
+			{
+				pages++;
+			}
+		}
+		return pages;
+	}
+	
+	public int getPageSize()
+	{
+		return PAGE_WORDS * 8;
+	}
+	
+	public long getLeasedWords()
+	{
+		return _leasedWords.sum();
+	}
+	
+	public long getLeaseRetries()
+	{
+		return _leaseRetries.sum();
+	}
+	
+	public long getAbandonedLeases()
+	{
+		return _abandonedLeases.sum();
+	}
+	
+	/**
+	 * Ids leased by a thread: the word index and the mask of ids not handed out yet.<br>
+	 * Leased ids are marked as used in the bitmap.
+	 */
+	private static class Lease
+	{
+		protected final Thread _owner;
+		protected int _word;
+		protected long _ids;
+		
+		protected Lease(Thread owner)
+		{
+			_owner = owner;
+		}
+	}
+}
@@ -16,14 +16,8 @@
  */
 package org.l2jmobius.gameserver;
 
-import java.io.BufferedOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.math.BigInteger;
-import java.net.Socket;
-import java.net.SocketException;
-import java.net.UnknownHostException;
+import java.net.InetSocketAddress;
 import java.security.GeneralSecurityException;
 import java.security.KeyFactory;
 import java.security.interfaces.RSAPublicKey;
@@ -33,24 +27,31 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.l2jmobius.Config;
 import org.l2jmobius.commons.database.DatabaseFactory;
 import org.l2jmobius.commons.network.BaseSendablePacket;
+import org.l2jmobius.commons.network.codecs.NewCryptCodec;
+import org.l2jmobius.commons.threads.ThreadPool;
 import org.l2jmobius.commons.util.CommonUtil;
 import org.l2jmobius.commons.util.crypt.NewCrypt;
 import org.l2jmobius.gameserver.model.World;
 import org.l2jmobius.gameserver.model.actor.Player;
 import org.l2jmobius.gameserver.network.ConnectionState;
 import org.l2jmobius.gameserver.network.Disconnection;
+import org.l2jmobius.gameserver.network.EventLoopGroupManager;
 import org.l2jmobius.gameserver.network.GameClient;
+import org.l2jmobius.gameserver.network.LoginServerInitializer;
 import org.l2jmobius.gameserver.network.SystemMessageId;
 import org.l2jmobius.gameserver.network.loginserverpackets.game.AuthRequest;
 import org.l2jmobius.gameserver.network.loginserverpackets.game.BlowFishKey;
@@ -75,7 +76,20 @@ import org.l2jmobius.gameserver.network.serverpackets.CharSelectionInfo;
 import org.l2jmobius.gameserver.network.serverpackets.LoginFail;
 import org.l2jmobius.gameserver.network.serverpackets.SystemMessage;
 
-public class LoginServerThread extends Thread
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+/**
+ * The connection to the login server, handled on the network event loops.<br>
+ * Player authentication requests are sent without waiting for the previous answers, the answers of an account are matched in request order.
+ */
+@Sharable
+public class LoginServerThread extends SimpleChannelInboundHandler<byte[]>
 {
 	protected static final Logger LOGGER = Logger.getLogger(LoginServerThread.class.getName());
 	protected static final Logger ACCOUNTING_LOGGER = Logger.getLogger("accounting");
@@ -87,24 +101,26 @@ public class LoginServerThread extends Thread
 	private final String _hostname;
 	private final int _port;
 	private final int _gamePort;
-	private Socket _loginSocket;
-	private OutputStream _out;
+	private volatile Channel _channel;
+	private volatile boolean _registered;
+	private volatile boolean _shutdown;
 	
 	/**
-	 * The BlowFish engine used to encrypt packets<br>
+	 * The codec used to encrypt packets<br>
 	 * It is first initialized with a unified key:<br>
 	 * "_;v.]05-31!|+-%xT!^[$\00"<br>
 	 * and then after handshake, with a new key sent by<br>
 	 * login server during the handshake. This new key is stored<br>
 	 * in blowfishKey
 	 */
-	private NewCrypt _blowfish;
+	private NewCryptCodec _cryptCodec;
+	private byte[] _blowfishKey;
 	private byte[] _hexID;
 	private final boolean _acceptAlternate;
 	private int _requestID;
 	private final boolean _reserveHost;
 	private int _maxPlayer;
-	private final Set<WaitingClient> _waitingClients = ConcurrentHashMap.newKeySet();
+	private final Map<String, Queue<WaitingClient>> _waitingClients = new HashMap<>();
 	private final Map<String, GameClient> _accountsInGameServer = new ConcurrentHashMap<>();
 	private int _status;
 	private String _serverName;
@@ -116,7 +132,6 @@ public class LoginServerThread extends Thread
 	 */
 	protected LoginServerThread()
 	{
-		super("LoginServerThread");
 		_port = Config.GAME_SERVER_LOGIN_PORT;
 		_gamePort = Config.PORT_GAME;
 		_hostname = Config.GAME_SERVER_LOGIN_HOST;
@@ -146,250 +161,260 @@ public class LoginServerThread extends Thread
 		return SingletonHolder.INSTANCE;
 	}
 	
-	@Override
-	public void run()
+	/**
+	 * Connects to the login server, the connection is restored until {@link #shutdown()} is called.
+	 */
+	public void start()
+	{
+		connect();
+	}
+	
+	/**
+	 * Closes the connection to the login server.
+	 */
+	public void shutdown()
 	{
-		while (!isInterrupted())
+		_shutdown = true;
+		final Channel channel = _channel;
+		if (channel != null)
 		{
-			int lengthHi = 0;
-			int lengthLo = 0;
-			int length = 0;
-			boolean checksumOk = false;
-			try
+			channel.close();
+		}
+	}
+	
+	private void connect()
+	{
+		if (_shutdown)
+		{
+			return;
+		}
+		
+		LOGGER.info(getClass().getSimpleName() + ": Connecting to login on " + _hostname + ":" + _port);
+		
+		// The channel is connected without a Bootstrap, which needs the netty resolver library.
+		final NioSocketChannel channel = new NioSocketChannel();
+		channel.config().setAllocator(PooledByteBufAllocator.DEFAULT);
+		channel.config().setTcpNoDelay(true);
+		channel.pipeline().addLast(new LoginServerInitializer());
+		EventLoopGroupManager.getInstance().getWorkerGroup().register(channel).addListener((ChannelFutureListener) registration ->
+		{
+			if (!registration.isSuccess())
 			{
-				// Connection
-				LOGGER.info(getClass().getSimpleName() + ": Connecting to login on " + _hostname + ":" + _port);
-				_loginSocket = new Socket(_hostname, _port);
-				final InputStream in = _loginSocket.getInputStream();
-				_out = new BufferedOutputStream(_loginSocket.getOutputStream());
-				
-				// init Blowfish
-				final byte[] blowfishKey = CommonUtil.generateHex(40);
-				_blowfish = new NewCrypt("_;v.]05-31!|+-%xT!^[$\00");
-				while (!isInterrupted())
+				LOGGER.warning(getClass().getSimpleName() + ": Could not register the login connection: " + registration.cause().getMessage());
+				return;
+			}
+			
+			channel.connect(new InetSocketAddress(_hostname, _port)).addListener((ChannelFutureListener) connection ->
+			{
+				if (!connection.isSuccess())
 				{
-					lengthLo = in.read();
-					lengthHi = in.read();
-					length = (lengthHi * 256) + lengthLo;
-					if (lengthHi < 0)
-					{
-						LOGGER.finer(getClass().getSimpleName() + ": Login terminated the connection.");
-						break;
-					}
-					
-					final byte[] incoming = new byte[length - 2];
-					int receivedBytes = 0;
-					int newBytes = 0;
-					int left = length - 2;
-					while ((newBytes != -1) && (receivedBytes < (length - 2)))
-					{
-						newBytes = in.read(incoming, receivedBytes, left);
-						receivedBytes += newBytes;
-						left -= newBytes;
-					}
-					
-					if (receivedBytes != (length - 2))
-					{
-						LOGGER.warning(getClass().getSimpleName() + ": Incomplete Packet is sent to the server, closing connection.(LS)");
-						break;
-					}
-					
-					// decrypt if we have a key
-					_blowfish.decrypt(incoming, 0, incoming.length);
-					checksumOk = NewCrypt.verifyChecksum(incoming);
-					if (!checksumOk)
-					{
-						LOGGER.warning(getClass().getSimpleName() + ": Incorrect packet checksum, ignoring packet (LS)");
-						break;
-					}
-					
-					final int packetType = incoming[0] & 0xff;
-					switch (packetType)
-					{
-						case 0x00:
-						{
-							final InitLS init = new InitLS(incoming);
-							if (init.getRevision() != REVISION)
-							{
-								// TODO: revision mismatch
-								LOGGER.warning("/!\\ Revision mismatch between LS and GS /!\\");
-								break;
-							}
-							
-							RSAPublicKey publicKey;
-							
-							try
-							{
-								final KeyFactory kfac = KeyFactory.getInstance("RSA");
-								final BigInteger modulus = new BigInteger(init.getRSAKey());
-								final RSAPublicKeySpec kspec1 = new RSAPublicKeySpec(modulus, RSAKeyGenParameterSpec.F4);
-								publicKey = (RSAPublicKey) kfac.generatePublic(kspec1);
-							}
-							catch (GeneralSecurityException e)
-							{
-								LOGGER.warning(getClass().getSimpleName() + ": Trouble while init the public key send by login");
-								break;
-							}
-							// send the blowfish key through the rsa encryption
-							sendPacket(new BlowFishKey(blowfishKey, publicKey));
-							// now, only accept packet with the new encryption
-							_blowfish = new NewCrypt(blowfishKey);
-							sendPacket(new AuthRequest(_requestID, _acceptAlternate, _hexID, _gamePort, _reserveHost, _maxPlayer, _subnets, _hosts));
-							break;
-						}
-						case 0x01:
-						{
-							final LoginServerFail lsf = new LoginServerFail(incoming);
-							LOGGER.info(getClass().getSimpleName() + ": Damn! Registeration Failed: " + lsf.getReasonString());
-							// login will close the connection here
-							break;
-						}
-						case 0x02:
-						{
-							final AuthResponse aresp = new AuthResponse(incoming);
-							final int serverID = aresp.getServerId();
-							_serverName = aresp.getServerName();
-							Config.saveHexid(serverID, hexToString(_hexID));
-							LOGGER.info(getClass().getSimpleName() + ": Registered on login as Server " + serverID + ": " + _serverName);
-							final ServerStatus st = new ServerStatus();
-							if (Config.SERVER_LIST_BRACKET)
-							{
-								st.addAttribute(ServerStatus.SERVER_LIST_SQUARE_BRACKET, ServerStatus.ON);
-							}
-							else
-							{
-								st.addAttribute(ServerStatus.SERVER_LIST_SQUARE_BRACKET, ServerStatus.OFF);
-							}
-							st.addAttribute(ServerStatus.SERVER_TYPE, Config.SERVER_LIST_TYPE);
-							if (Config.SERVER_GMONLY)
-							{
-								st.addAttribute(ServerStatus.SERVER_LIST_STATUS, ServerStatus.STATUS_GM_ONLY);
-							}
-							else
-							{
-								st.addAttribute(ServerStatus.SERVER_LIST_STATUS, ServerStatus.STATUS_AUTO);
-							}
-							if (Config.SERVER_LIST_AGE == 15)
-							{
-								st.addAttribute(ServerStatus.SERVER_AGE, ServerStatus.SERVER_AGE_15);
-							}
-							else if (Config.SERVER_LIST_AGE == 18)
-							{
-								st.addAttribute(ServerStatus.SERVER_AGE, ServerStatus.SERVER_AGE_18);
-							}
-							else
-							{
-								st.addAttribute(ServerStatus.SERVER_AGE, ServerStatus.SERVER_AGE_ALL);
-							}
-							sendPacket(st);
-							final List<String> playerList = new ArrayList<>();
-							for (Player player : World.getInstance().getPlayers())
-							{
-								if (!player.isInOfflineMode())
-								{
-									playerList.add(player.getAccountName());
-								}
-							}
-							if (!playerList.isEmpty())
-							{
-								sendPacket(new PlayerInGame(playerList));
-							}
-							break;
-						}
-						case 0x03:
-						{
-							final PlayerAuthResponse par = new PlayerAuthResponse(incoming);
-							final String account = par.getAccount();
-							WaitingClient wcToRemove = null;
-							synchronized (_waitingClients)
-							{
-								for (WaitingClient wc : _waitingClients)
-								{
-									if (wc.account.equals(account))
-									{
-										wcToRemove = wc;
-									}
-								}
-							}
-							if (wcToRemove != null)
-							{
-								if (par.isAuthed())
-								{
-									final PlayerInGame pig = new PlayerInGame(par.getAccount());
-									sendPacket(pig);
-									wcToRemove.gameClient.setConnectionState(ConnectionState.AUTHENTICATED);
-									wcToRemove.gameClient.setSessionId(wcToRemove.session);
-									wcToRemove.gameClient.sendPacket(LoginFail.LOGIN_SUCCESS);
-									final CharSelectionInfo cl = new CharSelectionInfo(wcToRemove.account, wcToRemove.gameClient.getSessionId().playOkID1);
-									wcToRemove.gameClient.sendPacket(cl);
-									wcToRemove.gameClient.setCharSelection(cl.getCharInfo());
-								}
-								else
-								{
-									LOGGER.warning(getClass().getSimpleName() + ": Session key is not correct. Closing connection for account " + wcToRemove.account);
-									// wcToRemove.gameClient.getConnection().sendPacket(new LoginFail(LoginFail.SYSTEM_ERROR_LOGIN_LATER));
-									wcToRemove.gameClient.close(new LoginFail(LoginFail.SYSTEM_ERROR_LOGIN_LATER));
-									_accountsInGameServer.remove(wcToRemove.account);
-								}
-								_waitingClients.remove(wcToRemove);
-							}
-							break;
-						}
-						case 0x04:
-						{
-							final KickPlayer kp = new KickPlayer(incoming);
-							doKickPlayer(kp.getAccount());
-							break;
-						}
-						case 0x05:
-						{
-							final RequestCharacters rc = new RequestCharacters(incoming);
-							getCharsOnServer(rc.getAccount());
-							break;
-						}
-						case 0x06:
-						{
-							new ChangePasswordResponse(incoming);
-							break;
-						}
-					}
+					LOGGER.warning(getClass().getSimpleName() + ": LoginServer not avaible, trying to reconnect...");
+					channel.close();
+					scheduleConnect();
 				}
+			});
+		});
+	}
+	
+	private void scheduleConnect()
+	{
+		if (!_shutdown)
+		{
+			EventLoopGroupManager.getInstance().getWorkerGroup().schedule(this::connect, 5, TimeUnit.SECONDS); // 5 seconds tempo.
+		}
+	}
+	
+	@Override
+	public void channelActive(ChannelHandlerContext ctx)
+	{
+		_channel = ctx.channel();
+		_cryptCodec = ctx.pipeline().get(NewCryptCodec.class);
+		_blowfishKey = CommonUtil.generateHex(40);
+	}
+	
+	@Override
+	public void channelInactive(ChannelHandlerContext ctx)
+	{
+		_channel = null;
+		_registered = false;
+		
+		// Requests of the lost connection are never answered.
+		final List<WaitingClient> waitingClients = new ArrayList<>();
+		synchronized (_waitingClients)
+		{
+			for (Queue<WaitingClient> queue : _waitingClients.values())
+			{
+				waitingClients.addAll(queue);
 			}
-			catch (UnknownHostException e)
+			_waitingClients.clear();
+		}
+		for (WaitingClient wc : waitingClients)
+		{
+			if (!wc.removed)
 			{
-				LOGGER.log(Level.WARNING, getClass().getSimpleName() + ": ", e);
+				wc.gameClient.close(new LoginFail(LoginFail.SYSTEM_ERROR_LOGIN_LATER));
 			}
-			catch (SocketException e)
+		}
+		
+		if (!_shutdown)
+		{
+			LOGGER.warning(getClass().getSimpleName() + ": Disconnected from Login, trying to reconnect...");
+			scheduleConnect();
+		}
+	}
+	
+	@Override
+	public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause)
+	{
+		LOGGER.log(Level.WARNING, getClass().getSimpleName() + ": Connection error: " + cause.getMessage());
+		ctx.close();
+	}
+	
+	@Override
+	protected void channelRead0(ChannelHandlerContext ctx, byte[] incoming)
+	{
+		final int packetType = incoming[0] & 0xff;
+		switch (packetType)
+		{
+			case 0x00:
 			{
-				LOGGER.warning(getClass().getSimpleName() + ": LoginServer not avaible, trying to reconnect...");
+				final InitLS init = new InitLS(incoming);
+				if (init.getRevision() != REVISION)
+				{
+					// TODO: revision mismatch
+					LOGGER.warning("/!\\ Revision mismatch between LS and GS /!\\");
+					break;
+				}
+				
+				RSAPublicKey publicKey;
+				
+				try
+				{
+					final KeyFactory kfac = KeyFactory.getInstance("RSA");
+					final BigInteger modulus = new BigInteger(init.getRSAKey());
+					final RSAPublicKeySpec kspec1 = new RSAPublicKeySpec(modulus, RSAKeyGenParameterSpec.F4);
+					publicKey = (RSAPublicKey) kfac.generatePublic(kspec1);
+				}
+				catch (GeneralSecurityException e)
+				{
+					LOGGER.warning(getClass().getSimpleName() + ": Trouble while init the public key send by login");
+					break;
+				}
+				// send the blowfish key through the rsa encryption
+				ctx.writeAndFlush(new BlowFishKey(_blowfishKey, publicKey));
+				// now, only accept packet with the new encryption
+				_cryptCodec.setCrypt(new NewCrypt(_blowfishKey));
+				ctx.writeAndFlush(new AuthRequest(_requestID, _acceptAlternate, _hexID, _gamePort, _reserveHost, _maxPlayer, _subnets, _hosts));
+				break;
 			}
-			catch (IOException e)
+			case 0x01:
 			{
-				LOGGER.log(Level.WARNING, getClass().getSimpleName() + ": Disconnected from Login, Trying to reconnect: ", e);
+				final LoginServerFail lsf = new LoginServerFail(incoming);
+				LOGGER.info(getClass().getSimpleName() + ": Damn! Registeration Failed: " + lsf.getReasonString());
+				// login will close the connection here
+				break;
 			}
-			finally
+			case 0x02:
 			{
-				try
+				final AuthResponse aresp = new AuthResponse(incoming);
+				final int serverID = aresp.getServerId();
+				_serverName = aresp.getServerName();
+				Config.saveHexid(serverID, hexToString(_hexID));
+				LOGGER.info(getClass().getSimpleName() + ": Registered on login as Server " + serverID + ": " + _serverName);
+				_registered = true;
+				final ServerStatus st = new ServerStatus();
+				if (Config.SERVER_LIST_BRACKET)
+				{
+					st.addAttribute(ServerStatus.SERVER_LIST_SQUARE_BRACKET, ServerStatus.ON);
+				}
+				else
+				{
+					st.addAttribute(ServerStatus.SERVER_LIST_SQUARE_BRACKET, ServerStatus.OFF);
+				}
+				st.addAttribute(ServerStatus.SERVER_TYPE, Config.SERVER_LIST_TYPE);
+				if (Config.SERVER_GMONLY)
+				{
+					st.addAttribute(ServerStatus.SERVER_LIST_STATUS, ServerStatus.STATUS_GM_ONLY);
+				}
+				else
+				{
+					st.addAttribute(ServerStatus.SERVER_LIST_STATUS, ServerStatus.STATUS_AUTO);
+				}
+				if (Config.SERVER_LIST_AGE == 15)
 				{
-					_loginSocket.close();
-					if (isInterrupted())
+					st.addAttribute(ServerStatus.SERVER_AGE, ServerStatus.SERVER_AGE_15);
+				}
+				else if (Config.SERVER_LIST_AGE == 18)
+				{
+					st.addAttribute(ServerStatus.SERVER_AGE, ServerStatus.SERVER_AGE_18);
+				}
+				else
+				{
+					st.addAttribute(ServerStatus.SERVER_AGE, ServerStatus.SERVER_AGE_ALL);
+				}
+				sendPacket(st);
+				final List<String> playerList = new ArrayList<>();
+				for (Player player : World.getInstance().getPlayers())
+				{
+					if (!player.isInOfflineMode())
 					{
-						return;
+						playerList.add(player.getAccountName());
 					}
 				}
-				catch (Exception e)
+				if (!playerList.isEmpty())
 				{
-					// Ignore.
+					sendPacket(new PlayerInGame(playerList));
 				}
+				break;
 			}
-			
-			try
+			case 0x03:
 			{
-				Thread.sleep(5000); // 5 seconds tempo.
+				final PlayerAuthResponse par = new PlayerAuthResponse(incoming);
+				final WaitingClient wc = pollWaitingClient(par.getAccount());
+				if (wc != null)
+				{
+					if (par.isAuthed())
+					{
+						final PlayerInGame pig = new PlayerInGame(par.getAccount());
+						sendPacket(pig);
+						
+						// The character list is loaded from the database, so it is not done on the login server connection.
+						ThreadPool.execute(() ->
+						{
+							wc.gameClient.setConnectionState(ConnectionState.AUTHENTICATED);
+							wc.gameClient.setSessionId(wc.session);
+							wc.gameClient.sendPacket(LoginFail.LOGIN_SUCCESS);
+							final CharSelectionInfo cl = new CharSelectionInfo(wc.account, wc.gameClient.getSessionId().playOkID1);
+							wc.gameClient.sendPacket(cl);
+							wc.gameClient.setCharSelection(cl.getCharInfo());
+						});
+					}
+					else
+					{
+						LOGGER.warning(getClass().getSimpleName() + ": Session key is not correct. Closing connection for account " + wc.account);
+						// wc.gameClient.getConnection().sendPacket(new LoginFail(LoginFail.SYSTEM_ERROR_LOGIN_LATER));
+						wc.gameClient.close(new LoginFail(LoginFail.SYSTEM_ERROR_LOGIN_LATER));
+						_accountsInGameServer.remove(wc.account);
+					}
+				}
+				break;
 			}
-			catch (Exception e)
+			case 0x04:
 			{
-				// Ignore.
+				final KickPlayer kp = new KickPlayer(incoming);
+				ThreadPool.execute(() -> doKickPlayer(kp.getAccount()));
+				break;
+			}
+			case 0x05:
+			{
+				final RequestCharacters rc = new RequestCharacters(incoming);
+				ThreadPool.execute(() -> getCharsOnServer(rc.getAccount()));
+				break;
+			}
+			case 0x06:
+			{
+				new ChangePasswordResponse(incoming);
+				break;
 			}
 		}
 	}
@@ -402,42 +427,71 @@ public class LoginServerThread extends Thread
 	 */
 	public void addWaitingClientAndSendRequest(String acc, GameClient client, SessionKey key)
 	{
+		if (!_registered)
+		{
+			client.close(new LoginFail(LoginFail.SYSTEM_ERROR_LOGIN_LATER));
+			return;
+		}
+		
 		final WaitingClient wc = new WaitingClient(acc, client, key);
 		synchronized (_waitingClients)
 		{
-			_waitingClients.add(wc);
+			_waitingClients.computeIfAbsent(acc, k -> new ArrayDeque<>()).add(wc);
 		}
 		final PlayerAuthRequest par = new PlayerAuthRequest(acc, key);
-		try
-		{
-			sendPacket(par);
-		}
-		catch (IOException e)
+		sendPacket(par);
+	}
+	
+	/**
+	 * The login server answers the requests of an account in the order they were sent.
+	 * @param account the account
+	 * @return the oldest waiting client of the account, {@code null} if there is none or it was removed
+	 */
+	private WaitingClient pollWaitingClient(String account)
+	{
+		synchronized (_waitingClients)
 		{
-			LOGGER.warning(getClass().getSimpleName() + ": Error while sending player auth request");
+			final Queue<WaitingClient> queue = _waitingClients.get(account);
+			if (queue == null)
+			{
+				return null;
+			}
+			
+			final WaitingClient wc = queue.poll();
+			if (queue.isEmpty())
+			{
+				_waitingClients.remove(account);
+			}
+			return (wc != null) && !wc.removed ? wc : null;
 		}
 	}
 	
 	/**
-	 * Removes the waiting client.
+	 * Removes the waiting client.<br>
+	 * It is kept in the queue of its account until its answer is received, so the next answers still match their requests.
 	 * @param client the client
 	 */
 	public void removeWaitingClient(GameClient client)
 	{
-		WaitingClient toRemove = null;
+		final String account = client.getAccountName();
+		if (account == null)
+		{
+			return;
+		}
+		
 		synchronized (_waitingClients)
 		{
-			for (WaitingClient c : _waitingClients)
+			final Queue<WaitingClient> queue = _waitingClients.get(account);
+			if (queue != null)
 			{
-				if (c.gameClient == client)
+				for (WaitingClient wc : queue)
 				{
-					toRemove = c;
+					if (wc.gameClient == client)
+					{
+						wc.removed = true;
+					}
 				}
 			}
-			if (toRemove != null)
-			{
-				_waitingClients.remove(toRemove);
-			}
 		}
 	}
 	
@@ -452,18 +506,8 @@ public class LoginServerThread extends Thread
 			return;
 		}
 		final PlayerLogout pl = new PlayerLogout(account);
-		try
-		{
-			sendPacket(pl);
-		}
-		catch (IOException e)
-		{
-			LOGGER.warning(getClass().getSimpleName() + ": Error while sending logout packet to login");
-		}
-		finally
-		{
-			_accountsInGameServer.remove(account);
-		}
+		sendPacket(pl);
+		_accountsInGameServer.remove(account);
 	}
 	
 	/**
@@ -485,14 +529,7 @@ public class LoginServerThread extends Thread
 	public void sendAccessLevel(String account, int level)
 	{
 		final ChangeAccessLevel cal = new ChangeAccessLevel(account, level);
-		try
-		{
-			sendPacket(cal);
-		}
-		catch (IOException e)
-		{
-			// Ignore.
-		}
+		sendPacket(cal);
 	}
 	
 	/**
@@ -503,14 +540,7 @@ public class LoginServerThread extends Thread
 	public void sendClientTracert(String account, String[] address)
 	{
 		final PlayerTracert ptc = new PlayerTracert(account, address[0], address[1], address[2], address[3], address[4]);
-		try
-		{
-			sendPacket(ptc);
-		}
-		catch (IOException e)
-		{
-			// Ignore.
-		}
+		sendPacket(ptc);
 	}
 	
 	/**
@@ -522,14 +552,7 @@ public class LoginServerThread extends Thread
 	public void sendMail(String account, String mailId, String... args)
 	{
 		final SendMail sem = new SendMail(account, mailId, args);
-		try
-		{
-			sendPacket(sem);
-		}
-		catch (IOException e)
-		{
-			// Ignore.
-		}
+		sendPacket(sem);
 	}
 	
 	/**
@@ -541,14 +564,7 @@ public class LoginServerThread extends Thread
 	public void sendTempBan(String account, String ip, long time)
 	{
 		final TempBan tbn = new TempBan(account, ip, time);
-		try
-		{
-			sendPacket(tbn);
-		}
-		catch (IOException e)
-		{
-			// Ignore.
-		}
+		sendPacket(tbn);
 	}
 	
 	/**
@@ -618,40 +634,23 @@ public class LoginServerThread extends Thread
 		}
 		
 		final ReplyCharacters rec = new ReplyCharacters(account, chars, charToDel);
-		try
-		{
-			sendPacket(rec);
-		}
-		catch (IOException e)
-		{
-			// Ignore.
-		}
+		sendPacket(rec);
 	}
 	
 	/**
-	 * Send packet.
+	 * Send packet.<br>
+	 * Packets are only sent once the server is registered on login, they are encrypted in the order they are written, on the event loop of the connection.
 	 * @param sl the sendable packet
-	 * @throws IOException Signals that an I/O exception has occurred.
 	 */
-	private void sendPacket(BaseSendablePacket sl) throws IOException
+	private void sendPacket(BaseSendablePacket sl)
 	{
-		if (_blowfish == null)
+		final Channel channel = _channel;
+		if ((channel == null) || !_registered)
 		{
 			return;
 		}
 		
-		final byte[] data = sl.getContent();
-		NewCrypt.appendChecksum(data);
-		_blowfish.crypt(data, 0, data.length);
-		
-		final int len = data.length + 2;
-		synchronized (_out) // avoids tow threads writing in the mean time
-		{
-			_out.write(len & 0xff);
-			_out.write((len >> 8) & 0xff);
-			_out.write(data);
-			_out.flush();
-		}
+		channel.writeAndFlush(sl);
 	}
 	
 	/**
@@ -682,14 +681,7 @@ public class LoginServerThread extends Thread
 	{
 		final ServerStatus ss = new ServerStatus();
 		ss.addAttribute(id, value);
-		try
-		{
-			sendPacket(ss);
-		}
-		catch (IOException e)
-		{
-			// Ignore.
-		}
+		sendPacket(ss);
 	}
 	
 	/**
@@ -699,14 +691,7 @@ public class LoginServerThread extends Thread
 	{
 		final ServerStatus ss = new ServerStatus();
 		ss.addAttribute(ServerStatus.SERVER_TYPE, Config.SERVER_LIST_TYPE);
-		try
-		{
-			sendPacket(ss);
-		}
-		catch (IOException e)
-		{
-			// Ignore.
-		}
+		sendPacket(ss);
 	}
 	
 	/**
@@ -719,14 +704,7 @@ public class LoginServerThread extends Thread
 	public void sendChangePassword(String accountName, String charName, String oldpass, String newpass)
 	{
 		final ChangePassword cp = new ChangePassword(accountName, charName, oldpass, newpass);
-		try
-		{
-			sendPacket(cp);
-		}
-		catch (IOException e)
-		{
-			// Ignore.
-		}
+		sendPacket(cp);
 	}
 	
 	public int getServerStatus()
@@ -842,6 +820,7 @@ public class LoginServerThread extends Thread
 		public String account;
 		public GameClient gameClient;
 		public SessionKey session;
+		public boolean removed;
 		
 		/**
 		 * Instantiates a new waiting client.
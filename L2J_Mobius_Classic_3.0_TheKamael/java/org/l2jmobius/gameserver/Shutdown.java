@@ -22,6 +22,7 @@ import java.util.logging.Logger;
 import org.l2jmobius.Config;
 import org.l2jmobius.commons.database.DatabaseBackup;
 import org.l2jmobius.commons.database.DatabaseFactory;
+import org.l2jmobius.commons.database.DatabaseWriteQueue;
 import org.l2jmobius.commons.threads.ThreadPool;
 import org.l2jmobius.gameserver.data.BotReportTable;
 import org.l2jmobius.gameserver.data.SchemeBufferTable;
@@ -43,6 +44,7 @@ import org.l2jmobius.gameserver.model.olympiad.Olympiad;
 import org.l2jmobius.gameserver.network.ClientNetworkManager;
 import org.l2jmobius.gameserver.network.Disconnection;
 import org.l2jmobius.gameserver.network.EventLoopGroupManager;
+import org.l2jmobius.gameserver.network.PacketExecutionManager;
 import org.l2jmobius.gameserver.network.SystemMessageId;
 import org.l2jmobius.gameserver.network.loginserverpackets.game.ServerStatus;
 import org.l2jmobius.gameserver.network.serverpackets.ServerClose;
@@ -51,6 +53,7 @@ import org.l2jmobius.gameserver.network.telnet.TelnetServer;
 import org.l2jmobius.gameserver.taskmanager.GameTimeTaskManager;
 import org.l2jmobius.gameserver.taskmanager.MovementTaskManager;
 import org.l2jmobius.gameserver.util.Broadcast;
+import org.l2jmobius.log.handler.AsyncFileHandler;
 
 /**
  * This class provides the functions for shutting down and restarting the server.<br>
@@ -180,8 +183,8 @@ public class Shutdown extends Thread
 			
 			try
 			{
-				LoginServerThread.getInstance().interrupt();
-				LOGGER.info("Login Server Thread: Thread interruped(" + tc.getEstimatedTimeAndRestartCounter() + "ms).");
+				LoginServerThread.getInstance().shutdown();
+				LOGGER.info("Login Server Thread: Connection closed(" + tc.getEstimatedTimeAndRestartCounter() + "ms).");
 			}
 			catch (Throwable t)
 			{
@@ -207,6 +210,7 @@ public class Shutdown extends Thread
 			{
 				ClientNetworkManager.getInstance().stop();
 				EventLoopGroupManager.getInstance().shutdown();
+				PacketExecutionManager.getInstance().shutdown();
 				LOGGER.info("Game Server: Selector thread has been shut down(" + tc.getEstimatedTimeAndRestartCounter() + "ms).");
 			}
 			catch (Throwable t)
@@ -214,6 +218,17 @@ public class Shutdown extends Thread
 				// ignore
 			}
 			
+			// write queued data
+			try
+			{
+				DatabaseWriteQueue.getInstance().shutdown();
+				LOGGER.info("Database Write Queue: Queued data has been written(" + tc.getEstimatedTimeAndRestartCounter() + "ms).");
+			}
+			catch (Throwable t)
+			{
+				// ignore
+			}
+			
 			// commit data, last chance
 			try
 			{
@@ -231,6 +246,11 @@ public class Shutdown extends Thread
 				DatabaseBackup.performBackup();
 			}
 			
+			LOGGER.info("The server has been successfully shut down in " + (tc1.getEstimatedTime() / 1000) + "seconds.");
+			
+			// write queued log records, halt skips the shutdown hooks
+			AsyncFileHandler.closeAll();
+			
 			// server will quit, when this function ends.
 			if (getInstance()._shutdownMode == GM_RESTART)
 			{
@@ -240,8 +260,6 @@ public class Shutdown extends Thread
 			{
 				Runtime.getRuntime().halt(0);
 			}
-			
-			LOGGER.info("The server has been successfully shut down in " + (tc1.getEstimatedTime() / 1000) + "seconds.");
 		}
 		else
 		{
@@ -43,6 +43,9 @@ public class HtmCache
 	
 	private static final Map<String, String> HTML_CACHE = Config.LAZY_CACHE ? new ConcurrentHashMap<>() : new HashMap<>();
 	
+	// Parsed templates by cached content, the content strings are the cached instances so lookups compare them by reference.
+	private static final Map<String, HtmTemplate> HTML_TEMPLATES = new ConcurrentHashMap<>();
+	
 	private int _loadedFiles;
 	private long _bytesBuffLen;
 	
@@ -58,6 +61,7 @@ public class HtmCache
 	
 	public void reload(File f)
 	{
+		HTML_TEMPLATES.clear();
 		if (!Config.LAZY_CACHE)
 		{
 			LOGGER.info("Html cache start...");
@@ -142,6 +146,7 @@ public class HtmCache
 			else
 			{
 				_bytesBuffLen = (_bytesBuffLen - oldContent.length()) + bytes;
+				HTML_TEMPLATES.remove(oldContent);
 			}
 		}
 		catch (Exception e)
@@ -180,6 +185,17 @@ public class HtmCache
 		return content;
 	}
 	
+	/**
+	 * @param player the player, for the html language
+	 * @param path the path of the html file
+	 * @return the parsed html file, {@code null} if it does not exist
+	 */
+	public HtmTemplate getTemplate(Player player, String path)
+	{
+		final String content = getHtm(player, path);
+		return content != null ? HTML_TEMPLATES.computeIfAbsent(content, HtmTemplate::parse) : null;
+	}
+	
 	public boolean contains(String path)
 	{
 		return HTML_CACHE.containsKey(path);
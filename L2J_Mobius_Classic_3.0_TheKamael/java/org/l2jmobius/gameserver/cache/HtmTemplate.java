@@ -0,0 +1,224 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.cache;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Html text split into literal parts and {@code %name%} placeholders, with the positions of its bypass and link actions.<br>
+ * Placeholder values are rendered in a single pass in the order they were replaced, the same way consecutive {@link String#replaceAll} calls would:<br>
+ * a value may contain placeholders, which are only filled by values replaced after it.
+ */
+public class HtmTemplate
+{
+	private static final int[] EMPTY = new int[0];
+	private static final String BYPASS = "=\"bypass ";
+	private static final String LINK = "=\"link ";
+	
+	private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+	
+	private final String _text;
+	private final int[] _placeholders; // Start and end of each placeholder.
+	private final int[] _actions; // Start of each bypass or link action.
+	
+	private HtmTemplate(String text, int[] placeholders, int[] actions)
+	{
+		_text = text;
+		_placeholders = placeholders;
+		_actions = actions;
+	}
+	
+	/**
+	 * @param text the html text
+	 * @return the parsed html text
+	 */
+	public static HtmTemplate parse(String text)
+	{
+		int[] placeholders = EMPTY;
+		int count = 0;
+		int start = text.indexOf('%');
+		while (start != -1)
+		{
+			int end = start + 1;
+			while ((end < text.length()) && isNameChar(text.charAt(end)))
+			{
+				end++;
+			}
+			
+			if ((end > (start + 1)) && (end < text.length()) && (text.charAt(end) == '%'))
+			{
+				if (count == placeholders.length)
+				{
+					placeholders = Arrays.copyOf(placeholders, Math.max(16, count << 1));
+				}
+				placeholders[count++] = start;
+				placeholders[count++] = end + 1;
+				start = text.indexOf('%', end + 1);
+			}
+			else
+			{
+				start = end < text.length() ? text.indexOf('%', end) : -1;
+			}
+		}
+		
+		int[] actions = EMPTY;
+		int actionCount = 0;
+		if ((text.indexOf('=') != -1) && (text.indexOf('"') != -1))
+		{
+			final String lower = text.toLowerCase(Locale.ENGLISH);
+			for (String action : new String[]
+			{
+				BYPASS,
+				LINK
+			})
+			{
+				for (int i = lower.indexOf(action); i != -1; i = lower.indexOf(action, i + 1))
+				{
+					if (actionCount == actions.length)
+					{
+						actions = Arrays.copyOf(actions, Math.max(8, actionCount << 1));
+					}
+					actions[actionCount++] = i;
+				}
+			}
+			Arrays.sort(actions, 0, actionCount);
+		}
+		
+		return new HtmTemplate(text, count == placeholders.length ? placeholders : Arrays.copyOf(placeholders, count), actionCount == actions.length ? actions : Arrays.copyOf(actions, actionCount));
+	}
+	
+	/**
+	 * @param pattern a replace pattern
+	 * @return {@code true} if the pattern is a single {@code %name%} placeholder
+	 */
+	public static boolean isPlaceholder(String pattern)
+	{
+		final int length = pattern.length();
+		if ((length < 3) || (pattern.charAt(0) != '%') || (pattern.charAt(length - 1) != '%'))
+		{
+			return false;
+		}
+		for (int i = 1; i < (length - 1); i++)
+		{
+			if (!isNameChar(pattern.charAt(i)))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private static boolean isNameChar(char c)
+	{
+		return ((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z')) || ((c >= '0') && (c <= '9')) || (c == '_');
+	}
+	
+	/**
+	 * Renders this text with the given placeholder values.
+	 * @param names the replaced placeholders, in replace order
+	 * @param values the values of the replaced placeholders
+	 * @param actions receives the positions of the bypass and link actions in the rendered text, in ascending order
+	 * @return the rendered text
+	 */
+	public String render(List<String> names, List<HtmTemplate> values, ActionPositions actions)
+	{
+		final StringBuilder sb = BUILDER.get();
+		sb.setLength(0);
+		render(sb, names, values, -1, actions);
+		return sb.toString();
+	}
+	
+	private void render(StringBuilder sb, List<String> names, List<HtmTemplate> values, int replaced, ActionPositions actions)
+	{
+		int position = 0;
+		int action = 0;
+		for (int i = 0; i < _placeholders.length; i += 2)
+		{
+			final int start = _placeholders[i];
+			final int end = _placeholders[i + 1];
+			action = appendText(sb, position, start, action, actions);
+			
+			// The first value replaced after the value holding this placeholder.
+			int index = replaced + 1;
+			while ((index < names.size()) && !_text.regionMatches(start, names.get(index), 0, end - start))
+			{
+				index++;
+			}
+			
+			if (index < names.size())
+			{
+				values.get(index).render(sb, names, values, index, actions);
+			}
+			else
+			{
+				sb.append(_text, start, end);
+			}
+			position = end;
+		}
+		appendText(sb, position, _text.length(), action, actions);
+	}
+	
+	private int appendText(StringBuilder sb, int start, int end, int action, ActionPositions actions)
+	{
+		int index = action;
+		while ((index < _actions.length) && (_actions[index] < end))
+		{
+			actions.add((sb.length() + _actions[index]) - start);
+			index++;
+		}
+		sb.append(_text, start, end);
+		return index;
+	}
+	
+	/**
+	 * @return the html text
+	 */
+	public String getText()
+	{
+		return _text;
+	}
+	
+	/**
+	 * Positions of the actions of a rendered text.
+	 */
+	public static class ActionPositions
+	{
+		private int[] _positions = EMPTY;
+		private int _size;
+		
+		void add(int position)
+		{
+			if (_size == _positions.length)
+			{
+				_positions = Arrays.copyOf(_positions, Math.max(8, _size << 1));
+			}
+			_positions[_size++] = position;
+		}
+		
+		public int size()
+		{
+			return _size;
+		}
+		
+		public int get(int index)
+		{
+			return _positions[index];
+		}
+	}
+}
@@ -21,18 +21,24 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
 import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.l2jmobius.Config;
 import org.l2jmobius.commons.database.DatabaseFactory;
-import org.l2jmobius.commons.util.Rnd;
+import org.l2jmobius.gameserver.data.ItemTable;
 import org.l2jmobius.gameserver.enums.PrivateStoreType;
 import org.l2jmobius.gameserver.model.ManufactureItem;
+import org.l2jmobius.gameserver.model.OfflineTrader;
 import org.l2jmobius.gameserver.model.TradeItem;
 import org.l2jmobius.gameserver.model.World;
 import org.l2jmobius.gameserver.model.actor.Player;
 import org.l2jmobius.gameserver.model.holders.SellBuffHolder;
+import org.l2jmobius.gameserver.model.item.ItemTemplate;
+import org.l2jmobius.gameserver.model.variables.ItemVariables;
 import org.l2jmobius.gameserver.network.Disconnection;
 import org.l2jmobius.gameserver.network.GameClient;
 import org.l2jmobius.gameserver.network.serverpackets.LeaveWorld;
@@ -48,8 +54,12 @@ public class OfflineTraderTable
 	private static final String CLEAR_OFFLINE_TABLE_PLAYER = "DELETE FROM character_offline_trade WHERE `charId`=?";
 	private static final String CLEAR_OFFLINE_TABLE_ITEMS = "DELETE FROM character_offline_trade_items";
 	private static final String CLEAR_OFFLINE_TABLE_ITEMS_PLAYER = "DELETE FROM character_offline_trade_items WHERE `charId`=?";
-	private static final String LOAD_OFFLINE_STATUS = "SELECT * FROM character_offline_trade";
-	private static final String LOAD_OFFLINE_ITEMS = "SELECT * FROM character_offline_trade_items WHERE `charId`=?";
+	private static final String LOAD_OFFLINE_STATUS = "SELECT t.charId, t.time, t.type, t.title AS store_title, c.char_name, c.title, c.base_class, c.classid, c.sex, c.face, c.hairStyle, c.hairColor, c.title_color, c.clanid, c.nobless, c.x, c.y, c.z, c.heading FROM character_offline_trade t JOIN characters c ON c.charId=t.charId";
+	private static final String LOAD_OFFLINE_ITEMS = "SELECT * FROM character_offline_trade_items";
+	private static final String LOAD_OFFLINE_PAPERDOLL = "SELECT i.owner_id, i.loc_data, i.item_id, i.enchant_level, v.val FROM items i LEFT JOIN item_variables v ON v.id=i.object_id AND v.var='" + ItemVariables.VISUAL_ID + "' WHERE i.loc='PAPERDOLL' AND i.owner_id IN (SELECT charId FROM character_offline_trade)";
+	
+	/** Restored offline stores that are not loaded as players. */
+	private final Map<Integer, OfflineTrader> _traders = new ConcurrentHashMap<>();
 	
 	protected OfflineTraderTable()
 	{
@@ -161,6 +171,54 @@ public class OfflineTraderTable
 					LOGGER.log(Level.WARNING, getClass().getSimpleName() + ": Error while saving offline trader: " + pc.getObjectId() + " " + e, e);
 				}
 			}
+			
+			// Restored offline stores that were not loaded as players keep their stored items.
+			for (OfflineTrader trader : _traders.values())
+			{
+				try
+				{
+					switch (trader.getPrivateStoreType())
+					{
+						case MANUFACTURE:
+						{
+							if (!Config.OFFLINE_CRAFT_ENABLE)
+							{
+								continue;
+							}
+							break;
+						}
+						default:
+						{
+							if (!Config.OFFLINE_TRADE_ENABLE)
+							{
+								continue;
+							}
+							break;
+						}
+					}
+					
+					for (long[] item : trader.getItems())
+					{
+						stmItems.setInt(1, trader.getObjectId());
+						stmItems.setInt(2, (int) item[0]);
+						stmItems.setLong(3, item[1]);
+						stmItems.setLong(4, item[2]);
+						stmItems.executeUpdate();
+						stmItems.clearParameters();
+					}
+					stm3.setInt(1, trader.getObjectId());
+					stm3.setLong(2, trader.getOfflineStartTime());
+					stm3.setInt(3, trader.isSellingBuffs() ? PrivateStoreType.SELL_BUFFS.getId() : trader.getPrivateStoreType().getId());
+					stm3.setString(4, trader.getStoreTitle());
+					stm3.executeUpdate();
+					stm3.clearParameters();
+					con.commit(); // flush
+				}
+				catch (Exception e)
+				{
+					LOGGER.log(Level.WARNING, getClass().getSimpleName() + ": Error while saving offline trader: " + trader.getObjectId() + " " + e, e);
+				}
+			}
 			LOGGER.info(getClass().getSimpleName() + ": Offline traders stored.");
 		}
 		catch (Exception e)
@@ -174,158 +232,246 @@ public class OfflineTraderTable
 		LOGGER.info(getClass().getSimpleName() + ": Loading offline traders...");
 		int nTraders = 0;
 		try (Connection con = DatabaseFactory.getConnection();
-			Statement stm = con.createStatement();
-			ResultSet rs = stm.executeQuery(LOAD_OFFLINE_STATUS))
+			Statement stm = con.createStatement())
 		{
-			while (rs.next())
+			final Map<Integer, OfflineTrader> traders = new LinkedHashMap<>();
+			try (ResultSet rs = stm.executeQuery(LOAD_OFFLINE_STATUS))
 			{
-				final long time = rs.getLong("time");
-				if (Config.OFFLINE_MAX_DAYS > 0)
+				while (rs.next())
 				{
-					final Calendar cal = Calendar.getInstance();
-					cal.setTimeInMillis(time);
-					cal.add(Calendar.DAY_OF_YEAR, Config.OFFLINE_MAX_DAYS);
-					if (cal.getTimeInMillis() <= System.currentTimeMillis())
+					final long time = rs.getLong("time");
+					if (Config.OFFLINE_MAX_DAYS > 0)
 					{
+						final Calendar cal = Calendar.getInstance();
+						cal.setTimeInMillis(time);
+						cal.add(Calendar.DAY_OF_YEAR, Config.OFFLINE_MAX_DAYS);
+						if (cal.getTimeInMillis() <= System.currentTimeMillis())
+						{
+							continue;
+						}
+					}
+					
+					final int typeId = rs.getInt("type");
+					boolean isSellBuff = false;
+					if (typeId == PrivateStoreType.SELL_BUFFS.getId())
+					{
+						isSellBuff = true;
+					}
+					
+					final PrivateStoreType type = isSellBuff ? PrivateStoreType.PACKAGE_SELL : PrivateStoreType.findById(typeId);
+					if (type == null)
+					{
+						LOGGER.warning(getClass().getSimpleName() + ": PrivateStoreType with id " + rs.getInt("type") + " could not be found.");
 						continue;
 					}
+					
+					if (type == PrivateStoreType.NONE)
+					{
+						continue;
+					}
+					
+					traders.put(rs.getInt("charId"), new OfflineTrader(rs, type, isSellBuff));
 				}
-				
-				final int typeId = rs.getInt("type");
-				boolean isSellBuff = false;
-				if (typeId == PrivateStoreType.SELL_BUFFS.getId())
+			}
+			
+			// Items of all stores are read at once, instead of once per store.
+			try (ResultSet items = stm.executeQuery(LOAD_OFFLINE_ITEMS))
+			{
+				while (items.next())
 				{
-					isSellBuff = true;
+					final OfflineTrader trader = traders.get(items.getInt("charId"));
+					if (trader != null)
+					{
+						trader.addItem(items.getInt("item"), items.getLong("count"), items.getLong("price"));
+					}
+				}
+			}
+			
+			if (Config.OFFLINE_LAZY_RESTORE)
+			{
+				try (ResultSet items = stm.executeQuery(LOAD_OFFLINE_PAPERDOLL))
+				{
+					while (items.next())
+					{
+						final OfflineTrader trader = traders.get(items.getInt("owner_id"));
+						final ItemTemplate template = ItemTable.getInstance().getTemplate(items.getInt("item_id"));
+						if ((trader != null) && (template != null))
+						{
+							trader.setPaperdollItem(items.getInt("loc_data"), template.getDisplayId(), items.getInt("val"), items.getInt("enchant_level"));
+						}
+					}
 				}
 				
-				final PrivateStoreType type = isSellBuff ? PrivateStoreType.PACKAGE_SELL : PrivateStoreType.findById(typeId);
-				if (type == null)
+				for (OfflineTrader trader : traders.values())
 				{
-					LOGGER.warning(getClass().getSimpleName() + ": PrivateStoreType with id " + rs.getInt("type") + " could not be found.");
-					continue;
+					_traders.put(trader.getObjectId(), trader);
+					trader.spawnMe(trader.getX(), trader.getY(), trader.getZ());
+					nTraders++;
 				}
+			}
+			else
+			{
+				for (OfflineTrader trader : traders.values())
+				{
+					if (loadTrader(trader) != null)
+					{
+						nTraders++;
+					}
+				}
+			}
+			
+			World.OFFLINE_TRADE_COUNT = nTraders;
+			LOGGER.info(getClass().getSimpleName() + ": Loaded " + nTraders + " offline traders.");
+			
+			if (!Config.STORE_OFFLINE_TRADE_IN_REALTIME)
+			{
+				stm.execute(CLEAR_OFFLINE_TABLE);
+				stm.execute(CLEAR_OFFLINE_TABLE_ITEMS);
+			}
+		}
+		catch (Exception e)
+		{
+			LOGGER.log(Level.WARNING, getClass().getSimpleName() + ": Error while loading offline traders: ", e);
+		}
+	}
+	
+	/**
+	 * Loads the character of a restored offline store as a player, replacing the offline store object in the world.<br>
+	 * Nearby players are not sent a delete packet, the char info of the loaded player replaces the offline store for them.
+	 * @param trader the offline store
+	 * @return the loaded player, {@code null} if the character could not be loaded
+	 */
+	public Player loadTrader(OfflineTrader trader)
+	{
+		synchronized (trader)
+		{
+			final boolean spawned = trader.isSpawned();
+			if (spawned && !_traders.remove(trader.getObjectId(), trader))
+			{
+				// Already loaded by another player.
+				return World.getInstance().getPlayer(trader.getObjectId());
+			}
+			
+			Player player = null;
+			try
+			{
+				final GameClient client = new GameClient();
+				client.setDetached(true);
+				player = Player.load(trader.getObjectId());
+				client.setPlayer(player);
+				player.setOnlineStatus(true, false);
+				client.setAccountName(player.getAccountNamePlayer());
+				player.setClient(client);
+				player.setOfflineStartTime(trader.getOfflineStartTime());
 				
-				if (type == PrivateStoreType.NONE)
+				if (trader.isSellingBuffs())
 				{
-					continue;
+					player.setSellingBuffs(true);
 				}
 				
-				Player player = null;
+				if (spawned)
+				{
+					trader.setSpawned(false);
+					trader.getWorldRegion().removeVisibleObject(trader);
+					World.getInstance().removeObject(trader);
+				}
 				
-				try
+				player.spawnMe(player.getX(), player.getY(), player.getZ());
+				switch (trader.getPrivateStoreType())
 				{
-					final GameClient client = new GameClient();
-					client.setDetached(true);
-					player = Player.load(rs.getInt("charId"));
-					client.setPlayer(player);
-					player.setOnlineStatus(true, false);
-					client.setAccountName(player.getAccountNamePlayer());
-					player.setClient(client);
-					player.setOfflineStartTime(time);
-					
-					if (isSellBuff)
+					case BUY:
 					{
-						player.setSellingBuffs(true);
+						for (long[] item : trader.getItems())
+						{
+							player.getBuyList().addItemByItemId((int) item[0], item[1], item[2]);
+						}
+						player.getBuyList().setTitle(trader.getStoreTitle());
+						break;
 					}
-					
-					player.spawnMe(player.getX(), player.getY(), player.getZ());
-					try (PreparedStatement stmItems = con.prepareStatement(LOAD_OFFLINE_ITEMS))
+					case SELL:
+					case PACKAGE_SELL:
 					{
-						stmItems.setInt(1, player.getObjectId());
-						try (ResultSet items = stmItems.executeQuery())
+						for (long[] item : trader.getItems())
 						{
-							switch (type)
+							if (player.isSellingBuffs())
 							{
-								case BUY:
-								{
-									while (items.next())
-									{
-										if (player.getBuyList().addItemByItemId(items.getInt(2), items.getLong(3), items.getLong(4)) == null)
-										{
-											continue;
-											// throw new NullPointerException();
-										}
-									}
-									player.getBuyList().setTitle(rs.getString("title"));
-									break;
-								}
-								case SELL:
-								case PACKAGE_SELL:
-								{
-									if (player.isSellingBuffs())
-									{
-										while (items.next())
-										{
-											player.getSellingBuffs().add(new SellBuffHolder(items.getInt("item"), items.getLong("price")));
-										}
-									}
-									else
-									{
-										while (items.next())
-										{
-											if (player.getSellList().addItem(items.getInt(2), items.getLong(3), items.getLong(4)) == null)
-											{
-												continue;
-												// throw new NullPointerException();
-											}
-										}
-									}
-									player.getSellList().setTitle(rs.getString("title"));
-									player.getSellList().setPackaged(type == PrivateStoreType.PACKAGE_SELL);
-									break;
-								}
-								case MANUFACTURE:
-								{
-									while (items.next())
-									{
-										player.getManufactureItems().put(items.getInt(2), new ManufactureItem(items.getInt(2), items.getLong(4)));
-									}
-									player.setStoreName(rs.getString("title"));
-									break;
-								}
+								player.getSellingBuffs().add(new SellBuffHolder((int) item[0], item[2]));
+							}
+							else
+							{
+								player.getSellList().addItem((int) item[0], item[1], item[2]);
 							}
 						}
+						player.getSellList().setTitle(trader.getStoreTitle());
+						player.getSellList().setPackaged(trader.getPrivateStoreType() == PrivateStoreType.PACKAGE_SELL);
+						break;
 					}
-					player.sitDown();
-					if (Config.OFFLINE_SET_NAME_COLOR)
-					{
-						player.getAppearance().setNameColor(Config.OFFLINE_NAME_COLOR);
-					}
-					player.setPrivateStoreType(type);
-					player.setOnlineStatus(true, true);
-					player.restoreEffects();
-					if (!Config.OFFLINE_ABNORMAL_EFFECTS.isEmpty())
+					case MANUFACTURE:
 					{
-						player.getEffectList().startAbnormalVisualEffect(Config.OFFLINE_ABNORMAL_EFFECTS.get(Rnd.get(Config.OFFLINE_ABNORMAL_EFFECTS.size())));
+						for (long[] item : trader.getItems())
+						{
+							player.getManufactureItems().put((int) item[0], new ManufactureItem((int) item[0], item[2]));
+						}
+						player.setStoreName(trader.getStoreTitle());
+						break;
 					}
-					player.broadcastUserInfo();
-					nTraders++;
 				}
-				catch (Exception e)
+				player.sitDown();
+				if (Config.OFFLINE_SET_NAME_COLOR)
 				{
-					LOGGER.log(Level.WARNING, getClass().getSimpleName() + ": Error loading trader: " + player, e);
-					if (player != null)
-					{
-						Disconnection.of(player).defaultSequence(LeaveWorld.STATIC_PACKET);
-					}
+					player.getAppearance().setNameColor(Config.OFFLINE_NAME_COLOR);
+				}
+				player.setPrivateStoreType(trader.getPrivateStoreType());
+				player.setOnlineStatus(true, true);
+				player.restoreEffects();
+				if (trader.getAbnormalVisualEffect() != null)
+				{
+					player.getEffectList().startAbnormalVisualEffect(trader.getAbnormalVisualEffect());
 				}
+				player.broadcastUserInfo();
+				return player;
 			}
-			
-			World.OFFLINE_TRADE_COUNT = nTraders;
-			LOGGER.info(getClass().getSimpleName() + ": Loaded " + nTraders + " offline traders.");
-			
-			if (!Config.STORE_OFFLINE_TRADE_IN_REALTIME)
+			catch (Exception e)
 			{
-				try (Statement stm1 = con.createStatement())
+				LOGGER.log(Level.WARNING, getClass().getSimpleName() + ": Error loading trader: " + (player != null ? player : trader), e);
+				if (player != null)
+				{
+					Disconnection.of(player).defaultSequence(LeaveWorld.STATIC_PACKET);
+				}
+				if (trader.isSpawned())
+				{
+					trader.decayMe();
+				}
+				if (spawned)
 				{
-					stm1.execute(CLEAR_OFFLINE_TABLE);
-					stm1.execute(CLEAR_OFFLINE_TABLE_ITEMS);
+					World.OFFLINE_TRADE_COUNT--;
 				}
+				return null;
 			}
 		}
-		catch (Exception e)
+	}
+	
+	/**
+	 * Restored offline stores are not players until loaded, so {@link World#getPlayer(int)} does not find them.
+	 * @param objectId the character object id
+	 * @return the restored offline store of the character, {@code null} if it has none or it is loaded as a player
+	 */
+	public OfflineTrader getTrader(int objectId)
+	{
+		return _traders.get(objectId);
+	}
+	
+	/**
+	 * Removes a restored offline store that was not loaded as a player from the world, when its character logs in.
+	 * @param objectId the character object id
+	 */
+	public void removeOfflineTrader(int objectId)
+	{
+		final OfflineTrader trader = _traders.remove(objectId);
+		if (trader != null)
 		{
-			LOGGER.log(Level.WARNING, getClass().getSimpleName() + ": Error while loading offline traders: ", e);
+			trader.decayMe();
+			World.OFFLINE_TRADE_COUNT--;
 		}
 	}
 	
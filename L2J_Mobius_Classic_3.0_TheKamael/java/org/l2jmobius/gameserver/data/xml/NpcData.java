@@ -46,6 +46,7 @@ import org.l2jmobius.gameserver.enums.MpRewardAffectType;
 import org.l2jmobius.gameserver.enums.MpRewardType;
 import org.l2jmobius.gameserver.model.StatSet;
 import org.l2jmobius.gameserver.model.actor.templates.NpcTemplate;
+import org.l2jmobius.gameserver.model.drops.DropSampler;
 import org.l2jmobius.gameserver.model.effects.EffectType;
 import org.l2jmobius.gameserver.model.holders.DropGroupHolder;
 import org.l2jmobius.gameserver.model.holders.DropHolder;
@@ -81,6 +82,22 @@ public class NpcData implements IXmlReader
 			parseDatapackDirectory("data/stats/npcs/custom", true);
 			LOGGER.info(getClass().getSimpleName() + ": Loaded " + (_npcs.size() - npcCount) + " custom NPCs.");
 		}
+		
+		compileDrops();
+	}
+	
+	/**
+	 * Compiles the drops of all NPC templates with the current rates, after loading and after the rates are reloaded.
+	 */
+	public void compileDrops()
+	{
+		final long start = System.currentTimeMillis();
+		DropSampler.reloadLevelGaps();
+		for (NpcTemplate template : _npcs.values())
+		{
+			template.compileDrops();
+		}
+		LOGGER.info(getClass().getSimpleName() + ": Compiled drops of " + _npcs.size() + " NPCs in " + (System.currentTimeMillis() - start) + " ms.");
 	}
 	
 	@Override
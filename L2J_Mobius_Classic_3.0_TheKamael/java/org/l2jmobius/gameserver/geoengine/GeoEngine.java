@@ -52,6 +52,7 @@ public class GeoEngine
 	
 	protected GeoEngine()
 	{
+		final long startTime = System.currentTimeMillis();
 		int loadedRegions = 0;
 		try
 		{
@@ -82,7 +83,7 @@ public class GeoEngine
 			System.exit(1);
 		}
 		
-		LOGGER.info(getClass().getSimpleName() + ": Loaded " + loadedRegions + " regions.");
+		LOGGER.info(getClass().getSimpleName() + ": Mapped " + loadedRegions + " regions in " + (System.currentTimeMillis() - startTime) + " ms.");
 	}
 	
 	public boolean hasGeoPos(int geoX, int geoY)
@@ -291,35 +292,58 @@ public class GeoEngine
 	 */
 	public boolean canSeeTarget(int x, int y, int z, int tx, int ty, int tz)
 	{
-		int geoX = getGeoX(x);
-		int geoY = getGeoY(y);
-		int tGeoX = getGeoX(tx);
-		int tGeoY = getGeoY(ty);
-		
-		int nearestFromZ = getNearestZ(geoX, geoY, z);
-		int nearestToZ = getNearestZ(tGeoX, tGeoY, tz);
+		final int geoX = getGeoX(x);
+		final int geoY = getGeoY(y);
+		return canSeeTargetFromCell(geoX, geoY, getNearestZ(geoX, geoY, z), tx, ty, tz);
+	}
+	
+	/**
+	 * Can see target from a source already resolved to its cell. Does not check doors between.
+	 * @param geoX the source geo x
+	 * @param geoY the source geo y
+	 * @param nearestZ the nearest geo height of the source
+	 * @param tx the target's x coordinate
+	 * @param ty the target's y coordinate
+	 * @param tz the target's z coordinate
+	 * @return {@code true} if there is line of sight between the source cell and the given coordinates, {@code false} otherwise
+	 */
+	public boolean canSeeTargetFromCell(int geoX, int geoY, int nearestZ, int tx, int ty, int tz)
+	{
+		final int tGeoX = getGeoX(tx);
+		final int tGeoY = getGeoY(ty);
+		final int nearestToZ = getNearestZ(tGeoX, tGeoY, tz);
 		
 		// Fastpath.
 		if ((geoX == tGeoX) && (geoY == tGeoY))
 		{
-			return !hasGeoPos(tGeoX, tGeoY) || (nearestFromZ == nearestToZ);
+			return !hasGeoPos(tGeoX, tGeoY) || (nearestZ == nearestToZ);
+		}
+		
+		// The walk only depends on both cells, reuse a previous result of the same pair.
+		final long fromKey = LosCache.getKey(geoX, geoY, nearestZ);
+		final long toKey = LosCache.getKey(tGeoX, tGeoY, nearestToZ);
+		final int cached = LosCache.get(fromKey, toKey);
+		if (cached >= 0)
+		{
+			return cached == 1;
 		}
 		
-		int fromX = tx;
-		int fromY = ty;
-		int toX = tx;
-		int toY = ty;
+		final boolean canSee = canSeeCell(geoX, geoY, nearestZ, tGeoX, tGeoY, nearestToZ);
+		LosCache.put(fromKey, toKey, canSee);
+		return canSee;
+	}
+	
+	private boolean canSeeCell(int fromGeoX, int fromGeoY, int fromZ, int toGeoX, int toGeoY, int toZ)
+	{
+		int geoX = fromGeoX;
+		int geoY = fromGeoY;
+		int tGeoX = toGeoX;
+		int tGeoY = toGeoY;
+		int nearestFromZ = fromZ;
+		int nearestToZ = toZ;
 		if (nearestToZ > nearestFromZ)
 		{
-			int tmp = toX;
-			toX = fromX;
-			fromX = tmp;
-			
-			tmp = toY;
-			toY = fromY;
-			fromY = tmp;
-			
-			tmp = nearestToZ;
+			int tmp = nearestToZ;
 			nearestToZ = nearestFromZ;
 			nearestFromZ = tmp;
 			
@@ -0,0 +1,93 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.geoengine;
+
+import org.l2jmobius.gameserver.data.xml.DoorData;
+import org.l2jmobius.gameserver.data.xml.FenceData;
+import org.l2jmobius.gameserver.model.WorldObject;
+import org.l2jmobius.gameserver.model.instancezone.Instance;
+
+/**
+ * Line of sight checks of one source against many targets, as done by area skills.<br>
+ * The source position, cell and instance are resolved once, each target then goes through the same checks as {@link GeoEngine#canSeeTarget(WorldObject, WorldObject)}.
+ */
+public class LineOfSight
+{
+	private final int _x;
+	private final int _y;
+	private final int _z;
+	private final int _geoX;
+	private final int _geoY;
+	private final int _nearestZ;
+	private final Instance _instance;
+	
+	/**
+	 * @param source the object that looks at the targets
+	 */
+	public LineOfSight(WorldObject source)
+	{
+		final GeoEngine geoEngine = GeoEngine.getInstance();
+		_x = source.getX();
+		_y = source.getY();
+		_z = source.getZ();
+		_geoX = geoEngine.getGeoX(_x);
+		_geoY = geoEngine.getGeoY(_y);
+		_nearestZ = geoEngine.getNearestZ(_geoX, _geoY, _z);
+		_instance = source.getInstanceWorld();
+	}
+	
+	/**
+	 * Can see target. Doors as target always return true. Checks doors between.
+	 * @param target the target
+	 * @return {@code true} if the source can see the target (LOS), {@code false} otherwise
+	 */
+	public boolean canSee(WorldObject target)
+	{
+		if (target == null)
+		{
+			return false;
+		}
+		
+		if (target.isDoor())
+		{
+			return true;
+		}
+		
+		if (target.getInstanceWorld() != _instance)
+		{
+			return false;
+		}
+		
+		final int tx = target.getX();
+		final int ty = target.getY();
+		final int tz = target.getZ();
+		
+		// Door checks.
+		if (DoorData.getInstance().checkIfDoorsBetween(_x, _y, _z, tx, ty, tz, _instance, true))
+		{
+			return false;
+		}
+		
+		// Fence checks.
+		if (FenceData.getInstance().checkIfFenceBetween(_x, _y, _z, tx, ty, tz, _instance))
+		{
+			return false;
+		}
+		
+		return GeoEngine.getInstance().canSeeTargetFromCell(_geoX, _geoY, _nearestZ, tx, ty, tz);
+	}
+}
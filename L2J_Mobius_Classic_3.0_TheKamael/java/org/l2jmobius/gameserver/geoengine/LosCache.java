@@ -0,0 +1,118 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.geoengine;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.l2jmobius.Config;
+
+/**
+ * Bounded cache of the geodata line of sight walks, keyed by the source and target cells with their nearest heights.<br>
+ * Geodata does not change at runtime, so an entry stays valid until another pair takes its place. Doors and fences are not part of the walk and are always checked by the caller.<br>
+ * Entries are direct mapped and immutable, so concurrent readers and writers need no lock; a lost write only costs a later miss.
+ */
+public class LosCache
+{
+	private static final int SIZE = Config.LOS_CACHE_SIZE > 0 ? Integer.highestOneBit(Config.LOS_CACHE_SIZE) : 0;
+	private static final int MASK = SIZE - 1;
+	private static final Entry[] ENTRIES = new Entry[SIZE];
+	
+	private static final LongAdder HITS = new LongAdder();
+	private static final LongAdder MISSES = new LongAdder();
+	
+	private LosCache()
+	{
+	}
+	
+	/**
+	 * @param geoX the geo x of the cell
+	 * @param geoY the geo y of the cell
+	 * @param geoZ the nearest geo height of the cell
+	 * @return the cell packed in a key
+	 */
+	public static long getKey(int geoX, int geoY, int geoZ)
+	{
+		return ((geoX & 0xFFFFL) << 32) | ((geoY & 0xFFFFL) << 16) | (geoZ & 0xFFFFL);
+	}
+	
+	/**
+	 * @param from the key of the source cell
+	 * @param to the key of the target cell
+	 * @return 1 if the target can be seen, 0 if it cannot, -1 if the pair is not cached
+	 */
+	public static int get(long from, long to)
+	{
+		if (SIZE == 0)
+		{
+			return -1;
+		}
+		
+		final Entry entry = ENTRIES[getIndex(from, to)];
+		if ((entry != null) && (entry._from == from) && (entry._to == to))
+		{
+			HITS.increment();
+			return entry._canSee ? 1 : 0;
+		}
+		
+		MISSES.increment();
+		return -1;
+	}
+	
+	public static void put(long from, long to, boolean canSee)
+	{
+		if (SIZE > 0)
+		{
+			ENTRIES[getIndex(from, to)] = new Entry(from, to, canSee);
+		}
+	}
+	
+	private static int getIndex(long from, long to)
+	{
+		long hash = (from * 0x9E3779B97F4A7C15L) ^ (to * 0xC2B2AE3D27D4EB4FL);
+		hash ^= hash >>> 29;
+		return (int) hash & MASK;
+	}
+	
+	public static String[] getStats()
+	{
+		final long hits = HITS.sum();
+		final long total = Math.max(1, hits + MISSES.sum());
+		return new String[]
+		{
+			"Line of sight cache:",
+			" |- Size: .............. " + SIZE,
+			" |- Hits: .............. " + hits,
+			" |- Misses: ............ " + MISSES.sum(),
+			" |- HitRate: ........... " + String.format("%.2f", (hits * 100d) / total) + "%",
+			" | -------"
+		};
+	}
+	
+	private static class Entry
+	{
+		private final long _from;
+		private final long _to;
+		private final boolean _canSee;
+		
+		public Entry(long from, long to, boolean canSee)
+		{
+			_from = from;
+			_to = to;
+			_canSee = canSee;
+		}
+	}
+}
@@ -17,82 +17,373 @@
 package org.l2jmobius.gameserver.geoengine.geodata.regions;
 
 import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
 
 import org.l2jmobius.gameserver.geoengine.geodata.IBlock;
 import org.l2jmobius.gameserver.geoengine.geodata.IRegion;
-import org.l2jmobius.gameserver.geoengine.geodata.blocks.ComplexBlock;
-import org.l2jmobius.gameserver.geoengine.geodata.blocks.FlatBlock;
-import org.l2jmobius.gameserver.geoengine.geodata.blocks.MultilayerBlock;
 
 /**
+ * Region reading its blocks in place from the memory mapped geodata file.<br>
+ * The block offset index is built on first access, so regions nobody visits only cost their mapping.<br>
+ * Block data layout (little endian):
+ * <ul>
+ * <li>Flat: type byte, height short.</li>
+ * <li>Complex: type byte, {@link IBlock#BLOCK_CELLS} cell data shorts.</li>
+ * <li>Multilayer: type byte, for each cell a layer count byte followed by that many layer data shorts.</li>
+ * </ul>
  * @author HorridoJoho
  */
 public final class Region implements IRegion
 {
-	private final IBlock[] _blocks = new IBlock[IRegion.REGION_BLOCKS];
+	private static final Logger LOGGER = Logger.getLogger(Region.class.getName());
 	
-	public Region(ByteBuffer bb)
+	private static final int[] INVALID = new int[0];
+	
+	private static final AtomicInteger MAPPED_REGIONS = new AtomicInteger();
+	private static final AtomicLong MAPPED_BYTES = new AtomicLong();
+	private static final AtomicInteger INDEXED_REGIONS = new AtomicInteger();
+	
+	private final String _name;
+	private final ByteBuffer _buffer;
+	private volatile int[] _blockOffsets;
+	
+	public Region(String name, ByteBuffer buffer)
+	{
+		_name = name;
+		_buffer = buffer;
+		MAPPED_REGIONS.incrementAndGet();
+		MAPPED_BYTES.addAndGet(buffer.capacity());
+	}
+	
+	/**
+	 * @return the offsets of all blocks in the buffer, or {@link #INVALID} if the file is corrupted
+	 */
+	private int[] getBlockOffsets()
 	{
-		for (int blockOffset = 0; blockOffset < IRegion.REGION_BLOCKS; blockOffset++)
+		int[] blockOffsets = _blockOffsets;
+		if (blockOffsets == null)
 		{
-			final int blockType = bb.get();
-			switch (blockType)
+			synchronized (this)
 			{
-				case IBlock.TYPE_FLAT:
+				blockOffsets = _blockOffsets;
+				if (blockOffsets == null)
 				{
-					_blocks[blockOffset] = new FlatBlock(bb);
-					break;
+					blockOffsets = indexBlocks();
+					_blockOffsets = blockOffsets;
 				}
-				case IBlock.TYPE_COMPLEX:
-				{
-					_blocks[blockOffset] = new ComplexBlock(bb);
-					break;
-				}
-				case IBlock.TYPE_MULTILAYER:
-				{
-					_blocks[blockOffset] = new MultilayerBlock(bb);
-					break;
-				}
-				default:
+			}
+		}
+		return blockOffsets;
+	}
+	
+	private int[] indexBlocks()
+	{
+		final int[] blockOffsets = new int[IRegion.REGION_BLOCKS];
+		int offset = 0;
+		try
+		{
+			for (int blockOffset = 0; blockOffset < IRegion.REGION_BLOCKS; blockOffset++)
+			{
+				blockOffsets[blockOffset] = offset;
+				final int blockType = _buffer.get(offset);
+				switch (blockType)
 				{
-					throw new RuntimeException("Invalid block type " + blockType + "!");
+					case IBlock.TYPE_FLAT:
+					{
+						offset += 3;
+						break;
+					}
+					case IBlock.TYPE_COMPLEX:
+					{
+						offset += 1 + (IBlock.BLOCK_CELLS * 2);
+						break;
+					}
+					case IBlock.TYPE_MULTILAYER:
+					{
+						offset++;
+						for (int blockCellOffset = 0; blockCellOffset < IBlock.BLOCK_CELLS; blockCellOffset++)
+						{
+							final byte nLayers = _buffer.get(offset);
+							if ((nLayers <= 0) || (nLayers > 125))
+							{
+								throw new RuntimeException("Invalid layers count!");
+							}
+							offset += 1 + (nLayers * 2);
+						}
+						break;
+					}
+					default:
+					{
+						throw new RuntimeException("Invalid block type " + blockType + "!");
+					}
 				}
 			}
 		}
+		catch (Exception e)
+		{
+			LOGGER.warning(getClass().getSimpleName() + ": Geo file " + _name + " corrupted at offset " + offset + "! " + e.getMessage());
+			return INVALID;
+		}
+		
+		INDEXED_REGIONS.incrementAndGet();
+		return blockOffsets;
+	}
+	
+	/**
+	 * @param geoX the geo X
+	 * @param geoY the geo Y
+	 * @return the offset of the block containing the cell, or -1 if the file is corrupted
+	 */
+	private int getBlockOffset(int geoX, int geoY)
+	{
+		final int[] blockOffsets = getBlockOffsets();
+		if (blockOffsets == INVALID)
+		{
+			return -1;
+		}
+		return blockOffsets[(((geoX / IBlock.BLOCK_CELLS_X) % IRegion.REGION_BLOCKS_X) * IRegion.REGION_BLOCKS_Y) + ((geoY / IBlock.BLOCK_CELLS_Y) % IRegion.REGION_BLOCKS_Y)];
+	}
+	
+	private static int getCellLocalOffset(int geoX, int geoY)
+	{
+		return ((geoX % IBlock.BLOCK_CELLS_X) * IBlock.BLOCK_CELLS_Y) + (geoY % IBlock.BLOCK_CELLS_Y);
+	}
+	
+	/**
+	 * @param blockOffset the offset of a complex block
+	 * @param geoX the geo X
+	 * @param geoY the geo Y
+	 * @return the cell data of the complex block
+	 */
+	private short getComplexCellData(int blockOffset, int geoX, int geoY)
+	{
+		return _buffer.getShort(blockOffset + 1 + (getCellLocalOffset(geoX, geoY) * 2));
+	}
+	
+	/**
+	 * @param blockOffset the offset of a multilayer block
+	 * @param geoX the geo X
+	 * @param geoY the geo Y
+	 * @return the offset of the layer count of the cell in the multilayer block
+	 */
+	private int getMultilayerCellOffset(int blockOffset, int geoX, int geoY)
+	{
+		final int cellLocalOffset = getCellLocalOffset(geoX, geoY);
+		int cellDataOffset = blockOffset + 1;
+		for (int i = 0; i < cellLocalOffset; i++)
+		{
+			cellDataOffset += 1 + (_buffer.get(cellDataOffset) * 2);
+		}
+		return cellDataOffset;
+	}
+	
+	private short getNearestLayer(int blockOffset, int geoX, int geoY, int worldZ)
+	{
+		final int startOffset = getMultilayerCellOffset(blockOffset, geoX, geoY);
+		final byte nLayers = _buffer.get(startOffset);
+		final int endOffset = startOffset + 1 + (nLayers * 2);
+		
+		// One layer at least was required on indexing so this is set at least once on the loop below.
+		int nearestDZ = 0;
+		short nearestData = 0;
+		for (int offset = startOffset + 1; offset < endOffset; offset += 2)
+		{
+			final short layerData = _buffer.getShort(offset);
+			final int layerZ = extractHeight(layerData);
+			if (layerZ == worldZ)
+			{
+				// Exact z.
+				return layerData;
+			}
+			
+			final int layerDZ = Math.abs(layerZ - worldZ);
+			if ((offset == (startOffset + 1)) || (layerDZ < nearestDZ))
+			{
+				nearestDZ = layerDZ;
+				nearestData = layerData;
+			}
+		}
+		
+		return nearestData;
+	}
+	
+	private static int extractNswe(short data)
+	{
+		return (byte) (data & 0x000F);
 	}
 	
-	private IBlock getBlock(int geoX, int geoY)
+	private static int extractHeight(short data)
 	{
-		return _blocks[(((geoX / IBlock.BLOCK_CELLS_X) % IRegion.REGION_BLOCKS_X) * IRegion.REGION_BLOCKS_Y) + ((geoY / IBlock.BLOCK_CELLS_Y) % IRegion.REGION_BLOCKS_Y)];
+		return (short) (data & 0x0FFF0) >> 1;
 	}
 	
 	@Override
 	public boolean checkNearestNswe(int geoX, int geoY, int worldZ, int nswe)
 	{
-		return getBlock(geoX, geoY).checkNearestNswe(geoX, geoY, worldZ, nswe);
+		final int blockOffset = getBlockOffset(geoX, geoY);
+		if (blockOffset < 0)
+		{
+			return NullRegion.INSTANCE.checkNearestNswe(geoX, geoY, worldZ, nswe);
+		}
+		
+		switch (_buffer.get(blockOffset))
+		{
+			case IBlock.TYPE_FLAT:
+			{
+				return true;
+			}
+			case IBlock.TYPE_COMPLEX:
+			{
+				return (extractNswe(getComplexCellData(blockOffset, geoX, geoY)) & nswe) == nswe;
+			}
+			default:
+			{
+				return (extractNswe(getNearestLayer(blockOffset, geoX, geoY, worldZ)) & nswe) == nswe;
+			}
+		}
 	}
 	
 	@Override
 	public int getNearestZ(int geoX, int geoY, int worldZ)
 	{
-		return getBlock(geoX, geoY).getNearestZ(geoX, geoY, worldZ);
+		final int blockOffset = getBlockOffset(geoX, geoY);
+		if (blockOffset < 0)
+		{
+			return NullRegion.INSTANCE.getNearestZ(geoX, geoY, worldZ);
+		}
+		
+		switch (_buffer.get(blockOffset))
+		{
+			case IBlock.TYPE_FLAT:
+			{
+				return _buffer.getShort(blockOffset + 1);
+			}
+			case IBlock.TYPE_COMPLEX:
+			{
+				return extractHeight(getComplexCellData(blockOffset, geoX, geoY));
+			}
+			default:
+			{
+				return extractHeight(getNearestLayer(blockOffset, geoX, geoY, worldZ));
+			}
+		}
 	}
 	
 	@Override
 	public int getNextLowerZ(int geoX, int geoY, int worldZ)
 	{
-		return getBlock(geoX, geoY).getNextLowerZ(geoX, geoY, worldZ);
+		final int blockOffset = getBlockOffset(geoX, geoY);
+		if (blockOffset < 0)
+		{
+			return NullRegion.INSTANCE.getNextLowerZ(geoX, geoY, worldZ);
+		}
+		
+		switch (_buffer.get(blockOffset))
+		{
+			case IBlock.TYPE_FLAT:
+			{
+				final int height = _buffer.getShort(blockOffset + 1);
+				return height <= worldZ ? height : worldZ;
+			}
+			case IBlock.TYPE_COMPLEX:
+			{
+				final int cellHeight = extractHeight(getComplexCellData(blockOffset, geoX, geoY));
+				return cellHeight <= worldZ ? cellHeight : worldZ;
+			}
+			default:
+			{
+				final int startOffset = getMultilayerCellOffset(blockOffset, geoX, geoY);
+				final byte nLayers = _buffer.get(startOffset);
+				final int endOffset = startOffset + 1 + (nLayers * 2);
+				
+				int lowerZ = Integer.MIN_VALUE;
+				for (int offset = startOffset + 1; offset < endOffset; offset += 2)
+				{
+					final int layerZ = extractHeight(_buffer.getShort(offset));
+					if (layerZ == worldZ)
+					{
+						// Exact z.
+						return layerZ;
+					}
+					
+					if ((layerZ < worldZ) && (layerZ > lowerZ))
+					{
+						lowerZ = layerZ;
+					}
+				}
+				
+				return lowerZ == Integer.MIN_VALUE ? worldZ : lowerZ;
+			}
+		}
 	}
 	
 	@Override
 	public int getNextHigherZ(int geoX, int geoY, int worldZ)
 	{
-		return getBlock(geoX, geoY).getNextHigherZ(geoX, geoY, worldZ);
+		final int blockOffset = getBlockOffset(geoX, geoY);
+		if (blockOffset < 0)
+		{
+			return NullRegion.INSTANCE.getNextHigherZ(geoX, geoY, worldZ);
+		}
+		
+		switch (_buffer.get(blockOffset))
+		{
+			case IBlock.TYPE_FLAT:
+			{
+				final int height = _buffer.getShort(blockOffset + 1);
+				return height >= worldZ ? height : worldZ;
+			}
+			case IBlock.TYPE_COMPLEX:
+			{
+				final int cellHeight = extractHeight(getComplexCellData(blockOffset, geoX, geoY));
+				return cellHeight >= worldZ ? cellHeight : worldZ;
+			}
+			default:
+			{
+				final int startOffset = getMultilayerCellOffset(blockOffset, geoX, geoY);
+				final byte nLayers = _buffer.get(startOffset);
+				final int endOffset = startOffset + 1 + (nLayers * 2);
+				
+				int higherZ = Integer.MAX_VALUE;
+				for (int offset = startOffset + 1; offset < endOffset; offset += 2)
+				{
+					final int layerZ = extractHeight(_buffer.getShort(offset));
+					if (layerZ == worldZ)
+					{
+						// Exact z.
+						return layerZ;
+					}
+					
+					if ((layerZ > worldZ) && (layerZ < higherZ))
+					{
+						higherZ = layerZ;
+					}
+				}
+				
+				return higherZ == Integer.MAX_VALUE ? worldZ : higherZ;
+			}
+		}
 	}
 	
 	@Override
 	public boolean hasGeo()
 	{
-		return true;
+		return getBlockOffsets() != INVALID;
+	}
+	
+	public static String[] getStats()
+	{
+		final int indexed = INDEXED_REGIONS.get();
+		return new String[]
+		{
+			"Geodata:",
+			" |- MappedRegions: ...... " + MAPPED_REGIONS.get(),
+			" |- MappedBytes: ........ " + (MAPPED_BYTES.get() / 1048576) + "MB",
+			" |- IndexedRegions: ..... " + indexed,
+			" |- IndexHeap: .......... " + ((indexed * (long) IRegion.REGION_BLOCKS * 4) / 1024) + "KB",
+			" | -------"
+		};
 	}
 }
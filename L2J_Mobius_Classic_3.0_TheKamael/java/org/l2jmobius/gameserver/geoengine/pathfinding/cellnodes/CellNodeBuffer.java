@@ -16,23 +16,47 @@
  */
 package org.l2jmobius.gameserver.geoengine.pathfinding.cellnodes;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ObjDoubleConsumer;
 
 import org.l2jmobius.Config;
+import org.l2jmobius.gameserver.geoengine.GeoEngine;
+import org.l2jmobius.gameserver.geoengine.geodata.Cell;
+import org.l2jmobius.gameserver.geoengine.pathfinding.AbstractNodeLoc;
 
 /**
+ * Pathfinding workspace, used by one search at a time.<br>
+ * Nodes are identified by their int index in the map and all node data is kept in primitive arrays, that are reused by the following searches.<br>
+ * The open set is a binary heap ordered by cost, nodes of equal cost leave it in insertion order.
  * @author DS Credits to Diamond
  */
 public class CellNodeBuffer
 {
 	private static final int MAX_ITERATIONS = 3500;
+	private static final int MAX_OPEN_NODES = MAX_ITERATIONS * 8;
+	private static final byte NO_PARENT = 4;
 	
-	private final ReentrantLock _lock = new ReentrantLock();
-	private final int _mapSize;
-	private final CellNode[][] _buffer;
+	// Node data, indexed by ((x - baseX) * mapSize) + (y - baseY).
+	private long[] _known = new long[0];
+	private long[] _visited = new long[0];
+	private byte[] _nswe = new byte[0];
+	private short[] _height = new short[0];
+	private float[] _cost = new float[0];
+	private byte[] _parent = new byte[0];
 	
+	// Open set.
+	private final long[] _heapKeys = new long[MAX_OPEN_NODES];
+	private final int[] _heapNodes = new int[MAX_OPEN_NODES];
+	private int _heapSize = 0;
+	private int _sequence = 0;
+	
+	private final int[] _path = new int[MAX_ITERATIONS + 1];
+	
+	private final boolean _temporary;
+	
+	private int _mapSize = 0;
 	private int _baseX = 0;
 	private int _baseY = 0;
 	
@@ -40,138 +64,214 @@ public class CellNodeBuffer
 	private int _targetY = 0;
 	private int _targetZ = 0;
 	
-	private long _timeStamp = 0;
-	private long _lastElapsedTime = 0;
+	private int _current = -1;
+	private int _currentX = 0;
+	private int _currentY = 0;
+	private int _iterations = 0;
+	
+	public CellNodeBuffer()
+	{
+		this(false);
+	}
 	
-	private CellNode _current = null;
+	/**
+	 * @param temporary {@code true} for a buffer used by a single search, {@code false} for a pooled buffer
+	 */
+	public CellNodeBuffer(boolean temporary)
+	{
+		_temporary = temporary;
+	}
 	
-	public CellNodeBuffer(int size)
+	public boolean isTemporary()
 	{
-		_mapSize = size;
-		_buffer = new CellNode[_mapSize][_mapSize];
+		return _temporary;
 	}
 	
-	public final boolean lock()
+	/**
+	 * Prepares the workspace for a search.
+	 * @param mapSize the map size of the search
+	 * @return {@code true} if the node arrays had to be allocated, {@code false} if they were reused
+	 */
+	public final boolean init(int mapSize)
 	{
-		return _lock.tryLock();
+		_mapSize = mapSize;
+		_heapSize = 0;
+		_sequence = 0;
+		_current = -1;
+		_iterations = 0;
+		
+		final int nodes = mapSize * mapSize;
+		final int words = (nodes + 63) >>> 6;
+		if (_cost.length < nodes)
+		{
+			_known = new long[words];
+			_visited = new long[words];
+			_nswe = new byte[nodes];
+			_height = new short[nodes];
+			_cost = new float[nodes];
+			_parent = new byte[nodes];
+			return true;
+		}
+		
+		Arrays.fill(_known, 0, words, 0);
+		Arrays.fill(_visited, 0, words, 0);
+		return false;
 	}
 	
-	public final CellNode findPath(int x, int y, int z, int tx, int ty, int tz)
+	public final boolean findPath(int x, int y, int z, int tx, int ty, int tz)
 	{
-		_timeStamp = System.currentTimeMillis();
 		_baseX = x + ((tx - x - _mapSize) / 2); // Middle of the line (x,y) - (tx,ty).
 		_baseY = y + ((ty - y - _mapSize) / 2); // Will be in the center of the buffer.
 		_targetX = tx;
 		_targetY = ty;
 		_targetZ = tz;
 		_current = getNode(x, y, z);
-		_current.setCost(getCost(x, y, z, Config.HIGH_WEIGHT));
+		set(_visited, _current);
+		_parent[_current] = NO_PARENT;
+		_cost[_current] = (float) getCost(x, y, z, Config.HIGH_WEIGHT);
 		
-		for (int count = 0; count < MAX_ITERATIONS; count++)
+		for (_iterations = 0; _iterations < MAX_ITERATIONS; _iterations++)
 		{
-			if ((_current.getLoc().getNodeX() == _targetX) && (_current.getLoc().getNodeY() == _targetY) && (Math.abs(_current.getLoc().getZ() - _targetZ) < 64))
+			_currentX = getNodeX(_current);
+			_currentY = getNodeY(_current);
+			if ((_currentX == _targetX) && (_currentY == _targetY) && (Math.abs(_height[_current] - _targetZ) < 64))
 			{
-				return _current; // Found.
+				return true; // Found.
 			}
 			
 			getNeighbors();
-			if (_current.getNext() == null)
+			if (_heapSize == 0)
 			{
-				return null; // No more ways.
+				return false; // No more ways.
 			}
 			
-			_current = _current.getNext();
+			_current = poll();
 		}
-		return null;
+		return false;
 	}
 	
-	public final void free()
+	public final int getIterations()
 	{
-		_current = null;
+		return _iterations;
+	}
+	
+	/**
+	 * Builds the path to the last found node, keeping only the nodes where moving direction changes.
+	 * @return the path
+	 */
+	public final List<AbstractNodeLoc> constructPath()
+	{
+		int size = 0;
+		int previousDirectionX = Integer.MIN_VALUE;
+		int previousDirectionY = Integer.MIN_VALUE;
+		int directionX;
+		int directionY;
 		
-		CellNode node;
-		for (int i = 0; i < _mapSize; i++)
+		int node = _current;
+		int parent = getParent(node);
+		while (parent >= 0)
 		{
-			for (int j = 0; j < _mapSize; j++)
+			final int grandParent = getParent(parent);
+			if (!Config.ADVANCED_DIAGONAL_STRATEGY && (grandParent >= 0))
 			{
-				node = _buffer[i][j];
-				if (node != null)
+				final int tmpX = getNodeX(node) - getNodeX(grandParent);
+				final int tmpY = getNodeY(node) - getNodeY(grandParent);
+				if (Math.abs(tmpX) == Math.abs(tmpY))
 				{
-					node.free();
+					directionX = tmpX;
+					directionY = tmpY;
 				}
+				else
+				{
+					directionX = getNodeX(node) - getNodeX(parent);
+					directionY = getNodeY(node) - getNodeY(parent);
+				}
+			}
+			else
+			{
+				directionX = getNodeX(node) - getNodeX(parent);
+				directionY = getNodeY(node) - getNodeY(parent);
+			}
+			
+			// Only add a new route point if moving direction changes.
+			if ((directionX != previousDirectionX) || (directionY != previousDirectionY))
+			{
+				previousDirectionX = directionX;
+				previousDirectionY = directionY;
+				_path[size++] = node;
 			}
+			
+			node = parent;
+			parent = grandParent;
 		}
 		
-		_lock.unlock();
-		_lastElapsedTime = System.currentTimeMillis() - _timeStamp;
-	}
-	
-	public final long getElapsedTime()
-	{
-		return _lastElapsedTime;
+		final List<AbstractNodeLoc> path = new ArrayList<>(size);
+		for (int i = size - 1; i >= 0; i--)
+		{
+			path.add(getLoc(_path[i]));
+		}
+		return path;
 	}
 	
-	public final List<CellNode> debugPath()
+	/**
+	 * Passes the nodes of the last search to the consumer, nodes of the path to the last node with a negative cost.
+	 * @param consumer the consumer
+	 */
+	public final void debugPath(ObjDoubleConsumer<AbstractNodeLoc> consumer)
 	{
-		final List<CellNode> result = new LinkedList<>();
-		for (CellNode n = _current; n.getParent() != null; n = (CellNode) n.getParent())
+		for (int node = _current; getParent(node) >= 0; node = getParent(node))
 		{
-			result.add(n);
-			n.setCost(-n.getCost());
+			_cost[node] = -_cost[node];
+			consumer.accept(getLoc(node), _cost[node]);
 		}
 		
-		for (int i = 0; i < _mapSize; i++)
+		final int nodes = _mapSize * _mapSize;
+		for (int node = 0; node < nodes; node++)
 		{
-			for (int j = 0; j < _mapSize; j++)
+			if (isSet(_visited, node) && (_cost[node] > 0))
 			{
-				final CellNode n = _buffer[i][j];
-				if ((n == null) || !n.isInUse() || (n.getCost() <= 0))
-				{
-					continue;
-				}
-				
-				result.add(n);
+				consumer.accept(getLoc(node), _cost[node]);
 			}
 		}
-		return result;
 	}
 	
 	private final void getNeighbors()
 	{
-		if (_current.getLoc().canGoNone())
+		final int nswe = _nswe[_current];
+		if (nswe == 0)
 		{
 			return;
 		}
 		
-		final int x = _current.getLoc().getNodeX();
-		final int y = _current.getLoc().getNodeY();
-		final int z = _current.getLoc().getZ();
+		final int x = _currentX;
+		final int y = _currentY;
+		final int z = _height[_current];
 		
-		CellNode nodeE = null;
-		CellNode nodeS = null;
-		CellNode nodeW = null;
-		CellNode nodeN = null;
+		int nodeE = -1;
+		int nodeS = -1;
+		int nodeW = -1;
+		int nodeN = -1;
 		
 		// East
-		if (_current.getLoc().canGoEast())
+		if ((nswe & Cell.NSWE_EAST) != 0)
 		{
 			nodeE = addNode(x + 1, y, z, false);
 		}
 		
 		// South
-		if (_current.getLoc().canGoSouth())
+		if ((nswe & Cell.NSWE_SOUTH) != 0)
 		{
 			nodeS = addNode(x, y + 1, z, false);
 		}
 		
 		// West
-		if (_current.getLoc().canGoWest())
+		if ((nswe & Cell.NSWE_WEST) != 0)
 		{
 			nodeW = addNode(x - 1, y, z, false);
 		}
 		
 		// North
-		if (_current.getLoc().canGoNorth())
+		if ((nswe & Cell.NSWE_NORTH) != 0)
 		{
 			nodeN = addNode(x, y - 1, z, false);
 		}
@@ -182,85 +282,98 @@ public class CellNodeBuffer
 		}
 		
 		// SouthEast
-		if ((nodeE != null) && (nodeS != null) && nodeE.getLoc().canGoSouth() && nodeS.getLoc().canGoEast())
+		if ((nodeE >= 0) && (nodeS >= 0) && canGo(nodeE, Cell.NSWE_SOUTH) && canGo(nodeS, Cell.NSWE_EAST))
 		{
 			addNode(x + 1, y + 1, z, true);
 		}
 		
 		// SouthWest
-		if ((nodeS != null) && (nodeW != null) && nodeW.getLoc().canGoSouth() && nodeS.getLoc().canGoWest())
+		if ((nodeS >= 0) && (nodeW >= 0) && canGo(nodeW, Cell.NSWE_SOUTH) && canGo(nodeS, Cell.NSWE_WEST))
 		{
 			addNode(x - 1, y + 1, z, true);
 		}
 		
 		// NorthEast
-		if ((nodeN != null) && (nodeE != null) && nodeE.getLoc().canGoNorth() && nodeN.getLoc().canGoEast())
+		if ((nodeN >= 0) && (nodeE >= 0) && canGo(nodeE, Cell.NSWE_NORTH) && canGo(nodeN, Cell.NSWE_EAST))
 		{
 			addNode(x + 1, y - 1, z, true);
 		}
 		
 		// NorthWest
-		if ((nodeN != null) && (nodeW != null) && nodeW.getLoc().canGoNorth() && nodeN.getLoc().canGoWest())
+		if ((nodeN >= 0) && (nodeW >= 0) && canGo(nodeW, Cell.NSWE_NORTH) && canGo(nodeN, Cell.NSWE_WEST))
 		{
 			addNode(x - 1, y - 1, z, true);
 		}
 	}
 	
-	private final CellNode getNode(int x, int y, int z)
+	/**
+	 * @param x the geodata x
+	 * @param y the geodata y
+	 * @param z the z used to read the geodata of a node seen for the first time
+	 * @return the node, or -1 if it is outside of the map
+	 */
+	private final int getNode(int x, int y, int z)
 	{
 		final int aX = x - _baseX;
 		if ((aX < 0) || (aX >= _mapSize))
 		{
-			return null;
+			return -1;
 		}
 		
 		final int aY = y - _baseY;
 		if ((aY < 0) || (aY >= _mapSize))
 		{
-			return null;
+			return -1;
 		}
 		
-		CellNode result = _buffer[aX][aY];
-		if (result == null)
-		{
-			result = new CellNode(new NodeLoc(x, y, z));
-			_buffer[aX][aY] = result;
-		}
-		else if (!result.isInUse())
+		final int node = (aX * _mapSize) + aY;
+		if (!isSet(_known, node))
 		{
-			result.setInUse();
-			// Re-init node if needed.
-			if (result.getLoc() != null)
+			set(_known, node);
+			
+			final GeoEngine geoEngine = GeoEngine.getInstance();
+			int nswe = 0;
+			if (geoEngine.checkNearestNswe(x, y, z, Cell.NSWE_NORTH))
 			{
-				result.getLoc().set(x, y, z);
+				nswe |= Cell.NSWE_NORTH;
 			}
-			else
+			if (geoEngine.checkNearestNswe(x, y, z, Cell.NSWE_EAST))
 			{
-				result.setLoc(new NodeLoc(x, y, z));
+				nswe |= Cell.NSWE_EAST;
 			}
+			if (geoEngine.checkNearestNswe(x, y, z, Cell.NSWE_SOUTH))
+			{
+				nswe |= Cell.NSWE_SOUTH;
+			}
+			if (geoEngine.checkNearestNswe(x, y, z, Cell.NSWE_WEST))
+			{
+				nswe |= Cell.NSWE_WEST;
+			}
+			_nswe[node] = (byte) nswe;
+			_height[node] = (short) geoEngine.getNearestZ(x, y, z);
 		}
 		
-		return result;
+		return node;
 	}
 	
-	private final CellNode addNode(int x, int y, int z, boolean diagonal)
+	private final int addNode(int x, int y, int z, boolean diagonal)
 	{
-		final CellNode newNode = getNode(x, y, z);
-		if (newNode == null)
+		final int node = getNode(x, y, z);
+		if (node < 0)
 		{
-			return null;
+			return -1;
 		}
-		if (newNode.getCost() >= 0)
+		if (isSet(_visited, node))
 		{
-			return newNode;
+			return node;
 		}
 		
-		final int geoZ = newNode.getLoc().getZ();
+		final int geoZ = _height[node];
 		
-		final int stepZ = Math.abs(geoZ - _current.getLoc().getZ());
+		final int stepZ = Math.abs(geoZ - _height[_current]);
 		float weight = diagonal ? Config.DIAGONAL_WEIGHT : Config.LOW_WEIGHT;
 		
-		if (!newNode.getLoc().canGoAll() || (stepZ > 16))
+		if ((_nswe[node] != Cell.NSWE_ALL) || (stepZ > 16))
 		{
 			weight = Config.HIGH_WEIGHT;
 		}
@@ -281,36 +394,23 @@ public class CellNodeBuffer
 			weight = Config.MEDIUM_WEIGHT;
 		}
 		
-		newNode.setParent(_current);
-		newNode.setCost(getCost(x, y, geoZ, weight));
-		
-		CellNode node = _current;
-		int count = 0;
-		while ((node.getNext() != null) && (count < (MAX_ITERATIONS * 4)))
-		{
-			count++;
-			if (node.getNext().getCost() > newNode.getCost())
-			{
-				// Insert node into a chain.
-				newNode.setNext(node.getNext());
-				break;
-			}
-			node = node.getNext();
-		}
-		if (count == (MAX_ITERATIONS * 4))
-		{
-			System.err.println("Pathfinding: too long loop detected, cost:" + newNode.getCost());
-		}
-		
-		node.setNext(newNode); // Add last.
+		set(_visited, node);
+		_parent[node] = (byte) (((x - _currentX + 1) * 3) + (y - _currentY + 1));
+		_cost[node] = (float) getCost(x, y, geoZ, weight);
+		offer(node);
 		
-		return newNode;
+		return node;
 	}
 	
 	private final boolean isHighWeight(int x, int y, int z)
 	{
-		final CellNode result = getNode(x, y, z);
-		return (result == null) || !result.getLoc().canGoAll() || (Math.abs(result.getLoc().getZ() - z) > 16);
+		final int node = getNode(x, y, z);
+		return (node < 0) || (_nswe[node] != Cell.NSWE_ALL) || (Math.abs(_height[node] - z) > 16);
+	}
+	
+	private final boolean canGo(int node, int nswe)
+	{
+		return (_nswe[node] & nswe) != 0;
 	}
 	
 	private final double getCost(int x, int y, int z, float weight)
@@ -332,4 +432,95 @@ public class CellNodeBuffer
 		
 		return result;
 	}
-}
\ No newline at end of file
+	
+	private final int getNodeX(int node)
+	{
+		return _baseX + (node / _mapSize);
+	}
+	
+	private final int getNodeY(int node)
+	{
+		return _baseY + (node % _mapSize);
+	}
+	
+	/**
+	 * @param node the node
+	 * @return the node it was reached from, or -1 for the start node
+	 */
+	private final int getParent(int node)
+	{
+		final int parent = _parent[node];
+		if (parent == NO_PARENT)
+		{
+			return -1;
+		}
+		return node - ((((parent / 3) - 1) * _mapSize) + ((parent % 3) - 1));
+	}
+	
+	private final NodeLoc getLoc(int node)
+	{
+		return new NodeLoc(getNodeX(node), getNodeY(node), _nswe[node], _height[node]);
+	}
+	
+	/**
+	 * Adds a node to the open set, costs are positive so their float bits keep the order and the sequence keeps insertion order for equal costs.
+	 * @param node the node
+	 */
+	private final void offer(int node)
+	{
+		final long key = ((long) Float.floatToIntBits(_cost[node]) << 32) | _sequence++;
+		int index = _heapSize++;
+		while (index > 0)
+		{
+			final int parent = (index - 1) >>> 1;
+			if (_heapKeys[parent] <= key)
+			{
+				break;
+			}
+			
+			_heapKeys[index] = _heapKeys[parent];
+			_heapNodes[index] = _heapNodes[parent];
+			index = parent;
+		}
+		_heapKeys[index] = key;
+		_heapNodes[index] = node;
+	}
+	
+	private final int poll()
+	{
+		final int result = _heapNodes[0];
+		final int size = --_heapSize;
+		final long key = _heapKeys[size];
+		final int node = _heapNodes[size];
+		int index = 0;
+		int child;
+		while ((child = (index << 1) + 1) < size)
+		{
+			if (((child + 1) < size) && (_heapKeys[child + 1] < _heapKeys[child]))
+			{
+				child++;
+			}
+			if (key <= _heapKeys[child])
+			{
+				break;
+			}
+			
+			_heapKeys[index] = _heapKeys[child];
+			_heapNodes[index] = _heapNodes[child];
+			index = child;
+		}
+		_heapKeys[index] = key;
+		_heapNodes[index] = node;
+		return result;
+	}
+	
+	private static boolean isSet(long[] bits, int index)
+	{
+		return (bits[index >>> 6] & (1L << index)) != 0;
+	}
+	
+	private static void set(long[] bits, int index)
+	{
+		bits[index >>> 6] |= 1L << index;
+	}
+}
@@ -16,17 +16,18 @@
  */
 package org.l2jmobius.gameserver.geoengine.pathfinding.cellnodes;
 
-import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.l2jmobius.Config;
-import org.l2jmobius.commons.util.StringUtil;
 import org.l2jmobius.gameserver.geoengine.GeoEngine;
-import org.l2jmobius.gameserver.geoengine.pathfinding.AbstractNode;
 import org.l2jmobius.gameserver.geoengine.pathfinding.AbstractNodeLoc;
 import org.l2jmobius.gameserver.geoengine.pathfinding.PathFinding;
 import org.l2jmobius.gameserver.instancemanager.IdManager;
@@ -40,13 +41,19 @@ public class CellPathFinding extends PathFinding
 {
 	private static final Logger LOGGER = Logger.getLogger(CellPathFinding.class.getName());
 	
-	private BufferInfo[] _allBuffers;
-	private int _findSuccess = 0;
-	private int _findFails = 0;
-	private int _postFilterUses = 0;
-	private int _postFilterPlayableUses = 0;
-	private int _postFilterPasses = 0;
-	private long _postFilterElapsed = 0;
+	private BufferPool[] _pools;
+	private final AtomicLong _findSuccess = new AtomicLong();
+	private final AtomicLong _findFails = new AtomicLong();
+	private final AtomicLong _bufferMisses = new AtomicLong();
+	private final AtomicLong _bufferAllocations = new AtomicLong();
+	private final AtomicLong _bufferOverflows = new AtomicLong();
+	private final AtomicLong _searches = new AtomicLong();
+	private final AtomicLong _searchIterations = new AtomicLong();
+	private final AtomicLong _searchElapsed = new AtomicLong();
+	private final AtomicLong _postFilterUses = new AtomicLong();
+	private final AtomicLong _postFilterPlayableUses = new AtomicLong();
+	private final AtomicLong _postFilterPasses = new AtomicLong();
+	private final AtomicLong _postFilterElapsed = new AtomicLong();
 	
 	private List<Item> _debugItems = null;
 	
@@ -56,7 +63,7 @@ public class CellPathFinding extends PathFinding
 		{
 			final String[] array = Config.PATHFIND_BUFFERS.split(";");
 			
-			_allBuffers = new BufferInfo[array.length];
+			_pools = new BufferPool[array.length];
 			
 			String buf;
 			String[] args;
@@ -69,7 +76,7 @@ public class CellPathFinding extends PathFinding
 					throw new Exception("Invalid buffer definition: " + buf);
 				}
 				
-				_allBuffers[i] = new BufferInfo(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+				_pools[i] = new BufferPool(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
 			}
 		}
 		catch (Exception e)
@@ -102,12 +109,24 @@ public class CellPathFinding extends PathFinding
 			return null;
 		}
 		final int gtz = GeoEngine.getInstance().getHeight(tx, ty, tz);
-		final CellNodeBuffer buffer = alloc(64 + (2 * Math.max(Math.abs(gx - gtx), Math.abs(gy - gty))), playable);
-		if (buffer == null)
+		final int size = 64 + (2 * Math.max(Math.abs(gx - gtx), Math.abs(gy - gty)));
+		final BufferPool pool = getPool(size);
+		if (pool == null)
 		{
+			_bufferMisses.incrementAndGet();
 			return null;
 		}
 		
+		final CellNodeBuffer buffer = pool.poll();
+		if (buffer.isTemporary())
+		{
+			_bufferOverflows.incrementAndGet();
+		}
+		if (buffer.init(pool.getMapSize()))
+		{
+			_bufferAllocations.incrementAndGet();
+		}
+		
 		final boolean debug = Config.DEBUG_PATH && playable;
 		
 		if (debug)
@@ -130,31 +149,35 @@ public class CellPathFinding extends PathFinding
 		List<AbstractNodeLoc> path = null;
 		try
 		{
-			final CellNode result = buffer.findPath(gx, gy, gz, gtx, gty, gtz);
+			final long searchStart = System.nanoTime();
+			final boolean found = buffer.findPath(gx, gy, gz, gtx, gty, gtz);
+			_searchElapsed.addAndGet(System.nanoTime() - searchStart);
+			_searchIterations.addAndGet(buffer.getIterations());
+			_searches.incrementAndGet();
 			
 			if (debug)
 			{
-				for (CellNode n : buffer.debugPath())
+				buffer.debugPath((loc, cost) ->
 				{
-					if (n.getCost() < 0)
+					if (cost < 0)
 					{
-						dropDebugItem(1831, (int) (-n.getCost() * 10), n.getLoc());
+						dropDebugItem(1831, (int) (-cost * 10), loc);
 					}
 					else
 					{
 						// Known nodes.
-						dropDebugItem(57, (int) (n.getCost() * 10), n.getLoc());
+						dropDebugItem(57, (int) (cost * 10), loc);
 					}
-				}
+				});
 			}
 			
-			if (result == null)
+			if (!found)
 			{
-				_findFails++;
+				_findFails.incrementAndGet();
 				return null;
 			}
 			
-			path = constructPath(result);
+			path = buffer.constructPath();
 		}
 		catch (Exception e)
 		{
@@ -163,20 +186,20 @@ public class CellPathFinding extends PathFinding
 		}
 		finally
 		{
-			buffer.free();
+			pool.release(buffer);
 		}
 		
 		if ((path.size() < 3) || (Config.MAX_POSTFILTER_PASSES <= 0))
 		{
-			_findSuccess++;
+			_findSuccess.incrementAndGet();
 			return path;
 		}
 		
 		final long timeStamp = System.currentTimeMillis();
-		_postFilterUses++;
+		_postFilterUses.incrementAndGet();
 		if (playable)
 		{
-			_postFilterPlayableUses++;
+			_postFilterPlayableUses.incrementAndGet();
 		}
 		
 		ListIterator<AbstractNodeLoc> middlePoint;
@@ -188,7 +211,7 @@ public class CellPathFinding extends PathFinding
 		do
 		{
 			pass++;
-			_postFilterPasses++;
+			_postFilterPasses.incrementAndGet();
 			
 			remove = false;
 			middlePoint = path.listIterator();
@@ -230,109 +253,33 @@ public class CellPathFinding extends PathFinding
 			path.forEach(n -> dropDebugItem(1061, 1, n));
 		}
 		
-		_findSuccess++;
-		_postFilterElapsed += System.currentTimeMillis() - timeStamp;
-		return path;
-	}
-	
-	private List<AbstractNodeLoc> constructPath(AbstractNode<NodeLoc> node)
-	{
-		final LinkedList<AbstractNodeLoc> path = new LinkedList<>();
-		int previousDirectionX = Integer.MIN_VALUE;
-		int previousDirectionY = Integer.MIN_VALUE;
-		int directionX;
-		int directionY;
-		
-		AbstractNode<NodeLoc> tempNode = node;
-		while (tempNode.getParent() != null)
-		{
-			if (!Config.ADVANCED_DIAGONAL_STRATEGY && (tempNode.getParent().getParent() != null))
-			{
-				final int tmpX = tempNode.getLoc().getNodeX() - tempNode.getParent().getParent().getLoc().getNodeX();
-				final int tmpY = tempNode.getLoc().getNodeY() - tempNode.getParent().getParent().getLoc().getNodeY();
-				if (Math.abs(tmpX) == Math.abs(tmpY))
-				{
-					directionX = tmpX;
-					directionY = tmpY;
-				}
-				else
-				{
-					directionX = tempNode.getLoc().getNodeX() - tempNode.getParent().getLoc().getNodeX();
-					directionY = tempNode.getLoc().getNodeY() - tempNode.getParent().getLoc().getNodeY();
-				}
-			}
-			else
-			{
-				directionX = tempNode.getLoc().getNodeX() - tempNode.getParent().getLoc().getNodeX();
-				directionY = tempNode.getLoc().getNodeY() - tempNode.getParent().getLoc().getNodeY();
-			}
-			
-			// Only add a new route point if moving direction changes.
-			if ((directionX != previousDirectionX) || (directionY != previousDirectionY))
-			{
-				previousDirectionX = directionX;
-				previousDirectionY = directionY;
-				
-				path.addFirst(tempNode.getLoc());
-				tempNode.setLoc(null);
-			}
-			
-			tempNode = tempNode.getParent();
-		}
-		
+		_findSuccess.incrementAndGet();
+		_postFilterElapsed.addAndGet(System.currentTimeMillis() - timeStamp);
 		return path;
 	}
 	
-	private CellNodeBuffer alloc(int size, boolean playable)
+	/**
+	 * @param size the requested map size
+	 * @return the first pool large enough that has a buffer available, the first pool large enough when all its buffers are in use, or {@code null} if no configured map size is large enough
+	 */
+	private BufferPool getPool(int size)
 	{
-		CellNodeBuffer current = null;
-		for (BufferInfo i : _allBuffers)
+		BufferPool result = null;
+		for (BufferPool pool : _pools)
 		{
-			if (i.mapSize >= size)
+			if (pool.getMapSize() >= size)
 			{
-				for (CellNodeBuffer buf : i.bufs)
-				{
-					if (buf.lock())
-					{
-						i.uses++;
-						if (playable)
-						{
-							i.playableUses++;
-						}
-						i.elapsed += buf.getElapsedTime();
-						current = buf;
-						break;
-					}
-				}
-				if (current != null)
-				{
-					break;
-				}
-				
-				// Not found, allocate temporary buffer.
-				current = new CellNodeBuffer(i.mapSize);
-				current.lock();
-				if (i.bufs.size() < i.count)
+				if (pool.hasAvailable())
 				{
-					i.bufs.add(current);
-					i.uses++;
-					if (playable)
-					{
-						i.playableUses++;
-					}
-					break;
+					return pool;
 				}
-				
-				i.overflows++;
-				if (playable)
+				if (result == null)
 				{
-					i.playableOverflows++;
-					// System.err.println("Overflow, size requested: " + size + " playable:"+playable);
+					result = pool;
 				}
 			}
 		}
-		
-		return current;
+		return result;
 	}
 	
 	private void dropDebugItem(int itemId, int num, AbstractNodeLoc loc)
@@ -343,59 +290,77 @@ public class CellPathFinding extends PathFinding
 		_debugItems.add(item);
 	}
 	
-	private static class BufferInfo
+	@Override
+	public String[] getStat()
+	{
+		final long searches = Math.max(1, _searches.get());
+		final long postFilterUses = Math.max(1, _postFilterUses.get());
+		final long requests = Math.max(1, _findSuccess.get() + _findFails.get() + _bufferMisses.get());
+		return new String[]
+		{
+			"Cell pathfinding:",
+			" |- Success: .......... " + _findSuccess.get() + " (" + ((_findSuccess.get() * 100) / requests) + "%)",
+			" |- Fail: ............. " + _findFails.get() + " (" + ((_findFails.get() * 100) / requests) + "%)",
+			" |- BufferMiss: ....... " + _bufferMisses.get() + " (" + ((_bufferMisses.get() * 100) / requests) + "%)",
+			" |- BufferAllocs: ..... " + _bufferAllocations.get(),
+			" |- BufferOverflows: .. " + _bufferOverflows.get(),
+			" |- AverageNodes: ..... " + (_searchIterations.get() / searches),
+			" |- AverageTime: ...... " + (_searchElapsed.get() / searches / 1000) + "us",
+			" |- PostFilterUses: ... " + _postFilterUses.get() + "/" + _postFilterPlayableUses.get(),
+			" |- PostFilterPasses: . " + String.format("%1.1f", (double) _postFilterPasses.get() / postFilterUses),
+			" |- PostFilterTime: ... " + _postFilterElapsed.get() + "ms",
+			" | -------"
+		};
+	}
+	
+	/**
+	 * Buffers of one map size. At most the configured count of buffers are kept, when all of them are in use a temporary buffer is created.
+	 */
+	private static class BufferPool
 	{
-		final int mapSize;
-		final int count;
-		List<CellNodeBuffer> bufs;
-		int uses = 0;
-		int playableUses = 0;
-		int overflows = 0;
-		int playableOverflows = 0;
-		long elapsed = 0;
+		private final int _mapSize;
+		private final int _count;
+		private final Queue<CellNodeBuffer> _buffers = new ConcurrentLinkedQueue<>();
+		private final AtomicInteger _created = new AtomicInteger();
 		
-		public BufferInfo(int size, int cnt)
+		public BufferPool(int mapSize, int count)
 		{
-			mapSize = size;
-			count = cnt;
-			bufs = new ArrayList<>(count);
+			_mapSize = mapSize;
+			_count = count;
 		}
 		
-		@Override
-		public String toString()
+		public int getMapSize()
 		{
-			final StringBuilder stat = new StringBuilder(100);
-			StringUtil.append(stat, String.valueOf(mapSize), "x", String.valueOf(mapSize), " num:", String.valueOf(bufs.size()), "/", String.valueOf(count), " uses:", String.valueOf(uses), "/", String.valueOf(playableUses));
-			if (uses > 0)
-			{
-				StringUtil.append(stat, " total/avg(ms):", String.valueOf(elapsed), "/", String.format("%1.2f", (double) elapsed / uses));
-			}
-			
-			StringUtil.append(stat, " ovf:", String.valueOf(overflows), "/", String.valueOf(playableOverflows));
-			
-			return stat.toString();
+			return _mapSize;
 		}
-	}
-	
-	@Override
-	public String[] getStat()
-	{
-		final String[] result = new String[_allBuffers.length + 1];
-		for (int i = 0; i < _allBuffers.length; i++)
+		
+		public boolean hasAvailable()
 		{
-			result[i] = _allBuffers[i].toString();
+			return !_buffers.isEmpty() || (_created.get() < _count);
 		}
 		
-		final StringBuilder stat = new StringBuilder(100);
-		StringUtil.append(stat, "LOS postfilter uses:", String.valueOf(_postFilterUses), "/", String.valueOf(_postFilterPlayableUses));
-		if (_postFilterUses > 0)
+		public CellNodeBuffer poll()
 		{
-			StringUtil.append(stat, " total/avg(ms):", String.valueOf(_postFilterElapsed), "/", String.format("%1.2f", (double) _postFilterElapsed / _postFilterUses), " passes total/avg:", String.valueOf(_postFilterPasses), "/", String.format("%1.1f", (double) _postFilterPasses / _postFilterUses), Config.EOL);
+			final CellNodeBuffer buffer = _buffers.poll();
+			if (buffer != null)
+			{
+				return buffer;
+			}
+			if (_created.incrementAndGet() <= _count)
+			{
+				return new CellNodeBuffer();
+			}
+			_created.decrementAndGet();
+			return new CellNodeBuffer(true);
 		}
-		StringUtil.append(stat, "Pathfind success/fail:", String.valueOf(_findSuccess), "/", String.valueOf(_findFails));
-		result[result.length - 1] = stat.toString();
 		
-		return result;
+		public void release(CellNodeBuffer buffer)
+		{
+			if (!buffer.isTemporary())
+			{
+				_buffers.offer(buffer);
+			}
+		}
 	}
 	
 	public static CellPathFinding getInstance()
@@ -38,6 +38,24 @@ public class NodeLoc extends AbstractNodeLoc
 		set(x, y, z);
 	}
 	
+	/**
+	 * Creates a node location from already read geodata.
+	 * @param x the geodata x
+	 * @param y the geodata y
+	 * @param nswe the movement flags
+	 * @param geoHeight the geodata height
+	 */
+	public NodeLoc(int x, int y, byte nswe, short geoHeight)
+	{
+		_x = x;
+		_y = y;
+		_goNorth = (nswe & Cell.NSWE_NORTH) != 0;
+		_goEast = (nswe & Cell.NSWE_EAST) != 0;
+		_goSouth = (nswe & Cell.NSWE_SOUTH) != 0;
+		_goWest = (nswe & Cell.NSWE_WEST) != 0;
+		_geoHeight = geoHeight;
+	}
+	
 	public void set(int x, int y, int z)
 	{
 		_x = x;
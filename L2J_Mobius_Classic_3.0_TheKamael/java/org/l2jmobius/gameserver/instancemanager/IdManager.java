@@ -20,17 +20,14 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
-import java.util.ArrayList;
-import java.util.BitSet;
-import java.util.Collections;
-import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
 
 import org.l2jmobius.Config;
 import org.l2jmobius.commons.database.DatabaseFactory;
 import org.l2jmobius.commons.threads.ThreadPool;
-import org.l2jmobius.gameserver.util.PrimeFinder;
+import org.l2jmobius.commons.util.IdBitmap;
 
 /**
  * @author Mobius (reworked from L2J IdFactory)
@@ -60,9 +57,9 @@ public class IdManager
 	private static final int LAST_OID = 0x7FFFFFFF;
 	private static final int FREE_OBJECT_ID_SIZE = LAST_OID - FIRST_OID;
 	
-	private static BitSet _freeIds;
-	private static AtomicInteger _freeIdCount;
-	private static AtomicInteger _nextFreeId;
+	// Used ids, leased to threads a word of 64 ids at a time.
+	private static final IdBitmap _usedIds = new IdBitmap(FREE_OBJECT_ID_SIZE);
+	
 	private static boolean _initialized;
 	
 	public IdManager()
@@ -187,46 +184,45 @@ public class IdManager
 		// Initialize.
 		try
 		{
-			_freeIds = new BitSet(PrimeFinder.nextPrime(100000));
-			_freeIds.clear();
-			_freeIdCount = new AtomicInteger(FREE_OBJECT_ID_SIZE);
-			
-			// Collect already used ids.
-			final List<Integer> usedIds = new ArrayList<>();
-			try (Connection con = DatabaseFactory.getConnection();
-				Statement statement = con.createStatement())
+			// Collect already used ids, one connection per table.
+			final long start = System.currentTimeMillis();
+			final CountDownLatch latch = new CountDownLatch(ID_EXTRACTS.length);
+			final AtomicBoolean failed = new AtomicBoolean();
+			for (String[] tblClmn : ID_EXTRACTS)
 			{
-				String extractUsedObjectIdsQuery = "";
-				for (String[] tblClmn : ID_EXTRACTS)
-				{
-					extractUsedObjectIdsQuery += "SELECT " + tblClmn[1] + " FROM " + tblClmn[0] + " UNION ";
-				}
-				extractUsedObjectIdsQuery = extractUsedObjectIdsQuery.substring(0, extractUsedObjectIdsQuery.length() - 7); // Remove the last " UNION "
-				try (ResultSet result = statement.executeQuery(extractUsedObjectIdsQuery))
+				ThreadPool.execute(() ->
 				{
-					while (result.next())
+					try (Connection con = DatabaseFactory.getConnection();
+						Statement statement = con.createStatement();
+						ResultSet result = statement.executeQuery("SELECT " + tblClmn[1] + " FROM " + tblClmn[0]))
 					{
-						usedIds.add(result.getInt(1));
+						while (result.next())
+						{
+							final int usedObjectId = result.getInt(1);
+							final int objectId = usedObjectId - FIRST_OID;
+							if (objectId < 0)
+							{
+								LOGGER.warning("IdManager: Object ID " + usedObjectId + " in DB is less than minimum ID of " + FIRST_OID);
+								continue;
+							}
+							_usedIds.setUsed(objectId);
+						}
 					}
-				}
-			}
-			Collections.sort(usedIds);
-			
-			// Register used ids.
-			for (int usedObjectId : usedIds)
-			{
-				final int objectId = usedObjectId - FIRST_OID;
-				if (objectId < 0)
-				{
-					LOGGER.warning("IdManager: Object ID " + usedObjectId + " in DB is less than minimum ID of " + FIRST_OID);
-					continue;
-				}
-				_freeIds.set(usedObjectId - FIRST_OID);
-				_freeIdCount.decrementAndGet();
+					catch (Exception e)
+					{
+						failed.set(true);
+						LOGGER.severe("IdManager: Could not collect used ids of " + tblClmn[0] + ": " + e.getMessage());
+					}
+					finally
+					{
+						latch.countDown();
+					}
+				});
 			}
+			latch.await();
 			
-			_nextFreeId = new AtomicInteger(_freeIds.nextClearBit(0));
-			_initialized = true;
+			_initialized = !failed.get();
+			LOGGER.info("IdManager: Collected " + _usedIds.getUsedCount() + " used ids in " + (System.currentTimeMillis() - start) + " ms.");
 		}
 		catch (Exception e)
 		{
@@ -234,75 +230,51 @@ public class IdManager
 			LOGGER.severe("IdManager: Could not be initialized properly: " + e.getMessage());
 		}
 		
-		// Schedule increase capacity task.
-		ThreadPool.scheduleAtFixedRate(() ->
-		{
-			synchronized (_nextFreeId)
-			{
-				if (PrimeFinder.nextPrime((usedIdCount() * 11) / 10) > _freeIds.size())
-				{
-					increaseBitSetCapacity();
-				}
-			}
-		}, 30000, 30000);
-		
-		LOGGER.info("IdManager: " + _freeIds.size() + " id's available.");
+		LOGGER.info("IdManager: " + size() + " id's available.");
 	}
 	
 	public void releaseId(int objectId)
 	{
-		synchronized (_nextFreeId)
+		final int id = objectId - FIRST_OID;
+		if (id > -1)
 		{
-			if ((objectId - FIRST_OID) > -1)
-			{
-				_freeIds.clear(objectId - FIRST_OID);
-				_freeIdCount.incrementAndGet();
-			}
-			else
-			{
-				LOGGER.warning("IdManager: Release objectID " + objectId + " failed (< " + FIRST_OID + ")");
-			}
+			_usedIds.release(id);
+		}
+		else
+		{
+			LOGGER.warning("IdManager: Release objectID " + objectId + " failed (< " + FIRST_OID + ")");
 		}
 	}
 	
 	public int getNextId()
 	{
-		synchronized (_nextFreeId)
+		final int id = _usedIds.next();
+		if (id < 0)
 		{
-			final int newId = _nextFreeId.get();
-			_freeIds.set(newId);
-			_freeIdCount.decrementAndGet();
-			
-			final int nextFree = _freeIds.nextClearBit(newId) < 0 ? _freeIds.nextClearBit(0) : _freeIds.nextClearBit(newId);
-			if (nextFree < 0)
-			{
-				if (_freeIds.size() >= FREE_OBJECT_ID_SIZE)
-				{
-					throw new NullPointerException("IdManager: Ran out of valid ids.");
-				}
-				increaseBitSetCapacity();
-			}
-			_nextFreeId.set(nextFree);
-			
-			return newId + FIRST_OID;
+			throw new NullPointerException("IdManager: Ran out of valid ids.");
 		}
+		return FIRST_OID + id;
 	}
 	
-	private void increaseBitSetCapacity()
+	public String[] getStats()
 	{
-		final BitSet newBitSet = new BitSet(PrimeFinder.nextPrime((usedIdCount() * 11) / 10));
-		newBitSet.or(_freeIds);
-		_freeIds = newBitSet;
-	}
-	
-	private int usedIdCount()
-	{
-		return _freeIdCount.get() - FIRST_OID;
+		final int pages = _usedIds.getPageCount();
+		return new String[]
+		{
+			"Id manager:",
+			" |- UsedIds: .......... " + _usedIds.getUsedCount(),
+			" |- FreeIds: .......... " + size(),
+			" |- BitmapPages: ...... " + pages + " (" + (((long) pages * _usedIds.getPageSize()) / 1024) + " KB)",
+			" |- LeasedWords: ...... " + _usedIds.getLeasedWords(),
+			" |- LeaseRetries: ..... " + _usedIds.getLeaseRetries(),
+			" |- AbandonedLeases: .. " + _usedIds.getAbandonedLeases(),
+			" | -------"
+		};
 	}
 	
 	public static int size()
 	{
-		return _freeIdCount.get();
+		return (int) _usedIds.getFreeCount();
 	}
 	
 	public static boolean hasInitialized()
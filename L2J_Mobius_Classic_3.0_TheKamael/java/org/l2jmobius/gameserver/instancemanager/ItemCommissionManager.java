@@ -24,15 +24,25 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 import org.l2jmobius.commons.database.DatabaseFactory;
 import org.l2jmobius.commons.threads.ThreadPool;
@@ -43,8 +53,10 @@ import org.l2jmobius.gameserver.model.actor.Npc;
 import org.l2jmobius.gameserver.model.actor.Player;
 import org.l2jmobius.gameserver.model.actor.instance.CommissionManager;
 import org.l2jmobius.gameserver.model.commission.CommissionItem;
+import org.l2jmobius.gameserver.model.commission.CommissionItemType;
 import org.l2jmobius.gameserver.model.item.ItemTemplate;
 import org.l2jmobius.gameserver.model.item.instance.Item;
+import org.l2jmobius.gameserver.model.item.type.CrystalType;
 import org.l2jmobius.gameserver.model.itemcontainer.Inventory;
 import org.l2jmobius.gameserver.model.itemcontainer.Mail;
 import org.l2jmobius.gameserver.network.SystemMessageId;
@@ -83,7 +95,17 @@ public class ItemCommissionManager
 	private static final String INSERT_COMMISSION_ITEM = "INSERT INTO `commission_items`(`item_object_id`, `price_per_unit`, `start_time`, `duration_in_days`, `discount_in_percentage`) VALUES (?, ?, ?, ?, ?)";
 	private static final String DELETE_COMMISSION_ITEM = "DELETE FROM `commission_items` WHERE `commission_id` = ?";
 	
+	private static final Comparator<CommissionItem> PRICE_ORDER = Comparator.comparingLong(CommissionItem::getPricePerUnit).thenComparingLong(CommissionItem::getCommissionId);
+	
 	private final Map<Long, CommissionItem> _commissionItems = new ConcurrentSkipListMap<>();
+	// Commission items by item type and grade, cheapest first.
+	private final Map<CommissionItemType, Map<CrystalType, NavigableSet<CommissionItem>>> _itemsByType = new ConcurrentHashMap<>();
+	// Commission items by seller object id and commission id.
+	private final Map<Integer, Map<Long, CommissionItem>> _itemsBySeller = new ConcurrentHashMap<>();
+	
+	private final AtomicLong _searches = new AtomicLong();
+	private final AtomicLong _searchTime = new AtomicLong();
+	private volatile long _maxSearchTime;
 	
 	protected ItemCommissionManager()
 	{
@@ -117,6 +139,7 @@ public class ItemCommissionManager
 					}
 					final CommissionItem commissionItem = new CommissionItem(commissionId, itemInstance, rs.getLong("price_per_unit"), rs.getTimestamp("start_time").toInstant(), rs.getByte("duration_in_days"), rs.getByte("discount_in_percentage"));
 					_commissionItems.put(commissionItem.getCommissionId(), commissionItem);
+					addToIndexes(commissionItem);
 					if (commissionItem.getEndTime().isBefore(Instant.now()))
 					{
 						expireSale(commissionItem);
@@ -135,18 +158,24 @@ public class ItemCommissionManager
 	}
 	
 	/**
-	 * Shows the player the auctions filtered by filter.
+	 * Shows the player the auctions matching a search, cheapest first.
 	 * @param player the player
-	 * @param filter the filter
+	 * @param itemTypes the commission item types to show, {@code null} for all
+	 * @param grade the crystal type to show, {@code null} for all
+	 * @param query the text the item names must contain, empty for all
 	 */
-	public void showAuctions(Player player, Predicate<ItemTemplate> filter)
+	public void showAuctions(Player player, Set<CommissionItemType> itemTypes, CrystalType grade, String query)
 	{
-		//@formatter:off
-		final List<CommissionItem> commissionItems = _commissionItems.values().stream()
-			.filter(c -> filter.test(c.getItemInfo().getItem()))
-			.limit(ITEMS_LIMIT_PER_REQUEST)
-			.collect(Collectors.toList());
-		//@formatter:on
+		final long start = System.nanoTime();
+		final String name = query.toLowerCase(Locale.ENGLISH);
+		final List<CommissionItem> commissionItems = search(_itemsByType, PRICE_ORDER, itemTypes, grade, name.isEmpty() ? null : commissionItem -> commissionItem.getItemInstance().getTemplate().getName().toLowerCase(Locale.ENGLISH).contains(name), ITEMS_LIMIT_PER_REQUEST);
+		final long duration = System.nanoTime() - start;
+		_searches.incrementAndGet();
+		_searchTime.addAndGet(duration);
+		if (duration > _maxSearchTime)
+		{
+			_maxSearchTime = duration;
+		}
 		
 		if (commissionItems.isEmpty())
 		{
@@ -167,26 +196,84 @@ public class ItemCommissionManager
 	}
 	
 	/**
-	 * Shows the player his auctions.
-	 * @param player the player
+	 * Merges the price ordered views of the matching item types and grades of an index.
+	 * @param <T> the type of the indexed items
+	 * @param index the items by item type and grade, each set sorted by {@code order}
+	 * @param order the order of the sets
+	 * @param itemTypes the item types to search, {@code null} for all
+	 * @param grade the grade to search, {@code null} for all
+	 * @param filter the test items must pass, {@code null} for all
+	 * @param limit the maximum number of items
+	 * @return the first matching items in {@code order}
 	 */
-	public void showPlayerAuctions(Player player)
+	public static <T> List<T> search(Map<CommissionItemType, Map<CrystalType, NavigableSet<T>>> index, Comparator<T> order, Set<CommissionItemType> itemTypes, CrystalType grade, Predicate<T> filter, int limit)
 	{
-		//@formatter:off
-		final List<CommissionItem> commissionItems = _commissionItems.values().stream()
-			.filter(c -> c.getItemInstance().getOwnerId() == player.getObjectId())
-			.limit(MAX_ITEMS_REGISTRED_PER_PLAYER)
-			.collect(Collectors.toList());
-		//@formatter:on
+		final PriorityQueue<PriceView<T>> views = new PriorityQueue<>((a, b) -> order.compare(a._current, b._current));
+		for (Entry<CommissionItemType, Map<CrystalType, NavigableSet<T>>> entry : index.entrySet())
+		{
+			if ((itemTypes != null) && !itemTypes.contains(entry.getKey()))
+			{
+				continue;
+			}
+			
+			if (grade != null)
+			{
+				addPriceView(views, entry.getValue().get(grade));
+			}
+			else
+			{
+				for (NavigableSet<T> items : entry.getValue().values())
+				{
+					addPriceView(views, items);
+				}
+			}
+		}
 		
-		if (!commissionItems.isEmpty())
+		final List<T> result = new ArrayList<>();
+		while (!views.isEmpty() && (result.size() < limit))
+		{
+			final PriceView<T> view = views.poll();
+			if ((filter == null) || filter.test(view._current))
+			{
+				result.add(view._current);
+			}
+			if (view.next())
+			{
+				views.add(view);
+			}
+		}
+		return result;
+	}
+	
+	private static <T> void addPriceView(PriorityQueue<PriceView<T>> views, NavigableSet<T> items)
+	{
+		if (items != null)
 		{
-			player.sendPacket(new ExResponseCommissionList(CommissionListReplyType.PLAYER_AUCTIONS, commissionItems));
+			final PriceView<T> view = new PriceView<>(items.iterator());
+			if (view.next())
+			{
+				views.add(view);
+			}
 		}
-		else
+	}
+	
+	/**
+	 * Shows the player his auctions.
+	 * @param player the player
+	 */
+	public void showPlayerAuctions(Player player)
+	{
+		final Map<Long, CommissionItem> sellerItems = _itemsBySeller.get(player.getObjectId());
+		if (sellerItems != null)
 		{
-			player.sendPacket(new ExResponseCommissionList(CommissionListReplyType.PLAYER_AUCTIONS_EMPTY));
+			final List<CommissionItem> commissionItems = new ArrayList<>(sellerItems.values());
+			if (!commissionItems.isEmpty())
+			{
+				player.sendPacket(new ExResponseCommissionList(CommissionListReplyType.PLAYER_AUCTIONS, commissionItems.size() > MAX_ITEMS_REGISTRED_PER_PLAYER ? commissionItems.subList(0, MAX_ITEMS_REGISTRED_PER_PLAYER) : commissionItems));
+				return;
+			}
 		}
+		player.sendPacket(new ExResponseCommissionList(CommissionListReplyType.PLAYER_AUCTIONS_EMPTY));
 	}
 	
 	/**
@@ -227,13 +314,8 @@ public class ItemCommissionManager
 		
 		synchronized (this)
 		{
-			//@formatter:off
-			final long playerRegisteredItems = _commissionItems.values().stream()
-				.filter(c -> c.getItemInstance().getOwnerId() == player.getObjectId())
-				.count();
-			//@formatter:on
-			
-			if (playerRegisteredItems >= MAX_ITEMS_REGISTRED_PER_PLAYER)
+			final Map<Long, CommissionItem> sellerItems = _itemsBySeller.get(player.getObjectId());
+			if ((sellerItems != null) && (sellerItems.size() >= MAX_ITEMS_REGISTRED_PER_PLAYER))
 			{
 				player.sendPacket(SystemMessageId.THE_MAXIMUM_NUMBER_OF_AUCTION_HOUSE_ITEMS_FOR_REGISTRATION_IS_10);
 				player.sendPacket(ExResponseCommissionRegister.FAILED);
@@ -299,6 +381,7 @@ public class ItemCommissionManager
 						final ScheduledFuture<?> saleEndTask = ThreadPool.schedule(() -> expireSale(commissionItem), Duration.between(Instant.now(), commissionItem.getEndTime()).toMillis());
 						commissionItem.setSaleEndTask(saleEndTask);
 						_commissionItems.put(commissionItem.getCommissionId(), commissionItem);
+						addToIndexes(commissionItem);
 						player.getLastCommissionInfos().put(itemInstance.getId(), new ExResponseCommissionInfo(itemInstance.getId(), pricePerUnit, itemCount, (byte) ((durationInDays - 1) / 2)));
 						player.sendPacket(SystemMessageId.THE_ITEM_HAS_BEEN_SUCCESSFULLY_REGISTERED);
 						player.sendPacket(ExResponseCommissionRegister.SUCCEED);
@@ -344,7 +427,7 @@ public class ItemCommissionManager
 			return;
 		}
 		
-		if ((_commissionItems.remove(commissionId) == null) || !commissionItem.getSaleEndTask().cancel(false))
+		if (!removeCommissionItem(commissionItem) || !commissionItem.getSaleEndTask().cancel(false))
 		{
 			player.sendPacket(SystemMessageId.CANCELLATION_OF_SALE_HAS_FAILED_BECAUSE_REQUIREMENTS_ARE_NOT_MET);
 			player.sendPacket(ExResponseCommissionDelete.FAILED);
@@ -402,7 +485,7 @@ public class ItemCommissionManager
 			return;
 		}
 		
-		if ((_commissionItems.remove(commissionId) == null) || !commissionItem.getSaleEndTask().cancel(false))
+		if (!removeCommissionItem(commissionItem) || !commissionItem.getSaleEndTask().cancel(false))
 		{
 			player.getInventory().addAdena("Commission error refund", totalPrice, player, null);
 			player.sendPacket(SystemMessageId.ITEM_PURCHASE_HAS_FAILED);
@@ -460,13 +543,54 @@ public class ItemCommissionManager
 	 */
 	private void expireSale(CommissionItem commissionItem)
 	{
-		if ((_commissionItems.remove(commissionItem.getCommissionId()) != null) && deleteItemFromDB(commissionItem.getCommissionId()))
+		if (removeCommissionItem(commissionItem) && deleteItemFromDB(commissionItem.getCommissionId()))
 		{
 			final Message mail = new Message(commissionItem.getItemInstance().getOwnerId(), commissionItem.getItemInstance(), MailType.COMMISSION_ITEM_RETURNED);
 			MailManager.getInstance().sendMessage(mail);
 		}
 	}
 	
+	/**
+	 * Adds a commission item to the type, grade and seller indexes.
+	 * @param commissionItem the commission item
+	 */
+	private void addToIndexes(CommissionItem commissionItem)
+	{
+		final ItemTemplate template = commissionItem.getItemInstance().getTemplate();
+		_itemsByType.computeIfAbsent(template.getCommissionItemType(), k -> new ConcurrentHashMap<>()).computeIfAbsent(template.getCrystalType(), k -> new ConcurrentSkipListSet<>(PRICE_ORDER)).add(commissionItem);
+		_itemsBySeller.computeIfAbsent(commissionItem.getItemInstance().getOwnerId(), k -> new ConcurrentSkipListMap<>()).put(commissionItem.getCommissionId(), commissionItem);
+	}
+	
+	/**
+	 * Removes a commission item from the commission items and their indexes.
+	 * @param commissionItem the commission item
+	 * @return {@code true} if the item was removed, {@code false} if it was already removed
+	 */
+	private boolean removeCommissionItem(CommissionItem commissionItem)
+	{
+		if (_commissionItems.remove(commissionItem.getCommissionId()) == null)
+		{
+			return false;
+		}
+		
+		final ItemTemplate template = commissionItem.getItemInstance().getTemplate();
+		final Map<CrystalType, NavigableSet<CommissionItem>> typeItems = _itemsByType.get(template.getCommissionItemType());
+		if (typeItems != null)
+		{
+			final NavigableSet<CommissionItem> gradeItems = typeItems.get(template.getCrystalType());
+			if (gradeItems != null)
+			{
+				gradeItems.remove(commissionItem);
+			}
+		}
+		_itemsBySeller.computeIfPresent(commissionItem.getItemInstance().getOwnerId(), (k, sellerItems) ->
+		{
+			sellerItems.remove(commissionItem.getCommissionId());
+			return sellerItems.isEmpty() ? null : sellerItems;
+		});
+		return true;
+	}
+	
 	/**
 	 * Gets the commission item.
 	 * @param commissionId the commission id to get
@@ -483,14 +607,7 @@ public class ItemCommissionManager
 	 */
 	public boolean hasCommissionItems(int objectId)
 	{
-		for (CommissionItem item : _commissionItems.values())
-		{
-			if (item.getItemInstance().getObjectId() == objectId)
-			{
-				return true;
-			}
-		}
-		return false;
+		return _itemsBySeller.containsKey(objectId);
 	}
 	
 	/**
@@ -500,11 +617,15 @@ public class ItemCommissionManager
 	 */
 	public boolean hasCommissionedItemId(Player player, int itemId)
 	{
-		for (CommissionItem item : _commissionItems.values())
+		final Map<Long, CommissionItem> sellerItems = _itemsBySeller.get(player.getObjectId());
+		if (sellerItems != null)
 		{
-			if ((item.getItemInstance().getOwnerId() == player.getObjectId()) && (item.getItemInstance().getTemplate().getId() == itemId))
+			for (CommissionItem item : sellerItems.values())
 			{
-				return true;
+				if (item.getItemInstance().getTemplate().getId() == itemId)
+				{
+					return true;
+				}
 			}
 		}
 		return false;
@@ -525,6 +646,45 @@ public class ItemCommissionManager
 		return false;
 	}
 	
+	public String[] getStats()
+	{
+		final long searches = Math.max(1, _searches.get());
+		return new String[]
+		{
+			"Item commission:",
+			" |- Listings: .......... " + _commissionItems.size(),
+			" |- Sellers: ........... " + _itemsBySeller.size(),
+			" |- Searches: .......... " + _searches.get(),
+			" |- AverageSearchTime: . " + (_searchTime.get() / searches / 1000) + "us",
+			" |- MaxSearchTime: ..... " + (_maxSearchTime / 1000) + "us",
+			" | -------"
+		};
+	}
+	
+	/**
+	 * Price ordered iteration of an index set, holding its current item.
+	 */
+	private static class PriceView<T>
+	{
+		private final Iterator<T> _iterator;
+		protected T _current;
+		
+		protected PriceView(Iterator<T> iterator)
+		{
+			_iterator = iterator;
+		}
+		
+		protected boolean next()
+		{
+			if (_iterator.hasNext())
+			{
+				_current = _iterator.next();
+				return true;
+			}
+			return false;
+		}
+	}
+	
 	/**
 	 * Gets the single instance.
 	 * @return the single instance
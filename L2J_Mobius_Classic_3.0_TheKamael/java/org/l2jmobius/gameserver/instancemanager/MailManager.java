@@ -21,11 +21,13 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -46,6 +48,7 @@ public class MailManager
 	private static final Logger LOGGER = Logger.getLogger(MailManager.class.getName());
 	
 	private final Map<Integer, Message> _messages = new ConcurrentHashMap<>();
+	private final Map<Integer, Mailbox> _mailboxes = new ConcurrentHashMap<>();
 	
 	protected MailManager()
 	{
@@ -65,6 +68,7 @@ public class MailManager
 				final Message msg = new Message(rs);
 				final int msgId = msg.getId();
 				_messages.put(msgId, msg);
+				addToMailboxes(msg);
 				MessageDeletionTaskManager.getInstance().add(msgId, msg.getExpiration());
 			}
 		}
@@ -87,84 +91,56 @@ public class MailManager
 	
 	public boolean hasUnreadPost(Player player)
 	{
-		final int objectId = player.getObjectId();
-		for (Message msg : _messages.values())
-		{
-			if ((msg != null) && (msg.getReceiverId() == objectId) && msg.isUnread())
-			{
-				return true;
-			}
-		}
-		return false;
+		final Mailbox mailbox = _mailboxes.get(player.getObjectId());
+		return (mailbox != null) && (mailbox._unread.get() > 0);
 	}
 	
 	public int getInboxSize(int objectId)
 	{
-		int size = 0;
-		for (Message msg : _messages.values())
-		{
-			if ((msg != null) && (msg.getReceiverId() == objectId) && !msg.isDeletedByReceiver())
-			{
-				size++;
-			}
-		}
-		return size;
+		final Mailbox mailbox = _mailboxes.get(objectId);
+		return mailbox != null ? mailbox._inbox.size() : 0;
 	}
 	
 	public int getOutboxSize(int objectId)
 	{
-		int size = 0;
-		for (Message msg : _messages.values())
-		{
-			if ((msg != null) && (msg.getSenderId() == objectId) && !msg.isDeletedBySender())
-			{
-				size++;
-			}
-		}
-		return size;
+		final Mailbox mailbox = _mailboxes.get(objectId);
+		return mailbox != null ? mailbox._outbox.size() : 0;
 	}
 	
 	public List<Message> getInbox(int objectId)
 	{
-		final List<Message> inbox = new LinkedList<>();
-		for (Message msg : _messages.values())
-		{
-			if ((msg != null) && (msg.getReceiverId() == objectId) && !msg.isDeletedByReceiver())
-			{
-				inbox.add(msg);
-			}
-		}
-		return inbox;
+		final Mailbox mailbox = _mailboxes.get(objectId);
+		return mailbox != null ? new ArrayList<>(mailbox._inbox.values()) : new ArrayList<>();
 	}
 	
 	public long getUnreadCount(Player player)
 	{
-		long count = 0;
-		for (Message message : getInbox(player.getObjectId()))
-		{
-			if (message.isUnread())
-			{
-				count++;
-			}
-		}
-		return count;
+		final Mailbox mailbox = _mailboxes.get(player.getObjectId());
+		return mailbox != null ? mailbox._unread.get() : 0;
 	}
 	
 	public int getMailsInProgress(int objectId)
 	{
+		final Mailbox mailbox = _mailboxes.get(objectId);
+		if (mailbox == null)
+		{
+			return 0;
+		}
+		
 		int count = 0;
-		for (Message msg : _messages.values())
+		for (Message msg : mailbox._inbox.values())
+		{
+			if ((msg.getMailType() == MailType.REGULAR) && !msg.isReturned() && msg.hasAttachments())
+			{
+				count++;
+			}
+		}
+		for (Message msg : mailbox._outbox.values())
 		{
-			if ((msg != null) && (msg.getMailType() == MailType.REGULAR))
+			// Messages to self are counted once, as receiver.
+			if ((msg.getMailType() == MailType.REGULAR) && !msg.isReturned() && msg.hasAttachments() && ((msg.getReceiverId() != objectId) || msg.isDeletedByReceiver()))
 			{
-				if ((msg.getReceiverId() == objectId) && !msg.isDeletedByReceiver() && !msg.isReturned() && msg.hasAttachments())
-				{
-					count++;
-				}
-				else if ((msg.getSenderId() == objectId) && !msg.isDeletedBySender() && !msg.isReturned() && msg.hasAttachments())
-				{
-					count++;
-				}
+				count++;
 			}
 		}
 		return count;
@@ -172,20 +148,14 @@ public class MailManager
 	
 	public List<Message> getOutbox(int objectId)
 	{
-		final List<Message> outbox = new LinkedList<>();
-		for (Message msg : _messages.values())
-		{
-			if ((msg != null) && (msg.getSenderId() == objectId) && !msg.isDeletedBySender())
-			{
-				outbox.add(msg);
-			}
-		}
-		return outbox;
+		final Mailbox mailbox = _mailboxes.get(objectId);
+		return mailbox != null ? new ArrayList<>(mailbox._outbox.values()) : new ArrayList<>();
 	}
 	
 	public void sendMessage(Message msg)
 	{
 		_messages.put(msg.getId(), msg);
+		addToMailboxes(msg);
 		try (Connection con = DatabaseFactory.getConnection();
 			PreparedStatement ps = Message.getStatement(msg, con))
 		{
@@ -208,6 +178,16 @@ public class MailManager
 	
 	public void markAsReadInDb(int msgId)
 	{
+		final Message msg = _messages.get(msgId);
+		if (msg != null)
+		{
+			final Mailbox mailbox = _mailboxes.get(msg.getReceiverId());
+			if ((mailbox != null) && mailbox._inbox.containsKey(msgId))
+			{
+				mailbox._unread.decrementAndGet();
+			}
+		}
+		
 		try (Connection con = DatabaseFactory.getConnection();
 			PreparedStatement ps = con.prepareStatement("UPDATE messages SET isUnread = 'false' WHERE messageId = ?"))
 		{
@@ -222,6 +202,16 @@ public class MailManager
 	
 	public void markAsDeletedBySenderInDb(int msgId)
 	{
+		final Message msg = _messages.get(msgId);
+		if (msg != null)
+		{
+			final Mailbox mailbox = _mailboxes.get(msg.getSenderId());
+			if (mailbox != null)
+			{
+				mailbox._outbox.remove(msgId);
+			}
+		}
+		
 		try (Connection con = DatabaseFactory.getConnection();
 			PreparedStatement ps = con.prepareStatement("UPDATE messages SET isDeletedBySender = 'true' WHERE messageId = ?"))
 		{
@@ -236,6 +226,12 @@ public class MailManager
 	
 	public void markAsDeletedByReceiverInDb(int msgId)
 	{
+		final Message msg = _messages.get(msgId);
+		if (msg != null)
+		{
+			removeFromInbox(msg);
+		}
+		
 		try (Connection con = DatabaseFactory.getConnection();
 			PreparedStatement ps = con.prepareStatement("UPDATE messages SET isDeletedByReceiver = 'true' WHERE messageId = ?"))
 		{
@@ -275,10 +271,59 @@ public class MailManager
 			LOGGER.log(Level.WARNING, getClass().getSimpleName() + ": Error deleting message:", e);
 		}
 		
-		_messages.remove(msgId);
+		final Message msg = _messages.remove(msgId);
+		if (msg != null)
+		{
+			removeFromInbox(msg);
+			final Mailbox mailbox = _mailboxes.get(msg.getSenderId());
+			if (mailbox != null)
+			{
+				mailbox._outbox.remove(msgId);
+			}
+		}
 		IdManager.getInstance().releaseId(msgId);
 	}
 	
+	private Mailbox getMailbox(int objectId)
+	{
+		return _mailboxes.computeIfAbsent(objectId, k -> new Mailbox());
+	}
+	
+	private void addToMailboxes(Message msg)
+	{
+		if (!msg.isDeletedByReceiver())
+		{
+			final Mailbox mailbox = getMailbox(msg.getReceiverId());
+			if ((mailbox._inbox.put(msg.getId(), msg) == null) && msg.isUnread())
+			{
+				mailbox._unread.incrementAndGet();
+			}
+		}
+		if (!msg.isDeletedBySender())
+		{
+			getMailbox(msg.getSenderId())._outbox.put(msg.getId(), msg);
+		}
+	}
+	
+	private void removeFromInbox(Message msg)
+	{
+		final Mailbox mailbox = _mailboxes.get(msg.getReceiverId());
+		if ((mailbox != null) && (mailbox._inbox.remove(msg.getId()) != null) && msg.isUnread())
+		{
+			mailbox._unread.decrementAndGet();
+		}
+	}
+	
+	/**
+	 * Inbox and outbox of a player, by message id.
+	 */
+	private static class Mailbox
+	{
+		protected final Map<Integer, Message> _inbox = new ConcurrentSkipListMap<>();
+		protected final Map<Integer, Message> _outbox = new ConcurrentSkipListMap<>();
+		protected final AtomicInteger _unread = new AtomicInteger(); // Unread messages in the inbox.
+	}
+	
 	/**
 	 * Gets the single instance of {@code MailManager}.
 	 * @return single instance of {@code MailManager}
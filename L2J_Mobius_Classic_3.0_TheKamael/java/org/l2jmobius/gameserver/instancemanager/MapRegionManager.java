@@ -17,9 +17,12 @@
 package org.l2jmobius.gameserver.instancemanager;
 
 import java.io.File;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import org.w3c.dom.Document;
@@ -32,6 +35,7 @@ import org.l2jmobius.gameserver.data.xml.ClanHallData;
 import org.l2jmobius.gameserver.enums.TeleportWhereType;
 import org.l2jmobius.gameserver.model.Location;
 import org.l2jmobius.gameserver.model.MapRegion;
+import org.l2jmobius.gameserver.model.World;
 import org.l2jmobius.gameserver.model.WorldObject;
 import org.l2jmobius.gameserver.model.actor.Creature;
 import org.l2jmobius.gameserver.model.actor.Npc;
@@ -55,6 +59,15 @@ public class MapRegionManager implements IXmlReader
 	private static final Map<String, MapRegion> REGIONS = new HashMap<>();
 	private static final String DEFAULT_RESPAWN = "talking_island_town";
 	
+	// Map region index of each map tile, 0 when the tile has no region.
+	private static final int GRID_X_SIZE = (World.TILE_X_MAX - World.TILE_X_MIN) + 1;
+	private static final int GRID_Y_SIZE = (World.TILE_Y_MAX - World.TILE_Y_MIN) + 1;
+	private static volatile short[][] _regionGrid = new short[GRID_X_SIZE][GRID_Y_SIZE];
+	private static volatile MapRegion[] _regionsByIndex = new MapRegion[1];
+	
+	// Online players by the location id of their map region.
+	private static final Map<Integer, Set<Player>> PLAYERS_BY_LOC_ID = new ConcurrentHashMap<>();
+	
 	protected MapRegionManager()
 	{
 		load();
@@ -65,7 +78,51 @@ public class MapRegionManager implements IXmlReader
 	{
 		REGIONS.clear();
 		parseDatapackDirectory("data/mapregion", false);
+		buildRegionGrid();
 		LOGGER.info(getClass().getSimpleName() + ": Loaded " + REGIONS.size() + " map regions.");
+		
+		// Location ids may have changed.
+		for (Player player : World.getInstance().getPlayers())
+		{
+			updatePlayerRegion(player);
+		}
+	}
+	
+	/**
+	 * Indexes the map tiles of all regions, a tile listed by several regions keeps the first one in iteration order, as the former linear search did.
+	 */
+	private void buildRegionGrid()
+	{
+		final MapRegion[] regions = new MapRegion[REGIONS.size() + 1];
+		final short[][] grid = new short[GRID_X_SIZE][GRID_Y_SIZE];
+		short index = 0;
+		for (MapRegion region : REGIONS.values())
+		{
+			regions[++index] = region;
+			if (region.getMaps() == null)
+			{
+				continue;
+			}
+			
+			for (int[] map : region.getMaps())
+			{
+				final int x = map[0] - World.TILE_X_MIN;
+				final int y = map[1] - World.TILE_Y_MIN;
+				if ((x < 0) || (y < 0) || (x >= GRID_X_SIZE) || (y >= GRID_Y_SIZE))
+				{
+					LOGGER.warning(getClass().getSimpleName() + ": Map " + map[0] + "_" + map[1] + " of region " + region.getName() + " is outside of the world.");
+					continue;
+				}
+				
+				if (grid[x][y] == 0)
+				{
+					grid[x][y] = index;
+				}
+			}
+		}
+		
+		_regionsByIndex = regions;
+		_regionGrid = grid;
 	}
 	
 	@Override
@@ -142,14 +199,16 @@ public class MapRegionManager implements IXmlReader
 	 */
 	public MapRegion getMapRegion(int locX, int locY)
 	{
-		for (MapRegion region : REGIONS.values())
+		final int x = getMapRegionX(locX) - World.TILE_X_MIN;
+		final int y = getMapRegionY(locY) - World.TILE_Y_MIN;
+		if ((x < 0) || (y < 0) || (x >= GRID_X_SIZE) || (y >= GRID_Y_SIZE))
 		{
-			if (region.isZoneInRegion(getMapRegionX(locX), getMapRegionY(locY)))
-			{
-				return region;
-			}
+			return null;
 		}
-		return null;
+		
+		final int index = _regionGrid[x][y];
+		final MapRegion[] regions = _regionsByIndex;
+		return index < regions.length ? regions[index] : null;
 	}
 	
 	/**
@@ -185,6 +244,44 @@ public class MapRegionManager implements IXmlReader
 		return getMapRegionLocId(obj.getX(), obj.getY());
 	}
 	
+	/**
+	 * Updates the map region roster of a player, after it entered or left the world or moved to another map region.
+	 * @param player the player
+	 */
+	public synchronized void updatePlayerRegion(Player player)
+	{
+		final int oldLocId = player.getMapRegionLocId();
+		final int newLocId = World.getInstance().getPlayer(player.getObjectId()) == player ? getMapRegionLocId(player) : -1;
+		if (oldLocId == newLocId)
+		{
+			return;
+		}
+		
+		if (oldLocId >= 0)
+		{
+			final Set<Player> players = PLAYERS_BY_LOC_ID.get(oldLocId);
+			if (players != null)
+			{
+				players.remove(player);
+			}
+		}
+		if (newLocId >= 0)
+		{
+			PLAYERS_BY_LOC_ID.computeIfAbsent(newLocId, k -> ConcurrentHashMap.newKeySet()).add(player);
+		}
+		player.setMapRegionLocId(newLocId);
+	}
+	
+	/**
+	 * @param locId the map region location id, see {@link #getMapRegionLocId(WorldObject)}
+	 * @return the online players in map regions with this location id
+	 */
+	public Collection<Player> getPlayers(int locId)
+	{
+		final Set<Player> players = PLAYERS_BY_LOC_ID.get(locId);
+		return players != null ? players : Collections.emptySet();
+	}
+	
 	/**
 	 * @param posX
 	 * @return
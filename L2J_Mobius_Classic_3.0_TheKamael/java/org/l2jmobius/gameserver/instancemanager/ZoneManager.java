@@ -20,6 +20,7 @@ import java.io.File;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -42,6 +43,7 @@ import org.l2jmobius.gameserver.model.interfaces.ILocational;
 import org.l2jmobius.gameserver.model.item.instance.Item;
 import org.l2jmobius.gameserver.model.zone.AbstractZoneSettings;
 import org.l2jmobius.gameserver.model.zone.ZoneForm;
+import org.l2jmobius.gameserver.model.zone.ZoneCell;
 import org.l2jmobius.gameserver.model.zone.ZoneRegion;
 import org.l2jmobius.gameserver.model.zone.ZoneRespawn;
 import org.l2jmobius.gameserver.model.zone.ZoneType;
@@ -93,7 +95,7 @@ public class ZoneManager implements IXmlReader
 	
 	private static final Map<String, AbstractZoneSettings> SETTINGS = new HashMap<>();
 	
-	private static final int SHIFT_BY = 15;
+	public static final int SHIFT_BY = 15;
 	private static final int OFFSET_X = Math.abs(World.WORLD_X_MIN >> SHIFT_BY);
 	private static final int OFFSET_Y = Math.abs(World.WORLD_Y_MIN >> SHIFT_BY);
 	
@@ -169,6 +171,7 @@ public class ZoneManager implements IXmlReader
 				count++;
 			}
 		}
+		buildZoneCells();
 		LOGGER.info(getClass().getSimpleName() + ": Removed zones in " + count + " regions.");
 	}
 	
@@ -463,11 +466,26 @@ public class ZoneManager implements IXmlReader
 		_classZones.put(WaterZone.class, new ConcurrentHashMap<>());
 		_spawnTerritories.clear();
 		parseDatapackDirectory("data/zones", false);
+		buildZoneCells();
 		LOGGER.info(getClass().getSimpleName() + ": Loaded " + _classZones.size() + " zone classes and " + getSize() + " zones.");
 		final OptionalInt maxId = _classZones.values().stream().flatMap(map -> map.keySet().stream()).mapToInt(Integer.class::cast).filter(value -> value < 300000).max();
 		LOGGER.info(getClass().getSimpleName() + ": Last static id " + maxId.getAsInt() + ".");
 	}
 	
+	/**
+	 * Builds the zone cells of all zone regions.
+	 */
+	private void buildZoneCells()
+	{
+		for (int x = 0; x < _zoneRegions.length; x++)
+		{
+			for (int y = 0; y < _zoneRegions[x].length; y++)
+			{
+				_zoneRegions[x][y].buildCells((x - OFFSET_X) << SHIFT_BY, (y - OFFSET_Y) << SHIFT_BY);
+			}
+		}
+	}
+	
 	/**
 	 * Gets the size.
 	 * @return the size
@@ -637,12 +655,32 @@ public class ZoneManager implements IXmlReader
 	 */
 	public List<ZoneType> getZones(int x, int y)
 	{
-		final List<ZoneType> temp = new ArrayList<>();
-		for (ZoneType zone : getRegion(x, y).getZones().values())
+		final ZoneRegion region = getRegion(x, y);
+		final ZoneCell cell = region.getCell(x, y);
+		if (cell == null)
 		{
-			if (zone.isInsideZone(x, y))
+			final List<ZoneType> temp = new ArrayList<>();
+			for (ZoneType zone : region.getZones().values())
 			{
-				temp.add(zone);
+				if (zone.isInsideZone(x, y))
+				{
+					temp.add(zone);
+				}
+			}
+			return temp;
+		}
+		
+		List<ZoneType> temp = Collections.emptyList();
+		final ZoneType[] zones = cell.getZones();
+		for (int i = 0; i < zones.length; i++)
+		{
+			if (cell.isInsideZone(i, x, y, zones[i].getZone().getHighZ()))
+			{
+				if (temp.isEmpty())
+				{
+					temp = new ArrayList<>(zones.length - i);
+				}
+				temp.add(zones[i]);
 			}
 		}
 		return temp;
@@ -657,12 +695,32 @@ public class ZoneManager implements IXmlReader
 	 */
 	public List<ZoneType> getZones(int x, int y, int z)
 	{
-		final List<ZoneType> temp = new ArrayList<>();
-		for (ZoneType zone : getRegion(x, y).getZones().values())
+		final ZoneRegion region = getRegion(x, y);
+		final ZoneCell cell = region.getCell(x, y);
+		if (cell == null)
+		{
+			final List<ZoneType> temp = new ArrayList<>();
+			for (ZoneType zone : region.getZones().values())
+			{
+				if (zone.isInsideZone(x, y, z))
+				{
+					temp.add(zone);
+				}
+			}
+			return temp;
+		}
+		
+		List<ZoneType> temp = Collections.emptyList();
+		final ZoneType[] zones = cell.getZones();
+		for (int i = 0; i < zones.length; i++)
 		{
-			if (zone.isInsideZone(x, y, z))
+			if (cell.isInsideZone(i, x, y, z))
 			{
-				temp.add(zone);
+				if (temp.isEmpty())
+				{
+					temp = new ArrayList<>(zones.length - i);
+				}
+				temp.add(zones[i]);
 			}
 		}
 		return temp;
@@ -680,11 +738,26 @@ public class ZoneManager implements IXmlReader
 	@SuppressWarnings("unchecked")
 	public <T extends ZoneType> T getZone(int x, int y, int z, Class<T> type)
 	{
-		for (ZoneType zone : getRegion(x, y).getZones().values())
+		final ZoneRegion region = getRegion(x, y);
+		final ZoneCell cell = region.getCell(x, y);
+		if (cell == null)
+		{
+			for (ZoneType zone : region.getZones().values())
+			{
+				if (zone.isInsideZone(x, y, z) && type.isInstance(zone))
+				{
+					return (T) zone;
+				}
+			}
+			return null;
+		}
+		
+		final ZoneType[] zones = cell.getZones();
+		for (int i = 0; i < zones.length; i++)
 		{
-			if (zone.isInsideZone(x, y, z) && type.isInstance(zone))
+			if (type.isInstance(zones[i]) && cell.isInsideZone(i, x, y, z))
 			{
-				return (T) zone;
+				return (T) zones[i];
 			}
 		}
 		return null;
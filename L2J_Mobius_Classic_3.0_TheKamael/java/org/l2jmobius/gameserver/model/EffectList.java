@@ -1289,7 +1289,7 @@ public class EffectList
 		});
 		
 		// Recalculate all stats
-		_owner.getStat().recalculateStats(broadcast);
+		_owner.getStat().recalculateStats(broadcast, true);
 		
 		if (broadcast)
 		{
@@ -18,11 +18,10 @@ package org.l2jmobius.gameserver.model;
 
 import static java.lang.Math.max;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.util.List;
 
-import org.l2jmobius.commons.database.DatabaseFactory;
+import org.l2jmobius.commons.database.DatabaseWriteQueue;
+import org.l2jmobius.commons.database.DatabaseWriteQueue.Batch;
 import org.l2jmobius.gameserver.data.xml.ElementalSpiritData;
 import org.l2jmobius.gameserver.enums.ElementalType;
 import org.l2jmobius.gameserver.enums.UserInfoType;
@@ -260,25 +259,9 @@ public class ElementalSpirit
 	
 	public void save()
 	{
-		try (Connection con = DatabaseFactory.getConnection();
-			PreparedStatement statement = con.prepareStatement(STORE_ELEMENTAL_SPIRIT_QUERY))
-		{
-			statement.setInt(1, _data.getCharId());
-			statement.setInt(2, _data.getType());
-			statement.setInt(3, _data.getLevel());
-			statement.setInt(4, _data.getStage());
-			statement.setLong(5, _data.getExperience());
-			statement.setInt(6, _data.getAttackPoints());
-			statement.setInt(7, _data.getDefensePoints());
-			statement.setInt(8, _data.getCritRatePoints());
-			statement.setInt(9, _data.getCritDamagePoints());
-			statement.setInt(10, _data.isInUse() ? 1 : 0);
-			statement.execute();
-		}
-		catch (Exception e)
-		{
-			e.printStackTrace();
-		}
+		final Batch batch = new Batch();
+		batch.add(STORE_ELEMENTAL_SPIRIT_QUERY, _data.getCharId(), _data.getType(), _data.getLevel(), _data.getStage(), _data.getExperience(), _data.getAttackPoints(), _data.getDefensePoints(), _data.getCritRatePoints(), _data.getCritDamagePoints(), _data.isInUse() ? 1 : 0);
+		DatabaseWriteQueue.getInstance().queue("character_spirits", _data.getCharId(), _data.getType(), batch);
 	}
 	
 	public void addAttackPoints(byte attackPoints)
@@ -0,0 +1,317 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.model;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.l2jmobius.Config;
+import org.l2jmobius.commons.util.Rnd;
+import org.l2jmobius.gameserver.data.sql.OfflineTraderTable;
+import org.l2jmobius.gameserver.data.xml.PlayerTemplateData;
+import org.l2jmobius.gameserver.enums.PrivateStoreType;
+import org.l2jmobius.gameserver.enums.Sex;
+import org.l2jmobius.gameserver.model.actor.Creature;
+import org.l2jmobius.gameserver.model.actor.Player;
+import org.l2jmobius.gameserver.model.actor.templates.PlayerTemplate;
+import org.l2jmobius.gameserver.model.itemcontainer.Inventory;
+import org.l2jmobius.gameserver.model.skill.AbnormalVisualEffect;
+import org.l2jmobius.gameserver.network.serverpackets.ActionFailed;
+import org.l2jmobius.gameserver.network.serverpackets.ExPrivateStoreSetWholeMsg;
+import org.l2jmobius.gameserver.network.serverpackets.OfflineTraderInfo;
+import org.l2jmobius.gameserver.network.serverpackets.PrivateStoreMsgBuy;
+import org.l2jmobius.gameserver.network.serverpackets.PrivateStoreMsgSell;
+import org.l2jmobius.gameserver.network.serverpackets.RecipeShopMsg;
+
+/**
+ * A restored offline store that is not loaded as a {@link Player}.<br>
+ * It only keeps what nearby players see, the position, appearance and store title, and the stored items of the store.<br>
+ * The character is loaded by {@link OfflineTraderTable} when a player interacts with it, and replaces this object with the same object id.
+ */
+public class OfflineTrader extends WorldObject
+{
+	private final long _offlineStartTime;
+	private final PrivateStoreType _storeType;
+	private final boolean _sellingBuffs;
+	private final String _storeTitle;
+	private final List<long[]> _items = new ArrayList<>();
+	
+	private final PlayerTemplate _baseTemplate;
+	private final int _classId;
+	private final boolean _female;
+	private final int _face;
+	private final int _hairStyle;
+	private final int _hairColor;
+	private final String _title;
+	private final int _titleColor;
+	private final int _nameColor;
+	private final int _clanId;
+	private final boolean _noble;
+	private final int[] _paperdollDisplayIds = new int[Inventory.PAPERDOLL_TOTALSLOTS];
+	private final int[] _paperdollVisualIds = new int[Inventory.PAPERDOLL_TOTALSLOTS];
+	private int _weaponEnchant;
+	private final AbnormalVisualEffect _abnormalVisualEffect;
+	
+	/**
+	 * @param rs the offline store joined with its character
+	 * @param storeType the store type
+	 * @param sellingBuffs if {@code true} the store sells buffs
+	 * @throws SQLException
+	 */
+	public OfflineTrader(ResultSet rs, PrivateStoreType storeType, boolean sellingBuffs) throws SQLException
+	{
+		super(rs.getInt("charId"));
+		setName(rs.getString("char_name"));
+		setXYZ(rs.getInt("x"), rs.getInt("y"), rs.getInt("z"));
+		setHeading(rs.getInt("heading"));
+		
+		_offlineStartTime = rs.getLong("time");
+		_storeType = storeType;
+		_sellingBuffs = sellingBuffs;
+		_storeTitle = rs.getString("store_title");
+		
+		_baseTemplate = PlayerTemplateData.getInstance().getTemplate(rs.getInt("base_class"));
+		_classId = rs.getInt("classid");
+		_female = rs.getInt("sex") != Sex.MALE.ordinal();
+		_face = rs.getInt("face");
+		_hairStyle = rs.getInt("hairStyle");
+		_hairColor = rs.getInt("hairColor");
+		_title = rs.getString("title");
+		_titleColor = rs.getInt("title_color");
+		_nameColor = Config.OFFLINE_SET_NAME_COLOR ? Config.OFFLINE_NAME_COLOR : 0xFFFFFF;
+		_clanId = rs.getInt("clanid");
+		_noble = rs.getInt("nobless") == 1;
+		_abnormalVisualEffect = Config.OFFLINE_ABNORMAL_EFFECTS.isEmpty() ? null : Config.OFFLINE_ABNORMAL_EFFECTS.get(Rnd.get(Config.OFFLINE_ABNORMAL_EFFECTS.size()));
+	}
+	
+	/**
+	 * @param item the item id, item object id, skill id or recipe id, depending on the store type
+	 * @param count the count
+	 * @param price the price
+	 */
+	public void addItem(int item, long count, long price)
+	{
+		_items.add(new long[]
+		{
+			item,
+			count,
+			price
+		});
+	}
+	
+	/**
+	 * @return the stored item, count and price of each store item, as stored in {@code character_offline_trade_items}
+	 */
+	public List<long[]> getItems()
+	{
+		return _items;
+	}
+	
+	/**
+	 * @param slot the paperdoll slot
+	 * @param displayId the display id of the equipped item
+	 * @param visualId the appearance id of the equipped item
+	 * @param enchantLevel the enchant level of the equipped item
+	 */
+	public void setPaperdollItem(int slot, int displayId, int visualId, int enchantLevel)
+	{
+		if ((slot < 0) || (slot >= Inventory.PAPERDOLL_TOTALSLOTS))
+		{
+			return;
+		}
+		
+		_paperdollDisplayIds[slot] = displayId;
+		_paperdollVisualIds[slot] = visualId;
+		if (slot == Inventory.PAPERDOLL_RHAND)
+		{
+			_weaponEnchant = enchantLevel;
+		}
+	}
+	
+	public long getOfflineStartTime()
+	{
+		return _offlineStartTime;
+	}
+	
+	public PrivateStoreType getPrivateStoreType()
+	{
+		return _storeType;
+	}
+	
+	public boolean isSellingBuffs()
+	{
+		return _sellingBuffs;
+	}
+	
+	public String getStoreTitle()
+	{
+		return _storeTitle;
+	}
+	
+	public PlayerTemplate getBaseTemplate()
+	{
+		return _baseTemplate;
+	}
+	
+	public int getClassId()
+	{
+		return _classId;
+	}
+	
+	public boolean isFemale()
+	{
+		return _female;
+	}
+	
+	public int getFace()
+	{
+		return _face;
+	}
+	
+	public int getHairStyle()
+	{
+		return _hairStyle;
+	}
+	
+	public int getHairColor()
+	{
+		return _hairColor;
+	}
+	
+	public String getTitle()
+	{
+		return _title;
+	}
+	
+	public int getTitleColor()
+	{
+		return _titleColor;
+	}
+	
+	public int getNameColor()
+	{
+		return _nameColor;
+	}
+	
+	public int getClanId()
+	{
+		return _clanId;
+	}
+	
+	public boolean isNoble()
+	{
+		return _noble;
+	}
+	
+	public int getPaperdollItemDisplayId(int slot)
+	{
+		return _paperdollDisplayIds[slot];
+	}
+	
+	public int getPaperdollItemVisualId(int slot)
+	{
+		return _paperdollVisualIds[slot];
+	}
+	
+	public int getWeaponEnchant()
+	{
+		return _weaponEnchant;
+	}
+	
+	/**
+	 * @return the abnormal visual effect of the offline store, {@code null} if none
+	 */
+	public AbnormalVisualEffect getAbnormalVisualEffect()
+	{
+		return _abnormalVisualEffect;
+	}
+	
+	@Override
+	public int getId()
+	{
+		return _classId;
+	}
+	
+	@Override
+	public void onAction(Player player, boolean interact)
+	{
+		final Player trader = OfflineTraderTable.getInstance().loadTrader(this);
+		if (trader == null)
+		{
+			player.sendPacket(ActionFailed.STATIC_PACKET);
+			return;
+		}
+		
+		trader.onAction(player, interact);
+	}
+	
+	@Override
+	public void onActionShift(Player player)
+	{
+		final Player trader = OfflineTraderTable.getInstance().loadTrader(this);
+		if (trader == null)
+		{
+			player.sendPacket(ActionFailed.STATIC_PACKET);
+			return;
+		}
+		
+		trader.onActionShift(player);
+	}
+	
+	@Override
+	public boolean isAutoAttackable(Creature attacker)
+	{
+		return false;
+	}
+	
+	@Override
+	public void sendInfo(Player player)
+	{
+		player.sendPacket(new OfflineTraderInfo(this));
+		switch (_storeType)
+		{
+			case SELL:
+			{
+				player.sendPacket(new PrivateStoreMsgSell(getObjectId(), _storeTitle));
+				break;
+			}
+			case PACKAGE_SELL:
+			{
+				player.sendPacket(new ExPrivateStoreSetWholeMsg(getObjectId(), _storeTitle));
+				break;
+			}
+			case BUY:
+			{
+				player.sendPacket(new PrivateStoreMsgBuy(getObjectId(), _storeTitle));
+				break;
+			}
+			case MANUFACTURE:
+			{
+				player.sendPacket(new RecipeShopMsg(getObjectId(), _storeTitle));
+				break;
+			}
+		}
+	}
+	
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + ":" + getName() + "[" + getObjectId() + "]";
+	}
+}
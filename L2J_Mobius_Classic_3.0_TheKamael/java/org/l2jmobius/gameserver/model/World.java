@@ -33,6 +33,7 @@ import org.l2jmobius.gameserver.ai.CreatureAI;
 import org.l2jmobius.gameserver.ai.CtrlEvent;
 import org.l2jmobius.gameserver.ai.CtrlIntention;
 import org.l2jmobius.gameserver.data.sql.CharNameTable;
+import org.l2jmobius.gameserver.instancemanager.MapRegionManager;
 import org.l2jmobius.gameserver.model.actor.Creature;
 import org.l2jmobius.gameserver.model.actor.Npc;
 import org.l2jmobius.gameserver.model.actor.Player;
@@ -56,6 +57,7 @@ public class World
 	
 	/** Bit shift, defines number of regions note, shifting by 15 will result in regions corresponding to map tiles shifting by 11 divides one tile to 16x16 regions. */
 	public static final int SHIFT_BY = 11;
+	public static final int REGION_SIZE = 1 << SHIFT_BY;
 	
 	public static final int TILE_SIZE = 32768;
 	
@@ -165,9 +167,13 @@ public class World
 				Disconnection.of(newPlayer).defaultSequence(LeaveWorld.STATIC_PACKET);
 				LOGGER.warning(getClass().getSimpleName() + ": Duplicate character!? Disconnected both characters (" + newPlayer.getName() + ")");
 			}
-			else if (Config.FACTION_SYSTEM_ENABLED)
+			else
 			{
-				addFactionPlayerToWorld(newPlayer);
+				if (Config.FACTION_SYSTEM_ENABLED)
+				{
+					addFactionPlayerToWorld(newPlayer);
+				}
+				MapRegionManager.getInstance().updatePlayerRegion(newPlayer);
 			}
 		}
 	}
@@ -194,6 +200,7 @@ public class World
 				return;
 			}
 			_allPlayers.remove(object.getObjectId());
+			MapRegionManager.getInstance().updatePlayerRegion(player);
 			
 			if (Config.FACTION_SYSTEM_ENABLED)
 			{
@@ -622,7 +629,7 @@ public class World
 		final WorldRegion[] surroundingRegions = worldRegion.getSurroundingRegions();
 		for (int i = 0; i < surroundingRegions.length; i++)
 		{
-			final Collection<WorldObject> visibleObjects = surroundingRegions[i].getVisibleObjects();
+			final Collection<WorldObject> visibleObjects = surroundingRegions[i].getVisibleObjects(clazz);
 			if (visibleObjects.isEmpty())
 			{
 				continue;
@@ -678,15 +685,30 @@ public class World
 			return;
 		}
 		
+		final int x = object.getX();
+		final int y = object.getY();
+		final int z = object.getZ();
+		final double rangeSq = (double) range * range;
 		final WorldRegion[] surroundingRegions = worldRegion.getSurroundingRegions();
 		for (int i = 0; i < surroundingRegions.length; i++)
 		{
-			final Collection<WorldObject> visibleObjects = surroundingRegions[i].getVisibleObjects();
+			final WorldRegion region = surroundingRegions[i];
+			final Collection<WorldObject> visibleObjects = region.getVisibleObjects(clazz);
 			if (visibleObjects.isEmpty())
 			{
 				continue;
 			}
 			
+			// Skip regions that do not intersect the range.
+			final int minX = (region.getRegionX() - OFFSET_X) << SHIFT_BY;
+			final int minY = (region.getRegionY() - OFFSET_Y) << SHIFT_BY;
+			final double regionDx = Math.max(0, Math.max(minX - x, x - (minX + REGION_SIZE)));
+			final double regionDy = Math.max(0, Math.max(minY - y, y - (minY + REGION_SIZE)));
+			if (((regionDx * regionDx) + (regionDy * regionDy)) > rangeSq)
+			{
+				continue;
+			}
+			
 			for (WorldObject wo : visibleObjects)
 			{
 				if ((wo == object) || !clazz.isInstance(wo))
@@ -699,7 +721,10 @@ public class World
 					continue;
 				}
 				
-				if (wo.calculateDistance3D(object) <= range)
+				final double dx = wo.getX() - x;
+				final double dy = wo.getY() - y;
+				final double dz = wo.getZ() - z;
+				if (((dx * dx) + (dy * dy) + (dz * dz)) <= rangeSq)
 				{
 					c.accept(clazz.cast(wo));
 				}
@@ -27,7 +27,9 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.l2jmobius.Config;
 import org.l2jmobius.commons.threads.ThreadPool;
 import org.l2jmobius.gameserver.model.actor.Attackable;
+import org.l2jmobius.gameserver.model.actor.Creature;
 import org.l2jmobius.gameserver.model.actor.Npc;
+import org.l2jmobius.gameserver.model.actor.Player;
 import org.l2jmobius.gameserver.model.actor.instance.Door;
 import org.l2jmobius.gameserver.model.actor.instance.Fence;
 import org.l2jmobius.gameserver.taskmanager.RandomAnimationTaskManager;
@@ -36,6 +38,10 @@ public class WorldRegion
 {
 	/** Set containing visible objects in this world region. */
 	private final Set<WorldObject> _visibleObjects = ConcurrentHashMap.newKeySet();
+	/** Sets containing visible creatures, players and npcs in this world region, so typed lookups do not iterate unrelated objects. */
+	private final Set<WorldObject> _visibleCreatures = ConcurrentHashMap.newKeySet();
+	private final Set<WorldObject> _visiblePlayers = ConcurrentHashMap.newKeySet();
+	private final Set<WorldObject> _visibleNpcs = ConcurrentHashMap.newKeySet();
 	/** List containing doors in this world region. */
 	private final List<Door> _doors = new ArrayList<>(1);
 	/** List containing fences in this world region. */
@@ -269,6 +275,18 @@ public class WorldRegion
 		}
 		
 		_visibleObjects.add(object);
+		if (object instanceof Creature)
+		{
+			_visibleCreatures.add(object);
+			if (object instanceof Player)
+			{
+				_visiblePlayers.add(object);
+			}
+			else if (object instanceof Npc)
+			{
+				_visibleNpcs.add(object);
+			}
+		}
 		
 		if (object.isDoor())
 		{
@@ -309,6 +327,18 @@ public class WorldRegion
 		}
 		
 		_visibleObjects.remove(object);
+		if (object instanceof Creature)
+		{
+			_visibleCreatures.remove(object);
+			if (object instanceof Player)
+			{
+				_visiblePlayers.remove(object);
+			}
+			else if (object instanceof Npc)
+			{
+				_visibleNpcs.remove(object);
+			}
+		}
 		
 		if (object.isDoor())
 		{
@@ -336,6 +366,27 @@ public class WorldRegion
 		return _visibleObjects;
 	}
 	
+	/**
+	 * @param clazz the type of the requested objects
+	 * @return the smallest collection of visible objects in this world region that contains all objects of the given type
+	 */
+	public Collection<WorldObject> getVisibleObjects(Class<?> clazz)
+	{
+		if (Player.class.isAssignableFrom(clazz))
+		{
+			return _visiblePlayers;
+		}
+		if (Npc.class.isAssignableFrom(clazz))
+		{
+			return _visibleNpcs;
+		}
+		if (Creature.class.isAssignableFrom(clazz))
+		{
+			return _visibleCreatures;
+		}
+		return _visibleObjects;
+	}
+	
 	public synchronized void addDoor(Door door)
 	{
 		if (!_doors.contains(door))
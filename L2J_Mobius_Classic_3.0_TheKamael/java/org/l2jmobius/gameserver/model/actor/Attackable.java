@@ -52,6 +52,7 @@ import org.l2jmobius.gameserver.model.ElementalSpirit;
 import org.l2jmobius.gameserver.model.Party;
 import org.l2jmobius.gameserver.model.Seed;
 import org.l2jmobius.gameserver.model.WorldObject;
+import org.l2jmobius.gameserver.model.WorldRegion;
 import org.l2jmobius.gameserver.model.actor.instance.GrandBoss;
 import org.l2jmobius.gameserver.model.actor.instance.Monster;
 import org.l2jmobius.gameserver.model.actor.instance.Servitor;
@@ -77,6 +78,7 @@ import org.l2jmobius.gameserver.network.SystemMessageId;
 import org.l2jmobius.gameserver.network.serverpackets.CreatureSay;
 import org.l2jmobius.gameserver.network.serverpackets.ExMagicAttackInfo;
 import org.l2jmobius.gameserver.network.serverpackets.SystemMessage;
+import org.l2jmobius.gameserver.taskmanager.AttackableThinkTaskManager;
 import org.l2jmobius.gameserver.taskmanager.DecayTaskManager;
 import org.l2jmobius.gameserver.util.Util;
 
@@ -1439,6 +1441,19 @@ public class Attackable extends Npc
 		return true;
 	}
 	
+	@Override
+	public void setWorldRegion(WorldRegion region)
+	{
+		final WorldRegion oldRegion = getWorldRegion();
+		super.setWorldRegion(region);
+		
+		// Keep the think task grouped by the current world region.
+		if (oldRegion != region)
+		{
+			AttackableThinkTaskManager.getInstance().updateRegion(this);
+		}
+	}
+	
 	@Override
 	public void onSpawn()
 	{
@@ -142,6 +142,7 @@ import org.l2jmobius.gameserver.model.stats.BasicPropertyResist;
 import org.l2jmobius.gameserver.model.stats.Formulas;
 import org.l2jmobius.gameserver.model.stats.MoveType;
 import org.l2jmobius.gameserver.model.stats.Stat;
+import org.l2jmobius.gameserver.model.zone.ZoneCell;
 import org.l2jmobius.gameserver.model.zone.ZoneId;
 import org.l2jmobius.gameserver.model.zone.ZoneRegion;
 import org.l2jmobius.gameserver.network.Disconnection;
@@ -235,6 +236,8 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 	
 	private final byte[] _zones = new byte[ZoneId.getZoneCount()];
 	protected final Location _lastZoneValidateLocation = new Location(getX(), getY(), getZ());
+	private ZoneCell _zoneCell;
+	private long _zoneState;
 	
 	private final StampedLock _attackLock = new StampedLock();
 	
@@ -3255,7 +3258,7 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 		final ZoneRegion region = ZoneManager.getInstance().getRegion(this);
 		if (region != null)
 		{
-			region.revalidateZones(this);
+			region.revalidateZones(this, force);
 		}
 		else // Precaution. Moved at invalid region?
 		{
@@ -3263,6 +3266,32 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 		}
 	}
 	
+	/**
+	 * @return the zone cell of the last zone revalidation, {@code null} if none
+	 */
+	public ZoneCell getZoneCell()
+	{
+		return _zoneCell;
+	}
+	
+	/**
+	 * @return the zone state of the last zone revalidation
+	 */
+	public long getZoneState()
+	{
+		return _zoneState;
+	}
+	
+	/**
+	 * @param cell the zone cell of the last zone revalidation
+	 * @param state the zone state of the last zone revalidation
+	 */
+	public void setZoneCell(ZoneCell cell, long state)
+	{
+		_zoneCell = cell;
+		_zoneState = state;
+	}
+	
 	/**
 	 * Stop movement of the Creature (Called by AI Accessor only).<br>
 	 * <br>
@@ -5636,15 +5665,17 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 			return;
 		}
 		
+		final WorldRegion worldRegion = getWorldRegion();
+		if ((worldRegion == null) || !worldRegion.areNeighborsActive())
+		{
+			return;
+		}
+		
 		World.getInstance().forEachVisibleObjectInRange(this, Creature.class, _seenCreatureRange, creature ->
 		{
-			if (!creature.isInvisible())
+			if (!creature.isInvisible() && _seenCreatures.add(creature) && EventDispatcher.getInstance().hasListener(EventType.ON_CREATURE_SEE, this))
 			{
-				final WorldRegion worldRegion = getWorldRegion();
-				if ((worldRegion != null) && worldRegion.areNeighborsActive() && _seenCreatures.add(creature) && EventDispatcher.getInstance().hasListener(EventType.ON_CREATURE_SEE, this))
-				{
-					EventDispatcher.getInstance().notifyEventAsync(new OnCreatureSee(this, creature), this);
-				}
+				EventDispatcher.getInstance().notifyEventAsync(new OnCreatureSee(this, creature), this);
 			}
 		});
 	}
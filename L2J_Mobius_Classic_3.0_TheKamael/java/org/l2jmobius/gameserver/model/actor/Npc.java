@@ -164,7 +164,7 @@ public class Npc extends Creature
 	/** Contains information about local tax payments. */
 	private TaxZone _taxZone = null;
 	
-	private final List<QuestTimer> _questTimers = new ArrayList<>();
+	private final Set<QuestTimer> _questTimers = ConcurrentHashMap.newKeySet();
 	private final List<TimerHolder<?>> _timerHolders = new ArrayList<>();
 	
 	/**
@@ -1909,30 +1909,21 @@ public class Npc extends Creature
 	
 	public void addQuestTimer(QuestTimer questTimer)
 	{
-		synchronized (_questTimers)
-		{
-			_questTimers.add(questTimer);
-		}
+		_questTimers.add(questTimer);
 	}
 	
 	public void removeQuestTimer(QuestTimer questTimer)
 	{
-		synchronized (_questTimers)
-		{
-			_questTimers.remove(questTimer);
-		}
+		_questTimers.remove(questTimer);
 	}
 	
 	public void stopQuestTimers()
 	{
-		synchronized (_questTimers)
+		for (QuestTimer timer : _questTimers)
 		{
-			for (QuestTimer timer : _questTimers)
-			{
-				timer.cancelTask();
-			}
-			_questTimers.clear();
+			timer.cancelTask();
 		}
+		_questTimers.clear();
 	}
 	
 	public void addTimerHolder(TimerHolder<?> timer)
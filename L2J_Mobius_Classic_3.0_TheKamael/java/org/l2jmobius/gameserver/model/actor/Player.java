@@ -48,6 +48,9 @@ import java.util.stream.Collectors;
 
 import org.l2jmobius.Config;
 import org.l2jmobius.commons.database.DatabaseFactory;
+import org.l2jmobius.commons.database.DatabaseWriteQueue;
+import org.l2jmobius.commons.database.DatabaseWriteQueue.Batch;
+import org.l2jmobius.commons.network.SharedPacket;
 import org.l2jmobius.commons.threads.ThreadPool;
 import org.l2jmobius.commons.util.CommonUtil;
 import org.l2jmobius.commons.util.Rnd;
@@ -147,6 +150,7 @@ import org.l2jmobius.gameserver.model.Location;
 import org.l2jmobius.gameserver.model.Macro;
 import org.l2jmobius.gameserver.model.MacroList;
 import org.l2jmobius.gameserver.model.ManufactureItem;
+import org.l2jmobius.gameserver.model.OfflineTrader;
 import org.l2jmobius.gameserver.model.Party;
 import org.l2jmobius.gameserver.model.PetData;
 import org.l2jmobius.gameserver.model.PetLevelData;
@@ -574,6 +578,9 @@ public class Player extends Playable
 	/** Stored from last ValidatePosition **/
 	private final Location _lastServerPosition = new Location(0, 0, 0);
 	
+	/** Location id of the map region roster holding this player, -1 while not in the world */
+	private volatile int _mapRegionLocId = -1;
+	
 	private final AtomicBoolean _blinkActive = new AtomicBoolean();
 	
 	/** The number of recommendation obtained by the Player */
@@ -838,6 +845,7 @@ public class Player extends Playable
 	public void setPvpFlagLasts(long time)
 	{
 		_pvpFlagLasts = time;
+		PvpFlagTaskManager.getInstance().update(this);
 	}
 	
 	public long getPvpFlagLasts()
@@ -884,7 +892,7 @@ public class Player extends Playable
 	
 	private ScheduledFuture<?> _timedHuntingZoneTask = null;
 	
-	private final List<QuestTimer> _questTimers = new ArrayList<>();
+	private final Set<QuestTimer> _questTimers = ConcurrentHashMap.newKeySet();
 	private final List<TimerHolder<?>> _timerHolders = new ArrayList<>();
 	
 	// Selling buffs system
@@ -1817,7 +1825,7 @@ public class Player extends Playable
 		}
 		_lastZoneValidateLocation.setXYZ(this);
 		
-		ZoneManager.getInstance().getRegion(this).revalidateZones(this);
+		ZoneManager.getInstance().getRegion(this).revalidateZones(this, force);
 		
 		if (Config.ALLOW_WATER)
 		{
@@ -4173,6 +4181,19 @@ public class Player extends Playable
 		}
 	}
 	
+	/**
+	 * Send a broadcast packet to this Player, using its shared serialized form when available.
+	 * @param packet the packet to send
+	 * @param shared the serialized form shared by all receivers, can be {@code null}
+	 */
+	public void sendPacket(IClientOutgoingPacket packet, SharedPacket shared)
+	{
+		if (_client != null)
+		{
+			_client.sendPacket(packet, shared);
+		}
+	}
+	
 	/**
 	 * Send SystemMessage packet.
 	 * @param id SystemMessageId
@@ -4488,6 +4509,11 @@ public class Player extends Playable
 				}
 			}
 		}
+		if ((Config.SHOP_MIN_RANGE_FROM_PLAYER > 0) && !World.getInstance().getVisibleObjectsInRange(this, OfflineTrader.class, Config.SHOP_MIN_RANGE_FROM_PLAYER).isEmpty())
+		{
+			sendPacket(new SystemMessage(SystemMessageId.YOU_CANNOT_OPEN_A_PRIVATE_STORE_HERE));
+			return false;
+		}
 		return !_isSellingBuffs && !isAlikeDead() && !_inOlympiadMode && !isMounted() && !isInsideZone(ZoneId.NO_STORE) && !isCastingNow();
 	}
 	
@@ -6988,41 +7014,78 @@ public class Player extends Playable
 	 * @param storeActiveEffects
 	 */
 	public synchronized void store(boolean storeActiveEffects)
+	{
+		store(storeActiveEffects, true);
+	}
+	
+	/**
+	 * Update Player stats in the characters table of the database.
+	 * @param storeActiveEffects
+	 * @param wait if {@code true} waits until the queued character data is written, otherwise it is written later by the {@link DatabaseWriteQueue}
+	 */
+	private synchronized void store(boolean storeActiveEffects, boolean wait)
 	{
 		storeCharBase();
 		storeCharSub();
 		storeEffect(storeActiveEffects);
 		storeItemReuseDelay();
+		for (QuestState qs : _quests.values())
+		{
+			qs.storeMe();
+		}
+		
 		if (Config.STORE_RECIPE_SHOPLIST)
 		{
 			storeRecipeShopList();
 		}
 		
-		final PlayerVariables vars = getScript(PlayerVariables.class);
-		if (vars != null)
+		if (_spirits != null)
 		{
-			vars.storeMe();
+			for (ElementalSpirit spirit : _spirits)
+			{
+				if (spirit != null)
+				{
+					spirit.save();
+				}
+			}
 		}
 		
-		final AccountVariables aVars = getScript(AccountVariables.class);
-		if (aVars != null)
+		if (wait)
 		{
-			aVars.storeMe();
+			DatabaseWriteQueue.getInstance().flush();
 		}
 		
-		getInventory().updateDatabase();
-		getWarehouse().updateDatabase();
-		getFreight().updateDatabase();
-		
-		if (_spirits != null)
+		// Variables and changed items are written directly, in a single transaction.
+		try (Connection con = DatabaseFactory.getConnection())
 		{
-			for (ElementalSpirit spirit : _spirits)
+			con.setAutoCommit(false);
+			try
 			{
-				if (spirit != null)
+				final PlayerVariables vars = getScript(PlayerVariables.class);
+				if (vars != null)
 				{
-					spirit.save();
+					vars.storeMe(con);
+				}
+				
+				final AccountVariables aVars = getScript(AccountVariables.class);
+				if (aVars != null)
+				{
+					aVars.storeMe(con);
 				}
+				
+				getInventory().updateDatabase(con);
+				getWarehouse().updateDatabase(con);
+				getFreight().updateDatabase(con);
+				con.commit();
 			}
+			finally
+			{
+				con.setAutoCommit(true);
+			}
+		}
+		catch (Exception e)
+		{
+			LOGGER.log(Level.SEVERE, "Could not store variables and items of player " + getObjectId() + ": ", e);
 		}
 	}
 	
@@ -7038,78 +7101,24 @@ public class Player extends Playable
 		final long exp = getStat().getBaseExp();
 		final int level = getStat().getBaseLevel();
 		final long sp = getStat().getBaseSp();
-		try (Connection con = DatabaseFactory.getConnection();
-			PreparedStatement statement = con.prepareStatement(UPDATE_CHARACTER))
-		{
-			statement.setInt(1, level);
-			statement.setInt(2, getMaxHp());
-			statement.setDouble(3, getCurrentHp());
-			statement.setInt(4, getMaxCp());
-			statement.setDouble(5, getCurrentCp());
-			statement.setInt(6, getMaxMp());
-			statement.setDouble(7, getCurrentMp());
-			statement.setInt(8, _appearance.getFace());
-			statement.setInt(9, _appearance.getHairStyle());
-			statement.setInt(10, _appearance.getHairColor());
-			statement.setInt(11, _appearance.isFemale() ? 1 : 0);
-			statement.setInt(12, getHeading());
-			statement.setInt(13, _lastLoc != null ? _lastLoc.getX() : getX());
-			statement.setInt(14, _lastLoc != null ? _lastLoc.getY() : getY());
-			statement.setInt(15, _lastLoc != null ? _lastLoc.getZ() : getZ());
-			statement.setLong(16, exp);
-			statement.setLong(17, _expBeforeDeath);
-			statement.setLong(18, sp);
-			statement.setInt(19, getReputation());
-			statement.setInt(20, _fame);
-			statement.setInt(21, _raidbossPoints);
-			statement.setInt(22, _pvpKills);
-			statement.setInt(23, _pkKills);
-			statement.setInt(24, _clanId);
-			statement.setInt(25, getRace().ordinal());
-			statement.setInt(26, getClassId().getId());
-			statement.setLong(27, _deleteTimer);
-			statement.setString(28, getTitle());
-			statement.setInt(29, _appearance.getTitleColor());
-			statement.setInt(30, isOnlineInt());
-			statement.setInt(31, _clanPrivileges.getBitmask());
-			statement.setInt(32, _wantsPeace);
-			statement.setInt(33, _baseClass);
-			long totalOnlineTime = _onlineTime;
-			if (_onlineBeginTime > 0)
-			{
-				totalOnlineTime += (System.currentTimeMillis() - _onlineBeginTime) / 1000;
-			}
-			statement.setLong(34, _offlineShopStart > 0 ? _onlineTime : totalOnlineTime);
-			statement.setInt(35, isNoble() ? 1 : 0);
-			statement.setInt(36, _powerGrade);
-			statement.setInt(37, _pledgeType);
-			statement.setInt(38, _lvlJoinedAcademy);
-			statement.setLong(39, _apprentice);
-			statement.setLong(40, _sponsor);
-			statement.setLong(41, _clanJoinExpiryTime);
-			statement.setLong(42, _clanCreateExpiryTime);
-			statement.setString(43, getName());
-			statement.setInt(44, _bookmarkslot);
-			statement.setInt(45, getStat().getBaseVitalityPoints());
-			statement.setString(46, _lang);
-			int factionId = 0;
-			if (_isGood)
-			{
-				factionId = 1;
-			}
-			if (_isEvil)
-			{
-				factionId = 2;
-			}
-			statement.setInt(47, factionId);
-			statement.setInt(48, _pcCafePoints);
-			statement.setInt(49, getObjectId());
-			statement.execute();
+		long totalOnlineTime = _onlineTime;
+		if (_onlineBeginTime > 0)
+		{
+			totalOnlineTime += (System.currentTimeMillis() - _onlineBeginTime) / 1000;
 		}
-		catch (Exception e)
+		int factionId = 0;
+		if (_isGood)
+		{
+			factionId = 1;
+		}
+		if (_isEvil)
 		{
-			LOGGER.log(Level.WARNING, "Could not store char base data: " + this + " - " + e.getMessage(), e);
+			factionId = 2;
 		}
+		
+		final Batch batch = new Batch();
+		batch.add(UPDATE_CHARACTER, level, getMaxHp(), getCurrentHp(), getMaxCp(), getCurrentCp(), getMaxMp(), getCurrentMp(), _appearance.getFace(), _appearance.getHairStyle(), _appearance.getHairColor(), _appearance.isFemale() ? 1 : 0, getHeading(), _lastLoc != null ? _lastLoc.getX() : getX(), _lastLoc != null ? _lastLoc.getY() : getY(), _lastLoc != null ? _lastLoc.getZ() : getZ(), exp, _expBeforeDeath, sp, getReputation(), _fame, _raidbossPoints, _pvpKills, _pkKills, _clanId, getRace().ordinal(), getClassId().getId(), _deleteTimer, getTitle(), _appearance.getTitleColor(), isOnlineInt(), _clanPrivileges.getBitmask(), _wantsPeace, _baseClass, _offlineShopStart > 0 ? _onlineTime : totalOnlineTime, isNoble() ? 1 : 0, _powerGrade, _pledgeType, _lvlJoinedAcademy, _apprentice, _sponsor, _clanJoinExpiryTime, _clanCreateExpiryTime, getName(), _bookmarkslot, getStat().getBaseVitalityPoints(), _lang, factionId, _pcCafePoints, getObjectId());
+		DatabaseWriteQueue.getInstance().queue("characters", getObjectId(), batch);
 	}
 	
 	private void storeCharSub()
@@ -7119,27 +7128,12 @@ public class Player extends Playable
 			return;
 		}
 		
-		try (Connection con = DatabaseFactory.getConnection();
-			PreparedStatement statement = con.prepareStatement(UPDATE_CHAR_SUBCLASS))
-		{
-			for (SubClassHolder subClass : getSubClasses().values())
-			{
-				statement.setLong(1, subClass.getExp());
-				statement.setLong(2, subClass.getSp());
-				statement.setInt(3, subClass.getLevel());
-				statement.setInt(4, subClass.getVitalityPoints());
-				statement.setInt(5, subClass.getClassId());
-				statement.setBoolean(6, subClass.isDualClass());
-				statement.setInt(7, getObjectId());
-				statement.setInt(8, subClass.getClassIndex());
-				statement.addBatch();
-			}
-			statement.executeBatch();
-		}
-		catch (Exception e)
+		final Batch batch = new Batch();
+		for (SubClassHolder subClass : getSubClasses().values())
 		{
-			LOGGER.log(Level.WARNING, "Could not store sub class data for " + getName() + ": " + e.getMessage(), e);
+			batch.add(UPDATE_CHAR_SUBCLASS, subClass.getExp(), subClass.getSp(), subClass.getLevel(), subClass.getVitalityPoints(), subClass.getClassId(), subClass.isDualClass(), getObjectId(), subClass.getClassIndex());
 		}
+		DatabaseWriteQueue.getInstance().queue("character_subclasses", getObjectId(), batch);
 	}
 	
 	@Override
@@ -7150,152 +7144,106 @@ public class Player extends Playable
 			return;
 		}
 		
-		try (Connection con = DatabaseFactory.getConnection())
+		// Delete all current stored effects for char to avoid dupe
+		final Batch batch = new Batch();
+		batch.add(DELETE_SKILL_SAVE, getObjectId(), _classIndex);
+		
+		int buffIndex = 0;
+		final List<Long> storedSkills = new ArrayList<>();
+		final long currentTime = System.currentTimeMillis();
+		
+		// Store all effect data along with calulated remaining
+		// reuse delays for matching skills. 'restore_type'= 0.
+		if (storeEffects)
 		{
-			// Delete all current stored effects for char to avoid dupe
-			try (PreparedStatement delete = con.prepareStatement(DELETE_SKILL_SAVE))
-			{
-				delete.setInt(1, getObjectId());
-				delete.setInt(2, _classIndex);
-				delete.execute();
-			}
-			
-			int buffIndex = 0;
-			final List<Long> storedSkills = new ArrayList<>();
-			final long currentTime = System.currentTimeMillis();
-			
-			// Store all effect data along with calulated remaining
-			// reuse delays for matching skills. 'restore_type'= 0.
-			try (PreparedStatement statement = con.prepareStatement(ADD_SKILL_SAVE))
+			for (BuffInfo info : getEffectList().getEffects())
 			{
-				if (storeEffects)
+				if (info == null)
 				{
-					for (BuffInfo info : getEffectList().getEffects())
-					{
-						if (info == null)
-						{
-							continue;
-						}
-						
-						final Skill skill = info.getSkill();
-						
-						// Do not store those effects.
-						if (skill.isDeleteAbnormalOnLeave())
-						{
-							continue;
-						}
-						
-						// Do not save heals.
-						if (skill.getAbnormalType() == AbnormalType.LIFE_FORCE_OTHERS)
-						{
-							continue;
-						}
-						
-						// Toggles are skipped, unless they are necessary to be always on.
-						if ((skill.isToggle() && !skill.isNecessaryToggle()))
-						{
-							continue;
-						}
-						
-						if (skill.isMentoring())
-						{
-							continue;
-						}
-						
-						// Dances and songs are not kept in retail.
-						if (skill.isDance() && !Config.ALT_STORE_DANCES)
-						{
-							continue;
-						}
-						
-						if (storedSkills.contains(skill.getReuseHashCode()))
-						{
-							continue;
-						}
-						
-						storedSkills.add(skill.getReuseHashCode());
-						
-						statement.setInt(1, getObjectId());
-						statement.setInt(2, skill.getId());
-						statement.setInt(3, skill.getLevel());
-						statement.setInt(4, skill.getSubLevel());
-						statement.setInt(5, info.getTime());
-						
-						final TimeStamp t = getSkillReuseTimeStamp(skill.getReuseHashCode());
-						statement.setLong(6, (t != null) && (currentTime < t.getStamp()) ? t.getReuse() : 0);
-						statement.setDouble(7, (t != null) && (currentTime < t.getStamp()) ? t.getStamp() : 0);
-						statement.setInt(8, 0); // Store type 0, active buffs/debuffs.
-						statement.setInt(9, _classIndex);
-						statement.setInt(10, ++buffIndex);
-						statement.addBatch();
-					}
+					continue;
 				}
 				
-				// Skills under reuse.
-				for (Entry<Long, TimeStamp> ts : getSkillReuseTimeStamps().entrySet())
+				final Skill skill = info.getSkill();
+				
+				// Do not store those effects.
+				if (skill.isDeleteAbnormalOnLeave())
 				{
-					final long hash = ts.getKey();
-					if (storedSkills.contains(hash))
-					{
-						continue;
-					}
-					
-					final TimeStamp t = ts.getValue();
-					if ((t != null) && (currentTime < t.getStamp()))
-					{
-						storedSkills.add(hash);
-						
-						statement.setInt(1, getObjectId());
-						statement.setInt(2, t.getSkillId());
-						statement.setInt(3, t.getSkillLevel());
-						statement.setInt(4, t.getSkillSubLevel());
-						statement.setInt(5, -1);
-						statement.setLong(6, t.getReuse());
-						statement.setDouble(7, t.getStamp());
-						statement.setInt(8, 1); // Restore type 1, skill reuse.
-						statement.setInt(9, _classIndex);
-						statement.setInt(10, ++buffIndex);
-						statement.addBatch();
-					}
+					continue;
+				}
+				
+				// Do not save heals.
+				if (skill.getAbnormalType() == AbnormalType.LIFE_FORCE_OTHERS)
+				{
+					continue;
 				}
 				
-				statement.executeBatch();
+				// Toggles are skipped, unless they are necessary to be always on.
+				if ((skill.isToggle() && !skill.isNecessaryToggle()))
+				{
+					continue;
+				}
+				
+				if (skill.isMentoring())
+				{
+					continue;
+				}
+				
+				// Dances and songs are not kept in retail.
+				if (skill.isDance() && !Config.ALT_STORE_DANCES)
+				{
+					continue;
+				}
+				
+				if (storedSkills.contains(skill.getReuseHashCode()))
+				{
+					continue;
+				}
+				
+				storedSkills.add(skill.getReuseHashCode());
+				
+				final TimeStamp t = getSkillReuseTimeStamp(skill.getReuseHashCode());
+				final boolean reuse = (t != null) && (currentTime < t.getStamp());
+				// Store type 0, active buffs/debuffs.
+				batch.add(ADD_SKILL_SAVE, getObjectId(), skill.getId(), skill.getLevel(), skill.getSubLevel(), info.getTime(), reuse ? t.getReuse() : 0, reuse ? (double) t.getStamp() : 0, 0, _classIndex, ++buffIndex);
 			}
 		}
-		catch (Exception e)
+		
+		// Skills under reuse.
+		for (Entry<Long, TimeStamp> ts : getSkillReuseTimeStamps().entrySet())
 		{
-			LOGGER.log(Level.WARNING, "Could not store char effect data: ", e);
+			final long hash = ts.getKey();
+			if (storedSkills.contains(hash))
+			{
+				continue;
+			}
+			
+			final TimeStamp t = ts.getValue();
+			if ((t != null) && (currentTime < t.getStamp()))
+			{
+				storedSkills.add(hash);
+				
+				// Restore type 1, skill reuse.
+				batch.add(ADD_SKILL_SAVE, getObjectId(), t.getSkillId(), t.getSkillLevel(), t.getSkillSubLevel(), -1, t.getReuse(), (double) t.getStamp(), 1, _classIndex, ++buffIndex);
+			}
 		}
+		
+		DatabaseWriteQueue.getInstance().queue("character_skills_save", getObjectId(), _classIndex, batch);
 	}
 	
 	private void storeItemReuseDelay()
 	{
-		try (Connection con = DatabaseFactory.getConnection();
-			PreparedStatement ps1 = con.prepareStatement(DELETE_ITEM_REUSE_SAVE);
-			PreparedStatement ps2 = con.prepareStatement(ADD_ITEM_REUSE_SAVE))
+		final Batch batch = new Batch();
+		batch.add(DELETE_ITEM_REUSE_SAVE, getObjectId());
+		
+		final long currentTime = System.currentTimeMillis();
+		for (TimeStamp ts : getItemReuseTimeStamps().values())
 		{
-			ps1.setInt(1, getObjectId());
-			ps1.execute();
-			
-			final long currentTime = System.currentTimeMillis();
-			for (TimeStamp ts : getItemReuseTimeStamps().values())
+			if ((ts != null) && (currentTime < ts.getStamp()))
 			{
-				if ((ts != null) && (currentTime < ts.getStamp()))
-				{
-					ps2.setInt(1, getObjectId());
-					ps2.setInt(2, ts.getItemId());
-					ps2.setInt(3, ts.getItemObjectId());
-					ps2.setLong(4, ts.getReuse());
-					ps2.setDouble(5, ts.getStamp());
-					ps2.addBatch();
-				}
+				batch.add(ADD_ITEM_REUSE_SAVE, getObjectId(), ts.getItemId(), ts.getItemObjectId(), ts.getReuse(), (double) ts.getStamp());
 			}
-			ps2.executeBatch();
-		}
-		catch (Exception e)
-		{
-			LOGGER.log(Level.WARNING, "Could not store char item reuse data: ", e);
 		}
+		DatabaseWriteQueue.getInstance().queue("character_item_reuse_save", getObjectId(), batch);
 	}
 	
 	/**
@@ -8019,7 +7967,7 @@ public class Player extends Playable
 	
 	public void autoSave()
 	{
-		storeMe();
+		store(true, false);
 		storeRecommendations();
 		
 		if (Config.UPDATE_ITEMS_ON_CHAR_STORE)
@@ -9061,6 +9009,27 @@ public class Player extends Playable
 		return _lastLoc;
 	}
 	
+	public int getMapRegionLocId()
+	{
+		return _mapRegionLocId;
+	}
+	
+	public void setMapRegionLocId(int locId)
+	{
+		_mapRegionLocId = locId;
+	}
+	
+	@Override
+	public void setXYZ(int newX, int newY, int newZ)
+	{
+		super.setXYZ(newX, newY, newZ);
+		
+		if ((_mapRegionLocId >= 0) && (MapRegionManager.getInstance().getMapRegionLocId(this) != _mapRegionLocId))
+		{
+			MapRegionManager.getInstance().updatePlayerRegion(this);
+		}
+	}
+	
 	public boolean inObserverMode()
 	{
 		return _observerMode;
@@ -12508,34 +12477,14 @@ public class Player extends Playable
 	{
 		if (hasManufactureShop())
 		{
-			try (Connection con = DatabaseFactory.getConnection())
+			final Batch batch = new Batch();
+			batch.add(DELETE_CHAR_RECIPE_SHOP, getObjectId());
+			int slot = 1;
+			for (ManufactureItem item : _manufactureItems.values())
 			{
-				try (PreparedStatement st = con.prepareStatement(DELETE_CHAR_RECIPE_SHOP))
-				{
-					st.setInt(1, getObjectId());
-					st.execute();
-				}
-				
-				try (PreparedStatement st = con.prepareStatement(INSERT_CHAR_RECIPE_SHOP))
-				{
-					final AtomicInteger slot = new AtomicInteger(1);
-					con.setAutoCommit(false);
-					for (ManufactureItem item : _manufactureItems.values())
-					{
-						st.setInt(1, getObjectId());
-						st.setInt(2, item.getRecipeId());
-						st.setLong(3, item.getCost());
-						st.setInt(4, slot.getAndIncrement());
-						st.addBatch();
-					}
-					st.executeBatch();
-					con.commit();
-				}
-			}
-			catch (Exception e)
-			{
-				LOGGER.log(Level.SEVERE, "Could not store recipe shop for playerId " + getObjectId() + ": ", e);
+				batch.add(INSERT_CHAR_RECIPE_SHOP, getObjectId(), item.getRecipeId(), item.getCost(), slot++);
 			}
+			DatabaseWriteQueue.getInstance().queue("character_recipeshoplist", getObjectId(), batch);
 		}
 	}
 	
@@ -13004,19 +12953,9 @@ public class Player extends Playable
 	 */
 	public void storeRecommendations()
 	{
-		try (Connection con = DatabaseFactory.getConnection();
-			PreparedStatement ps = con.prepareStatement("REPLACE INTO character_reco_bonus (charId,rec_have,rec_left,time_left) VALUES (?,?,?,?)"))
-		{
-			ps.setInt(1, getObjectId());
-			ps.setInt(2, _recomHave);
-			ps.setInt(3, _recomLeft);
-			ps.setLong(4, 0);
-			ps.execute();
-		}
-		catch (Exception e)
-		{
-			LOGGER.log(Level.SEVERE, "Could not update Recommendations for player: " + getObjectId(), e);
-		}
+		final Batch batch = new Batch();
+		batch.add("REPLACE INTO character_reco_bonus (charId,rec_have,rec_left,time_left) VALUES (?,?,?,?)", getObjectId(), _recomHave, _recomLeft, 0L);
+		DatabaseWriteQueue.getInstance().queue("character_reco_bonus", getObjectId(), batch);
 	}
 	
 	public void startRecoGiveTask()
@@ -13856,14 +13795,11 @@ public class Player extends Playable
 			_hennaRemoveSchedules.remove(entry.getKey());
 		}
 		
-		synchronized (_questTimers)
+		for (QuestTimer timer : _questTimers)
 		{
-			for (QuestTimer timer : _questTimers)
-			{
-				timer.cancelTask();
-			}
-			_questTimers.clear();
+			timer.cancelTask();
 		}
+		_questTimers.clear();
 		
 		synchronized (_timerHolders)
 		{
@@ -13877,18 +13813,12 @@ public class Player extends Playable
 	
 	public void addQuestTimer(QuestTimer questTimer)
 	{
-		synchronized (_questTimers)
-		{
-			_questTimers.add(questTimer);
-		}
+		_questTimers.add(questTimer);
 	}
 	
 	public void removeQuestTimer(QuestTimer questTimer)
 	{
-		synchronized (_questTimers)
-		{
-			_questTimers.remove(questTimer);
-		}
+		_questTimers.remove(questTimer);
 	}
 	
 	public void addTimerHolder(TimerHolder<?> timer)
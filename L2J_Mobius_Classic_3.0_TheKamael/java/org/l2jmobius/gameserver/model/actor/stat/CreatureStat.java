@@ -16,11 +16,8 @@
  */
 package org.l2jmobius.gameserver.model.actor.stat;
 
-import java.util.Collections;
 import java.util.Deque;
-import java.util.EnumMap;
 import java.util.EnumSet;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Map;
@@ -52,6 +49,22 @@ import org.l2jmobius.gameserver.util.MathUtil;
 
 public class CreatureStat
 {
+	static final Stat[] STATS = Stat.values();
+	private static final double[] RESET_ADD_VALUES = new double[Stat.NUM_STATS];
+	private static final double[] RESET_MUL_VALUES = new double[Stat.NUM_STATS];
+	private static final boolean[] RESET_HAS_ADD = new boolean[Stat.NUM_STATS];
+	private static final boolean[] RESET_HAS_MUL = new boolean[Stat.NUM_STATS];
+	static
+	{
+		for (Stat stat : STATS)
+		{
+			RESET_ADD_VALUES[stat.ordinal()] = stat.getResetAddValue();
+			RESET_MUL_VALUES[stat.ordinal()] = stat.getResetMulValue();
+			RESET_HAS_ADD[stat.ordinal()] = stat.getResetAddValue() != 0;
+			RESET_HAS_MUL[stat.ordinal()] = stat.getResetMulValue() != 0;
+		}
+	}
+	
 	private final Creature _creature;
 	private long _exp = 0;
 	private long _sp = 0;
@@ -60,8 +73,19 @@ public class CreatureStat
 	private int _maxBuffCount = Config.BUFFS_MAX_AMOUNT;
 	private double _vampiricSum = 0;
 	
-	private final Map<Stat, Double> _statsAdd = new EnumMap<>(Stat.class);
-	private final Map<Stat, Double> _statsMul = new EnumMap<>(Stat.class);
+	/** Add and mul values indexed by stat ordinal, holding the reset value when the stat has no value. */
+	private final double[] _statsAdd = new double[Stat.NUM_STATS];
+	private final double[] _statsMul = new double[Stat.NUM_STATS];
+	private final boolean[] _hasAdd = new boolean[Stat.NUM_STATS];
+	private final boolean[] _hasMul = new boolean[Stat.NUM_STATS];
+	/** Values of the previous recalculation, compared to find the modified stats. */
+	private final double[] _previousAdd = new double[Stat.NUM_STATS];
+	private final double[] _previousMul = new double[Stat.NUM_STATS];
+	private final Set<Stat> _changedStats = EnumSet.noneOf(Stat.class);
+	/** Generation of the pumped stats of buff infos, increased by every full recalculation. */
+	private int _pumpGeneration;
+	/** Pumped stats of the buff info that is currently pumping. */
+	private PumpedStats _pumping;
 	private final Map<Stat, Map<MoveType, Double>> _moveTypeStats = new ConcurrentHashMap<>();
 	private final Map<Integer, Double> _reuseStat = new ConcurrentHashMap<>();
 	private final Map<Integer, Double> _mpConsumeStat = new ConcurrentHashMap<>();
@@ -86,6 +110,10 @@ public class CreatureStat
 	public CreatureStat(Creature creature)
 	{
 		_creature = creature;
+		System.arraycopy(RESET_ADD_VALUES, 0, _statsAdd, 0, Stat.NUM_STATS);
+		System.arraycopy(RESET_MUL_VALUES, 0, _statsMul, 0, Stat.NUM_STATS);
+		System.arraycopy(RESET_ADD_VALUES, 0, _previousAdd, 0, Stat.NUM_STATS);
+		System.arraycopy(RESET_MUL_VALUES, 0, _previousMul, 0, Stat.NUM_STATS);
 		for (int i = 0; i < TraitType.values().length; i++)
 		{
 			_attackTraitValues[i] = 1;
@@ -762,7 +790,13 @@ public class CreatureStat
 	 */
 	public void mergeAdd(Stat stat, double value)
 	{
-		_statsAdd.merge(stat, value, stat::functionAdd);
+		final int index = stat.ordinal();
+		_statsAdd[index] = _hasAdd[index] ? stat.functionAdd(_statsAdd[index], value) : value;
+		_hasAdd[index] = true;
+		if (_pumping != null)
+		{
+			_pumping.addAdd(stat, value);
+		}
 	}
 	
 	/**
@@ -772,7 +806,13 @@ public class CreatureStat
 	 */
 	public void mergeMul(Stat stat, double value)
 	{
-		_statsMul.merge(stat, value, stat::functionMul);
+		final int index = stat.ordinal();
+		_statsMul[index] = _hasMul[index] ? stat.functionMul(_statsMul[index], value) : value;
+		_hasMul[index] = true;
+		if (_pumping != null)
+		{
+			_pumping.addMul(stat, value);
+		}
 	}
 	
 	/**
@@ -794,8 +834,8 @@ public class CreatureStat
 		_lock.readLock().lock();
 		try
 		{
-			final Double val = _statsAdd.get(stat);
-			return val != null ? val.doubleValue() : defaultValue;
+			final int index = stat.ordinal();
+			return _hasAdd[index] ? _statsAdd[index] : defaultValue;
 		}
 		finally
 		{
@@ -822,8 +862,8 @@ public class CreatureStat
 		_lock.readLock().lock();
 		try
 		{
-			final Double val = _statsMul.get(stat);
-			return val != null ? val.doubleValue() : defaultValue;
+			final int index = stat.ordinal();
+			return _hasMul[index] ? _statsMul[index] : defaultValue;
 		}
 		finally
 		{
@@ -854,22 +894,12 @@ public class CreatureStat
 	
 	protected void resetStats()
 	{
-		_statsAdd.clear();
-		_statsMul.clear();
-		_vampiricSum = 0;
-		
 		// Initialize default values
-		for (Stat stat : Stat.values())
-		{
-			if (stat.getResetAddValue() != 0)
-			{
-				_statsAdd.put(stat, stat.getResetAddValue());
-			}
-			if (stat.getResetMulValue() != 0)
-			{
-				_statsMul.put(stat, stat.getResetMulValue());
-			}
-		}
+		System.arraycopy(RESET_ADD_VALUES, 0, _statsAdd, 0, Stat.NUM_STATS);
+		System.arraycopy(RESET_MUL_VALUES, 0, _statsMul, 0, Stat.NUM_STATS);
+		System.arraycopy(RESET_HAS_ADD, 0, _hasAdd, 0, Stat.NUM_STATS);
+		System.arraycopy(RESET_HAS_MUL, 0, _hasMul, 0, Stat.NUM_STATS);
+		_vampiricSum = 0;
 	}
 	
 	/**
@@ -878,13 +908,26 @@ public class CreatureStat
 	 */
 	public void recalculateStats(boolean broadcast)
 	{
-		// Copy old data before wiping it out
-		final Map<Stat, Double> adds = !broadcast ? Collections.emptyMap() : new EnumMap<>(_statsAdd);
-		final Map<Stat, Double> muls = !broadcast ? Collections.emptyMap() : new EnumMap<>(_statsMul);
-		
+		recalculateStats(broadcast, false);
+	}
+	
+	/**
+	 * Locks and resets all stats and recalculates all.<br>
+	 * When only the effect list changed, effects that can cache their pumped values are not pumped again but their values of the previous recalculation are merged.
+	 * @param broadcast
+	 * @param effectListChanged {@code true} if the recalculation is caused only by added, removed or hidden effects
+	 */
+	public void recalculateStats(boolean broadcast, boolean effectListChanged)
+	{
 		_lock.writeLock().lock();
 		try
 		{
+			// Any other change may affect the values of all effects.
+			if (!effectListChanged)
+			{
+				_pumpGeneration++;
+			}
+			
 			// Wipe all the data
 			resetStats();
 			
@@ -893,39 +936,21 @@ public class CreatureStat
 			{
 				if (info.isInUse() && info.getSkill().checkConditions(SkillConditionScope.PASSIVE, _creature, _creature))
 				{
-					for (AbstractEffect effect : info.getEffects())
-					{
-						if (effect.canStart(info.getEffector(), info.getEffected(), info.getSkill()) && effect.canPump(info.getEffector(), info.getEffected(), info.getSkill()))
-						{
-							effect.pump(info.getEffected(), info.getSkill());
-						}
-					}
+					pump(info);
 				}
 			}
 			for (BuffInfo info : _creature.getEffectList().getOptions())
 			{
 				if (info.isInUse())
 				{
-					for (AbstractEffect effect : info.getEffects())
-					{
-						if (effect.canStart(info.getEffector(), info.getEffected(), info.getSkill()) && effect.canPump(info.getEffector(), info.getEffected(), info.getSkill()))
-						{
-							effect.pump(info.getEffected(), info.getSkill());
-						}
-					}
+					pump(info);
 				}
 			}
 			for (BuffInfo info : _creature.getEffectList().getEffects())
 			{
 				if (info.isInUse())
 				{
-					for (AbstractEffect effect : info.getEffects())
-					{
-						if (effect.canStart(info.getEffector(), info.getEffected(), info.getSkill()) && effect.canPump(info.getEffector(), info.getEffected(), info.getSkill()))
-						{
-							effect.pump(info.getEffected(), info.getSkill());
-						}
-					}
+					pump(info);
 				}
 			}
 			
@@ -973,22 +998,79 @@ public class CreatureStat
 		// Notify recalculation to child classes
 		onRecalculateStats(broadcast);
 		
+		// Calculate the difference between old and new stats.
+		// Like before, only the add and mul values are compared, base value changes (level, equipment, enchant) are sent by an explicit broadcastUserInfo.
+		final Set<Stat> changed;
+		synchronized (_changedStats)
+		{
+			_changedStats.clear();
+			_lock.readLock().lock();
+			try
+			{
+				for (int i = 0; i < Stat.NUM_STATS; i++)
+				{
+					if ((_statsAdd[i] != _previousAdd[i]) || (_statsMul[i] != _previousMul[i]))
+					{
+						_changedStats.add(STATS[i]);
+						_previousAdd[i] = _statsAdd[i];
+						_previousMul[i] = _statsMul[i];
+					}
+				}
+			}
+			finally
+			{
+				_lock.readLock().unlock();
+			}
+			
+			// Copied, so the broadcast runs outside of the lock and nested recalculations cannot clear it.
+			changed = broadcast ? EnumSet.copyOf(_changedStats) : null;
+		}
+		
 		if (broadcast)
 		{
-			// Calculate the difference between old and new stats
-			final Set<Stat> changed = new HashSet<>();
-			for (Stat stat : Stat.values())
+			_creature.broadcastModifiedStats(changed);
+		}
+	}
+	
+	/**
+	 * Pumps the effects of a buff info, or merges the values they pumped on a previous recalculation when they are still valid.
+	 * @param info the buff info
+	 */
+	private void pump(BuffInfo info)
+	{
+		final PumpedStats pumpedStats = info.getPumpedStats();
+		if (pumpedStats.isValid(_pumpGeneration))
+		{
+			pumpedStats.merge(this);
+			return;
+		}
+		
+		boolean cacheable = true;
+		pumpedStats.clear();
+		_pumping = pumpedStats;
+		try
+		{
+			for (AbstractEffect effect : info.getEffects())
 			{
-				if (_statsAdd.getOrDefault(stat, stat.getResetAddValue()) != adds.getOrDefault(stat, stat.getResetAddValue()))
+				if (!effect.isPumpCacheable())
 				{
-					changed.add(stat);
+					cacheable = false;
 				}
-				else if (_statsMul.getOrDefault(stat, stat.getResetMulValue()) != muls.getOrDefault(stat, stat.getResetMulValue()))
+				
+				if (effect.canStart(info.getEffector(), info.getEffected(), info.getSkill()) && effect.canPump(info.getEffector(), info.getEffected(), info.getSkill()))
 				{
-					changed.add(stat);
+					effect.pump(info.getEffected(), info.getSkill());
 				}
 			}
-			_creature.broadcastModifiedStats(changed);
+		}
+		finally
+		{
+			_pumping = null;
+		}
+		
+		if (cacheable)
+		{
+			pumpedStats.validate(_pumpGeneration);
 		}
 	}
 	
@@ -712,11 +712,11 @@ public class PlayerStat extends PlayableStat
 	}
 	
 	@Override
-	public void recalculateStats(boolean broadcast)
+	public void recalculateStats(boolean broadcast, boolean effectListChanged)
 	{
 		if (!getActiveChar().isChangingClass() && !getActiveChar().isUsingSkillItem())
 		{
-			super.recalculateStats(broadcast);
+			super.recalculateStats(broadcast, effectListChanged);
 		}
 	}
 	
@@ -0,0 +1,95 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.model.actor.stat;
+
+import java.util.Arrays;
+
+import org.l2jmobius.gameserver.model.stats.Stat;
+
+/**
+ * Add and mul values pumped by the effects of a single buff info.<br>
+ * Recorded by {@link CreatureStat} during a recalculation and merged again in the same order, instead of pumping, while only the effect list changes.
+ */
+public class PumpedStats
+{
+	private int[] _stats = new int[4];
+	private double[] _values = new double[4];
+	private int _size;
+	private int _generation = -1;
+	
+	/**
+	 * Clears the recorded values, they are valid again only after {@link #validate(int)}.
+	 */
+	void clear()
+	{
+		_size = 0;
+		_generation = -1;
+	}
+	
+	void addAdd(Stat stat, double value)
+	{
+		add(stat.ordinal() << 1, value);
+	}
+	
+	void addMul(Stat stat, double value)
+	{
+		add((stat.ordinal() << 1) | 1, value);
+	}
+	
+	private void add(int stat, double value)
+	{
+		if (_size == _stats.length)
+		{
+			_stats = Arrays.copyOf(_stats, _size << 1);
+			_values = Arrays.copyOf(_values, _size << 1);
+		}
+		_stats[_size] = stat;
+		_values[_size] = value;
+		_size++;
+	}
+	
+	void validate(int generation)
+	{
+		_generation = generation;
+	}
+	
+	boolean isValid(int generation)
+	{
+		return _generation == generation;
+	}
+	
+	/**
+	 * Merges the recorded values into the given stats.
+	 * @param creatureStat the stats of the effected creature
+	 */
+	void merge(CreatureStat creatureStat)
+	{
+		final Stat[] stats = CreatureStat.STATS;
+		for (int i = 0; i < _size; i++)
+		{
+			final int stat = _stats[i];
+			if ((stat & 1) == 0)
+			{
+				creatureStat.mergeAdd(stats[stat >> 1], _values[i]);
+			}
+			else
+			{
+				creatureStat.mergeMul(stats[stat >> 1], _values[i]);
+			}
+		}
+	}
+}
@@ -18,10 +18,8 @@ package org.l2jmobius.gameserver.model.actor.status;
 
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
-import org.l2jmobius.commons.threads.ThreadPool;
 import org.l2jmobius.gameserver.model.actor.Creature;
 import org.l2jmobius.gameserver.model.actor.Player;
 import org.l2jmobius.gameserver.model.events.EventDispatcher;
@@ -30,6 +28,7 @@ import org.l2jmobius.gameserver.model.events.impl.creature.OnCreatureHpChange;
 import org.l2jmobius.gameserver.model.skill.AbnormalType;
 import org.l2jmobius.gameserver.model.stats.Formulas;
 import org.l2jmobius.gameserver.model.stats.Stat;
+import org.l2jmobius.gameserver.taskmanager.RegenerationTaskManager;
 
 public class CreatureStatus
 {
@@ -43,7 +42,8 @@ public class CreatureStatus
 	/** Array containing all clients that need to be notified about hp/mp updates of the Creature */
 	private Set<Creature> _StatusListener;
 	
-	private Future<?> _regTask;
+	/** Slot of the Creature in {@link RegenerationTaskManager}, -1 when it does not regenerate. */
+	private int _regSlot = -1;
 	
 	protected byte _flagsRegenActive = 0;
 	
@@ -201,18 +201,18 @@ public class CreatureStatus
 	 * <b><u>Actions</u>:</b>
 	 * <ul>
 	 * <li>Calculate the regen task period</li>
-	 * <li>Launch the HP/MP/CP Regeneration task with Medium priority</li>
+	 * <li>Register the Creature to the RegenerationTaskManager</li>
 	 * </ul>
 	 */
 	public synchronized void startHpMpRegeneration()
 	{
-		if ((_regTask == null) && !_creature.isDead())
+		if ((_regSlot < 0) && !_creature.isDead())
 		{
 			// Get the Regeneration period
 			final int period = Formulas.getRegeneratePeriod(_creature);
 			
-			// Create the HP/MP/CP Regeneration task
-			_regTask = ThreadPool.scheduleAtFixedRate(this::doRegeneration, period, period);
+			// Register the HP/MP/CP Regeneration
+			_regSlot = RegenerationTaskManager.getInstance().add(this, period);
 		}
 	}
 	
@@ -227,11 +227,11 @@ public class CreatureStatus
 	 */
 	public synchronized void stopHpMpRegeneration()
 	{
-		if (_regTask != null)
+		if (_regSlot >= 0)
 		{
 			// Stop the HP/MP/CP Regeneration task
-			_regTask.cancel(false);
-			_regTask = null;
+			RegenerationTaskManager.getInstance().remove(_regSlot);
+			_regSlot = -1;
 			
 			// Set the RegenActive flag to false
 			_flagsRegenActive = 0;
@@ -398,7 +398,10 @@ public class CreatureStatus
 		return mpWasChanged;
 	}
 	
-	protected void doRegeneration()
+	/**
+	 * Called by {@link RegenerationTaskManager} once per regeneration period.
+	 */
+	public void doRegeneration()
 	{
 		// Modify the current HP/MP of the Creature and broadcast Server->Client packet StatusUpdate
 		if (!_creature.isDead() && ((_currentHp < _creature.getMaxRecoverableHp()) || (_currentMp < _creature.getMaxRecoverableMp())))
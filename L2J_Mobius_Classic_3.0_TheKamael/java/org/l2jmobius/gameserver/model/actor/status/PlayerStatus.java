@@ -389,7 +389,7 @@ public class PlayerStatus extends PlayableStatus
 	}
 	
 	@Override
-	protected void doRegeneration()
+	public void doRegeneration()
 	{
 		final PlayerStat charstat = getActiveChar().getStat();
 		
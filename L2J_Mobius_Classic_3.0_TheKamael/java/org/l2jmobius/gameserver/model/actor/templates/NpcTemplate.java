@@ -37,6 +37,7 @@ import org.l2jmobius.gameserver.enums.Race;
 import org.l2jmobius.gameserver.enums.Sex;
 import org.l2jmobius.gameserver.model.StatSet;
 import org.l2jmobius.gameserver.model.actor.Creature;
+import org.l2jmobius.gameserver.model.drops.DropSampler;
 import org.l2jmobius.gameserver.model.holders.DropGroupHolder;
 import org.l2jmobius.gameserver.model.holders.DropHolder;
 import org.l2jmobius.gameserver.model.holders.ItemHolder;
@@ -113,6 +114,7 @@ public class NpcTemplate extends CreatureTemplate implements IIdentifiable
 	private List<DropGroupHolder> _dropGroups;
 	private List<DropHolder> _dropListDeath;
 	private List<DropHolder> _dropListSpoil;
+	private volatile DropSampler _dropSampler;
 	private float _collisionRadiusGrown;
 	private float _collisionHeightGrown;
 	private int _mpRewardValue;
@@ -670,17 +672,20 @@ public class NpcTemplate extends CreatureTemplate implements IIdentifiable
 	public void removeDropGroups()
 	{
 		_dropGroups = null;
+		_dropSampler = null;
 	}
 	
 	public void removeDrops()
 	{
 		_dropListDeath = null;
 		_dropListSpoil = null;
+		_dropSampler = null;
 	}
 	
 	public void setDropGroups(List<DropGroupHolder> groups)
 	{
 		_dropGroups = groups;
+		_dropSampler = null;
 	}
 	
 	public void addDrop(DropHolder dropHolder)
@@ -690,6 +695,7 @@ public class NpcTemplate extends CreatureTemplate implements IIdentifiable
 			_dropListDeath = new ArrayList<>(1);
 		}
 		_dropListDeath.add(dropHolder);
+		_dropSampler = null;
 	}
 	
 	public void addSpoil(DropHolder dropHolder)
@@ -699,6 +705,27 @@ public class NpcTemplate extends CreatureTemplate implements IIdentifiable
 			_dropListSpoil = new ArrayList<>(1);
 		}
 		_dropListSpoil.add(dropHolder);
+		_dropSampler = null;
+	}
+	
+	/**
+	 * Compiles the drop groups and drop lists with the current rates.<br>
+	 * Called after the drops or the rates change, templates changed afterwards compile again on their next kill.
+	 */
+	public void compileDrops()
+	{
+		_dropSampler = DropSampler.compile(_dropGroups, _dropListDeath, _dropListSpoil);
+	}
+	
+	private DropSampler getDropSampler()
+	{
+		DropSampler dropSampler = _dropSampler;
+		if (dropSampler == null)
+		{
+			dropSampler = DropSampler.compile(_dropGroups, _dropListDeath, _dropListSpoil);
+			_dropSampler = dropSampler;
+		}
+		return dropSampler;
 	}
 	
 	public List<DropGroupHolder> getDropGroups()
@@ -761,144 +788,9 @@ public class NpcTemplate extends CreatureTemplate implements IIdentifiable
 	
 	private List<ItemHolder> calculateGroupDrops(Creature victim, Creature killer)
 	{
-		// level difference calculations
 		final int levelDifference = victim.getLevel() - killer.getLevel();
-		final double levelGapChanceToDropAdena = Util.map(levelDifference, -Config.DROP_ADENA_MAX_LEVEL_DIFFERENCE, -Config.DROP_ADENA_MIN_LEVEL_DIFFERENCE, Config.DROP_ADENA_MIN_LEVEL_GAP_CHANCE, 100d);
-		final double levelGapChanceToDrop = Util.map(levelDifference, -Config.DROP_ITEM_MAX_LEVEL_DIFFERENCE, -Config.DROP_ITEM_MIN_LEVEL_DIFFERENCE, Config.DROP_ITEM_MIN_LEVEL_GAP_CHANCE, 100d);
-		
-		int dropOccurrenceCounter = victim.isRaid() ? Config.DROP_MAX_OCCURRENCES_RAIDBOSS : Config.DROP_MAX_OCCURRENCES_NORMAL;
-		List<ItemHolder> calculatedDrops = null;
-		for (DropGroupHolder group : _dropGroups)
-		{
-			if (dropOccurrenceCounter <= 0)
-			{
-				break;
-			}
-			
-			double groupRate = 1;
-			final List<DropHolder> groupDrops = group.getDropList();
-			for (DropHolder dropItem : groupDrops)
-			{
-				final int itemId = dropItem.getItemId();
-				final ItemTemplate item = ItemTable.getInstance().getTemplate(itemId);
-				final boolean champion = victim.isChampion();
-				
-				// chance
-				double rateChance = 1;
-				final Float itemChance = Config.RATE_DROP_CHANCE_BY_ID.get(itemId);
-				if (itemChance != null)
-				{
-					if (itemChance <= 0)
-					{
-						continue;
-					}
-					
-					rateChance *= itemChance;
-					if (champion && (itemId == Inventory.ADENA_ID))
-					{
-						rateChance *= Config.CHAMPION_ADENAS_REWARDS_CHANCE;
-					}
-				}
-				else if (item.hasExImmediateEffect())
-				{
-					rateChance *= Config.RATE_HERB_DROP_CHANCE_MULTIPLIER;
-				}
-				else if (victim.isRaid())
-				{
-					rateChance *= Config.RATE_RAID_DROP_CHANCE_MULTIPLIER;
-				}
-				else
-				{
-					rateChance *= Config.RATE_DEATH_DROP_CHANCE_MULTIPLIER * (champion ? Config.CHAMPION_REWARDS_CHANCE : 1);
-				}
-				
-				// premium chance
-				if (Config.PREMIUM_SYSTEM_ENABLED && (killer.getActingPlayer() != null) && killer.getActingPlayer().hasPremiumStatus())
-				{
-					if (Config.PREMIUM_RATE_DROP_CHANCE_BY_ID.get(itemId) != null)
-					{
-						rateChance *= Config.PREMIUM_RATE_DROP_CHANCE_BY_ID.get(itemId);
-					}
-					else if (item.hasExImmediateEffect())
-					{
-						// TODO: Premium herb chance? :)
-					}
-					else if (victim.isRaid())
-					{
-						// TODO: Premium raid chance? :)
-					}
-					else
-					{
-						rateChance *= Config.PREMIUM_RATE_DROP_CHANCE;
-					}
-				}
-				
-				// keep lowest to avoid chance by id configuration conflicts
-				groupRate = Math.min(groupRate, rateChance);
-			}
-			
-			// bonus drop rate effect
-			groupRate *= killer.getStat().getMul(Stat.BONUS_DROP_RATE, 1);
-			
-			if ((Rnd.nextDouble() * 100) < (group.getChance() * groupRate))
-			{
-				double totalChance = 0; // total group chance is 100
-				final double dropChance = Rnd.nextDouble() * 100;
-				GROUP_DROP: for (DropHolder dropItem : groupDrops)
-				{
-					if (dropOccurrenceCounter <= 0)
-					{
-						break;
-					}
-					
-					// calculate if item will drop
-					totalChance += dropItem.getChance();
-					if (dropChance >= totalChance)
-					{
-						continue;
-					}
-					
-					// check level gap that may prevent to drop item
-					if ((Rnd.nextDouble() * 100) > (dropItem.getItemId() == Inventory.ADENA_ID ? levelGapChanceToDropAdena : levelGapChanceToDrop))
-					{
-						continue;
-					}
-					
-					// skip zero chance drops
-					final Float itemChance = Config.RATE_DROP_CHANCE_BY_ID.get(dropItem.getItemId());
-					if ((itemChance != null) && (itemChance <= 0))
-					{
-						continue;
-					}
-					
-					// create the drop
-					final ItemHolder drop = calculateGroupDrop(dropItem, victim, killer);
-					
-					// create list
-					if (calculatedDrops == null)
-					{
-						calculatedDrops = new ArrayList<>(dropOccurrenceCounter);
-					}
-					
-					// finally
-					if (itemChance != null)
-					{
-						if ((dropItem.getChance() * itemChance) < 100)
-						{
-							dropOccurrenceCounter--;
-						}
-					}
-					else if (dropItem.getChance() < 100)
-					{
-						dropOccurrenceCounter--;
-					}
-					calculatedDrops.add(drop);
-					
-					// no more drops from this group
-					break GROUP_DROP;
-				}
-			}
-		}
+		final int dropOccurrenceCounter = victim.isRaid() ? Config.DROP_MAX_OCCURRENCES_RAIDBOSS : Config.DROP_MAX_OCCURRENCES_NORMAL;
+		List<ItemHolder> calculatedDrops = getDropSampler().calculateGroupDrops(levelDifference, getDropMask(victim, killer), dropOccurrenceCounter, killer.getStat().getMul(Stat.BONUS_DROP_RATE, 1), killer.getStat().getMul(Stat.BONUS_DROP_AMOUNT, 1), killer.getStat().getMul(Stat.BONUS_DROP_ADENA, 1));
 		
 		// champion extra drop
 		if (victim.isChampion())
@@ -929,83 +821,10 @@ public class NpcTemplate extends CreatureTemplate implements IIdentifiable
 	
 	private List<ItemHolder> calculateUngroupedDrops(DropType dropType, Creature victim, Creature killer)
 	{
-		final List<DropHolder> dropList = dropType == DropType.SPOIL ? _dropListSpoil : _dropListDeath;
-		
-		// level difference calculations
 		final int levelDifference = victim.getLevel() - killer.getLevel();
-		final double levelGapChanceToDropAdena = Util.map(levelDifference, -Config.DROP_ADENA_MAX_LEVEL_DIFFERENCE, -Config.DROP_ADENA_MIN_LEVEL_DIFFERENCE, Config.DROP_ADENA_MIN_LEVEL_GAP_CHANCE, 100d);
-		final double levelGapChanceToDrop = Util.map(levelDifference, -Config.DROP_ITEM_MAX_LEVEL_DIFFERENCE, -Config.DROP_ITEM_MIN_LEVEL_DIFFERENCE, Config.DROP_ITEM_MIN_LEVEL_GAP_CHANCE, 100d);
-		
-		int dropOccurrenceCounter = victim.isRaid() ? Config.DROP_MAX_OCCURRENCES_RAIDBOSS : Config.DROP_MAX_OCCURRENCES_NORMAL;
-		List<ItemHolder> calculatedDrops = null;
-		List<ItemHolder> randomDrops = null;
-		ItemHolder cachedItem = null;
-		if (dropOccurrenceCounter > 0)
-		{
-			for (DropHolder dropItem : dropList)
-			{
-				// check if maximum drop occurrences have been reached
-				// items that have 100% drop chance without server rate multipliers drop normally
-				if ((dropOccurrenceCounter == 0) && (dropItem.getChance() < 100) && (randomDrops != null) && (calculatedDrops != null))
-				{
-					// remove highest chance item (temporarily if no other item replaces it)
-					cachedItem = randomDrops.remove(0);
-					calculatedDrops.remove(cachedItem);
-					dropOccurrenceCounter = 1;
-				}
-				
-				// check level gap that may prevent to drop item
-				if ((Rnd.nextDouble() * 100) > (dropItem.getItemId() == Inventory.ADENA_ID ? levelGapChanceToDropAdena : levelGapChanceToDrop))
-				{
-					continue;
-				}
-				
-				// calculate chances
-				final ItemHolder drop = calculateUngroupedDrop(dropItem, victim, killer);
-				if (drop == null)
-				{
-					continue;
-				}
-				
-				// create lists
-				if (randomDrops == null)
-				{
-					randomDrops = new ArrayList<>(dropOccurrenceCounter);
-				}
-				if (calculatedDrops == null)
-				{
-					calculatedDrops = new ArrayList<>(dropOccurrenceCounter);
-				}
-				
-				// finally
-				final Float itemChance = Config.RATE_DROP_CHANCE_BY_ID.get(dropItem.getItemId());
-				if (itemChance != null)
-				{
-					if ((dropItem.getChance() * itemChance) < 100)
-					{
-						dropOccurrenceCounter--;
-						randomDrops.add(drop);
-					}
-				}
-				else if (dropItem.getChance() < 100)
-				{
-					dropOccurrenceCounter--;
-					randomDrops.add(drop);
-				}
-				calculatedDrops.add(drop);
-			}
-		}
-		// add temporarily removed item when not replaced
-		if ((dropOccurrenceCounter > 0) && (cachedItem != null) && (calculatedDrops != null))
-		{
-			calculatedDrops.add(cachedItem);
-		}
-		// clear random drops
-		if (randomDrops != null)
-		{
-			randomDrops.clear();
-			randomDrops = null;
-		}
+		final int dropOccurrenceCounter = victim.isRaid() ? Config.DROP_MAX_OCCURRENCES_RAIDBOSS : Config.DROP_MAX_OCCURRENCES_NORMAL;
+		final double bonusRate = killer.getStat().getMul(dropType == DropType.SPOIL ? Stat.BONUS_SPOIL_RATE : Stat.BONUS_DROP_RATE, 1);
+		List<ItemHolder> calculatedDrops = getDropSampler().calculateUngroupedDrops(dropType, levelDifference, getDropMask(victim, killer), dropOccurrenceCounter, bonusRate, killer.getStat().getMul(Stat.BONUS_DROP_AMOUNT, 1), killer.getStat().getMul(Stat.BONUS_DROP_ADENA, 1));
 		
 		// champion extra drop
 		if (victim.isChampion())
@@ -1052,6 +871,17 @@ public class NpcTemplate extends CreatureTemplate implements IIdentifiable
 		return calculatedDrops;
 	}
 	
+	/**
+	 * @param victim the victim
+	 * @param killer the killer
+	 * @return the rate combination of the {@link DropSampler} for this kill
+	 */
+	private int getDropMask(Creature victim, Creature killer)
+	{
+		final boolean premium = Config.PREMIUM_SYSTEM_ENABLED && (killer.getActingPlayer() != null) && killer.getActingPlayer().hasPremiumStatus();
+		return DropSampler.getMask(victim.isChampion(), victim.isRaid(), premium);
+	}
+	
 	private void processVipDrops(List<ItemHolder> items, Creature victim, Creature killer)
 	{
 		final List<DropHolder> dropList = new ArrayList<>();
@@ -1108,73 +938,6 @@ public class NpcTemplate extends CreatureTemplate implements IIdentifiable
 		return levelGapChanceToDrop;
 	}
 	
-	/**
-	 * @param dropItem
-	 * @param victim
-	 * @param killer
-	 * @return ItemHolder
-	 */
-	private ItemHolder calculateGroupDrop(DropHolder dropItem, Creature victim, Creature killer)
-	{
-		final int itemId = dropItem.getItemId();
-		final ItemTemplate item = ItemTable.getInstance().getTemplate(itemId);
-		final boolean champion = victim.isChampion();
-		
-		// calculate amount
-		double rateAmount = 1;
-		if (Config.RATE_DROP_AMOUNT_BY_ID.get(itemId) != null)
-		{
-			rateAmount *= Config.RATE_DROP_AMOUNT_BY_ID.get(itemId);
-			if (champion && (itemId == Inventory.ADENA_ID))
-			{
-				rateAmount *= Config.CHAMPION_ADENAS_REWARDS_AMOUNT;
-			}
-		}
-		else if (item.hasExImmediateEffect())
-		{
-			rateAmount *= Config.RATE_HERB_DROP_AMOUNT_MULTIPLIER;
-		}
-		else if (victim.isRaid())
-		{
-			rateAmount *= Config.RATE_RAID_DROP_AMOUNT_MULTIPLIER;
-		}
-		else
-		{
-			rateAmount *= Config.RATE_DEATH_DROP_AMOUNT_MULTIPLIER * (champion ? Config.CHAMPION_REWARDS_AMOUNT : 1);
-		}
-		
-		// premium amount
-		if (Config.PREMIUM_SYSTEM_ENABLED && (killer.getActingPlayer() != null) && killer.getActingPlayer().hasPremiumStatus())
-		{
-			if (Config.PREMIUM_RATE_DROP_AMOUNT_BY_ID.get(itemId) != null)
-			{
-				rateAmount *= Config.PREMIUM_RATE_DROP_AMOUNT_BY_ID.get(itemId);
-			}
-			else if (item.hasExImmediateEffect())
-			{
-				// TODO: Premium herb amount? :)
-			}
-			else if (victim.isRaid())
-			{
-				// TODO: Premium raid amount? :)
-			}
-			else
-			{
-				rateAmount *= Config.PREMIUM_RATE_DROP_AMOUNT;
-			}
-		}
-		
-		// bonus drop amount effect
-		rateAmount *= killer.getStat().getMul(Stat.BONUS_DROP_AMOUNT, 1);
-		if (itemId == Inventory.ADENA_ID)
-		{
-			rateAmount *= killer.getStat().getMul(Stat.BONUS_DROP_ADENA, 1);
-		}
-		
-		// finally
-		return new ItemHolder(itemId, (long) (Rnd.get(dropItem.getMin(), dropItem.getMax()) * rateAmount));
-	}
-	
 	/**
 	 * @param dropItem
 	 * @param victim
@@ -0,0 +1,746 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.model.drops;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import org.l2jmobius.Config;
+import org.l2jmobius.commons.util.AliasTable;
+import org.l2jmobius.commons.util.Rnd;
+import org.l2jmobius.gameserver.data.ItemTable;
+import org.l2jmobius.gameserver.enums.DropType;
+import org.l2jmobius.gameserver.model.holders.DropGroupHolder;
+import org.l2jmobius.gameserver.model.holders.DropHolder;
+import org.l2jmobius.gameserver.model.holders.ItemHolder;
+import org.l2jmobius.gameserver.model.item.ItemTemplate;
+import org.l2jmobius.gameserver.model.itemcontainer.Inventory;
+import org.l2jmobius.gameserver.util.Util;
+
+/**
+ * Drop groups and drop lists of a NPC template compiled with the current rates.<br>
+ * Rates only depend on the item, on the victim being champion or raid and on the killer having premium, so they are computed once for each of these {@link #CHAMPION}, {@link #RAID} and {@link #PREMIUM} combinations.<br>
+ * Level gap chances are kept in tables indexed by level difference. Only the bonus rates of the killer are applied per kill.
+ * <ul>
+ * <li>A group picks its item with an {@link AliasTable} over the item chances and the chance of no item, instead of summing chances up to a random value.</li>
+ * <li>Items of a list roll independently. They are kept in buckets of similar chance, a bucket only rolls the candidates given by geometric skips of its highest chance, each candidate then keeps its own chance.<br>
+ * A kill costs about the number of items dropped plus the number of buckets, instead of two random values for every item of the list.</li>
+ * </ul>
+ * Dropped items are then processed in list order with the same drop occurrence limit as before.
+ */
+public class DropSampler
+{
+	public static final int CHAMPION = 1;
+	public static final int RAID = 2;
+	public static final int PREMIUM = 4;
+	private static final int MASKS = 8;
+	
+	private static final int BUCKETS = 32;
+	private static final int DIRECT_ROLLS = 4;
+	
+	private static volatile LevelGaps _levelGaps;
+	
+	private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+	
+	private final LevelGaps _gaps;
+	private final GroupSampler[] _groups;
+	private final ListSampler _dropList;
+	private final ListSampler _spoilList;
+	
+	private DropSampler(List<DropGroupHolder> groups, List<DropHolder> dropList, List<DropHolder> spoilList, IntPredicate herbs)
+	{
+		_gaps = getLevelGaps();
+		
+		if (groups != null)
+		{
+			final List<GroupSampler> samplers = new ArrayList<>(groups.size());
+			for (DropGroupHolder group : groups)
+			{
+				if (!group.getDropList().isEmpty())
+				{
+					samplers.add(new GroupSampler(group, herbs));
+				}
+			}
+			_groups = samplers.toArray(new GroupSampler[samplers.size()]);
+		}
+		else
+		{
+			_groups = null;
+		}
+		
+		_dropList = dropList != null ? new ListSampler(dropList, herbs) : null;
+		_spoilList = spoilList != null ? new ListSampler(spoilList, herbs) : null;
+	}
+	
+	/**
+	 * @param groups the drop groups, can be {@code null}
+	 * @param dropList the drop list, can be {@code null}
+	 * @param spoilList the spoil list, can be {@code null}
+	 * @return the drops compiled with the current rates, herbs are told by the {@link ItemTable}
+	 */
+	public static DropSampler compile(List<DropGroupHolder> groups, List<DropHolder> dropList, List<DropHolder> spoilList)
+	{
+		return new DropSampler(groups, dropList, spoilList, itemId ->
+		{
+			final ItemTemplate item = ItemTable.getInstance().getTemplate(itemId);
+			return (item != null) && item.hasExImmediateEffect();
+		});
+	}
+	
+	/**
+	 * @param groups the drop groups, can be {@code null}
+	 * @param dropList the drop list, can be {@code null}
+	 * @param spoilList the spoil list, can be {@code null}
+	 * @param herbs tells the items that use the herb rates
+	 * @return the drops compiled with the current rates
+	 */
+	public static DropSampler compile(List<DropGroupHolder> groups, List<DropHolder> dropList, List<DropHolder> spoilList, IntPredicate herbs)
+	{
+		return new DropSampler(groups, dropList, spoilList, herbs);
+	}
+	
+	/**
+	 * Computes the level gap tables again from the current configuration, for the samplers compiled afterwards.
+	 */
+	public static void reloadLevelGaps()
+	{
+		_levelGaps = new LevelGaps();
+	}
+	
+	private static LevelGaps getLevelGaps()
+	{
+		LevelGaps levelGaps = _levelGaps;
+		if (levelGaps == null)
+		{
+			levelGaps = new LevelGaps();
+			_levelGaps = levelGaps;
+		}
+		return levelGaps;
+	}
+	
+	/**
+	 * @param champion the victim is a champion
+	 * @param raid the victim is a raid
+	 * @param premium the killer has premium status
+	 * @return the rate combination used by the calculate methods
+	 */
+	public static int getMask(boolean champion, boolean raid, boolean premium)
+	{
+		return (champion ? CHAMPION : 0) | (raid ? RAID : 0) | (premium ? PREMIUM : 0);
+	}
+	
+	public boolean hasGroups()
+	{
+		return _groups != null;
+	}
+	
+	public boolean hasList(DropType dropType)
+	{
+		return (dropType == DropType.SPOIL ? _spoilList : _dropList) != null;
+	}
+	
+	/**
+	 * @param levelDifference the victim level minus the killer level
+	 * @param mask the rate combination
+	 * @param maxOccurrences the maximum drop occurrences
+	 * @param bonusRate the bonus drop rate of the killer
+	 * @param bonusAmount the bonus drop amount of the killer
+	 * @param bonusAdena the bonus adena amount of the killer
+	 * @return the group drops, {@code null} if nothing dropped
+	 */
+	public List<ItemHolder> calculateGroupDrops(int levelDifference, int mask, int maxOccurrences, double bonusRate, double bonusAmount, double bonusAdena)
+	{
+		if (_groups == null)
+		{
+			return null;
+		}
+		
+		final double levelGapChanceToDropAdena = _gaps.getAdenaChance(levelDifference);
+		final double levelGapChanceToDrop = _gaps.getItemChance(levelDifference);
+		
+		int dropOccurrenceCounter = maxOccurrences;
+		List<ItemHolder> calculatedDrops = null;
+		for (GroupSampler group : _groups)
+		{
+			if (dropOccurrenceCounter <= 0)
+			{
+				break;
+			}
+			
+			final double groupRate = group._rates[mask] * bonusRate;
+			if ((Rnd.nextDouble() * 100) >= (group._chance * groupRate))
+			{
+				continue;
+			}
+			
+			// Items before the picked one could not drop, the picked one and the following ones still go through the level gap.
+			for (int i = group._alias.next(); i < group._drops.length; i++)
+			{
+				if ((Rnd.nextDouble() * 100) > (group._adena[i] ? levelGapChanceToDropAdena : levelGapChanceToDrop))
+				{
+					continue;
+				}
+				
+				if (group._disabled[i])
+				{
+					continue;
+				}
+				
+				final DropHolder dropItem = group._drops[i];
+				double rateAmount = group._amounts[mask][i] * bonusAmount;
+				if (group._adena[i])
+				{
+					rateAmount *= bonusAdena;
+				}
+				final ItemHolder drop = new ItemHolder(dropItem.getItemId(), (long) (Rnd.get(dropItem.getMin(), dropItem.getMax()) * rateAmount));
+				
+				if (calculatedDrops == null)
+				{
+					calculatedDrops = new ArrayList<>(dropOccurrenceCounter);
+				}
+				if (group._limited[i])
+				{
+					dropOccurrenceCounter--;
+				}
+				calculatedDrops.add(drop);
+				break;
+			}
+		}
+		return calculatedDrops;
+	}
+	
+	/**
+	 * @param dropType the drop type, {@link DropType#SPOIL} for the spoil list
+	 * @param levelDifference the victim level minus the killer level
+	 * @param mask the rate combination
+	 * @param maxOccurrences the maximum drop occurrences
+	 * @param bonusRate the bonus drop or spoil rate of the killer
+	 * @param bonusAmount the bonus drop amount of the killer
+	 * @param bonusAdena the bonus adena amount of the killer
+	 * @return the list drops, {@code null} if nothing dropped
+	 */
+	public List<ItemHolder> calculateUngroupedDrops(DropType dropType, int levelDifference, int mask, int maxOccurrences, double bonusRate, double bonusAmount, double bonusAdena)
+	{
+		final ListSampler list = dropType == DropType.SPOIL ? _spoilList : _dropList;
+		if ((list == null) || (maxOccurrences <= 0))
+		{
+			return null;
+		}
+		
+		final double adenaChance = Util.constrain(_gaps.getAdenaChance(levelDifference) / 100, 0, 1);
+		final double itemChance = Util.constrain(_gaps.getItemChance(levelDifference) / 100, 0, 1);
+		final Buffers buffers = BUFFERS.get();
+		final int[] hits = buffers.getHits(list._drops.length);
+		final int hitCount = list.roll(hits, mask, bonusRate, itemChance, adenaChance);
+		if (hitCount == 0)
+		{
+			return null;
+		}
+		if (hitCount > 1)
+		{
+			Arrays.sort(hits, 0, hitCount);
+		}
+		
+		// Same occurrence limit as rolling the whole list in order, between two dropped items only the first random item matters.
+		final ItemHolder[] randomDrops = buffers.getRandomDrops(hitCount);
+		int randomHead = 0;
+		int randomTail = 0;
+		int dropOccurrenceCounter = maxOccurrences;
+		List<ItemHolder> calculatedDrops = null;
+		ItemHolder cachedItem = null;
+		int next = 0;
+		for (int h = 0; h < hitCount; h++)
+		{
+			final int i = hits[h];
+			if ((dropOccurrenceCounter == 0) && (calculatedDrops != null) && (list._nextRandom[next] <= i))
+			{
+				// remove highest chance item (temporarily if no other item replaces it)
+				cachedItem = randomDrops[randomHead];
+				randomDrops[randomHead++] = null;
+				calculatedDrops.remove(cachedItem);
+				dropOccurrenceCounter = 1;
+			}
+			
+			final DropHolder dropItem = list._drops[i];
+			double rateAmount = list._amounts[mask][i];
+			if (list._bonus[i])
+			{
+				rateAmount *= bonusAmount;
+				if (list._adena[i])
+				{
+					rateAmount *= bonusAdena;
+				}
+			}
+			final ItemHolder drop = new ItemHolder(dropItem.getItemId(), (long) (Rnd.get(dropItem.getMin(), dropItem.getMax()) * rateAmount));
+			
+			if (calculatedDrops == null)
+			{
+				calculatedDrops = new ArrayList<>(dropOccurrenceCounter);
+			}
+			if (list._limited[i])
+			{
+				dropOccurrenceCounter--;
+				randomDrops[randomTail++] = drop;
+			}
+			calculatedDrops.add(drop);
+			next = i + 1;
+		}
+		if ((dropOccurrenceCounter == 0) && (list._nextRandom[next] < list._drops.length))
+		{
+			cachedItem = randomDrops[randomHead];
+			calculatedDrops.remove(cachedItem);
+			dropOccurrenceCounter = 1;
+		}
+		Arrays.fill(randomDrops, 0, randomTail, null);
+		
+		// add temporarily removed item when not replaced
+		if ((dropOccurrenceCounter > 0) && (cachedItem != null))
+		{
+			calculatedDrops.add(cachedItem);
+		}
+		return calculatedDrops;
+	}
+	
+	/**
+	 * @param itemId the item id
+	 * @param herb the item uses the herb rates
+	 * @param mask the rate combination
+	 * @return the drop chance multiplier of the item, {@code 0} for items disabled by their chance by id
+	 */
+	private static double getDropChanceRate(int itemId, boolean herb, int mask)
+	{
+		final boolean champion = (mask & CHAMPION) != 0;
+		final boolean raid = (mask & RAID) != 0;
+		double rateChance = 1;
+		final Float itemChance = Config.RATE_DROP_CHANCE_BY_ID.get(itemId);
+		if (itemChance != null)
+		{
+			if (itemChance <= 0)
+			{
+				return 0;
+			}
+			
+			rateChance *= itemChance;
+			if (champion && (itemId == Inventory.ADENA_ID))
+			{
+				rateChance *= Config.CHAMPION_ADENAS_REWARDS_CHANCE;
+			}
+		}
+		else if (herb)
+		{
+			rateChance *= Config.RATE_HERB_DROP_CHANCE_MULTIPLIER;
+		}
+		else if (raid)
+		{
+			rateChance *= Config.RATE_RAID_DROP_CHANCE_MULTIPLIER;
+		}
+		else
+		{
+			rateChance *= Config.RATE_DEATH_DROP_CHANCE_MULTIPLIER * (champion ? Config.CHAMPION_REWARDS_CHANCE : 1);
+		}
+		
+		// premium chance
+		if ((mask & PREMIUM) != 0)
+		{
+			if (Config.PREMIUM_RATE_DROP_CHANCE_BY_ID.get(itemId) != null)
+			{
+				rateChance *= Config.PREMIUM_RATE_DROP_CHANCE_BY_ID.get(itemId);
+			}
+			else if (!herb && !raid)
+			{
+				rateChance *= Config.PREMIUM_RATE_DROP_CHANCE;
+			}
+		}
+		return rateChance;
+	}
+	
+	/**
+	 * @param itemId the item id
+	 * @param herb the item uses the herb rates
+	 * @param mask the rate combination
+	 * @return the drop amount multiplier of the item, without the bonus of the killer
+	 */
+	private static double getDropAmountRate(int itemId, boolean herb, int mask)
+	{
+		final boolean champion = (mask & CHAMPION) != 0;
+		final boolean raid = (mask & RAID) != 0;
+		double rateAmount = 1;
+		if (Config.RATE_DROP_AMOUNT_BY_ID.get(itemId) != null)
+		{
+			rateAmount *= Config.RATE_DROP_AMOUNT_BY_ID.get(itemId);
+			if (champion && (itemId == Inventory.ADENA_ID))
+			{
+				rateAmount *= Config.CHAMPION_ADENAS_REWARDS_AMOUNT;
+			}
+		}
+		else if (herb)
+		{
+			rateAmount *= Config.RATE_HERB_DROP_AMOUNT_MULTIPLIER;
+		}
+		else if (raid)
+		{
+			rateAmount *= Config.RATE_RAID_DROP_AMOUNT_MULTIPLIER;
+		}
+		else
+		{
+			rateAmount *= Config.RATE_DEATH_DROP_AMOUNT_MULTIPLIER * (champion ? Config.CHAMPION_REWARDS_AMOUNT : 1);
+		}
+		
+		// premium amount
+		if ((mask & PREMIUM) != 0)
+		{
+			if (Config.PREMIUM_RATE_DROP_AMOUNT_BY_ID.get(itemId) != null)
+			{
+				rateAmount *= Config.PREMIUM_RATE_DROP_AMOUNT_BY_ID.get(itemId);
+			}
+			else if (!herb && !raid)
+			{
+				rateAmount *= Config.PREMIUM_RATE_DROP_AMOUNT;
+			}
+		}
+		return rateAmount;
+	}
+	
+	/**
+	 * @param dropItem the drop
+	 * @return {@code true} if the drop counts for the drop occurrence limit
+	 */
+	private static boolean isLimited(DropHolder dropItem)
+	{
+		final Float itemChance = Config.RATE_DROP_CHANCE_BY_ID.get(dropItem.getItemId());
+		if (itemChance != null)
+		{
+			return (dropItem.getChance() * itemChance) < 100;
+		}
+		return dropItem.getChance() < 100;
+	}
+	
+	private static class GroupSampler
+	{
+		private final double _chance;
+		private final DropHolder[] _drops;
+		private final boolean[] _adena;
+		private final boolean[] _disabled;
+		private final boolean[] _limited;
+		private final double[] _rates = new double[MASKS];
+		private final double[][] _amounts = new double[MASKS][];
+		private final AliasTable _alias;
+		
+		public GroupSampler(DropGroupHolder group, IntPredicate herbs)
+		{
+			_chance = group.getChance();
+			_drops = group.getDropList().toArray(new DropHolder[group.getDropList().size()]);
+			
+			final int size = _drops.length;
+			final boolean[] herb = new boolean[size];
+			_adena = new boolean[size];
+			_disabled = new boolean[size];
+			_limited = new boolean[size];
+			for (int i = 0; i < size; i++)
+			{
+				final int itemId = _drops[i].getItemId();
+				final Float itemChance = Config.RATE_DROP_CHANCE_BY_ID.get(itemId);
+				herb[i] = herbs.test(itemId);
+				_adena[i] = itemId == Inventory.ADENA_ID;
+				_disabled[i] = (itemChance != null) && (itemChance <= 0);
+				_limited[i] = isLimited(_drops[i]);
+			}
+			
+			for (int mask = 0; mask < MASKS; mask++)
+			{
+				// keep lowest to avoid chance by id configuration conflicts
+				double groupRate = 1;
+				_amounts[mask] = new double[size];
+				for (int i = 0; i < size; i++)
+				{
+					if (!_disabled[i])
+					{
+						groupRate = Math.min(groupRate, getDropChanceRate(_drops[i].getItemId(), herb[i], mask));
+					}
+					_amounts[mask][i] = getDropAmountRate(_drops[i].getItemId(), herb[i], mask);
+				}
+				_rates[mask] = groupRate;
+			}
+			
+			// Item i is picked when the random chance falls in its part of the 100 total, the last outcome is no item at all.
+			final double[] weights = new double[size + 1];
+			double totalChance = 0;
+			for (int i = 0; i < size; i++)
+			{
+				final double from = Math.min(totalChance, 100);
+				totalChance += _drops[i].getChance();
+				weights[i] = Math.max(0, Math.min(totalChance, 100) - from);
+			}
+			weights[size] = Math.max(0, 100 - totalChance);
+			_alias = new AliasTable(weights);
+		}
+	}
+	
+	private static class ListSampler
+	{
+		private final DropHolder[] _drops;
+		private final boolean[] _adena;
+		private final boolean[] _bonus;
+		private final boolean[] _limited;
+		private final int[] _nextRandom;
+		private final boolean _hasAdena;
+		private final double[][] _chances = new double[MASKS][];
+		private final double[][] _amounts = new double[MASKS][];
+		private final int[][][] _buckets = new int[MASKS][][];
+		private final double[][] _bounds = new double[MASKS][];
+		
+		public ListSampler(List<DropHolder> dropList, IntPredicate herbs)
+		{
+			_drops = dropList.toArray(new DropHolder[dropList.size()]);
+			
+			final int size = _drops.length;
+			final boolean[] herb = new boolean[size];
+			_adena = new boolean[size];
+			_bonus = new boolean[size];
+			_limited = new boolean[size];
+			_nextRandom = new int[size + 1];
+			boolean hasAdena = false;
+			for (int i = 0; i < size; i++)
+			{
+				final int itemId = _drops[i].getItemId();
+				herb[i] = (_drops[i].getDropType() != DropType.SPOIL) && herbs.test(itemId);
+				_adena[i] = itemId == Inventory.ADENA_ID;
+				_bonus[i] = _drops[i].getDropType() != DropType.SPOIL;
+				_limited[i] = isLimited(_drops[i]);
+				hasAdena |= _adena[i];
+			}
+			_hasAdena = hasAdena;
+			
+			// Next item from each index that can replace a random drop once the limit is reached.
+			_nextRandom[size] = size;
+			for (int i = size - 1; i >= 0; i--)
+			{
+				_nextRandom[i] = _drops[i].getChance() < 100 ? i : _nextRandom[i + 1];
+			}
+			
+			for (int mask = 0; mask < MASKS; mask++)
+			{
+				final double[] chances = new double[size];
+				final double[] amounts = new double[size];
+				for (int i = 0; i < size; i++)
+				{
+					final DropHolder dropItem = _drops[i];
+					if (dropItem.getDropType() == DropType.SPOIL)
+					{
+						final boolean premium = (mask & PREMIUM) != 0;
+						chances[i] = (dropItem.getChance() * Config.RATE_SPOIL_DROP_CHANCE_MULTIPLIER * (premium ? Config.PREMIUM_RATE_SPOIL_CHANCE : 1)) / 100;
+						amounts[i] = Config.RATE_SPOIL_DROP_AMOUNT_MULTIPLIER * (premium ? Config.PREMIUM_RATE_SPOIL_AMOUNT : 1);
+					}
+					else
+					{
+						chances[i] = (dropItem.getChance() * getDropChanceRate(dropItem.getItemId(), herb[i], mask)) / 100;
+						amounts[i] = getDropAmountRate(dropItem.getItemId(), herb[i], mask);
+					}
+				}
+				_chances[mask] = chances;
+				_amounts[mask] = amounts;
+				compileBuckets(mask, chances);
+			}
+		}
+		
+		/**
+		 * Puts the items that can drop in buckets of chances between two powers of two, each bucket is bound by its highest chance.
+		 * @param mask the rate combination
+		 * @param chances the chances of the items
+		 */
+		private void compileBuckets(int mask, double[] chances)
+		{
+			final int[] bucketOf = new int[chances.length];
+			final int[] sizes = new int[BUCKETS];
+			final double[] bounds = new double[BUCKETS];
+			for (int i = 0; i < chances.length; i++)
+			{
+				if (!(chances[i] > 0))
+				{
+					bucketOf[i] = -1;
+					continue;
+				}
+				
+				final int bucket = chances[i] >= 1 ? 0 : Math.min(BUCKETS - 1, Math.getExponent(chances[i]) * -1);
+				bucketOf[i] = bucket;
+				sizes[bucket]++;
+				bounds[bucket] = Math.max(bounds[bucket], chances[i]);
+			}
+			
+			int used = 0;
+			for (int size : sizes)
+			{
+				if (size > 0)
+				{
+					used++;
+				}
+			}
+			
+			final int[][] buckets = new int[used][];
+			final double[] usedBounds = new double[used];
+			final int[] index = new int[BUCKETS];
+			Arrays.fill(index, -1);
+			int b = 0;
+			for (int bucket = 0; bucket < BUCKETS; bucket++)
+			{
+				if (sizes[bucket] > 0)
+				{
+					index[bucket] = b;
+					buckets[b] = new int[sizes[bucket]];
+					usedBounds[b] = bounds[bucket];
+					b++;
+				}
+			}
+			
+			// Item indexes stay in list order inside each bucket.
+			final int[] filled = new int[used];
+			for (int i = 0; i < chances.length; i++)
+			{
+				if (bucketOf[i] >= 0)
+				{
+					final int bucket = index[bucketOf[i]];
+					buckets[bucket][filled[bucket]++] = i;
+				}
+			}
+			_buckets[mask] = buckets;
+			_bounds[mask] = usedBounds;
+		}
+		
+		/**
+		 * @param hits receives the indexes of the dropped items, in bucket order
+		 * @param mask the rate combination
+		 * @param bonusRate the bonus rate of the killer
+		 * @param itemGap the level gap chance of items, from 0 to 1
+		 * @param adenaGap the level gap chance of adena, from 0 to 1
+		 * @return the number of dropped items
+		 */
+		public int roll(int[] hits, int mask, double bonusRate, double itemGap, double adenaGap)
+		{
+			final double[] chances = _chances[mask];
+			final int[][] buckets = _buckets[mask];
+			final double[] bounds = _bounds[mask];
+			final double maxGap = _hasAdena ? Math.max(itemGap, adenaGap) : itemGap;
+			int count = 0;
+			for (int b = 0; b < buckets.length; b++)
+			{
+				final int[] items = buckets[b];
+				final double bound = Math.min(1, bounds[b] * bonusRate) * maxGap;
+				if (!(bound > 0))
+				{
+					continue;
+				}
+				
+				// Small or certain buckets roll each item, a skip costs more than a roll.
+				if ((bound >= 1) || (items.length <= DIRECT_ROLLS))
+				{
+					for (int i : items)
+					{
+						if (Rnd.nextDouble() < ((_adena[i] ? adenaGap : itemGap) * Math.min(1, chances[i] * bonusRate)))
+						{
+							hits[count++] = i;
+						}
+					}
+					continue;
+				}
+				
+				// Each item is a candidate with the bound chance, the number of items skipped before the next candidate is geometric.
+				final double logMiss = Math.log1p(-bound);
+				int position = -1;
+				while (true)
+				{
+					final double skip = Math.log(1 - Rnd.nextDouble()) / logMiss;
+					if (skip >= (items.length - position - 1))
+					{
+						break;
+					}
+					
+					position += 1 + (int) skip;
+					final int i = items[position];
+					if ((Rnd.nextDouble() * bound) < ((_adena[i] ? adenaGap : itemGap) * Math.min(1, chances[i] * bonusRate)))
+					{
+						hits[count++] = i;
+					}
+				}
+			}
+			return count;
+		}
+	}
+	
+	/**
+	 * Level gap chances of the drop configuration, indexed by level difference.<br>
+	 * Both chances are constant past their configured level differences, so the tables cover these differences and one level more on each side.
+	 */
+	private static class LevelGaps
+	{
+		private final int _min;
+		private final double[] _adena;
+		private final double[] _items;
+		
+		public LevelGaps()
+		{
+			final int low = Math.min(Math.min(-Config.DROP_ADENA_MAX_LEVEL_DIFFERENCE, -Config.DROP_ADENA_MIN_LEVEL_DIFFERENCE), Math.min(-Config.DROP_ITEM_MAX_LEVEL_DIFFERENCE, -Config.DROP_ITEM_MIN_LEVEL_DIFFERENCE)) - 1;
+			final int high = Math.max(Math.max(-Config.DROP_ADENA_MAX_LEVEL_DIFFERENCE, -Config.DROP_ADENA_MIN_LEVEL_DIFFERENCE), Math.max(-Config.DROP_ITEM_MAX_LEVEL_DIFFERENCE, -Config.DROP_ITEM_MIN_LEVEL_DIFFERENCE)) + 1;
+			_min = low;
+			_adena = new double[(high - low) + 1];
+			_items = new double[(high - low) + 1];
+			for (int levelDifference = low; levelDifference <= high; levelDifference++)
+			{
+				_adena[levelDifference - low] = Util.map(levelDifference, -Config.DROP_ADENA_MAX_LEVEL_DIFFERENCE, -Config.DROP_ADENA_MIN_LEVEL_DIFFERENCE, Config.DROP_ADENA_MIN_LEVEL_GAP_CHANCE, 100d);
+				_items[levelDifference - low] = Util.map(levelDifference, -Config.DROP_ITEM_MAX_LEVEL_DIFFERENCE, -Config.DROP_ITEM_MIN_LEVEL_DIFFERENCE, Config.DROP_ITEM_MIN_LEVEL_GAP_CHANCE, 100d);
+			}
+		}
+		
+		public double getAdenaChance(int levelDifference)
+		{
+			return _adena[Math.min(Math.max(levelDifference - _min, 0), _adena.length - 1)];
+		}
+		
+		public double getItemChance(int levelDifference)
+		{
+			return _items[Math.min(Math.max(levelDifference - _min, 0), _items.length - 1)];
+		}
+	}
+	
+	/**
+	 * Work arrays of a thread, so a kill does not allocate more than the dropped items.
+	 */
+	private static class Buffers
+	{
+		private int[] _hits = new int[64];
+		private ItemHolder[] _randomDrops = new ItemHolder[64];
+		
+		public int[] getHits(int size)
+		{
+			if (_hits.length < size)
+			{
+				_hits = new int[size];
+			}
+			return _hits;
+		}
+		
+		public ItemHolder[] getRandomDrops(int size)
+		{
+			if (_randomDrops.length < size)
+			{
+				_randomDrops = new ItemHolder[size];
+			}
+			return _randomDrops;
+		}
+	}
+}
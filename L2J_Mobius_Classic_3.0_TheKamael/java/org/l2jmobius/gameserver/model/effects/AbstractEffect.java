@@ -159,6 +159,16 @@ public abstract class AbstractEffect
 	{
 	}
 	
+	/**
+	 * Verify if the values pumped by this effect can be reused when stats are recalculated because the effect list changed.<br>
+	 * Only effects that merge add/mul stats and do not depend on changing conditions (HP, combat, other stats) should return {@code true}.
+	 * @return {@code true} if the pumped values can be reused, {@code false} otherwise
+	 */
+	public boolean isPumpCacheable()
+	{
+		return false;
+	}
+	
 	/**
 	 * Get this effect's type.<br>
 	 * TODO: Remove.
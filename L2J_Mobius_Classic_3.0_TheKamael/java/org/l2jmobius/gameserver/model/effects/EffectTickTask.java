@@ -16,7 +16,10 @@
  */
 package org.l2jmobius.gameserver.model.effects;
 
+import java.util.Set;
+
 import org.l2jmobius.gameserver.model.skill.BuffInfo;
+import org.l2jmobius.gameserver.taskmanager.EffectTickTaskManager;
 
 /**
  * Effect tick task.
@@ -26,6 +29,9 @@ public class EffectTickTask implements Runnable
 {
 	private final BuffInfo _info;
 	private final AbstractEffect _effect;
+	/** The phase set of {@link EffectTickTaskManager} holding this task, {@code null} once removed. */
+	private volatile Set<EffectTickTask> _phase;
+	private volatile long _nextTick;
 	
 	/**
 	 * EffectTickTask constructor.
@@ -56,6 +62,26 @@ public class EffectTickTask implements Runnable
 		return _effect;
 	}
 	
+	public Set<EffectTickTask> getPhase()
+	{
+		return _phase;
+	}
+	
+	public void setPhase(Set<EffectTickTask> phase)
+	{
+		_phase = phase;
+	}
+	
+	public long getNextTick()
+	{
+		return _nextTick;
+	}
+	
+	public void setNextTick(long nextTick)
+	{
+		_nextTick = nextTick;
+	}
+	
 	@Override
 	public void run()
 	{
@@ -214,6 +214,11 @@ public class Item extends WorldObject
 	 * @param itemTemplate : Item containing informations of the item
 	 */
 	public Item(int objectId, ItemTemplate itemTemplate)
+	{
+		this(objectId, itemTemplate, null);
+	}
+	
+	private Item(int objectId, ItemTemplate itemTemplate, ItemVariables variables)
 	{
 		super(objectId);
 		setInstanceType(InstanceType.Item);
@@ -227,6 +232,10 @@ public class Item extends WorldObject
 		_loc = ItemLocation.VOID;
 		_mana = _itemTemplate.getDuration();
 		_time = _itemTemplate.getTime() == -1 ? -1 : System.currentTimeMillis() + (_itemTemplate.getTime() * 60 * 1000);
+		if (variables != null)
+		{
+			addScript(variables);
+		}
 		scheduleLifeTimeTask();
 		scheduleVisualLifeTime();
 	}
@@ -237,7 +246,17 @@ public class Item extends WorldObject
 	 */
 	public Item(ResultSet rs) throws SQLException
 	{
-		this(rs.getInt("object_id"), ItemTable.getInstance().getTemplate(rs.getInt("item_id")));
+		this(rs, null);
+	}
+	
+	/**
+	 * @param rs the item row
+	 * @param data the data of the items restored with this row, {@code null} to restore the data of this item only
+	 * @throws SQLException
+	 */
+	public Item(ResultSet rs, ItemRestoreData data) throws SQLException
+	{
+		this(rs.getInt("object_id"), ItemTable.getInstance().getTemplate(rs.getInt("item_id")), data != null ? data.getVariables(rs.getInt("object_id")) : null);
 		_count = rs.getLong("count");
 		_ownerId = rs.getInt("owner_id");
 		_loc = ItemLocation.valueOf(rs.getString("loc"));
@@ -252,8 +271,15 @@ public class Item extends WorldObject
 		
 		if (isEquipable())
 		{
-			restoreAttributes();
-			restoreSpecialAbilities();
+			if (data != null)
+			{
+				restoreItemData(data);
+			}
+			else
+			{
+				restoreAttributes();
+				restoreSpecialAbilities();
+			}
 		}
 	}
 	
@@ -1111,6 +1137,23 @@ public class Item extends WorldObject
 		}
 	}
 	
+	private void restoreItemData(ItemRestoreData data)
+	{
+		_augmentation = data.getVariation(getObjectId());
+		for (AttributeHolder attribute : data.getAttributes(getObjectId()))
+		{
+			applyAttribute(attribute);
+		}
+		for (int[] ability : data.getSpecialAbilities(getObjectId()))
+		{
+			final EnsoulOption option = EnsoulData.getInstance().getOption(ability[0]);
+			if (option != null)
+			{
+				addSpecialAbility(option, ability[1], ability[2], false);
+			}
+		}
+	}
+	
 	public void updateItemOptions()
 	{
 		try (Connection con = DatabaseFactory.getConnection())
@@ -1512,26 +1555,57 @@ public class Item extends WorldObject
 	{
 		_dbLock.lock();
 		
+		try
+		{
+			if (!hasDatabaseChanges(force))
+			{
+				return;
+			}
+			
+			try (Connection con = DatabaseFactory.getConnection())
+			{
+				updateDatabase(con, force);
+			}
+			catch (SQLException e)
+			{
+				LOGGER.log(Level.SEVERE, "Could not update item " + this + " in DB: Reason: " + e.getMessage(), e);
+			}
+		}
+		finally
+		{
+			_dbLock.unlock();
+		}
+	}
+	
+	/**
+	 * Updates the database on the given connection, so the items of a container can be written in a single transaction.
+	 * @param con the connection
+	 * @param force if the update should necessarilly be done.
+	 */
+	public void updateDatabase(Connection con, boolean force)
+	{
+		_dbLock.lock();
+		
 		try
 		{
 			if (_existsInDb)
 			{
-				if ((_ownerId == 0) || (_loc == ItemLocation.VOID) || (_loc == ItemLocation.REFUND) || ((_count == 0) && (_loc != ItemLocation.LEASE)))
+				if (isRemovedFromDb())
 				{
-					removeFromDb();
+					removeFromDb(con);
 				}
 				else if (!Config.LAZY_ITEMS_UPDATE || force)
 				{
-					updateInDb();
+					updateInDb(con);
 				}
 			}
 			else
 			{
-				if ((_ownerId == 0) || (_loc == ItemLocation.VOID) || (_loc == ItemLocation.REFUND) || ((_count == 0) && (_loc != ItemLocation.LEASE)))
+				if (isRemovedFromDb())
 				{
 					return;
 				}
-				insertIntoDb();
+				insertIntoDb(con);
 			}
 		}
 		finally
@@ -1540,6 +1614,29 @@ public class Item extends WorldObject
 		}
 	}
 	
+	/**
+	 * @param force if the update should necessarilly be done.
+	 * @return {@code true} if {@link #updateDatabase(boolean)} has something to insert, update or remove
+	 */
+	private boolean hasDatabaseChanges(boolean force)
+	{
+		if (_wear)
+		{
+			return false;
+		}
+		
+		if (_existsInDb)
+		{
+			return isRemovedFromDb() || (!_storedInDb && (!Config.LAZY_ITEMS_UPDATE || force));
+		}
+		return !isRemovedFromDb() && (getObjectId() != 0);
+	}
+	
+	private boolean isRemovedFromDb()
+	{
+		return (_ownerId == 0) || (_loc == ItemLocation.VOID) || (_loc == ItemLocation.REFUND) || ((_count == 0) && (_loc != ItemLocation.LEASE));
+	}
+	
 	/**
 	 * Init a dropped Item and add it in the world as a visible object.<br>
 	 * <br>
@@ -1607,15 +1704,14 @@ public class Item extends WorldObject
 	/**
 	 * Update the database with values of the item
 	 */
-	private void updateInDb()
+	private void updateInDb(Connection con)
 	{
 		if (!_existsInDb || _wear || _storedInDb)
 		{
 			return;
 		}
 		
-		try (Connection con = DatabaseFactory.getConnection();
-			PreparedStatement ps = con.prepareStatement("UPDATE items SET owner_id=?,count=?,loc=?,loc_data=?,enchant_level=?,custom_type1=?,custom_type2=?,mana_left=?,time=? WHERE object_id = ?"))
+		try (PreparedStatement ps = con.prepareStatement("UPDATE items SET owner_id=?,count=?,loc=?,loc_data=?,enchant_level=?,custom_type1=?,custom_type2=?,mana_left=?,time=? WHERE object_id = ?"))
 		{
 			ps.setInt(1, _ownerId);
 			ps.setLong(2, _count);
@@ -1652,15 +1748,14 @@ public class Item extends WorldObject
 	/**
 	 * Insert the item in database
 	 */
-	private void insertIntoDb()
+	private void insertIntoDb(Connection con)
 	{
 		if (_existsInDb || (getObjectId() == 0) || _wear)
 		{
 			return;
 		}
 		
-		try (Connection con = DatabaseFactory.getConnection();
-			PreparedStatement ps = con.prepareStatement("INSERT INTO items (owner_id,item_id,count,loc,loc_data,enchant_level,object_id,custom_type1,custom_type2,mana_left,time) VALUES (?,?,?,?,?,?,?,?,?,?,?)"))
+		try (PreparedStatement ps = con.prepareStatement("INSERT INTO items (owner_id,item_id,count,loc,loc_data,enchant_level,object_id,custom_type1,custom_type2,mana_left,time) VALUES (?,?,?,?,?,?,?,?,?,?,?)"))
 		{
 			ps.setInt(1, _ownerId);
 			ps.setInt(2, _itemId);
@@ -1699,14 +1794,14 @@ public class Item extends WorldObject
 	/**
 	 * Delete item from database
 	 */
-	private void removeFromDb()
+	private void removeFromDb(Connection con)
 	{
 		if (!_existsInDb || _wear)
 		{
 			return;
 		}
 		
-		try (Connection con = DatabaseFactory.getConnection())
+		try
 		{
 			try (PreparedStatement ps = con.prepareStatement("DELETE FROM items WHERE object_id = ?"))
 			{
@@ -0,0 +1,172 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.model.item.instance;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.l2jmobius.gameserver.enums.AttributeType;
+import org.l2jmobius.gameserver.model.VariationInstance;
+import org.l2jmobius.gameserver.model.item.enchant.attribute.AttributeHolder;
+import org.l2jmobius.gameserver.model.variables.ItemVariables;
+
+/**
+ * Augmentations, attributes, special abilities and variables of the items restored by a single item query.<br>
+ * Each table is read once for all the items matching the query, instead of once per restored item.
+ */
+public class ItemRestoreData
+{
+	private static final Logger LOGGER = Logger.getLogger(ItemRestoreData.class.getName());
+	
+	private final Map<Integer, VariationInstance> _variations = new HashMap<>();
+	private final Map<Integer, List<AttributeHolder>> _attributes = new HashMap<>();
+	private final Map<Integer, List<int[]>> _specialAbilities = new HashMap<>();
+	private final Map<Integer, Map<String, String>> _variables = new HashMap<>();
+	
+	private ItemRestoreData()
+	{
+	}
+	
+	/**
+	 * Loads the item data of all the items matching a condition of the items table.
+	 * @param con the database connection
+	 * @param where the condition of the item query, for example {@code "owner_id=? AND loc=?"}
+	 * @param parameters the parameters of the condition
+	 * @return the loaded data, or {@code null} if it could not be loaded and items should restore their own data
+	 */
+	public static ItemRestoreData load(Connection con, String where, Object... parameters)
+	{
+		final String items = " IN (SELECT object_id FROM items WHERE " + where + ")";
+		final ItemRestoreData data = new ItemRestoreData();
+		try (PreparedStatement ps1 = con.prepareStatement("SELECT itemId,mineralId,option1,option2 FROM item_variations WHERE itemId" + items);
+			PreparedStatement ps2 = con.prepareStatement("SELECT itemId,elemType,elemValue FROM item_elementals WHERE itemId" + items);
+			PreparedStatement ps3 = con.prepareStatement("SELECT objectId,optionId,type,position FROM item_special_abilities WHERE objectId" + items + " ORDER BY position");
+			PreparedStatement ps4 = con.prepareStatement("SELECT id,var,val FROM item_variables WHERE id" + items))
+		{
+			setParameters(ps1, parameters);
+			try (ResultSet rs = ps1.executeQuery())
+			{
+				while (rs.next())
+				{
+					final int option1 = rs.getInt("option1");
+					final int option2 = rs.getInt("option2");
+					if ((option1 != -1) && (option2 != -1))
+					{
+						data._variations.put(rs.getInt("itemId"), new VariationInstance(rs.getInt("mineralId"), option1, option2));
+					}
+				}
+			}
+			
+			setParameters(ps2, parameters);
+			try (ResultSet rs = ps2.executeQuery())
+			{
+				while (rs.next())
+				{
+					final byte attributeType = rs.getByte("elemType");
+					final int attributeValue = rs.getInt("elemValue");
+					if ((attributeType != -1) && (attributeValue != -1))
+					{
+						data._attributes.computeIfAbsent(rs.getInt("itemId"), k -> new ArrayList<>(1)).add(new AttributeHolder(AttributeType.findByClientId(attributeType), attributeValue));
+					}
+				}
+			}
+			
+			setParameters(ps3, parameters);
+			try (ResultSet rs = ps3.executeQuery())
+			{
+				while (rs.next())
+				{
+					data._specialAbilities.computeIfAbsent(rs.getInt("objectId"), k -> new ArrayList<>(1)).add(new int[]
+					{
+						rs.getInt("optionId"),
+						rs.getInt("position"),
+						rs.getInt("type")
+					});
+				}
+			}
+			
+			setParameters(ps4, parameters);
+			try (ResultSet rs = ps4.executeQuery())
+			{
+				while (rs.next())
+				{
+					data._variables.computeIfAbsent(rs.getInt("id"), k -> new LinkedHashMap<>()).put(rs.getString("var"), rs.getString("val"));
+				}
+			}
+		}
+		catch (Exception e)
+		{
+			LOGGER.log(Level.WARNING, ItemRestoreData.class.getSimpleName() + ": Could not load item data for items WHERE " + where, e);
+			return null;
+		}
+		return data;
+	}
+	
+	private static void setParameters(PreparedStatement ps, Object... parameters) throws SQLException
+	{
+		for (int i = 0; i < parameters.length; i++)
+		{
+			ps.setObject(i + 1, parameters[i]);
+		}
+	}
+	
+	/**
+	 * @param objectId the item object id
+	 * @return the augmentation of the item, {@code null} if it has none
+	 */
+	public VariationInstance getVariation(int objectId)
+	{
+		return _variations.get(objectId);
+	}
+	
+	/**
+	 * @param objectId the item object id
+	 * @return the attributes of the item
+	 */
+	public List<AttributeHolder> getAttributes(int objectId)
+	{
+		return _attributes.getOrDefault(objectId, Collections.emptyList());
+	}
+	
+	/**
+	 * @param objectId the item object id
+	 * @return the special abilities of the item as option id, position and type, ordered by position
+	 */
+	public List<int[]> getSpecialAbilities(int objectId)
+	{
+		return _specialAbilities.getOrDefault(objectId, Collections.emptyList());
+	}
+	
+	/**
+	 * @param objectId the item object id
+	 * @return the variables of the item
+	 */
+	public ItemVariables getVariables(int objectId)
+	{
+		return new ItemVariables(objectId, _variables.get(objectId));
+	}
+}
@@ -63,6 +63,7 @@ import org.l2jmobius.gameserver.model.item.ItemTemplate;
 import org.l2jmobius.gameserver.model.item.appearance.AppearanceStone;
 import org.l2jmobius.gameserver.model.item.appearance.AppearanceType;
 import org.l2jmobius.gameserver.model.item.instance.Item;
+import org.l2jmobius.gameserver.model.item.instance.ItemRestoreData;
 import org.l2jmobius.gameserver.model.item.type.EtcItemType;
 import org.l2jmobius.gameserver.model.item.type.ItemType;
 import org.l2jmobius.gameserver.model.item.type.WeaponType;
@@ -2314,6 +2315,7 @@ public abstract class Inventory extends ItemContainer
 		try (Connection con = DatabaseFactory.getConnection();
 			PreparedStatement ps = con.prepareStatement("SELECT * FROM items WHERE owner_id=? AND (loc=? OR loc=?) ORDER BY loc_data"))
 		{
+			final ItemRestoreData data = ItemRestoreData.load(con, "owner_id=? AND (loc=? OR loc=?)", getOwnerId(), getBaseLocation().name(), getEquipLocation().name());
 			ps.setInt(1, getOwnerId());
 			ps.setString(2, getBaseLocation().name());
 			ps.setString(3, getEquipLocation().name());
@@ -2323,7 +2325,7 @@ public abstract class Inventory extends ItemContainer
 				{
 					try
 					{
-						final Item item = new Item(rs);
+						final Item item = new Item(rs, data);
 						if (getOwner().isPlayer())
 						{
 							final Player player = (Player) getOwner();
@@ -36,6 +36,7 @@ import org.l2jmobius.gameserver.model.actor.Creature;
 import org.l2jmobius.gameserver.model.actor.Player;
 import org.l2jmobius.gameserver.model.item.ItemTemplate;
 import org.l2jmobius.gameserver.model.item.instance.Item;
+import org.l2jmobius.gameserver.model.item.instance.ItemRestoreData;
 import org.l2jmobius.gameserver.network.serverpackets.InventoryUpdate;
 
 /**
@@ -627,6 +628,21 @@ public abstract class ItemContainer
 		}
 	}
 	
+	/**
+	 * Update database with the changed items in inventory, on the given connection.
+	 * @param con the connection, committed by the caller
+	 */
+	public void updateDatabase(Connection con)
+	{
+		if (getOwner() != null)
+		{
+			for (Item item : _items)
+			{
+				item.updateDatabase(con, true);
+			}
+		}
+	}
+	
 	/**
 	 * Get back items in container from database
 	 */
@@ -635,13 +651,14 @@ public abstract class ItemContainer
 		try (Connection con = DatabaseFactory.getConnection();
 			PreparedStatement ps = con.prepareStatement("SELECT * FROM items WHERE owner_id=? AND (loc=?)"))
 		{
+			final ItemRestoreData data = ItemRestoreData.load(con, "owner_id=? AND (loc=?)", getOwnerId(), getBaseLocation().name());
 			ps.setInt(1, getOwnerId());
 			ps.setString(2, getBaseLocation().name());
 			try (ResultSet rs = ps.executeQuery())
 			{
 				while (rs.next())
 				{
-					final Item item = new Item(rs);
+					final Item item = new Item(rs, data);
 					World.getInstance().addObject(item);
 					
 					final Player owner = getOwner() != null ? getOwner().getActingPlayer() : null;
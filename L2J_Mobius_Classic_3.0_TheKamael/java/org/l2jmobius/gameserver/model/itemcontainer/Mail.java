@@ -26,6 +26,7 @@ import org.l2jmobius.gameserver.enums.ItemLocation;
 import org.l2jmobius.gameserver.model.World;
 import org.l2jmobius.gameserver.model.actor.Player;
 import org.l2jmobius.gameserver.model.item.instance.Item;
+import org.l2jmobius.gameserver.model.item.instance.ItemRestoreData;
 
 /**
  * @author DS
@@ -115,6 +116,7 @@ public class Mail extends ItemContainer
 		try (Connection con = DatabaseFactory.getConnection();
 			PreparedStatement statement = con.prepareStatement("SELECT * FROM items WHERE owner_id=? AND loc=? AND loc_data=?"))
 		{
+			final ItemRestoreData data = ItemRestoreData.load(con, "owner_id=? AND loc=? AND loc_data=?", _ownerId, getBaseLocation().name(), _messageId);
 			statement.setInt(1, _ownerId);
 			statement.setString(2, getBaseLocation().name());
 			statement.setInt(3, _messageId);
@@ -122,7 +124,7 @@ public class Mail extends ItemContainer
 			{
 				while (inv.next())
 				{
-					final Item item = new Item(inv);
+					final Item item = new Item(inv, data);
 					World.getInstance().addObject(item);
 					
 					// If stackable item is found just add to current quantity
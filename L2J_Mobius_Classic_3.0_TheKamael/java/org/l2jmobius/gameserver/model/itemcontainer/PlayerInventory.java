@@ -878,19 +878,19 @@ public class PlayerInventory extends Inventory
 	{
 		final int[][] paperdoll = new int[Inventory.PAPERDOLL_TOTALSLOTS][4];
 		try (Connection con = DatabaseFactory.getConnection();
-			PreparedStatement ps = con.prepareStatement("SELECT object_id,item_id,loc_data,enchant_level FROM items WHERE owner_id=? AND loc='PAPERDOLL'"))
+			PreparedStatement ps = con.prepareStatement("SELECT i.object_id,i.item_id,i.loc_data,i.enchant_level,v.val AS visual_id FROM items i LEFT JOIN item_variables v ON v.id=i.object_id AND v.var=? WHERE i.owner_id=? AND i.loc='PAPERDOLL'"))
 		{
-			ps.setInt(1, objectId);
+			ps.setString(1, ItemVariables.VISUAL_ID);
+			ps.setInt(2, objectId);
 			try (ResultSet invdata = ps.executeQuery())
 			{
 				while (invdata.next())
 				{
 					final int slot = invdata.getInt("loc_data");
-					final ItemVariables vars = new ItemVariables(invdata.getInt("object_id"));
 					paperdoll[slot][0] = invdata.getInt("object_id");
 					paperdoll[slot][1] = invdata.getInt("item_id");
 					paperdoll[slot][2] = invdata.getInt("enchant_level");
-					paperdoll[slot][3] = vars.getInt(ItemVariables.VISUAL_ID, 0);
+					paperdoll[slot][3] = invdata.getInt("visual_id");
 					if (paperdoll[slot][3] > 0) // fix for hair appearance conflicting with original model
 					{
 						paperdoll[slot][1] = paperdoll[slot][3];
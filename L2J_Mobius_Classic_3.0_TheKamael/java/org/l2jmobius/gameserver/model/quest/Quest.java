@@ -22,12 +22,10 @@ import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -35,6 +33,8 @@ import java.util.stream.Collectors;
 
 import org.l2jmobius.Config;
 import org.l2jmobius.commons.database.DatabaseFactory;
+import org.l2jmobius.commons.database.DatabaseWriteQueue;
+import org.l2jmobius.commons.database.DatabaseWriteQueue.Batch;
 import org.l2jmobius.commons.util.CommonUtil;
 import org.l2jmobius.commons.util.Rnd;
 import org.l2jmobius.gameserver.cache.HtmCache;
@@ -84,7 +84,7 @@ public class Quest extends AbstractScript implements IIdentifiable
 	public static final Logger LOGGER = Logger.getLogger(Quest.class.getName());
 	
 	/** Map containing lists of timers from the name of the timer. */
-	private final Map<String, List<QuestTimer>> _questTimers = new HashMap<>();
+	private final Map<String, Map<Long, QuestTimer>> _questTimers = new ConcurrentHashMap<>();
 	/** Map containing all the start conditions. */
 	private final Set<QuestCondition> _startCondition = ConcurrentHashMap.newKeySet(1);
 	
@@ -97,8 +97,8 @@ public class Quest extends AbstractScript implements IIdentifiable
 	
 	private static final String DEFAULT_NO_QUEST_MSG = "<html><body>You are either not on a quest that involves this NPC, or you don't meet this NPC's minimum quest requirements.</body></html>";
 	
-	private static final String QUEST_DELETE_FROM_CHAR_QUERY = "DELETE FROM character_quests WHERE charId=? AND name=?";
-	private static final String QUEST_DELETE_FROM_CHAR_QUERY_NON_REPEATABLE_QUERY = "DELETE FROM character_quests WHERE charId=? AND name=? AND var!=?";
+	private static final String QUEST_VAR_STORE_QUERY = "INSERT INTO character_quests (charId,name,var,value) VALUES (?,?,?,?) ON DUPLICATE KEY UPDATE value=?";
+	private static final String QUEST_VAR_DELETE_QUERY = "DELETE FROM character_quests WHERE charId=? AND name=? AND var=?";
 	
 	private static final int RESET_HOUR = 6;
 	private static final int RESET_MINUTES = 30;
@@ -258,9 +258,9 @@ public class Quest extends AbstractScript implements IIdentifiable
 	
 	/**
 	 * Gets the quest timers.
-	 * @return the quest timers
+	 * @return the quest timers by name, each keyed by {@link QuestTimer#getKey(Npc, Player)}
 	 */
-	public Map<String, List<QuestTimer>> getQuestTimers()
+	public Map<String, Map<Long, QuestTimer>> getQuestTimers()
 	{
 		return _questTimers;
 	}
@@ -281,19 +281,8 @@ public class Quest extends AbstractScript implements IIdentifiable
 			return;
 		}
 		
-		synchronized (_questTimers)
-		{
-			if (!_questTimers.containsKey(name))
-			{
-				_questTimers.put(name, new CopyOnWriteArrayList<>());
-			}
-			
-			// If there exists a timer with this name, allow the timer only if the [npc, player] set is unique nulls act as wildcards.
-			if (getQuestTimer(name, npc, player) == null)
-			{
-				_questTimers.get(name).add(new QuestTimer(this, name, time, npc, player, repeating));
-			}
-		}
+		// If there exists a timer with this name, allow the timer only if the [npc, player] set is unique.
+		_questTimers.computeIfAbsent(name, k -> new ConcurrentHashMap<>()).computeIfAbsent(QuestTimer.getKey(npc, player), k -> new QuestTimer(this, name, time, npc, player, repeating));
 	}
 	
 	/**
@@ -310,21 +299,14 @@ public class Quest extends AbstractScript implements IIdentifiable
 			return null;
 		}
 		
-		final List<QuestTimer> timers = _questTimers.get(name);
-		if ((timers == null) || timers.isEmpty())
+		final Map<Long, QuestTimer> timers = _questTimers.get(name);
+		if (timers == null)
 		{
 			return null;
 		}
 		
-		for (QuestTimer timer : timers)
-		{
-			if ((timer != null) && timer.equals(this, name, npc, player))
-			{
-				return timer;
-			}
-		}
-		
-		return null;
+		final QuestTimer timer = timers.get(QuestTimer.getKey(npc, player));
+		return (timer != null) && timer.equals(this, name, npc, player) ? timer : null;
 	}
 	
 	/**
@@ -338,18 +320,15 @@ public class Quest extends AbstractScript implements IIdentifiable
 			return;
 		}
 		
-		final List<QuestTimer> timers = _questTimers.get(name);
+		final Map<Long, QuestTimer> timers = _questTimers.get(name);
 		if ((timers == null) || timers.isEmpty())
 		{
 			return;
 		}
 		
-		for (QuestTimer timer : timers)
+		for (QuestTimer timer : timers.values())
 		{
-			if (timer != null)
-			{
-				timer.cancel();
-			}
+			timer.cancel();
 		}
 		
 		timers.clear();
@@ -363,23 +342,10 @@ public class Quest extends AbstractScript implements IIdentifiable
 	 */
 	public void cancelQuestTimer(String name, Npc npc, Player player)
 	{
-		if (name == null)
+		final QuestTimer timer = getQuestTimer(name, npc, player);
+		if (timer != null)
 		{
-			return;
-		}
-		
-		final List<QuestTimer> timers = _questTimers.get(name);
-		if ((timers == null) || timers.isEmpty())
-		{
-			return;
-		}
-		
-		for (QuestTimer timer : timers)
-		{
-			if ((timer != null) && timer.equals(this, name, npc, player))
-			{
-				timer.cancel();
-			}
+			timer.cancel();
 		}
 	}
 	
@@ -395,10 +361,10 @@ public class Quest extends AbstractScript implements IIdentifiable
 			return;
 		}
 		
-		final List<QuestTimer> timers = _questTimers.get(timer.toString());
+		final Map<Long, QuestTimer> timers = _questTimers.get(timer.toString());
 		if (timers != null)
 		{
-			timers.remove(timer);
+			timers.remove(QuestTimer.getKey(timer.getNpc(), timer.getPlayer()), timer);
 		}
 	}
 	
@@ -1613,71 +1579,24 @@ public class Quest extends AbstractScript implements IIdentifiable
 	}
 	
 	/**
-	 * Insert in the database the quest for the player.
-	 * @param qs the {@link QuestState} object whose variable to insert
+	 * Queue the insert or update of a variable of player's quest in the database.
+	 * @param qs the {@link QuestState} object whose variable to store
 	 * @param var the name of the variable
 	 * @param value the value of the variable
 	 */
 	public static void createQuestVarInDb(QuestState qs, String var, String value)
 	{
-		try (Connection con = DatabaseFactory.getConnection();
-			PreparedStatement statement = con.prepareStatement("INSERT INTO character_quests (charId,name,var,value) VALUES (?,?,?,?) ON DUPLICATE KEY UPDATE value=?"))
-		{
-			statement.setInt(1, qs.getPlayer().getObjectId());
-			statement.setString(2, qs.getQuestName());
-			statement.setString(3, var);
-			statement.setString(4, value);
-			statement.setString(5, value);
-			statement.executeUpdate();
-		}
-		catch (Exception e)
-		{
-			LOGGER.log(Level.WARNING, "could not insert char quest:", e);
-		}
-	}
-	
-	/**
-	 * Update the value of the variable "var" for the specified quest in database
-	 * @param qs the {@link QuestState} object whose variable to update
-	 * @param var the name of the variable
-	 * @param value the value of the variable
-	 */
-	public static void updateQuestVarInDb(QuestState qs, String var, String value)
-	{
-		try (Connection con = DatabaseFactory.getConnection();
-			PreparedStatement statement = con.prepareStatement("UPDATE character_quests SET value=? WHERE charId=? AND name=? AND var = ?"))
-		{
-			statement.setString(1, value);
-			statement.setInt(2, qs.getPlayer().getObjectId());
-			statement.setString(3, qs.getQuestName());
-			statement.setString(4, var);
-			statement.executeUpdate();
-		}
-		catch (Exception e)
-		{
-			LOGGER.log(Level.WARNING, "could not update char quest:", e);
-		}
+		DatabaseWriteQueue.getInstance().queue("character_quests", qs.getPlayer().getObjectId(), List.of(qs.getQuestName(), var), new Batch().add(QUEST_VAR_STORE_QUERY, qs.getPlayer().getObjectId(), qs.getQuestName(), var, value, value));
 	}
 	
 	/**
-	 * Delete a variable of player's quest from the database.
+	 * Queue the delete of a variable of player's quest from the database.
 	 * @param qs the {@link QuestState} object whose variable to delete
 	 * @param var the name of the variable to delete
 	 */
 	public static void deleteQuestVarInDb(QuestState qs, String var)
 	{
-		try (Connection con = DatabaseFactory.getConnection();
-			PreparedStatement statement = con.prepareStatement("DELETE FROM character_quests WHERE charId=? AND name=? AND var=?"))
-		{
-			statement.setInt(1, qs.getPlayer().getObjectId());
-			statement.setString(2, qs.getQuestName());
-			statement.setString(3, var);
-			statement.executeUpdate();
-		}
-		catch (Exception e)
-		{
-			LOGGER.log(Level.WARNING, "Unable to delete char quest!", e);
-		}
+		DatabaseWriteQueue.getInstance().queue("character_quests", qs.getPlayer().getObjectId(), List.of(qs.getQuestName(), var), new Batch().add(QUEST_VAR_DELETE_QUERY, qs.getPlayer().getObjectId(), qs.getQuestName(), var));
 	}
 	
 	/**
@@ -1687,39 +1606,8 @@ public class Quest extends AbstractScript implements IIdentifiable
 	 */
 	public static void deleteQuestInDb(QuestState qs, boolean repeatable)
 	{
-		try (Connection con = DatabaseFactory.getConnection();
-			PreparedStatement ps = con.prepareStatement(repeatable ? QUEST_DELETE_FROM_CHAR_QUERY : QUEST_DELETE_FROM_CHAR_QUERY_NON_REPEATABLE_QUERY))
-		{
-			ps.setInt(1, qs.getPlayer().getObjectId());
-			ps.setString(2, qs.getQuestName());
-			if (!repeatable)
-			{
-				ps.setString(3, "<state>");
-			}
-			ps.executeUpdate();
-		}
-		catch (Exception e)
-		{
-			LOGGER.log(Level.WARNING, "could not delete char quest:", e);
-		}
-	}
-	
-	/**
-	 * Create a database record for the specified quest state.
-	 * @param qs the {@link QuestState} object whose data to write in the database
-	 */
-	public static void createQuestInDb(QuestState qs)
-	{
-		createQuestVarInDb(qs, "<state>", State.getStateName(qs.getState()));
-	}
-	
-	/**
-	 * Update a quest state record of the specified quest state in database.
-	 * @param qs the {@link QuestState} object whose data to update in the database
-	 */
-	public static void updateQuestInDb(QuestState qs)
-	{
-		updateQuestVarInDb(qs, "<state>", State.getStateName(qs.getState()));
+		qs.deleteVariables(repeatable);
+		qs.storeMe();
 	}
 	
 	/**
@@ -2780,9 +2668,9 @@ public class Quest extends AbstractScript implements IIdentifiable
 		
 		// Cancel all pending timers before reloading.
 		// If timers ought to be restarted, the quest can take care of it with its code (example: save global data indicating what timer must be restarted).
-		for (List<QuestTimer> timers : _questTimers.values())
+		for (Map<Long, QuestTimer> timers : _questTimers.values())
 		{
-			for (QuestTimer timer : timers)
+			for (QuestTimer timer : timers.values())
 			{
 				timer.cancel();
 			}
@@ -19,9 +19,11 @@ package org.l2jmobius.gameserver.model.quest;
 import java.util.Calendar;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.l2jmobius.Config;
 import org.l2jmobius.gameserver.enums.QuestSound;
 import org.l2jmobius.gameserver.enums.QuestType;
 import org.l2jmobius.gameserver.instancemanager.QuestManager;
@@ -31,6 +33,7 @@ import org.l2jmobius.gameserver.model.events.EventType;
 import org.l2jmobius.gameserver.model.events.impl.creature.player.OnPlayerQuestComplete;
 import org.l2jmobius.gameserver.network.serverpackets.ExShowQuestMark;
 import org.l2jmobius.gameserver.network.serverpackets.QuestList;
+import org.l2jmobius.gameserver.taskmanager.QuestStateSaveTaskManager;
 
 /**
  * Quest state class.
@@ -45,6 +48,7 @@ public class QuestState
 	private static final String RESTART_VAR = "restartTime";
 	private static final String MEMO_VAR = "memoState";
 	private static final String MEMO_EX_VAR = "memoStateEx";
+	private static final String STATE_VAR = "<state>";
 	
 	/** The name of the quest of this QuestState */
 	private final String _questName;
@@ -64,6 +68,9 @@ public class QuestState
 	/** A map of key->value pairs containing the quest state variables and their values */
 	private Map<String, String> _vars;
 	
+	/** The variables changed since they were last stored, with a {@code null} value for removed variables */
+	private Map<String, String> _changedVars;
+	
 	/**
 	 * boolean flag letting QuestStateManager know to exit quest when cleaning up
 	 */
@@ -171,18 +178,10 @@ public class QuestState
 			return;
 		}
 		
-		final boolean newQuest = isCreated();
 		_state = state;
 		if (saveInDb)
 		{
-			if (newQuest)
-			{
-				Quest.createQuestInDb(this);
-			}
-			else
-			{
-				Quest.updateQuestInDb(this);
-			}
+			setChanged(STATE_VAR, State.getStateName(state));
 		}
 		
 		_player.sendPacket(new QuestList(_player));
@@ -242,9 +241,7 @@ public class QuestState
 	 * <li>Initialize class variable "vars" if is null.</li>
 	 * <li>Initialize parameter "value" if is null</li>
 	 * <li>Add/Update couple (var,value) in class variable Map "vars"</li>
-	 * <li>If the key represented by "var" exists in Map "vars", the couple (var,value) is updated in the database.<br>
-	 * The key is known as existing if the preceding value of the key (given as result of function put()) is not null.<br>
-	 * If the key doesn't exist, the couple is added/created in the database</li>
+	 * <li>Mark the couple (var,value) as changed, it is added/updated in the database with the next stored changes of this quest state</li>
 	 * <ul>
 	 * @param variable String indicating the name of the variable for quest
 	 * @param value String indicating the value of the variable for quest
@@ -268,14 +265,7 @@ public class QuestState
 		}
 		
 		final String old = _vars.put(variable, newValue);
-		if (old != null)
-		{
-			Quest.updateQuestVarInDb(this, variable, newValue);
-		}
-		else
-		{
-			Quest.createQuestVarInDb(this, variable, newValue);
-		}
+		setChanged(variable, newValue);
 		
 		if (COND_VAR.equals(variable))
 		{
@@ -427,8 +417,76 @@ public class QuestState
 				_cond = 0;
 			}
 			
-			Quest.deleteQuestVarInDb(this, variable);
+			setChanged(variable, null);
+		}
+	}
+	
+	/**
+	 * Marks a variable as changed, so it is stored with the next changes of this quest state.<br>
+	 * Changes are stored once they have been kept for the store interval, or at once when the quest state has too many of them.
+	 * @param variable the name of the variable
+	 * @param value the new value of the variable, {@code null} if it was removed
+	 */
+	private synchronized void setChanged(String variable, String value)
+	{
+		if (_changedVars == null)
+		{
+			_changedVars = new HashMap<>();
+		}
+		_changedVars.put(variable, value);
+		
+		if ((Config.QUEST_STATE_STORE_INTERVAL <= 0) || (_changedVars.size() >= Config.QUEST_STATE_MAX_CHANGED_VARIABLES))
+		{
+			storeMe();
+		}
+		else if (_changedVars.size() == 1)
+		{
+			QuestStateSaveTaskManager.getInstance().add(this);
+		}
+	}
+	
+	/**
+	 * Marks all variables of this quest as removed.
+	 * @param repeatable if {@code false}, the state variable will be preserved, otherwise it will be removed as well
+	 */
+	synchronized void deleteVariables(boolean repeatable)
+	{
+		if (_vars != null)
+		{
+			for (String variable : _vars.keySet())
+			{
+				setChanged(variable, null);
+			}
+		}
+		
+		if (repeatable)
+		{
+			setChanged(STATE_VAR, null);
+		}
+	}
+	
+	/**
+	 * Queues the changed variables of this quest state to be written in the database.
+	 */
+	public synchronized void storeMe()
+	{
+		if ((_changedVars == null) || _changedVars.isEmpty())
+		{
+			return;
+		}
+		
+		for (Entry<String, String> entry : _changedVars.entrySet())
+		{
+			if (entry.getValue() != null)
+			{
+				Quest.createQuestVarInDb(this, entry.getKey(), entry.getValue());
+			}
+			else
+			{
+				Quest.deleteQuestVarInDb(this, entry.getKey());
+			}
 		}
+		_changedVars = null;
 	}
 	
 	/**
@@ -715,6 +773,7 @@ public class QuestState
 			{
 				exitQuest(false);
 				setRestartTime();
+				storeMe();
 				break;
 			}
 			// case ONE_TIME:
@@ -781,7 +840,7 @@ public class QuestState
 		// Clean registered quest items
 		getQuest().removeRegisteredQuestItems(_player);
 		
-		Quest.deleteQuestInDb(this, repeatable);
+		deleteVariables(repeatable);
 		if (repeatable)
 		{
 			_player.delQuestState(_questName);
@@ -792,6 +851,7 @@ public class QuestState
 			setState(State.COMPLETED);
 		}
 		_vars = null;
+		storeMe();
 	}
 	
 	/**
@@ -16,11 +16,9 @@
  */
 package org.l2jmobius.gameserver.model.quest;
 
-import java.util.concurrent.ScheduledFuture;
-
-import org.l2jmobius.commons.threads.ThreadPool;
 import org.l2jmobius.gameserver.model.actor.Npc;
 import org.l2jmobius.gameserver.model.actor.Player;
+import org.l2jmobius.gameserver.taskmanager.QuestTimerTaskManager;
 
 public class QuestTimer
 {
@@ -29,7 +27,9 @@ public class QuestTimer
 	protected final Npc _npc;
 	protected final Player _player;
 	protected final boolean _isRepeating;
-	protected ScheduledFuture<?> _scheduler;
+	protected final long _time;
+	protected long _nextTime;
+	protected volatile boolean _isActive = true;
 	
 	public QuestTimer(Quest quest, String name, long time, Npc npc, Player player, boolean repeating)
 	{
@@ -38,15 +38,10 @@ public class QuestTimer
 		_npc = npc;
 		_player = player;
 		_isRepeating = repeating;
+		_time = time;
+		_nextTime = System.currentTimeMillis() + time;
 		
-		if (repeating)
-		{
-			_scheduler = ThreadPool.scheduleAtFixedRate(new ScheduleTimerTask(), time, time); // Prepare auto end task
-		}
-		else
-		{
-			_scheduler = ThreadPool.schedule(new ScheduleTimerTask(), time); // Prepare auto end task
-		}
+		QuestTimerTaskManager.getInstance().add(this, _nextTime); // Prepare auto end task
 		
 		if (npc != null)
 		{
@@ -59,6 +54,17 @@ public class QuestTimer
 		}
 	}
 	
+	/**
+	 * Gets the key of a timer in the timers of its quest that share the same name.
+	 * @param npc the NPC attached to the timer (can be null)
+	 * @param player the player attached to the timer (can be null)
+	 * @return the object ids of the NPC and the player packed in a long, 0 standing for none
+	 */
+	public static long getKey(Npc npc, Player player)
+	{
+		return ((npc == null ? 0L : npc.getObjectId()) << 32) | (player == null ? 0L : player.getObjectId() & 0xFFFFFFFFL);
+	}
+	
 	public void cancel()
 	{
 		cancelTask();
@@ -76,12 +82,40 @@ public class QuestTimer
 	
 	public void cancelTask()
 	{
-		if ((_scheduler != null) && !_scheduler.isDone() && !_scheduler.isCancelled())
+		_isActive = false;
+		QuestTimerTaskManager.getInstance().remove(this);
+		_quest.removeQuestTimer(this);
+	}
+	
+	/**
+	 * Runs the quest event of this timer, called by {@link QuestTimerTaskManager} when the timer is due.<br>
+	 * A repeating timer is scheduled again once the event is done, keeping its fixed rate.
+	 */
+	public void run()
+	{
+		if (!_isActive)
 		{
-			_scheduler.cancel(false);
-			_scheduler = null;
+			return;
+		}
+		
+		if (!_isRepeating)
+		{
+			cancel();
+		}
+		
+		_quest.notifyEvent(_name, _npc, _player);
+		
+		if (_isRepeating && _isActive)
+		{
+			_nextTime = Math.max(_nextTime + _time, System.currentTimeMillis());
+			QuestTimerTaskManager.getInstance().add(this, _nextTime);
+			
+			// Cancelled while it was scheduled again.
+			if (!_isActive)
+			{
+				QuestTimerTaskManager.getInstance().remove(this);
+			}
 		}
-		_quest.removeQuestTimer(this);
 	}
 	
 	/**
@@ -109,7 +143,7 @@ public class QuestTimer
 	
 	public boolean isActive()
 	{
-		return (_scheduler != null) && !_scheduler.isCancelled() && !_scheduler.isDone();
+		return _isActive;
 	}
 	
 	public boolean isRepeating()
@@ -137,23 +171,4 @@ public class QuestTimer
 	{
 		return _name;
 	}
-	
-	public class ScheduleTimerTask implements Runnable
-	{
-		@Override
-		public void run()
-		{
-			if (_scheduler == null)
-			{
-				return;
-			}
-			
-			if (!_isRepeating)
-			{
-				cancel();
-			}
-			
-			_quest.notifyEvent(_name, _npc, _player);
-		}
-	}
 }
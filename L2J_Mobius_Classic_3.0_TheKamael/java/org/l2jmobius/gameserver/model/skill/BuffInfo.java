@@ -20,22 +20,20 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
 
-import org.l2jmobius.Config;
-import org.l2jmobius.commons.threads.ThreadPool;
 import org.l2jmobius.gameserver.enums.SkillFinishType;
 import org.l2jmobius.gameserver.model.EffectList;
 import org.l2jmobius.gameserver.model.actor.Creature;
 import org.l2jmobius.gameserver.model.actor.Summon;
+import org.l2jmobius.gameserver.model.actor.stat.PumpedStats;
 import org.l2jmobius.gameserver.model.effects.AbstractEffect;
-import org.l2jmobius.gameserver.model.effects.EffectTaskInfo;
 import org.l2jmobius.gameserver.model.effects.EffectTickTask;
 import org.l2jmobius.gameserver.model.item.instance.Item;
 import org.l2jmobius.gameserver.model.options.Options;
 import org.l2jmobius.gameserver.model.stats.Formulas;
 import org.l2jmobius.gameserver.network.SystemMessageId;
 import org.l2jmobius.gameserver.network.serverpackets.SystemMessage;
+import org.l2jmobius.gameserver.taskmanager.EffectTickTaskManager;
 import org.l2jmobius.gameserver.taskmanager.GameTimeTaskManager;
 
 /**
@@ -55,7 +53,7 @@ public class BuffInfo
 	private final List<AbstractEffect> _effects = new ArrayList<>(1);
 	// Tasks
 	/** Effect tasks for ticks. */
-	private Map<AbstractEffect, EffectTaskInfo> _tasks;
+	private Map<AbstractEffect, EffectTickTask> _tasks;
 	// Time and ticks
 	/** Abnormal time. */
 	private int _abnormalTime;
@@ -69,6 +67,8 @@ public class BuffInfo
 	private final boolean _hideStartMessage;
 	private final Item _item;
 	private final Options _option;
+	/** Values pumped on last stat recalculation. */
+	private PumpedStats _pumpedStats;
 	
 	/**
 	 * Buff Info constructor.
@@ -101,6 +101,19 @@ public class BuffInfo
 		return _effects;
 	}
 	
+	/**
+	 * Gets the values pumped by the effects of this buff info, used only by the effected creature stats.
+	 * @return the pumped stats
+	 */
+	public PumpedStats getPumpedStats()
+	{
+		if (_pumpedStats == null)
+		{
+			_pumpedStats = new PumpedStats();
+		}
+		return _pumpedStats;
+	}
+	
 	/**
 	 * Adds an effect to this buff info.
 	 * @param effect the effect to add
@@ -114,9 +127,9 @@ public class BuffInfo
 	 * Adds an effect task to this buff info.<br>
 	 * Uses double-checked locking to initialize the map if it's necessary.
 	 * @param effect the effect that owns the task
-	 * @param effectTaskInfo the task info
+	 * @param effectTask the task
 	 */
-	private void addTask(AbstractEffect effect, EffectTaskInfo effectTaskInfo)
+	private void addTask(AbstractEffect effect, EffectTickTask effectTask)
 	{
 		if (_tasks == null)
 		{
@@ -128,7 +141,7 @@ public class BuffInfo
 				}
 			}
 		}
-		_tasks.put(effect, effectTaskInfo);
+		_tasks.put(effect, effectTask);
 	}
 	
 	/**
@@ -136,7 +149,7 @@ public class BuffInfo
 	 * @param effect the effect
 	 * @return the task
 	 */
-	private EffectTaskInfo getEffectTask(AbstractEffect effect)
+	private EffectTickTask getEffectTask(AbstractEffect effect)
 	{
 		return (_tasks == null) ? null : _tasks.get(effect);
 	}
@@ -343,9 +356,9 @@ public class BuffInfo
 			{
 				// The task for the effect ticks.
 				final EffectTickTask effectTask = new EffectTickTask(this, effect);
-				final ScheduledFuture<?> scheduledFuture = ThreadPool.scheduleAtFixedRate(effectTask, effect.getTicks() * Config.EFFECT_TICK_RATIO, effect.getTicks() * Config.EFFECT_TICK_RATIO);
 				// Adds the task for ticking.
-				addTask(effect, new EffectTaskInfo(effectTask, scheduledFuture));
+				addTask(effect, effectTask);
+				EffectTickTaskManager.getInstance().add(effectTask, effect.getTicks());
 			}
 		}
 	}
@@ -367,14 +380,10 @@ public class BuffInfo
 		
 		if (!continueForever && _skill.isToggle())
 		{
-			final EffectTaskInfo task = getEffectTask(effect);
+			final EffectTickTask task = getEffectTask(effect);
 			if (task != null)
 			{
-				final ScheduledFuture<?> schedule = task.getScheduledFuture();
-				if ((schedule != null) && !schedule.isCancelled() && !schedule.isDone())
-				{
-					schedule.cancel(true); // Don't allow to finish current run.
-				}
+				EffectTickTaskManager.getInstance().remove(task);
 				_effected.getEffectList().stopSkillEffects(SkillFinishType.REMOVED, _skill); // Remove the buff from the effect list.
 			}
 		}
@@ -385,13 +394,9 @@ public class BuffInfo
 		// Cancels the ticking task.
 		if (_tasks != null)
 		{
-			for (EffectTaskInfo effectTask : _tasks.values())
+			for (EffectTickTask effectTask : _tasks.values())
 			{
-				final ScheduledFuture<?> schedule = effectTask.getScheduledFuture();
-				if ((schedule != null) && !schedule.isCancelled() && !schedule.isDone())
-				{
-					schedule.cancel(true); // Don't allow to finish current run.
-				}
+				EffectTickTaskManager.getInstance().remove(effectTask);
 			}
 		}
 		
@@ -20,6 +20,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -52,6 +53,24 @@ public class ItemVariables extends AbstractVariables
 		restoreMe();
 	}
 	
+	/**
+	 * Creates the variables of an item from values already loaded from the database.
+	 * @param objectId the item object id
+	 * @param values the stored variables of the item, may be {@code null} when it has none
+	 */
+	public ItemVariables(int objectId, Map<String, String> values)
+	{
+		_objectId = objectId;
+		if (values != null)
+		{
+			for (Entry<String, String> entry : values.entrySet())
+			{
+				set(entry.getKey(), entry.getValue(), false);
+			}
+		}
+		compareAndSetChanges(true, false);
+	}
+	
 	public static boolean hasVariables(int objectId)
 	{
 		// Restore previous variables.
@@ -112,6 +112,30 @@ public class PlayerVariables extends AbstractVariables
 		}
 		
 		try (Connection con = DatabaseFactory.getConnection())
+		{
+			return storeMe(con);
+		}
+		catch (SQLException e)
+		{
+			LOGGER.log(Level.WARNING, getClass().getSimpleName() + ": Couldn't update variables for: " + _objectId, e);
+			return false;
+		}
+	}
+	
+	/**
+	 * Stores the variables on the given connection, so they can be written in the same transaction as the other character data.
+	 * @param con the connection, committed by the caller
+	 * @return {@code true} if the variables had changes and were stored
+	 */
+	public boolean storeMe(Connection con)
+	{
+		// No changes, nothing to store.
+		if (!hasChanges())
+		{
+			return false;
+		}
+		
+		try
 		{
 			// Clear previous entries.
 			try (PreparedStatement st = con.prepareStatement(DELETE_QUERY))
@@ -0,0 +1,99 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.model.zone;
+
+/**
+ * The zones of a zone region that intersect a cell of its grid, in region order.<br>
+ * Zones that entirely contain the cell plane only need a height check, the others need an exact test.<br>
+ * Cells with the same zones share the same instance.
+ */
+public class ZoneCell
+{
+	private final ZoneType[] _zones;
+	private final boolean[] _contained;
+	private final boolean _exact;
+	
+	public ZoneCell(ZoneType[] zones, boolean[] contained)
+	{
+		_zones = zones;
+		_contained = contained;
+		boolean exact = false;
+		for (boolean value : contained)
+		{
+			exact |= !value;
+		}
+		_exact = exact;
+	}
+	
+	/**
+	 * @return the zones intersecting this cell
+	 */
+	public ZoneType[] getZones()
+	{
+		return _zones;
+	}
+	
+	/**
+	 * @param index the index of the zone in this cell
+	 * @param x the x, inside this cell
+	 * @param y the y, inside this cell
+	 * @param z the z
+	 * @return {@code true} if the location is inside the zone
+	 */
+	public boolean isInsideZone(int index, int x, int y, int z)
+	{
+		final ZoneType zone = _zones[index];
+		if (_contained[index])
+		{
+			return (z >= zone.getZone().getLowZ()) && (z <= zone.getZone().getHighZ());
+		}
+		return zone.isInsideZone(x, y, z);
+	}
+	
+	/**
+	 * @param index the index of the zone in this cell
+	 * @return {@code true} if the zone entirely contains the plane of this cell
+	 */
+	public boolean isContained(int index)
+	{
+		return _contained[index];
+	}
+	
+	/**
+	 * @return {@code true} if some zone of this cell needs an exact test
+	 */
+	public boolean isExact()
+	{
+		return _exact;
+	}
+	
+	/**
+	 * @param zone the zone
+	 * @return {@code true} if the zone intersects this cell
+	 */
+	public boolean contains(ZoneType zone)
+	{
+		for (ZoneType cellZone : _zones)
+		{
+			if (cellZone == zone)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+}
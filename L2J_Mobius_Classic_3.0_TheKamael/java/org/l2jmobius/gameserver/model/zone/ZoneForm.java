@@ -33,6 +33,18 @@ public abstract class ZoneForm
 	
 	public abstract boolean intersectsRectangle(int x1, int x2, int y1, int y2);
 	
+	/**
+	 * @param x1 the lowest x of the rectangle
+	 * @param x2 the highest x of the rectangle
+	 * @param y1 the lowest y of the rectangle
+	 * @param y2 the highest y of the rectangle
+	 * @return {@code true} if every point of the rectangle is inside the zone plane, {@code false} if not or if it cannot be told
+	 */
+	public boolean containsRectangle(int x1, int x2, int y1, int y2)
+	{
+		return false;
+	}
+	
 	public abstract double getDistanceToZone(int x, int y);
 	
 	public abstract int getLowZ(); // Support for the ability to extract the z coordinates of zones.
@@ -16,10 +16,16 @@
  */
 package org.l2jmobius.gameserver.model.zone;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.l2jmobius.gameserver.instancemanager.ZoneManager;
 import org.l2jmobius.gameserver.model.actor.Creature;
+import org.l2jmobius.gameserver.model.actor.Player;
 import org.l2jmobius.gameserver.model.skill.Skill;
 import org.l2jmobius.gameserver.model.zone.type.PeaceZone;
 
@@ -28,9 +34,28 @@ import org.l2jmobius.gameserver.model.zone.type.PeaceZone;
  */
 public class ZoneRegion
 {
+	private static final int CELL_SHIFT = 8;
+	private static final int CELLS = 1 << (ZoneManager.SHIFT_BY - CELL_SHIFT);
+	private static final int CELL_MASK = CELLS - 1;
+	private static final byte INTERSECTED = 1;
+	private static final byte CONTAINED = 2;
+	// Zone state bits: 0-39 zones of the cell the creature is inside of, 40-48 level, 49-60 player class id, 62 player mage class.
+	private static final int STATE_ZONES = 40; // Zones of a cell whose height check fits in a zone state.
+	private static final int STATE_LEVEL = 40;
+	private static final int STATE_CLASS_ID = 49;
+	private static final int STATE_MAGE = 62;
+	private static final long NO_STATE = -1;
+	
+	private static final LongAdder REVALIDATIONS = new LongAdder();
+	private static final LongAdder SKIPPED_REVALIDATIONS = new LongAdder();
+	private static final LongAdder REGION_ZONES = new LongAdder();
+	private static final LongAdder ZONE_CHECKS = new LongAdder();
+	private static final LongAdder EXACT_CHECKS = new LongAdder();
+	
 	private final int _regionX;
 	private final int _regionY;
 	private final Map<Integer, ZoneType> _zones = new ConcurrentHashMap<>();
+	private volatile ZoneCell[] _cells;
 	
 	public ZoneRegion(int regionX, int regionY)
 	{
@@ -53,7 +78,129 @@ public class ZoneRegion
 		return _regionY;
 	}
 	
+	/**
+	 * Builds the zone cells of this region from its zones, or removes them if it has no zones.
+	 * @param originX the lowest x of this region
+	 * @param originY the lowest y of this region
+	 */
+	public void buildCells(int originX, int originY)
+	{
+		final ZoneType[] zones = _zones.values().toArray(new ZoneType[0]);
+		if (zones.length == 0)
+		{
+			_cells = null;
+			return;
+		}
+		
+		final byte[][] states = new byte[zones.length][CELLS * CELLS];
+		for (int i = 0; i < zones.length; i++)
+		{
+			classify(zones[i], states[i], originX, originY, 0, 0, CELLS);
+		}
+		
+		// Cells with the same zones share the same zone cell.
+		final Map<List<Integer>, ZoneCell> sharedCells = new HashMap<>();
+		final ZoneCell[] cells = new ZoneCell[CELLS * CELLS];
+		for (int index = 0; index < cells.length; index++)
+		{
+			final List<Integer> key = new ArrayList<>();
+			for (int i = 0; i < zones.length; i++)
+			{
+				if (states[i][index] != 0)
+				{
+					key.add((i << 1) | (states[i][index] == CONTAINED ? 1 : 0));
+				}
+			}
+			
+			ZoneCell cell = sharedCells.get(key);
+			if (cell == null)
+			{
+				final ZoneType[] cellZones = new ZoneType[key.size()];
+				final boolean[] contained = new boolean[key.size()];
+				for (int i = 0; i < cellZones.length; i++)
+				{
+					cellZones[i] = zones[key.get(i) >> 1];
+					contained[i] = (key.get(i) & 1) != 0;
+				}
+				cell = new ZoneCell(cellZones, contained);
+				sharedCells.put(key, cell);
+			}
+			cells[index] = cell;
+		}
+		_cells = cells;
+	}
+	
+	/**
+	 * Marks the cells of a square of cells the zone contains or intersects, splitting the square until it is a single cell or the zone contains or misses it.
+	 * @param zone the zone
+	 * @param states the states of the cells
+	 * @param originX the lowest x of this region
+	 * @param originY the lowest y of this region
+	 * @param cellX the first cell x of the square
+	 * @param cellY the first cell y of the square
+	 * @param size the cells per side of the square
+	 */
+	private static void classify(ZoneType zone, byte[] states, int originX, int originY, int cellX, int cellY, int size)
+	{
+		final int x1 = originX + (cellX << CELL_SHIFT);
+		final int y1 = originY + (cellY << CELL_SHIFT);
+		final int x2 = (x1 + (size << CELL_SHIFT)) - 1;
+		final int y2 = (y1 + (size << CELL_SHIFT)) - 1;
+		
+		// Widen the square so points on its border are not missed.
+		if (!zone.getZone().intersectsRectangle(x1 - 1, x2 + 1, y1 - 1, y2 + 1))
+		{
+			return;
+		}
+		
+		if (((zone.getBlockedZones() == null) || zone.getBlockedZones().isEmpty()) && zone.getZone().containsRectangle(x1, x2, y1, y2))
+		{
+			for (int x = cellX; x < (cellX + size); x++)
+			{
+				for (int y = cellY; y < (cellY + size); y++)
+				{
+					states[(x * CELLS) + y] = CONTAINED;
+				}
+			}
+			return;
+		}
+		
+		if (size == 1)
+		{
+			states[(cellX * CELLS) + cellY] = INTERSECTED;
+			return;
+		}
+		
+		final int half = size >> 1;
+		classify(zone, states, originX, originY, cellX, cellY, half);
+		classify(zone, states, originX, originY, cellX + half, cellY, half);
+		classify(zone, states, originX, originY, cellX, cellY + half, half);
+		classify(zone, states, originX, originY, cellX + half, cellY + half, half);
+	}
+	
+	/**
+	 * @param x the x, inside this region
+	 * @param y the y, inside this region
+	 * @return the zone cell of the location, {@code null} if the cells of this region are not built
+	 */
+	public ZoneCell getCell(int x, int y)
+	{
+		final ZoneCell[] cells = _cells;
+		return cells != null ? cells[(((x >> CELL_SHIFT) & CELL_MASK) * CELLS) + ((y >> CELL_SHIFT) & CELL_MASK)] : null;
+	}
+	
 	public void revalidateZones(Creature creature)
+	{
+		revalidateZones(creature, true);
+	}
+	
+	/**
+	 * Revalidates the zones of the cell the creature is in, and leaves the zones of its previous cell that do not intersect this one.<br>
+	 * When not forced, nothing is done while the creature stays in a cell without exact zone tests, inside the same zone heights and with the same level and class.
+	 * @param creature the creature
+	 * @param force {@code true} to revalidate even if the zone state of the creature did not change
+	 */
+	public void revalidateZones(Creature creature, boolean force)
 	{
 		// do NOT update the world region while the character is still in the process of teleporting
 		// Once the teleport is COMPLETED, revalidation occurs safely, at that time.
@@ -62,10 +209,91 @@ public class ZoneRegion
 			return;
 		}
 		
-		for (ZoneType z : _zones.values())
+		REVALIDATIONS.increment();
+		REGION_ZONES.add(_zones.size());
+		
+		final int x = creature.getX();
+		final int y = creature.getY();
+		final ZoneCell cell = getCell(x, y);
+		if (cell == null)
+		{
+			for (ZoneType z : _zones.values())
+			{
+				z.revalidateInZone(creature);
+			}
+			ZONE_CHECKS.add(_zones.size());
+			EXACT_CHECKS.add(_zones.size());
+			creature.setZoneCell(null, NO_STATE);
+			return;
+		}
+		
+		final int z = creature.getZ();
+		final long state = getZoneState(creature, cell, x, y, z);
+		final ZoneCell oldCell = creature.getZoneCell();
+		if (!force && (cell == oldCell) && (state != NO_STATE) && (state == creature.getZoneState()))
 		{
-			z.revalidateInZone(creature);
+			SKIPPED_REVALIDATIONS.increment();
+			return;
 		}
+		
+		if (oldCell != cell)
+		{
+			for (ZoneType zone : oldCell != null ? List.of(oldCell.getZones()) : _zones.values())
+			{
+				if (!cell.contains(zone))
+				{
+					zone.removeCharacter(creature);
+				}
+			}
+		}
+		
+		final ZoneType[] zones = cell.getZones();
+		for (int i = 0; i < zones.length; i++)
+		{
+			zones[i].revalidateInZone(creature, cell.isInsideZone(i, x, y, z));
+			if (!cell.isContained(i))
+			{
+				EXACT_CHECKS.increment();
+			}
+		}
+		ZONE_CHECKS.add(zones.length);
+		creature.setZoneCell(cell, state);
+	}
+	
+	/**
+	 * @param creature the creature
+	 * @param cell the zone cell of the creature
+	 * @param x the x of the creature
+	 * @param y the y of the creature
+	 * @param z the z of the creature
+	 * @return the zones of the cell the creature is inside of and what decides if zones affect it, {@link #NO_STATE} if the cell needs exact tests or the creature is in an instance
+	 */
+	private static long getZoneState(Creature creature, ZoneCell cell, int x, int y, int z)
+	{
+		final ZoneType[] zones = cell.getZones();
+		if (cell.isExact() || (zones.length > STATE_ZONES) || (creature.getInstanceId() != 0))
+		{
+			return NO_STATE;
+		}
+		
+		long state = (long) (creature.getLevel() & 0x1FF) << STATE_LEVEL;
+		if (creature.isPlayer())
+		{
+			final Player player = (Player) creature;
+			state |= (long) (player.getClassId().getId() & 0xFFF) << STATE_CLASS_ID;
+			if (player.isMageClass())
+			{
+				state |= 1L << STATE_MAGE;
+			}
+		}
+		for (int i = 0; i < zones.length; i++)
+		{
+			if (cell.isInsideZone(i, x, y, z))
+			{
+				state |= 1L << i;
+			}
+		}
+		return state;
 	}
 	
 	public void removeFromZones(Creature creature)
@@ -74,6 +302,7 @@ public class ZoneRegion
 		{
 			z.removeCharacter(creature);
 		}
+		creature.setZoneCell(null, NO_STATE);
 	}
 	
 	public boolean checkEffectRangeInsidePeaceZone(Skill skill, int x, int y, int z)
@@ -137,4 +366,19 @@ public class ZoneRegion
 			}
 		}
 	}
+	
+	public static String[] getStats()
+	{
+		final long revalidations = Math.max(1, REVALIDATIONS.sum());
+		return new String[]
+		{
+			"Zone revalidation:",
+			" |- Revalidations: ......... " + REVALIDATIONS.sum(),
+			" |- Skipped: ............... " + SKIPPED_REVALIDATIONS.sum(),
+			" |- RegionZonesPerMove: .... " + String.format("%.2f", (double) REGION_ZONES.sum() / revalidations),
+			" |- ZoneChecksPerMove: ..... " + String.format("%.2f", (double) ZONE_CHECKS.sum() / revalidations),
+			" |- ExactChecksPerMove: .... " + String.format("%.2f", (double) EXACT_CHECKS.sum() / revalidations),
+			" | -------"
+		};
+	}
 }
@@ -59,6 +59,12 @@ public class ZoneCuboid extends ZoneForm
 		return _r.intersects(Math.min(ax1, ax2), Math.min(ay1, ay2), Math.abs(ax2 - ax1), Math.abs(ay2 - ay1));
 	}
 	
+	@Override
+	public boolean containsRectangle(int x1, int x2, int y1, int y2)
+	{
+		return (x1 >= _r.x) && (x2 < (_r.x + _r.width)) && (y1 >= _r.y) && (y2 < (_r.y + _r.height));
+	}
+	
 	@Override
 	public double getDistanceToZone(int x, int y)
 	{
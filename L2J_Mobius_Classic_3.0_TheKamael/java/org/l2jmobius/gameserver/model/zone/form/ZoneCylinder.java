@@ -105,6 +105,18 @@ public class ZoneCylinder extends ZoneForm
 		return false;
 	}
 	
+	@Override
+	public boolean containsRectangle(int x1, int x2, int y1, int y2)
+	{
+		// The circle is convex, so it contains the rectangle if it contains its corners.
+		return isInsideCircle(x1, y1) && isInsideCircle(x1, y2) && isInsideCircle(x2, y1) && isInsideCircle(x2, y2);
+	}
+	
+	private boolean isInsideCircle(int x, int y)
+	{
+		return (Math.pow(_x - x, 2) + Math.pow(_y - y, 2)) <= _radS;
+	}
+	
 	@Override
 	public double getDistanceToZone(int x, int y)
 	{
@@ -60,6 +60,12 @@ public class ZoneNPoly extends ZoneForm
 		return _p.intersects(Math.min(ax1, ax2), Math.min(ay1, ay2), Math.abs(ax2 - ax1), Math.abs(ay2 - ay1));
 	}
 	
+	@Override
+	public boolean containsRectangle(int x1, int x2, int y1, int y2)
+	{
+		return _p.contains(x1, y1, (x2 - x1) + 1, (y2 - y1) + 1);
+	}
+	
 	@Override
 	public double getDistanceToZone(int x, int y)
 	{
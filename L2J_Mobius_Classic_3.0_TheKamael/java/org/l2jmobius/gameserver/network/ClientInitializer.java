@@ -32,8 +32,10 @@ import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
  */
 public class ClientInitializer extends ChannelInitializer<SocketChannel>
 {
+	public static final int MAX_PACKET_SIZE = 0x8000 - 2;
+	
 	private static final LengthFieldBasedFrameEncoder LENGTH_ENCODER = new LengthFieldBasedFrameEncoder();
-	private static final PacketEncoder PACKET_ENCODER = new PacketEncoder(0x8000 - 2);
+	private static final PacketEncoder PACKET_ENCODER = new PacketEncoder(MAX_PACKET_SIZE);
 	
 	@Override
 	protected void initChannel(SocketChannel ch)
@@ -43,7 +45,7 @@ public class ClientInitializer extends ChannelInitializer<SocketChannel>
 		ch.pipeline().addLast("length-encoder", LENGTH_ENCODER);
 		ch.pipeline().addLast("crypt-codec", new CryptCodec(client.getCrypt()));
 		// ch.pipeline().addLast(new LoggingHandler(LogLevel.INFO));
-		ch.pipeline().addLast("packet-decoder", new PacketDecoder<>(IncomingPackets.PACKET_ARRAY, client));
+		ch.pipeline().addLast("packet-decoder", new PacketDecoder<>(IncomingPackets.PACKET_ARRAY, client, PacketExecutionManager.getInstance().isEnabled()));
 		ch.pipeline().addLast("packet-encoder", PACKET_ENCODER);
 		ch.pipeline().addLast(client);
 	}
@@ -22,6 +22,9 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -31,6 +34,8 @@ import org.l2jmobius.commons.database.DatabaseFactory;
 import org.l2jmobius.commons.network.ChannelInboundHandler;
 import org.l2jmobius.commons.network.ICrypt;
 import org.l2jmobius.commons.network.IIncomingPacket;
+import org.l2jmobius.commons.network.SharedPacket;
+import org.l2jmobius.commons.network.codecs.StateCheckedPacket;
 import org.l2jmobius.gameserver.LoginServerThread;
 import org.l2jmobius.gameserver.LoginServerThread.SessionKey;
 import org.l2jmobius.gameserver.data.sql.CharNameTable;
@@ -45,6 +50,7 @@ import org.l2jmobius.gameserver.model.World;
 import org.l2jmobius.gameserver.model.actor.Player;
 import org.l2jmobius.gameserver.model.clan.Clan;
 import org.l2jmobius.gameserver.model.holders.ClientHardwareInfoHolder;
+import org.l2jmobius.gameserver.network.clientpackets.ExPacket;
 import org.l2jmobius.gameserver.network.serverpackets.AbnormalStatusUpdate;
 import org.l2jmobius.gameserver.network.serverpackets.AcquireSkillList;
 import org.l2jmobius.gameserver.network.serverpackets.ExAbnormalStatusUpdateFromTarget;
@@ -59,6 +65,7 @@ import org.l2jmobius.gameserver.network.serverpackets.SystemMessage;
 import org.l2jmobius.gameserver.security.SecondaryPasswordAuth;
 import org.l2jmobius.gameserver.util.FloodProtectors;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 
@@ -74,6 +81,9 @@ public class GameClient extends ChannelInboundHandler<GameClient>
 	private final FloodProtectors _floodProtectors = new FloodProtectors(this);
 	private final ReentrantLock _playerLock = new ReentrantLock();
 	private final Crypt _crypt = new Crypt();
+	private final Queue<QueuedPacket> _packetQueue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger _pendingPackets = new AtomicInteger();
+	private volatile boolean _packetsStopped = false;
 	private InetAddress _addr;
 	private Channel _channel;
 	private String _accountName;
@@ -104,8 +114,27 @@ public class GameClient extends ChannelInboundHandler<GameClient>
 	public void channelInactive(ChannelHandlerContext ctx)
 	{
 		LOGGER_ACCOUNTING.finer("Client Disconnected: " + ctx.channel());
+		LoginServerThread.getInstance().removeWaitingClient(this);
 		LoginServerThread.getInstance().sendLogout(getAccountName());
 		
+		// Packets still queued are dropped and the disconnection runs after the packet being executed, if any.
+		_packetsStopped = true;
+		if (PacketExecutionManager.getInstance().isEnabled())
+		{
+			_packetQueue.offer(new QueuedPacket(this::onDisconnection, System.nanoTime()));
+			if (_pendingPackets.getAndIncrement() == 0)
+			{
+				PacketExecutionManager.getInstance().execute(this::runQueuedPackets);
+			}
+		}
+		else
+		{
+			onDisconnection();
+		}
+	}
+	
+	private void onDisconnection()
+	{
 		if ((_player == null) || !_player.isInOfflineMode())
 		{
 			Disconnection.of(this).onDisconnection();
@@ -115,6 +144,66 @@ public class GameClient extends ChannelInboundHandler<GameClient>
 	@Override
 	protected void channelRead0(ChannelHandlerContext ctx, IIncomingPacket<GameClient> packet)
 	{
+		if (_packetsStopped)
+		{
+			return;
+		}
+		
+		final PacketExecutionManager executionManager = PacketExecutionManager.getInstance();
+		
+		// Packets can only run on the network thread when nothing is pending, otherwise the receive order would be lost.
+		if (!executionManager.isEnabled() || (packet.canRunInline() && (_pendingPackets.get() == 0)))
+		{
+			runPacket(packet, 0);
+			return;
+		}
+		
+		if (_pendingPackets.get() >= Config.CLIENT_PACKET_QUEUE_SIZE)
+		{
+			executionManager.onPacketDropped();
+			LOGGER.warning(toString() + ": Packet queue is full, dropped " + getPacketName(packet) + ".");
+			return;
+		}
+		
+		// Only the network thread of this channel adds packets, so a single drain task is started when the queue was empty.
+		_packetQueue.offer(new QueuedPacket(packet, System.nanoTime()));
+		if (_pendingPackets.getAndIncrement() == 0)
+		{
+			executionManager.execute(this::runQueuedPackets);
+		}
+	}
+	
+	private void runQueuedPackets()
+	{
+		QueuedPacket queued;
+		while ((queued = _packetQueue.poll()) != null)
+		{
+			if (queued.getTask() != null)
+			{
+				try
+				{
+					queued.getTask().run();
+				}
+				catch (Exception e)
+				{
+					LOGGER.log(Level.WARNING, "Exception for: " + toString() + " on queued task.", e);
+				}
+			}
+			else if (!_packetsStopped)
+			{
+				runPacket(queued.getPacket(), System.nanoTime() - queued.getQueueTime());
+			}
+			
+			if (_pendingPackets.decrementAndGet() == 0)
+			{
+				return;
+			}
+		}
+	}
+	
+	private void runPacket(IIncomingPacket<GameClient> packet, long waitTime)
+	{
+		final long start = System.nanoTime();
 		try
 		{
 			packet.run(this);
@@ -123,6 +212,24 @@ public class GameClient extends ChannelInboundHandler<GameClient>
 		{
 			LOGGER.log(Level.WARNING, "Exception for: " + toString() + " on packet.run: " + packet.getClass().getSimpleName(), e);
 		}
+		PacketExecutionManager.getInstance().onPacketExecuted(getPacketName(packet), waitTime, System.nanoTime() - start);
+	}
+	
+	private static String getPacketName(IIncomingPacket<GameClient> packet)
+	{
+		if (packet instanceof StateCheckedPacket)
+		{
+			return getPacketName(((StateCheckedPacket<GameClient>) packet).getPacket());
+		}
+		if (packet instanceof ExPacket)
+		{
+			final IIncomingPacket<GameClient> exPacket = ((ExPacket) packet).getExPacket();
+			if (exPacket != null)
+			{
+				return exPacket.getClass().getSimpleName();
+			}
+		}
+		return packet.getClass().getSimpleName();
 	}
 	
 	@Override
@@ -132,6 +239,8 @@ public class GameClient extends ChannelInboundHandler<GameClient>
 	
 	public void closeNow()
 	{
+		// Packets of a closed client never run, even when they were queued before.
+		_packetsStopped = true;
 		if (_channel != null)
 		{
 			_channel.close();
@@ -220,6 +329,16 @@ public class GameClient extends ChannelInboundHandler<GameClient>
 	}
 	
 	public void sendPacket(IClientOutgoingPacket packet)
+	{
+		sendPacket(packet, null);
+	}
+	
+	/**
+	 * Sends a packet that may be part of a broadcast.
+	 * @param packet the packet to send
+	 * @param shared the serialized form shared by all broadcast receivers, or {@code null} to encode the packet for this client only
+	 */
+	public void sendPacket(IClientOutgoingPacket packet, SharedPacket shared)
 	{
 		if (_isDetached || (packet == null))
 		{
@@ -270,7 +389,18 @@ public class GameClient extends ChannelInboundHandler<GameClient>
 		}
 		
 		// Write into the channel.
-		_channel.writeAndFlush(packet);
+		if (shared != null)
+		{
+			final ByteBuf buffer = shared.retainedBuffer();
+			if (buffer != null)
+			{
+				_channel.writeAndFlush(buffer);
+			}
+		}
+		else
+		{
+			_channel.writeAndFlush(packet);
+		}
 		
 		// Run packet implementation.
 		packet.runImpl(_player);
@@ -700,4 +830,40 @@ public class GameClient extends ChannelInboundHandler<GameClient>
 	{
 		_hardwareInfo = hardwareInfo;
 	}
+	
+	private static class QueuedPacket
+	{
+		private final IIncomingPacket<GameClient> _packet;
+		private final Runnable _task;
+		private final long _queueTime;
+		
+		public QueuedPacket(IIncomingPacket<GameClient> packet, long queueTime)
+		{
+			_packet = packet;
+			_task = null;
+			_queueTime = queueTime;
+		}
+		
+		public QueuedPacket(Runnable task, long queueTime)
+		{
+			_packet = null;
+			_task = task;
+			_queueTime = queueTime;
+		}
+		
+		public IIncomingPacket<GameClient> getPacket()
+		{
+			return _packet;
+		}
+		
+		public Runnable getTask()
+		{
+			return _task;
+		}
+		
+		public long getQueueTime()
+		{
+			return _queueTime;
+		}
+	}
 }
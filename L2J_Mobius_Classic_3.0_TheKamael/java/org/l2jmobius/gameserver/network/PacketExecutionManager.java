@@ -0,0 +1,169 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.network;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import org.l2jmobius.Config;
+import org.l2jmobius.commons.threads.RejectedExecutionHandlerImpl;
+import org.l2jmobius.commons.threads.RunnableWrapper;
+
+/**
+ * Runs client packets outside of the network threads, so blocking work (database, file access) does not stall other connections.<br>
+ * Ordering per client is kept by {@link GameClient}, which submits at most one drain task of its own packet queue at a time.
+ */
+public class PacketExecutionManager
+{
+	private static final Logger LOGGER = Logger.getLogger(PacketExecutionManager.class.getName());
+	
+	private static final int STATS_LIMIT = 20;
+	
+	private final ThreadPoolExecutor _executor;
+	private final Map<String, PacketStats> _packetStats = new ConcurrentHashMap<>();
+	private final LongAdder _droppedPackets = new LongAdder();
+	
+	protected PacketExecutionManager()
+	{
+		if (Config.PACKET_EXECUTION_THREAD_POOL_SIZE > 0)
+		{
+			_executor = new ThreadPoolExecutor(Config.PACKET_EXECUTION_THREAD_POOL_SIZE, Config.PACKET_EXECUTION_THREAD_POOL_SIZE, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+			_executor.setRejectedExecutionHandler(new RejectedExecutionHandlerImpl());
+			_executor.prestartAllCoreThreads();
+			LOGGER.info(getClass().getSimpleName() + ": Executing client packets with " + Config.PACKET_EXECUTION_THREAD_POOL_SIZE + " threads.");
+		}
+		else
+		{
+			_executor = null;
+			LOGGER.info(getClass().getSimpleName() + ": Executing client packets on network threads.");
+		}
+	}
+	
+	/**
+	 * @return {@code true} if packets are offloaded from the network threads, {@code false} otherwise.
+	 */
+	public boolean isEnabled()
+	{
+		return _executor != null;
+	}
+	
+	public void execute(Runnable runnable)
+	{
+		_executor.execute(new RunnableWrapper(runnable));
+	}
+	
+	/**
+	 * Records timings of an executed packet.
+	 * @param name the packet name
+	 * @param waitTime the nanoseconds spent in the client queue
+	 * @param runTime the nanoseconds spent running the packet
+	 */
+	public void onPacketExecuted(String name, long waitTime, long runTime)
+	{
+		PacketStats stats = _packetStats.get(name);
+		if (stats == null)
+		{
+			stats = _packetStats.computeIfAbsent(name, PacketStats::new);
+		}
+		stats.add(waitTime, runTime);
+	}
+	
+	public void onPacketDropped()
+	{
+		_droppedPackets.increment();
+	}
+	
+	public String[] getStats()
+	{
+		final List<PacketStats> sorted = new ArrayList<>(_packetStats.values());
+		sorted.sort(Comparator.comparingLong(PacketStats::getTotalRunTime).reversed());
+		
+		final List<String> stats = new ArrayList<>();
+		stats.add("Packet execution:");
+		stats.add(" |- Threads: .......... " + (_executor == null ? "network" : _executor.getPoolSize()));
+		stats.add(" |- ActiveCount: ...... " + (_executor == null ? 0 : _executor.getActiveCount()));
+		stats.add(" |- QueuedTaskCount: .. " + (_executor == null ? 0 : _executor.getQueue().size()));
+		stats.add(" |- DroppedPackets: ... " + _droppedPackets.sum());
+		for (int i = 0; i < Math.min(STATS_LIMIT, sorted.size()); i++)
+		{
+			stats.add(" |- " + sorted.get(i));
+		}
+		stats.add(" | -------");
+		return stats.toArray(new String[stats.size()]);
+	}
+	
+	public void shutdown()
+	{
+		if (_executor != null)
+		{
+			_executor.shutdown();
+		}
+	}
+	
+	private static class PacketStats
+	{
+		private final String _name;
+		private final LongAdder _count = new LongAdder();
+		private final LongAdder _waitTime = new LongAdder();
+		private final LongAdder _runTime = new LongAdder();
+		private final AtomicLong _maxRunTime = new AtomicLong();
+		
+		public PacketStats(String name)
+		{
+			_name = name;
+		}
+		
+		public void add(long waitTime, long runTime)
+		{
+			_count.increment();
+			_waitTime.add(waitTime);
+			_runTime.add(runTime);
+			_maxRunTime.accumulateAndGet(runTime, Math::max);
+		}
+		
+		public long getTotalRunTime()
+		{
+			return _runTime.sum();
+		}
+		
+		@Override
+		public String toString()
+		{
+			final long count = Math.max(1, _count.sum());
+			return _name + ": count " + _count.sum() + ", avg wait " + ((_waitTime.sum() / count) / 1000) + "us, avg run " + ((_runTime.sum() / count) / 1000) + "us, max run " + (_maxRunTime.get() / 1000) + "us";
+		}
+	}
+	
+	public static PacketExecutionManager getInstance()
+	{
+		return SingletonHolder.INSTANCE;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final PacketExecutionManager INSTANCE = new PacketExecutionManager();
+	}
+}
@@ -21,6 +21,7 @@ import java.util.logging.Logger;
 import org.l2jmobius.Config;
 import org.l2jmobius.commons.network.PacketReader;
 import org.l2jmobius.gameserver.data.sql.CharNameTable;
+import org.l2jmobius.gameserver.data.sql.OfflineTraderTable;
 import org.l2jmobius.gameserver.data.xml.SecondaryAuthData;
 import org.l2jmobius.gameserver.instancemanager.AntiFeedManager;
 import org.l2jmobius.gameserver.instancemanager.PunishmentManager;
@@ -108,6 +109,7 @@ public class CharacterSelect implements IClientIncomingPacket
 					{
 						Disconnection.of(player).storeMe().deleteMe();
 					}
+					OfflineTraderTable.getInstance().removeOfflineTrader(info.getObjectId());
 					
 					// Banned?
 					if (PunishmentManager.getInstance().hasPunishment(info.getObjectId(), PunishmentAffect.CHARACTER, PunishmentType.BAN) //
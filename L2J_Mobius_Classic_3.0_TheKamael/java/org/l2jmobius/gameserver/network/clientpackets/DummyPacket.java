@@ -34,4 +34,10 @@ public class DummyPacket implements IClientIncomingPacket
 	public void run(GameClient client)
 	{
 	}
+	
+	@Override
+	public boolean canRunInline()
+	{
+		return true;
+	}
 }
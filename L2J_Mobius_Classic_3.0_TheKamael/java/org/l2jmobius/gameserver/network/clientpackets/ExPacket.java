@@ -61,4 +61,15 @@ public class ExPacket implements IClientIncomingPacket
 		}
 		_exPacket.run(client);
 	}
+	
+	@Override
+	public boolean canRunInline()
+	{
+		return _exPacket.canRunInline();
+	}
+	
+	public IIncomingPacket<GameClient> getExPacket()
+	{
+		return _exPacket;
+	}
 }
@@ -61,4 +61,10 @@ public class ProtocolVersion implements IClientIncomingPacket
 			client.setProtocolOk(true);
 		}
 	}
+	
+	@Override
+	public boolean canRunInline()
+	{
+		return true;
+	}
 }
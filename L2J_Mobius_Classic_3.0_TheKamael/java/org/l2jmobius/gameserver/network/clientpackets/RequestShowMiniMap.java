@@ -44,4 +44,10 @@ public class RequestShowMiniMap implements IClientIncomingPacket
 		
 		player.sendPacket(new ShowMiniMap(0));
 	}
+	
+	@Override
+	public boolean canRunInline()
+	{
+		return true;
+	}
 }
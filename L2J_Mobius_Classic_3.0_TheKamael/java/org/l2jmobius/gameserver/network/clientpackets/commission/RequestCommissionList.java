@@ -16,14 +16,14 @@
  */
 package org.l2jmobius.gameserver.network.clientpackets.commission;
 
-import java.util.function.Predicate;
+import java.util.Collections;
+import java.util.Set;
 
 import org.l2jmobius.commons.network.PacketReader;
 import org.l2jmobius.gameserver.instancemanager.ItemCommissionManager;
 import org.l2jmobius.gameserver.model.actor.Player;
 import org.l2jmobius.gameserver.model.commission.CommissionItemType;
 import org.l2jmobius.gameserver.model.commission.CommissionTreeType;
-import org.l2jmobius.gameserver.model.item.ItemTemplate;
 import org.l2jmobius.gameserver.model.item.type.CrystalType;
 import org.l2jmobius.gameserver.network.GameClient;
 import org.l2jmobius.gameserver.network.clientpackets.IClientIncomingPacket;
@@ -66,7 +66,7 @@ public class RequestCommissionList implements IClientIncomingPacket
 			return;
 		}
 		
-		Predicate<ItemTemplate> filter = i -> true;
+		Set<CommissionItemType> itemTypes = null;
 		switch (_treeViewDepth)
 		{
 			case 1:
@@ -74,7 +74,7 @@ public class RequestCommissionList implements IClientIncomingPacket
 				final CommissionTreeType commissionTreeType = CommissionTreeType.findByClientId(_itemType);
 				if (commissionTreeType != null)
 				{
-					filter = filter.and(i -> commissionTreeType.getCommissionItemTypes().contains(i.getCommissionItemType()));
+					itemTypes = commissionTreeType.getCommissionItemTypes();
 				}
 				break;
 			}
@@ -83,81 +83,69 @@ public class RequestCommissionList implements IClientIncomingPacket
 				final CommissionItemType commissionItemType = CommissionItemType.findByClientId(_itemType);
 				if (commissionItemType != null)
 				{
-					filter = filter.and(i -> i.getCommissionItemType() == commissionItemType);
+					itemTypes = Collections.singleton(commissionItemType);
 				}
 				break;
 			}
 		}
 		
-		switch (_type)
-		{
-			case 0: // General
-			{
-				filter = filter.and(i -> true); // TODO: condition
-				break;
-			}
-			case 1: // Rare
-			{
-				filter = filter.and(i -> true); // TODO: condition
-				break;
-			}
-		}
+		// TODO: General (0) and Rare (1) type conditions.
 		
+		CrystalType grade = null;
 		switch (_grade)
 		{
 			case 0:
 			{
-				filter = filter.and(i -> i.getCrystalType() == CrystalType.NONE);
+				grade = CrystalType.NONE;
 				break;
 			}
 			case 1:
 			{
-				filter = filter.and(i -> i.getCrystalType() == CrystalType.D);
+				grade = CrystalType.D;
 				break;
 			}
 			case 2:
 			{
-				filter = filter.and(i -> i.getCrystalType() == CrystalType.C);
+				grade = CrystalType.C;
 				break;
 			}
 			case 3:
 			{
-				filter = filter.and(i -> i.getCrystalType() == CrystalType.B);
+				grade = CrystalType.B;
 				break;
 			}
 			case 4:
 			{
-				filter = filter.and(i -> i.getCrystalType() == CrystalType.A);
+				grade = CrystalType.A;
 				break;
 			}
 			case 5:
 			{
-				filter = filter.and(i -> i.getCrystalType() == CrystalType.S);
+				grade = CrystalType.S;
 				break;
 			}
 			case 6:
 			{
-				filter = filter.and(i -> i.getCrystalType() == CrystalType.S80);
+				grade = CrystalType.S80;
 				break;
 			}
 			case 7:
 			{
-				filter = filter.and(i -> i.getCrystalType() == CrystalType.R);
+				grade = CrystalType.R;
 				break;
 			}
 			case 8:
 			{
-				filter = filter.and(i -> i.getCrystalType() == CrystalType.R95);
+				grade = CrystalType.R95;
 				break;
 			}
 			case 9:
 			{
-				filter = filter.and(i -> i.getCrystalType() == CrystalType.R99);
+				grade = CrystalType.R99;
 				break;
 			}
 		}
 		
-		filter = filter.and(i -> _query.isEmpty() || i.getName().toLowerCase().contains(_query.toLowerCase()));
-		ItemCommissionManager.getInstance().showAuctions(player, filter);
+		ItemCommissionManager.getInstance().showAuctions(player, itemTypes, grade, _query);
 	}
 }
@@ -16,7 +16,12 @@
  */
 package org.l2jmobius.gameserver.network.serverpackets;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.l2jmobius.gameserver.cache.HtmCache;
+import org.l2jmobius.gameserver.cache.HtmTemplate;
+import org.l2jmobius.gameserver.cache.HtmTemplate.ActionPositions;
 import org.l2jmobius.gameserver.enums.HtmlActionScope;
 import org.l2jmobius.gameserver.model.actor.Player;
 import org.l2jmobius.gameserver.network.PacketLogger;
@@ -33,6 +38,12 @@ public abstract class AbstractHtmlPacket implements IClientOutgoingPacket
 	private String _html = null;
 	private boolean _disabledValidation = false;
 	
+	// Html files are rendered from their cached template once all placeholders are replaced.
+	private HtmTemplate _template = null;
+	private List<String> _names = null;
+	private List<HtmTemplate> _values = null;
+	private ActionPositions _actions = null;
+	
 	protected AbstractHtmlPacket()
 	{
 		_npcObjId = 0;
@@ -70,6 +81,7 @@ public abstract class AbstractHtmlPacket implements IClientOutgoingPacket
 	
 	public void setHtml(String html)
 	{
+		_template = null;
 		if (html.length() > 17200)
 		{
 			PacketLogger.warning(getClass().getSimpleName() + ": Html is too long! this will crash the client!");
@@ -85,19 +97,48 @@ public abstract class AbstractHtmlPacket implements IClientOutgoingPacket
 	
 	public boolean setFile(Player player, String path)
 	{
-		final String content = HtmCache.getInstance().getHtm(player, path);
-		if (content == null)
+		final HtmTemplate template = HtmCache.getInstance().getTemplate(player, path);
+		if (template == null)
 		{
 			setHtml("<html><body>My Text is missing:<br>" + path + "</body></html>");
 			PacketLogger.warning(getClass().getSimpleName() + ": Missing html page " + path);
 			return false;
 		}
-		setHtml(content);
+		
+		final String content = template.getText();
+		if (!content.contains("<html"))
+		{
+			setHtml(content);
+			return true;
+		}
+		
+		if (content.length() > 17200)
+		{
+			PacketLogger.warning(getClass().getSimpleName() + ": Html is too long! this will crash the client!");
+		}
+		_template = template;
+		_names = new ArrayList<>();
+		_values = new ArrayList<>();
+		_html = null;
 		return true;
 	}
 	
 	public void replace(String pattern, String value)
 	{
+		if (_template != null)
+		{
+			// Placeholders are filled when the html is rendered, values with backslashes keep the escaping of replaceAll.
+			if (HtmTemplate.isPlaceholder(pattern) && (value.indexOf('\\') == -1))
+			{
+				_names.add(pattern);
+				_values.add(HtmTemplate.parse(value));
+				_html = null;
+				return;
+			}
+			
+			_html = getHtml();
+			_template = null;
+		}
 		_html = _html.replaceAll(pattern, value.replaceAll("\\$", "\\\\\\$"));
 	}
 	
@@ -139,7 +180,15 @@ public abstract class AbstractHtmlPacket implements IClientOutgoingPacket
 		}
 		if (player != null)
 		{
-			Util.buildHtmlActionCache(player, getScope(), _npcObjId, _html);
+			final String html = getHtml();
+			if (_template != null)
+			{
+				Util.buildHtmlActionCache(player, getScope(), _npcObjId, html, _actions);
+			}
+			else
+			{
+				Util.buildHtmlActionCache(player, getScope(), _npcObjId, html);
+			}
 		}
 	}
 	
@@ -150,6 +199,11 @@ public abstract class AbstractHtmlPacket implements IClientOutgoingPacket
 	
 	public String getHtml()
 	{
+		if ((_html == null) && (_template != null))
+		{
+			_actions = new ActionPositions();
+			_html = _template.render(_names, _values, _actions);
+		}
 		return _html;
 	}
 	
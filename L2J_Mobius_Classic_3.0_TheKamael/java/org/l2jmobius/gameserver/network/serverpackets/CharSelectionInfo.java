@@ -28,6 +28,7 @@ import org.l2jmobius.Config;
 import org.l2jmobius.commons.database.DatabaseFactory;
 import org.l2jmobius.commons.network.PacketWriter;
 import org.l2jmobius.gameserver.data.sql.ClanTable;
+import org.l2jmobius.gameserver.data.sql.OfflineTraderTable;
 import org.l2jmobius.gameserver.data.xml.ExperienceData;
 import org.l2jmobius.gameserver.model.CharSelectInfoPackage;
 import org.l2jmobius.gameserver.model.VariationInstance;
@@ -278,6 +279,7 @@ public class CharSelectionInfo implements IClientOutgoingPacket
 							{
 								Disconnection.of(player).storeMe().deleteMe();
 							}
+							OfflineTraderTable.getInstance().removeOfflineTrader(charInfopackage.getObjectId());
 						}
 					}
 				}
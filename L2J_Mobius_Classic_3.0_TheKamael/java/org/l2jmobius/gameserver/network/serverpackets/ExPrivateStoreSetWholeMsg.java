@@ -30,7 +30,12 @@ public class ExPrivateStoreSetWholeMsg implements IClientOutgoingPacket
 	
 	public ExPrivateStoreSetWholeMsg(Player player, String msg)
 	{
-		_objectId = player.getObjectId();
+		this(player.getObjectId(), msg);
+	}
+	
+	public ExPrivateStoreSetWholeMsg(int objectId, String msg)
+	{
+		_objectId = objectId;
 		_msg = msg;
 	}
 	
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.l2jmobius.Config;
 import org.l2jmobius.commons.network.PacketWriter;
 import org.l2jmobius.gameserver.network.NpcStringId;
 import org.l2jmobius.gameserver.network.NpcStringId.NSLocalisation;
@@ -64,6 +65,13 @@ public class ExShowScreenMessage implements IClientOutgoingPacket
 		_lang = lang;
 	}
 	
+	@Override
+	public boolean isSharable()
+	{
+		// Written text depends on the receiver language.
+		return !Config.MULTILANG_ENABLE;
+	}
+	
 	/**
 	 * Display a String on the screen for a given time.
 	 * @param text the text to display
@@ -127,6 +127,14 @@ public interface IClientOutgoingPacket extends IOutgoingPacket
 	{
 	}
 	
+	/**
+	 * @return {@code true} if written data does not depend on the receiver, so a broadcast can serialize this packet once for all receivers.
+	 */
+	default boolean isSharable()
+	{
+		return true;
+	}
+	
 	default void writeOptionalD(PacketWriter packet, int value)
 	{
 		if (value >= Short.MAX_VALUE)
@@ -89,6 +89,13 @@ public class NpcInfo extends AbstractMaskPacket<NpcInfoType>
 		}
 	}
 	
+	@Override
+	public boolean isSharable()
+	{
+		// Written text depends on the receiver language.
+		return !Config.MULTILANG_ENABLE;
+	}
+	
 	public NpcInfo(Npc npc)
 	{
 		_npc = npc;
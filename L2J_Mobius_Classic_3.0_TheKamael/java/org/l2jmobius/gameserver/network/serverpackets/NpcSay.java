@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.l2jmobius.Config;
 import org.l2jmobius.commons.network.PacketWriter;
 import org.l2jmobius.gameserver.enums.ChatType;
 import org.l2jmobius.gameserver.model.actor.Npc;
@@ -122,6 +123,13 @@ public class NpcSay implements IClientOutgoingPacket
 		_lang = lang;
 	}
 	
+	@Override
+	public boolean isSharable()
+	{
+		// Written text depends on the receiver language.
+		return !Config.MULTILANG_ENABLE;
+	}
+	
 	@Override
 	public boolean write(PacketWriter packet)
 	{
@@ -0,0 +1,187 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.network.serverpackets;
+
+import org.l2jmobius.commons.network.PacketWriter;
+import org.l2jmobius.gameserver.data.sql.ClanTable;
+import org.l2jmobius.gameserver.model.OfflineTrader;
+import org.l2jmobius.gameserver.model.actor.templates.PlayerTemplate;
+import org.l2jmobius.gameserver.model.clan.Clan;
+import org.l2jmobius.gameserver.model.itemcontainer.Inventory;
+import org.l2jmobius.gameserver.model.olympiad.Hero;
+import org.l2jmobius.gameserver.model.skill.AbnormalVisualEffect;
+import org.l2jmobius.gameserver.model.stats.Stat;
+import org.l2jmobius.gameserver.network.OutgoingPackets;
+
+/**
+ * Char info of an offline store that is not loaded as a player.
+ */
+public class OfflineTraderInfo implements IClientOutgoingPacket
+{
+	private static final int[] PAPERDOLL_ORDER = new int[]
+	{
+		Inventory.PAPERDOLL_UNDER,
+		Inventory.PAPERDOLL_HEAD,
+		Inventory.PAPERDOLL_RHAND,
+		Inventory.PAPERDOLL_LHAND,
+		Inventory.PAPERDOLL_GLOVES,
+		Inventory.PAPERDOLL_CHEST,
+		Inventory.PAPERDOLL_LEGS,
+		Inventory.PAPERDOLL_FEET,
+		Inventory.PAPERDOLL_CLOAK,
+		Inventory.PAPERDOLL_RHAND,
+		Inventory.PAPERDOLL_HAIR,
+		Inventory.PAPERDOLL_HAIR2
+	};
+	
+	private final OfflineTrader _trader;
+	private final Clan _clan;
+	
+	public OfflineTraderInfo(OfflineTrader trader)
+	{
+		_trader = trader;
+		_clan = ClanTable.getInstance().getClan(trader.getClanId());
+	}
+	
+	@Override
+	public boolean write(PacketWriter packet)
+	{
+		final PlayerTemplate template = _trader.getBaseTemplate();
+		OutgoingPackets.CHAR_INFO.writeId(packet);
+		packet.writeC(0); // Grand Crusade
+		packet.writeD(_trader.getX());
+		packet.writeD(_trader.getY());
+		packet.writeD(_trader.getZ());
+		packet.writeD(0); // vehicleId
+		packet.writeD(_trader.getObjectId());
+		packet.writeS(_trader.getName());
+		packet.writeH(template.getRace().ordinal());
+		packet.writeC(_trader.isFemale() ? 1 : 0);
+		packet.writeD(template.getClassId().getRootClassId().getId());
+		for (int slot : getPaperdollOrder())
+		{
+			packet.writeD(_trader.getPaperdollItemDisplayId(slot));
+		}
+		for (@SuppressWarnings("unused")
+		final int slot : getPaperdollOrderAugument())
+		{
+			packet.writeD(0);
+			packet.writeD(0);
+		}
+		packet.writeC(0); // getArmorMinEnchant()
+		for (int slot : getPaperdollOrderVisualId())
+		{
+			packet.writeD(_trader.getPaperdollItemVisualId(slot));
+		}
+		packet.writeC(0); // getPvpFlag()
+		packet.writeD(0); // getReputation()
+		packet.writeD(template.getBaseMAtkSpd());
+		packet.writeD(template.getBasePAtkSpd());
+		packet.writeH((int) template.getBaseValue(Stat.RUN_SPEED, 0));
+		packet.writeH((int) template.getBaseValue(Stat.WALK_SPEED, 0));
+		packet.writeH((int) template.getBaseValue(Stat.SWIM_RUN_SPEED, 0));
+		packet.writeH((int) template.getBaseValue(Stat.SWIM_WALK_SPEED, 0));
+		packet.writeH(0); // flyRunSpd
+		packet.writeH(0); // flyWalkSpd
+		packet.writeH(0); // flyRunSpd
+		packet.writeH(0); // flyWalkSpd
+		packet.writeF(1); // moveMultiplier
+		packet.writeF(1); // attackSpeedMultiplier
+		packet.writeF(_trader.isFemale() ? template.getFCollisionRadiusFemale() : template.getFCollisionRadius());
+		packet.writeF(_trader.isFemale() ? template.getFCollisionHeightFemale() : template.getFCollisionHeight());
+		packet.writeD(_trader.getHairStyle());
+		packet.writeD(_trader.getHairColor());
+		packet.writeD(_trader.getFace());
+		packet.writeS(_trader.getTitle());
+		if (_clan != null)
+		{
+			packet.writeD(_clan.getId());
+			packet.writeD(_clan.getCrestId());
+			packet.writeD(_clan.getAllyId());
+			packet.writeD(_clan.getAllyCrestId());
+		}
+		else
+		{
+			packet.writeD(0);
+			packet.writeD(0);
+			packet.writeD(0);
+			packet.writeD(0);
+		}
+		packet.writeC(0); // isSitting() ? 0 : 1
+		packet.writeC(0); // isRunning()
+		packet.writeC(0); // isInCombat()
+		packet.writeC(0); // isAlikeDead()
+		packet.writeC(0); // isInvisible()
+		packet.writeC(0); // 1-on Strider, 2-on Wyvern, 3-on Great Wolf, 0-no mount
+		packet.writeC(_trader.getPrivateStoreType().getId());
+		packet.writeH(0); // getCubics().size()
+		packet.writeC(0); // isInMatchingRoom()
+		packet.writeC(0); // isInsideZone(ZoneId.WATER)
+		packet.writeH(0); // getRecomHave()
+		packet.writeD(0); // getMountNpcId() == 0 ? 0 : getMountNpcId() + 1000000
+		packet.writeD(_trader.getClassId());
+		packet.writeD(0);
+		packet.writeC(_trader.getWeaponEnchant());
+		packet.writeC(0); // getTeam().getId()
+		packet.writeD(_clan != null ? _clan.getCrestLargeId() : 0);
+		packet.writeC(_trader.isNoble() ? 1 : 0);
+		packet.writeC(Hero.getInstance().isHero(_trader.getObjectId()) ? 2 : 0);
+		packet.writeC(0); // isFishing()
+		packet.writeD(0); // baitLocation
+		packet.writeD(0);
+		packet.writeD(0);
+		packet.writeD(_trader.getNameColor());
+		packet.writeD(_trader.getHeading());
+		packet.writeC(0); // getPledgeClass()
+		packet.writeH(0); // getPledgeType()
+		packet.writeD(_trader.getTitleColor());
+		packet.writeC(0); // isCursedWeaponEquipped
+		packet.writeD(_clan != null ? _clan.getReputationScore() : 0);
+		packet.writeD(0); // getTransformationDisplayId()
+		packet.writeD(0); // getAgathionId()
+		packet.writeC(0); // nPvPRestrainStatus
+		packet.writeD(0); // getCurrentCp()
+		packet.writeD(1); // getMaxHp()
+		packet.writeD(1); // getCurrentHp()
+		packet.writeD(1); // getMaxMp()
+		packet.writeD(1); // getCurrentMp()
+		packet.writeC(0); // cBRLectureMark
+		final AbnormalVisualEffect abnormalVisualEffect = _trader.getAbnormalVisualEffect();
+		if (abnormalVisualEffect != null)
+		{
+			packet.writeD(1);
+			packet.writeH(abnormalVisualEffect.getClientId());
+		}
+		else
+		{
+			packet.writeD(0);
+		}
+		packet.writeC(0); // isTrueHero()
+		packet.writeC(1); // isHairAccessoryEnabled()
+		packet.writeC(0); // Used Ability Points
+		packet.writeD(0);
+		packet.writeD(0);
+		packet.writeC(0); // Rank
+		return true;
+	}
+	
+	@Override
+	public int[] getPaperdollOrder()
+	{
+		return PAPERDOLL_ORDER;
+	}
+}
@@ -34,6 +34,12 @@ public class PrivateStoreMsgBuy implements IClientOutgoingPacket
 		}
 	}
 	
+	public PrivateStoreMsgBuy(int objectId, String storeMsg)
+	{
+		_objId = objectId;
+		_storeMsg = storeMsg;
+	}
+	
 	@Override
 	public boolean write(PacketWriter packet)
 	{
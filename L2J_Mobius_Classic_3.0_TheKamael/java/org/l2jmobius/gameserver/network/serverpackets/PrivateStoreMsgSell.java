@@ -34,6 +34,12 @@ public class PrivateStoreMsgSell implements IClientOutgoingPacket
 		}
 	}
 	
+	public PrivateStoreMsgSell(int objectId, String storeMsg)
+	{
+		_objId = objectId;
+		_storeMsg = storeMsg;
+	}
+	
 	@Override
 	public boolean write(PacketWriter packet)
 	{
@@ -22,19 +22,26 @@ import org.l2jmobius.gameserver.network.OutgoingPackets;
 
 public class RecipeShopMsg implements IClientOutgoingPacket
 {
-	private final Player _player;
+	private final int _objectId;
+	private final String _storeName;
 	
 	public RecipeShopMsg(Player player)
 	{
-		_player = player;
+		this(player.getObjectId(), player.getStoreName());
+	}
+	
+	public RecipeShopMsg(int objectId, String storeName)
+	{
+		_objectId = objectId;
+		_storeName = storeName;
 	}
 	
 	@Override
 	public boolean write(PacketWriter packet)
 	{
 		OutgoingPackets.RECIPE_SHOP_MSG.writeId(packet);
-		packet.writeD(_player.getObjectId());
-		packet.writeS(_player.getStoreName());
+		packet.writeD(_objectId);
+		packet.writeS(_storeName);
 		return true;
 	}
 }
@@ -25,6 +25,7 @@ import java.util.List;
 import org.l2jmobius.commons.database.DatabaseFactory;
 import org.l2jmobius.commons.network.PacketWriter;
 import org.l2jmobius.gameserver.data.sql.CharNameTable;
+import org.l2jmobius.gameserver.data.sql.OfflineTraderTable;
 import org.l2jmobius.gameserver.model.World;
 import org.l2jmobius.gameserver.model.actor.Player;
 import org.l2jmobius.gameserver.network.OutgoingPackets;
@@ -76,7 +77,8 @@ public class FriendList implements IClientOutgoingPacket
 					{
 						if (rset.next())
 						{
-							_info.add(new FriendInfo(objId, rset.getString(1), rset.getInt(2) == 1, rset.getInt(3), rset.getInt(4)));
+							// Restored offline stores are online like loaded ones.
+							_info.add(new FriendInfo(objId, rset.getString(1), (rset.getInt(2) == 1) || (OfflineTraderTable.getInstance().getTrader(objId) != null), rset.getInt(3), rset.getInt(4)));
 						}
 					}
 				}
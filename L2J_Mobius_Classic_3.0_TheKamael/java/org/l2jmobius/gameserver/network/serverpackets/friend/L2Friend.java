@@ -18,6 +18,7 @@ package org.l2jmobius.gameserver.network.serverpackets.friend;
 
 import org.l2jmobius.commons.network.PacketWriter;
 import org.l2jmobius.gameserver.data.sql.CharNameTable;
+import org.l2jmobius.gameserver.data.sql.OfflineTraderTable;
 import org.l2jmobius.gameserver.model.World;
 import org.l2jmobius.gameserver.network.OutgoingPackets;
 import org.l2jmobius.gameserver.network.serverpackets.IClientOutgoingPacket;
@@ -43,7 +44,7 @@ public class L2Friend implements IClientOutgoingPacket
 		_action = action;
 		_objid = objId;
 		_name = CharNameTable.getInstance().getNameById(objId);
-		_online = World.getInstance().getPlayer(objId) != null;
+		_online = (World.getInstance().getPlayer(objId) != null) || (OfflineTraderTable.getInstance().getTrader(objId) != null);
 	}
 	
 	@Override
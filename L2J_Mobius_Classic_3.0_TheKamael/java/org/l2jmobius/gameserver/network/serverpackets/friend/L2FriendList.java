@@ -21,6 +21,7 @@ import java.util.List;
 
 import org.l2jmobius.commons.network.PacketWriter;
 import org.l2jmobius.gameserver.data.sql.CharNameTable;
+import org.l2jmobius.gameserver.data.sql.OfflineTraderTable;
 import org.l2jmobius.gameserver.model.World;
 import org.l2jmobius.gameserver.model.actor.Player;
 import org.l2jmobius.gameserver.network.OutgoingPackets;
@@ -70,6 +71,7 @@ public class L2FriendList implements IClientOutgoingPacket
 			}
 			else
 			{
+				online = OfflineTraderTable.getInstance().getTrader(objId) != null;
 				level = CharNameTable.getInstance().getLevelById(objId);
 				classId = CharNameTable.getInstance().getClassIdById(objId);
 			}
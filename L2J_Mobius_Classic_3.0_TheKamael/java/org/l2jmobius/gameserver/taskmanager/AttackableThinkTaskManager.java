@@ -16,20 +16,43 @@
  */
 package org.l2jmobius.gameserver.taskmanager;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.l2jmobius.commons.threads.ThreadPool;
 import org.l2jmobius.gameserver.ai.CreatureAI;
+import org.l2jmobius.gameserver.model.WorldRegion;
 import org.l2jmobius.gameserver.model.actor.Attackable;
 
 /**
+ * Thinks for all registered attackables once per second.<br>
+ * Attackables are grouped by their world region, groups of inactive regions are skipped as a whole and active groups think in parallel.
  * @author Mobius
  */
 public class AttackableThinkTaskManager implements Runnable
 {
-	private static final Set<Attackable> ATTACKABLES = ConcurrentHashMap.newKeySet();
-	private static boolean _working = false;
+	private static final Logger LOGGER = Logger.getLogger(AttackableThinkTaskManager.class.getName());
+	
+	private static final int GROUPS_PER_TASK = 4;
+	
+	private static final Map<Attackable, RegionGroup> ATTACKABLES = new ConcurrentHashMap<>();
+	private static final Map<WorldRegion, RegionGroup> REGION_GROUPS = new ConcurrentHashMap<>();
+	private static final RegionGroup NO_REGION_GROUP = new RegionGroup(null);
+	private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+	private static final AtomicBoolean WORKING = new AtomicBoolean();
+	private static final AtomicLong SKIPPED_TICKS = new AtomicLong();
+	private static volatile int _lastGroups;
+	private static volatile long _lastDuration;
+	private static volatile long _maxDuration;
 	
 	protected AttackableThinkTaskManager()
 	{
@@ -39,47 +62,187 @@ public class AttackableThinkTaskManager implements Runnable
 	@Override
 	public void run()
 	{
-		if (_working)
+		if (!WORKING.compareAndSet(false, true))
 		{
+			SKIPPED_TICKS.incrementAndGet();
 			return;
 		}
-		_working = true;
 		
+		try
+		{
+			final long start = System.nanoTime();
+			final List<RegionGroup> groups = new ArrayList<>();
+			for (RegionGroup group : REGION_GROUPS.values())
+			{
+				if (group.isActive())
+				{
+					groups.add(group);
+				}
+			}
+			if (!NO_REGION_GROUP.getAttackables().isEmpty())
+			{
+				groups.add(NO_REGION_GROUP);
+			}
+			
+			if (!groups.isEmpty())
+			{
+				POOL.invoke(new ThinkTask(groups, 0, groups.size()));
+			}
+			
+			final long duration = System.nanoTime() - start;
+			_lastGroups = groups.size();
+			_lastDuration = duration;
+			if (duration > _maxDuration)
+			{
+				_maxDuration = duration;
+			}
+		}
+		finally
+		{
+			WORKING.set(false);
+		}
+	}
+	
+	public void add(Attackable attackable)
+	{
+		ATTACKABLES.computeIfAbsent(attackable, key ->
+		{
+			final RegionGroup group = getGroup(key.getWorldRegion());
+			group.getAttackables().add(key);
+			return group;
+		});
+	}
+	
+	public void remove(Attackable attackable)
+	{
+		final RegionGroup group = ATTACKABLES.remove(attackable);
+		if (group != null)
+		{
+			group.getAttackables().remove(attackable);
+		}
+	}
+	
+	/**
+	 * Moves a registered attackable to the group of its current world region.
+	 * @param attackable the attackable that changed region
+	 */
+	public void updateRegion(Attackable attackable)
+	{
+		ATTACKABLES.computeIfPresent(attackable, (key, oldGroup) ->
+		{
+			final RegionGroup group = getGroup(key.getWorldRegion());
+			if (group != oldGroup)
+			{
+				oldGroup.getAttackables().remove(key);
+				group.getAttackables().add(key);
+			}
+			return group;
+		});
+	}
+	
+	private static RegionGroup getGroup(WorldRegion region)
+	{
+		return region == null ? NO_REGION_GROUP : REGION_GROUPS.computeIfAbsent(region, RegionGroup::new);
+	}
+	
+	private static void think(RegionGroup group)
+	{
 		CreatureAI ai;
-		for (Attackable attackable : ATTACKABLES)
+		for (Attackable attackable : group.getAttackables())
 		{
-			if (attackable.hasAI())
+			try
 			{
-				ai = attackable.getAI();
-				if (ai != null)
+				if (attackable.hasAI())
 				{
-					ai.onEvtThink();
+					ai = attackable.getAI();
+					if (ai != null)
+					{
+						ai.onEvtThink();
+					}
+					else
+					{
+						getInstance().remove(attackable);
+					}
 				}
 				else
 				{
-					remove(attackable);
+					getInstance().remove(attackable);
 				}
 			}
-			else
+			catch (Exception e)
 			{
-				remove(attackable);
+				LOGGER.log(Level.WARNING, "AttackableThinkTaskManager: Problem thinking for " + attackable, e);
 			}
 		}
-		
-		_working = false;
 	}
 	
-	public void add(Attackable attackable)
+	public String[] getStats()
 	{
-		if (!ATTACKABLES.contains(attackable))
+		return new String[]
+		{
+			"Attackable think task:",
+			" |- Attackables: ...... " + ATTACKABLES.size(),
+			" |- RegionGroups: ..... " + REGION_GROUPS.size(),
+			" |- LastActiveGroups: . " + _lastGroups,
+			" |- LastTickTime: ..... " + (_lastDuration / 1000) + "us",
+			" |- MaxTickTime: ...... " + (_maxDuration / 1000) + "us",
+			" |- SkippedTicks: ..... " + SKIPPED_TICKS.get(),
+			" | -------"
+		};
+	}
+	
+	private static class RegionGroup
+	{
+		private final WorldRegion _region;
+		private final Set<Attackable> _attackables = ConcurrentHashMap.newKeySet();
+		
+		public RegionGroup(WorldRegion region)
+		{
+			_region = region;
+		}
+		
+		public Set<Attackable> getAttackables()
+		{
+			return _attackables;
+		}
+		
+		public boolean isActive()
 		{
-			ATTACKABLES.add(attackable);
+			return !_attackables.isEmpty() && ((_region == null) || _region.isActive());
 		}
 	}
 	
-	public void remove(Attackable attackable)
+	private static class ThinkTask extends RecursiveAction
 	{
-		ATTACKABLES.remove(attackable);
+		private static final long serialVersionUID = 1L;
+		
+		private final List<RegionGroup> _groups;
+		private final int _start;
+		private final int _end;
+		
+		public ThinkTask(List<RegionGroup> groups, int start, int end)
+		{
+			_groups = groups;
+			_start = start;
+			_end = end;
+		}
+		
+		@Override
+		protected void compute()
+		{
+			if ((_end - _start) <= GROUPS_PER_TASK)
+			{
+				for (int i = _start; i < _end; i++)
+				{
+					think(_groups.get(i));
+				}
+			}
+			else
+			{
+				final int middle = (_start + _end) >>> 1;
+				invokeAll(new ThinkTask(_groups, _start, middle), new ThinkTask(_groups, middle, _end));
+			}
+		}
 	}
 	
 	public static AttackableThinkTaskManager getInstance()
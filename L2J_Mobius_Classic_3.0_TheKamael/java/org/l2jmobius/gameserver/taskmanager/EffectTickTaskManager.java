@@ -0,0 +1,282 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.taskmanager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.l2jmobius.Config;
+import org.l2jmobius.commons.threads.ThreadPool;
+import org.l2jmobius.gameserver.model.effects.EffectTickTask;
+
+/**
+ * Runs the periodic effect ticks of all buffs from a single task scheduled every {@link Config#EFFECT_TICK_RATIO} milliseconds.<br>
+ * Effects are grouped in buckets by their number of ticks, a bucket of N ticks keeps N phase sets and visits one of them per tick, so each effect runs once every N ticks from its start.<br>
+ * The effects of a due phase set run in parallel, removing an effect only takes it out of its phase set.
+ */
+public class EffectTickTaskManager implements Runnable
+{
+	private static final Logger LOGGER = Logger.getLogger(EffectTickTaskManager.class.getName());
+	
+	private static final int EFFECTS_PER_TASK = 64;
+	
+	private static final Map<Integer, TickBucket> BUCKETS = new ConcurrentHashMap<>();
+	private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+	private static final AtomicBoolean WORKING = new AtomicBoolean();
+	private static final AtomicLong SKIPPED_TICKS = new AtomicLong();
+	private static volatile long _currentTick = 0;
+	private static volatile long _lastDuration;
+	private static volatile long _maxDuration;
+	
+	protected EffectTickTaskManager()
+	{
+		ThreadPool.scheduleAtFixedRate(this, Config.EFFECT_TICK_RATIO, Config.EFFECT_TICK_RATIO);
+	}
+	
+	@Override
+	public void run()
+	{
+		if (!WORKING.compareAndSet(false, true))
+		{
+			SKIPPED_TICKS.incrementAndGet();
+			return;
+		}
+		
+		try
+		{
+			final long start = System.nanoTime();
+			final long tick = _currentTick + 1;
+			_currentTick = tick;
+			for (TickBucket bucket : BUCKETS.values())
+			{
+				bucket.tick(tick);
+			}
+			
+			final long duration = System.nanoTime() - start;
+			_lastDuration = duration;
+			if (duration > _maxDuration)
+			{
+				_maxDuration = duration;
+			}
+		}
+		finally
+		{
+			WORKING.set(false);
+		}
+	}
+	
+	/**
+	 * Starts the ticks of an effect, the first one runs after a full period.
+	 * @param task the tick task of the effect
+	 * @param ticks the period of the effect in ticks
+	 */
+	public void add(EffectTickTask task, int ticks)
+	{
+		final TickBucket bucket = BUCKETS.computeIfAbsent(ticks, TickBucket::new);
+		final long tick = _currentTick;
+		task.setNextTick(tick + ticks);
+		final Set<EffectTickTask> phase = bucket.getPhase(tick);
+		task.setPhase(phase);
+		phase.add(task);
+	}
+	
+	/**
+	 * Stops the ticks of an effect.
+	 * @param task the tick task of the effect
+	 */
+	public void remove(EffectTickTask task)
+	{
+		final Set<EffectTickTask> phase = task.getPhase();
+		if (phase != null)
+		{
+			phase.remove(task);
+			task.setPhase(null);
+		}
+	}
+	
+	public String[] getStats()
+	{
+		final List<String> stats = new ArrayList<>();
+		stats.add("Effect tick task:");
+		stats.add(" |- Tick: ............. " + Config.EFFECT_TICK_RATIO + "ms");
+		stats.add(" |- LastTickTime: ..... " + (_lastDuration / 1000) + "us");
+		stats.add(" |- MaxTickTime: ...... " + (_maxDuration / 1000) + "us");
+		stats.add(" |- SkippedTicks: ..... " + SKIPPED_TICKS.get());
+		for (TickBucket bucket : BUCKETS.values())
+		{
+			stats.add(" |- Bucket " + bucket.getTicks() + " ticks: " + bucket.getSize() + " effects, last run " + bucket.getLastSize() + " in " + (bucket.getLastDuration() / 1000) + "us, max " + (bucket.getMaxDuration() / 1000) + "us");
+		}
+		stats.add(" | -------");
+		return stats.toArray(new String[stats.size()]);
+	}
+	
+	private static class TickBucket
+	{
+		private final int _ticks;
+		private final List<Set<EffectTickTask>> _phases;
+		private volatile int _lastSize;
+		private volatile long _lastDuration;
+		private volatile long _maxDuration;
+		
+		public TickBucket(int ticks)
+		{
+			_ticks = ticks;
+			_phases = new ArrayList<>(ticks);
+			for (int i = 0; i < ticks; i++)
+			{
+				_phases.add(ConcurrentHashMap.newKeySet());
+			}
+		}
+		
+		public Set<EffectTickTask> getPhase(long tick)
+		{
+			return _phases.get((int) (tick % _ticks));
+		}
+		
+		public void tick(long tick)
+		{
+			final Set<EffectTickTask> phase = getPhase(tick);
+			if (phase.isEmpty())
+			{
+				_lastSize = 0;
+				return;
+			}
+			
+			final long start = System.nanoTime();
+			final List<EffectTickTask> tasks = new ArrayList<>(phase.size());
+			for (EffectTickTask task : phase)
+			{
+				// Effects added while this phase was collected wait for their own first period.
+				if (task.getNextTick() <= tick)
+				{
+					task.setNextTick(tick + _ticks);
+					tasks.add(task);
+				}
+			}
+			
+			if (!tasks.isEmpty())
+			{
+				POOL.invoke(new EffectTask(tasks, 0, tasks.size()));
+			}
+			
+			final long duration = System.nanoTime() - start;
+			_lastSize = tasks.size();
+			_lastDuration = duration;
+			if (duration > _maxDuration)
+			{
+				_maxDuration = duration;
+			}
+		}
+		
+		public int getTicks()
+		{
+			return _ticks;
+		}
+		
+		public int getSize()
+		{
+			int size = 0;
+			for (Set<EffectTickTask> phase : _phases)
+			{
+				size += phase.size();
+			}
+			return size;
+		}
+		
+		public int getLastSize()
+		{
+			return _lastSize;
+		}
+		
+		public long getLastDuration()
+		{
+			return _lastDuration;
+		}
+		
+		public long getMaxDuration()
+		{
+			return _maxDuration;
+		}
+	}
+	
+	private static class EffectTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+		
+		private final List<EffectTickTask> _tasks;
+		private final int _start;
+		private final int _end;
+		
+		public EffectTask(List<EffectTickTask> tasks, int start, int end)
+		{
+			_tasks = tasks;
+			_start = start;
+			_end = end;
+		}
+		
+		@Override
+		protected void compute()
+		{
+			if ((_end - _start) <= EFFECTS_PER_TASK)
+			{
+				EffectTickTask task;
+				for (int i = _start; i < _end; i++)
+				{
+					task = _tasks.get(i);
+					// Skip effects removed by an earlier tick of this run.
+					if (task.getPhase() == null)
+					{
+						continue;
+					}
+					
+					try
+					{
+						task.run();
+					}
+					catch (Exception e)
+					{
+						LOGGER.log(Level.WARNING, "EffectTickTaskManager: Problem ticking " + task.getEffect() + " of " + task.getBuffInfo().getSkill(), e);
+					}
+				}
+			}
+			else
+			{
+				final int middle = (_start + _end) >>> 1;
+				invokeAll(new EffectTask(_tasks, _start, middle), new EffectTask(_tasks, middle, _end));
+			}
+		}
+	}
+	
+	public static EffectTickTaskManager getInstance()
+	{
+		return SingletonHolder.INSTANCE;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final EffectTickTaskManager INSTANCE = new EffectTickTaskManager();
+	}
+}
@@ -47,7 +47,7 @@ public class PlayerAutoSaveTaskManager implements Runnable
 		_working = true;
 		
 		final long time = System.currentTimeMillis();
-		SEARCH: for (Entry<Player, Long> entry : PLAYER_TIMES.entrySet())
+		for (Entry<Player, Long> entry : PLAYER_TIMES.entrySet())
 		{
 			if (time > entry.getValue().longValue())
 			{
@@ -56,7 +56,6 @@ public class PlayerAutoSaveTaskManager implements Runnable
 				{
 					player.autoSave();
 					PLAYER_TIMES.put(entry.getKey(), time + Config.CHAR_DATA_STORE_INTERVAL);
-					break SEARCH; // Prevent SQL flood.
 				}
 			}
 		}
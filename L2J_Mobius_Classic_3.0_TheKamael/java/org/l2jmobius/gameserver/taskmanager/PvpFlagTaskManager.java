@@ -16,65 +16,67 @@
  */
 package org.l2jmobius.gameserver.taskmanager;
 
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-
-import org.l2jmobius.commons.threads.ThreadPool;
+import org.l2jmobius.commons.threads.TimingWheel;
 import org.l2jmobius.gameserver.model.actor.Player;
 
 /**
  * @author Mobius
  */
-public class PvpFlagTaskManager implements Runnable
+public class PvpFlagTaskManager
 {
-	private static final Set<Player> PLAYERS = ConcurrentHashMap.newKeySet();
-	private static boolean _working = false;
+	private static final TimingWheel<Player> PLAYERS = new TimingWheel<>("PvpFlagTaskManager", 1000, PvpFlagTaskManager::updateFlag);
 	
 	protected PvpFlagTaskManager()
 	{
-		ThreadPool.scheduleAtFixedRate(this, 1000, 1000);
 	}
 	
-	@Override
-	public void run()
+	/**
+	 * Updates the flag of a player and schedules its next change, blinking 20 seconds before the end or removal.
+	 * @param player the player
+	 */
+	private static void updateFlag(Player player)
 	{
-		if (_working)
+		// Flag was removed while this update was pending.
+		if (player.getPvpFlag() == 0)
 		{
 			return;
 		}
-		_working = true;
 		
-		if (!PLAYERS.isEmpty())
+		final long time = System.currentTimeMillis();
+		final long flagEnd = player.getPvpFlagLasts();
+		if (time > flagEnd)
 		{
-			final long time = System.currentTimeMillis();
-			for (Player player : PLAYERS)
-			{
-				if (time > player.getPvpFlagLasts())
-				{
-					player.stopPvPFlag();
-				}
-				else if (time > (player.getPvpFlagLasts() - 20000))
-				{
-					player.updatePvPFlag(2);
-				}
-				else
-				{
-					player.updatePvPFlag(1);
-				}
-			}
+			player.stopPvPFlag();
+		}
+		else if (time > (flagEnd - 20000))
+		{
+			player.updatePvPFlag(2);
+			PLAYERS.schedule(player, flagEnd);
+		}
+		else
+		{
+			player.updatePvPFlag(1);
+			PLAYERS.schedule(player, flagEnd - 20000);
 		}
-		
-		_working = false;
 	}
 	
 	public void add(Player player)
 	{
-		PLAYERS.add(player);
+		PLAYERS.schedule(player, System.currentTimeMillis());
+	}
+	
+	/**
+	 * Checks again the flag of a registered player, used when its flag duration changes.
+	 * @param player the player
+	 */
+	public void update(Player player)
+	{
+		PLAYERS.reschedule(player, System.currentTimeMillis());
 	}
 	
 	public void remove(Player player)
 	{
-		PLAYERS.remove(player);
+		PLAYERS.cancel(player);
 	}
 	
 	public static PvpFlagTaskManager getInstance()
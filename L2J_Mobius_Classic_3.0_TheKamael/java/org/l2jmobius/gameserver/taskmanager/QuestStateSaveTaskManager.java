@@ -0,0 +1,80 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.taskmanager;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.l2jmobius.Config;
+import org.l2jmobius.commons.threads.ThreadPool;
+import org.l2jmobius.gameserver.model.quest.QuestState;
+
+/**
+ * Stores the changed variables of quest states once they have been kept in memory for the store interval.
+ */
+public class QuestStateSaveTaskManager implements Runnable
+{
+	private static final Map<QuestState, Long> QUEST_STATE_TIMES = new ConcurrentHashMap<>();
+	private static boolean _working = false;
+	
+	protected QuestStateSaveTaskManager()
+	{
+		ThreadPool.scheduleAtFixedRate(this, 1000, 1000);
+	}
+	
+	@Override
+	public void run()
+	{
+		if (_working)
+		{
+			return;
+		}
+		_working = true;
+		
+		final long time = System.currentTimeMillis();
+		for (Entry<QuestState, Long> entry : QUEST_STATE_TIMES.entrySet())
+		{
+			if (time > entry.getValue().longValue())
+			{
+				final QuestState qs = entry.getKey();
+				QUEST_STATE_TIMES.remove(qs);
+				qs.storeMe();
+			}
+		}
+		
+		_working = false;
+	}
+	
+	/**
+	 * @param qs the quest state with changed variables, stored after the store interval unless it is stored earlier
+	 */
+	public void add(QuestState qs)
+	{
+		QUEST_STATE_TIMES.putIfAbsent(qs, System.currentTimeMillis() + Config.QUEST_STATE_STORE_INTERVAL);
+	}
+	
+	public static QuestStateSaveTaskManager getInstance()
+	{
+		return SingletonHolder.INSTANCE;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final QuestStateSaveTaskManager INSTANCE = new QuestStateSaveTaskManager();
+	}
+}
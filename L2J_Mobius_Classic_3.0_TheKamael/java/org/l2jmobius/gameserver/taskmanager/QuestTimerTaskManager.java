@@ -0,0 +1,58 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.taskmanager;
+
+import org.l2jmobius.commons.threads.ThreadPool;
+import org.l2jmobius.commons.threads.TimingWheel;
+import org.l2jmobius.gameserver.model.quest.QuestTimer;
+
+/**
+ * Schedules all quest timers on a shared timing wheel.<br>
+ * Timers are only kept by the wheel until they are due, the quest event itself runs on the {@link ThreadPool}.
+ */
+public class QuestTimerTaskManager
+{
+	private static final TimingWheel<QuestTimer> TIMERS = new TimingWheel<>("QuestTimerTaskManager", 100, timer -> ThreadPool.execute(timer::run));
+	
+	protected QuestTimerTaskManager()
+	{
+	}
+	
+	/**
+	 * @param timer the quest timer
+	 * @param time the time the timer is due, in milliseconds
+	 */
+	public void add(QuestTimer timer, long time)
+	{
+		TIMERS.schedule(timer, time);
+	}
+	
+	public void remove(QuestTimer timer)
+	{
+		TIMERS.cancel(timer);
+	}
+	
+	public static QuestTimerTaskManager getInstance()
+	{
+		return SingletonHolder.INSTANCE;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final QuestTimerTaskManager INSTANCE = new QuestTimerTaskManager();
+	}
+}
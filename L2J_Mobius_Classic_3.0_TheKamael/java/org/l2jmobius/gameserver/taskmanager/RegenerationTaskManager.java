@@ -0,0 +1,234 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.taskmanager;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.l2jmobius.commons.threads.ThreadPool;
+import org.l2jmobius.gameserver.model.actor.status.CreatureStatus;
+
+/**
+ * Regenerates HP/MP/CP of all registered creatures from a single task instead of one scheduled task per creature.<br>
+ * Each creature takes a slot of the arrays below until its regeneration stops, slots are processed in parallel ranges once per tick.<br>
+ * A creature regenerates every {@code period / TICK} ticks counted from its registration, so creatures of the same period are spread over the ticks of that period.<br>
+ * The HP, MP and CP changes of a creature are broadcast with a single StatusUpdate for each regeneration.
+ */
+public class RegenerationTaskManager implements Runnable
+{
+	private static final Logger LOGGER = Logger.getLogger(RegenerationTaskManager.class.getName());
+	
+	private static final int TICK = 1000;
+	private static final int SLOTS_PER_TASK = 512;
+	
+	private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+	private static final AtomicBoolean WORKING = new AtomicBoolean();
+	private static final AtomicLong SKIPPED_TICKS = new AtomicLong();
+	private static final AtomicInteger REGENERATED = new AtomicInteger();
+	
+	// Guarded by this manager. Each tick works on the arrays taken at its start, a creature added or removed meanwhile is seen on the next tick.
+	private CreatureStatus[] _slots = new CreatureStatus[1024];
+	private int[] _periods = new int[1024];
+	private int[] _ticksLeft = new int[1024];
+	private int[] _freeSlots = new int[1024];
+	private int _freeCount = 0;
+	private int _usedSlots = 0;
+	private int _size = 0;
+	
+	private static volatile int _lastRegenerated;
+	private static volatile long _lastDuration;
+	private static volatile long _maxDuration;
+	
+	protected RegenerationTaskManager()
+	{
+		ThreadPool.scheduleAtFixedRate(this, TICK, TICK);
+	}
+	
+	@Override
+	public void run()
+	{
+		if (!WORKING.compareAndSet(false, true))
+		{
+			SKIPPED_TICKS.incrementAndGet();
+			return;
+		}
+		
+		try
+		{
+			final long start = System.nanoTime();
+			final RegenerationTask task;
+			synchronized (this)
+			{
+				task = _usedSlots > 0 ? new RegenerationTask(_slots, _ticksLeft, _periods, 0, _usedSlots) : null;
+			}
+			
+			REGENERATED.set(0);
+			if (task != null)
+			{
+				POOL.invoke(task);
+			}
+			_lastRegenerated = REGENERATED.get();
+			
+			final long duration = System.nanoTime() - start;
+			_lastDuration = duration;
+			if (duration > _maxDuration)
+			{
+				_maxDuration = duration;
+			}
+		}
+		finally
+		{
+			WORKING.set(false);
+		}
+	}
+	
+	/**
+	 * Registers a creature for regeneration.
+	 * @param status the status of the creature
+	 * @param period the regeneration period in milliseconds
+	 * @return the slot of the creature, to be given back to {@link #remove(int)}
+	 */
+	public synchronized int add(CreatureStatus status, int period)
+	{
+		final int slot;
+		if (_freeCount > 0)
+		{
+			slot = _freeSlots[--_freeCount];
+		}
+		else
+		{
+			slot = _usedSlots;
+			if (slot == _slots.length)
+			{
+				final int capacity = slot * 2;
+				_slots = Arrays.copyOf(_slots, capacity);
+				_periods = Arrays.copyOf(_periods, capacity);
+				_ticksLeft = Arrays.copyOf(_ticksLeft, capacity);
+				_freeSlots = Arrays.copyOf(_freeSlots, capacity);
+			}
+			_usedSlots = slot + 1;
+		}
+		
+		final int ticks = Math.max(1, period / TICK);
+		_periods[slot] = ticks;
+		_ticksLeft[slot] = ticks;
+		_slots[slot] = status;
+		_size++;
+		return slot;
+	}
+	
+	/**
+	 * @param slot the slot returned by {@link #add(CreatureStatus, int)}
+	 */
+	public synchronized void remove(int slot)
+	{
+		if ((slot < 0) || (slot >= _usedSlots) || (_slots[slot] == null))
+		{
+			return;
+		}
+		
+		_slots[slot] = null;
+		_freeSlots[_freeCount++] = slot;
+		_size--;
+	}
+	
+	public synchronized String[] getStats()
+	{
+		return new String[]
+		{
+			"Regeneration task:",
+			" |- Creatures: ........ " + _size,
+			" |- Slots: ............ " + _usedSlots + "/" + _slots.length,
+			" |- LastRegenerated: .. " + _lastRegenerated,
+			" |- LastTickTime: ..... " + (_lastDuration / 1000) + "us",
+			" |- MaxTickTime: ...... " + (_maxDuration / 1000) + "us",
+			" |- SkippedTicks: ..... " + SKIPPED_TICKS.get(),
+			" | -------"
+		};
+	}
+	
+	private static class RegenerationTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+		
+		private final CreatureStatus[] _slots;
+		private final int[] _ticksLeft;
+		private final int[] _periods;
+		private final int _start;
+		private final int _end;
+		
+		public RegenerationTask(CreatureStatus[] slots, int[] ticksLeft, int[] periods, int start, int end)
+		{
+			_slots = slots;
+			_ticksLeft = ticksLeft;
+			_periods = periods;
+			_start = start;
+			_end = end;
+		}
+		
+		@Override
+		protected void compute()
+		{
+			if ((_end - _start) <= SLOTS_PER_TASK)
+			{
+				int regenerated = 0;
+				CreatureStatus status;
+				for (int i = _start; i < _end; i++)
+				{
+					status = _slots[i];
+					if ((status == null) || (--_ticksLeft[i] > 0))
+					{
+						continue;
+					}
+					
+					_ticksLeft[i] = _periods[i];
+					try
+					{
+						status.doRegeneration();
+						regenerated++;
+					}
+					catch (Exception e)
+					{
+						LOGGER.log(Level.WARNING, "RegenerationTaskManager: Problem regenerating " + status.getActiveChar(), e);
+					}
+				}
+				REGENERATED.addAndGet(regenerated);
+			}
+			else
+			{
+				final int middle = (_start + _end) >>> 1;
+				invokeAll(new RegenerationTask(_slots, _ticksLeft, _periods, _start, middle), new RegenerationTask(_slots, _ticksLeft, _periods, middle, _end));
+			}
+		}
+	}
+	
+	public static RegenerationTaskManager getInstance()
+	{
+		return SingletonHolder.INSTANCE;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final RegenerationTaskManager INSTANCE = new RegenerationTaskManager();
+	}
+}
@@ -19,6 +19,7 @@ package org.l2jmobius.gameserver.util;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.l2jmobius.commons.network.SharedPacket;
 import org.l2jmobius.gameserver.cache.RelationCache;
 import org.l2jmobius.gameserver.enums.ChatType;
 import org.l2jmobius.gameserver.instancemanager.ZoneManager;
@@ -27,6 +28,7 @@ import org.l2jmobius.gameserver.model.actor.Creature;
 import org.l2jmobius.gameserver.model.actor.Player;
 import org.l2jmobius.gameserver.model.actor.Summon;
 import org.l2jmobius.gameserver.model.zone.ZoneType;
+import org.l2jmobius.gameserver.network.ClientInitializer;
 import org.l2jmobius.gameserver.network.serverpackets.CharInfo;
 import org.l2jmobius.gameserver.network.serverpackets.CreatureSay;
 import org.l2jmobius.gameserver.network.serverpackets.ExShowScreenMessage;
@@ -53,13 +55,21 @@ public class Broadcast
 	 */
 	public static void toPlayersTargettingMyself(Creature creature, IClientOutgoingPacket mov)
 	{
-		World.getInstance().forEachVisibleObject(creature, Player.class, player ->
+		final SharedPacket shared = share(mov);
+		try
 		{
-			if (player.getTarget() == creature)
+			World.getInstance().forEachVisibleObject(creature, Player.class, player ->
 			{
-				player.sendPacket(mov);
-			}
-		});
+				if (player.getTarget() == creature)
+				{
+					player.sendPacket(mov, shared);
+				}
+			});
+		}
+		finally
+		{
+			release(shared);
+		}
 	}
 	
 	/**
@@ -74,12 +84,25 @@ public class Broadcast
 	 * @param mov
 	 */
 	public static void toKnownPlayers(Creature creature, IClientOutgoingPacket mov)
+	{
+		final SharedPacket shared = share(mov);
+		try
+		{
+			toKnownPlayers(creature, mov, shared);
+		}
+		finally
+		{
+			release(shared);
+		}
+	}
+	
+	private static void toKnownPlayers(Creature creature, IClientOutgoingPacket mov, SharedPacket shared)
 	{
 		World.getInstance().forEachVisibleObject(creature, Player.class, player ->
 		{
 			try
 			{
-				player.sendPacket(mov);
+				player.sendPacket(mov, shared);
 				if ((mov instanceof CharInfo) && (creature.isPlayer()))
 				{
 					final int relation = ((Player) creature).getRelation(player);
@@ -133,7 +156,15 @@ public class Broadcast
 			radius = 1500;
 		}
 		
-		World.getInstance().forEachVisibleObjectInRange(creature, Player.class, radius, player -> player.sendPacket(packet));
+		final SharedPacket shared = share(packet);
+		try
+		{
+			World.getInstance().forEachVisibleObjectInRange(creature, Player.class, radius, player -> player.sendPacket(packet, shared));
+		}
+		finally
+		{
+			release(shared);
+		}
 	}
 	
 	/**
@@ -148,12 +179,20 @@ public class Broadcast
 	 */
 	public static void toSelfAndKnownPlayers(Creature creature, IClientOutgoingPacket mov)
 	{
-		if (creature.isPlayer())
+		final SharedPacket shared = share(mov);
+		try
 		{
-			creature.sendPacket(mov);
+			if (creature.isPlayer())
+			{
+				((Player) creature).sendPacket(mov, shared);
+			}
+			
+			toKnownPlayers(creature, mov, shared);
+		}
+		finally
+		{
+			release(shared);
 		}
-		
-		toKnownPlayers(creature, mov);
 	}
 	
 	// To improve performance we are comparing values of radius^2 instead of calculating sqrt all the time
@@ -165,12 +204,20 @@ public class Broadcast
 			radius = 600;
 		}
 		
-		if (creature.isPlayer())
+		final SharedPacket shared = share(packet);
+		try
+		{
+			if (creature.isPlayer())
+			{
+				((Player) creature).sendPacket(packet, shared);
+			}
+			
+			World.getInstance().forEachVisibleObjectInRange(creature, Player.class, radius, player -> player.sendPacket(packet, shared));
+		}
+		finally
 		{
-			creature.sendPacket(packet);
+			release(shared);
 		}
-		
-		World.getInstance().forEachVisibleObjectInRange(creature, Player.class, radius, player -> player.sendPacket(packet));
 	}
 	
 	/**
@@ -184,13 +231,21 @@ public class Broadcast
 	 */
 	public static void toAllOnlinePlayers(IClientOutgoingPacket packet)
 	{
-		for (Player player : World.getInstance().getPlayers())
+		final SharedPacket shared = share(packet);
+		try
 		{
-			if (player.isOnline())
+			for (Player player : World.getInstance().getPlayers())
 			{
-				player.sendPacket(packet);
+				if (player.isOnline())
+				{
+					player.sendPacket(packet, shared);
+				}
 			}
 		}
+		finally
+		{
+			release(shared);
+		}
 	}
 	
 	public static void toAllOnlinePlayers(String text)
@@ -232,4 +287,26 @@ public class Broadcast
 			}
 		}
 	}
+	
+	/**
+	 * Prepares a packet to be serialized only once for all the receivers of a broadcast.
+	 * @param packet : The packet to share.
+	 * @return the shared packet, or {@code null} if its content depends on the receiver.
+	 */
+	private static SharedPacket share(IClientOutgoingPacket packet)
+	{
+		if ((packet == null) || !packet.isSharable())
+		{
+			return null;
+		}
+		return new SharedPacket(packet, ClientInitializer.MAX_PACKET_SIZE);
+	}
+	
+	private static void release(SharedPacket shared)
+	{
+		if (shared != null)
+		{
+			shared.release();
+		}
+	}
 }
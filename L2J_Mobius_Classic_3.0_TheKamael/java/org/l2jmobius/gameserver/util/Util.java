@@ -40,6 +40,8 @@ import java.util.stream.Collectors;
 import org.l2jmobius.Config;
 import org.l2jmobius.commons.threads.ThreadPool;
 import org.l2jmobius.commons.util.Rnd;
+import org.l2jmobius.gameserver.cache.HtmTemplate;
+import org.l2jmobius.gameserver.cache.HtmTemplate.ActionPositions;
 import org.l2jmobius.gameserver.enums.HtmlActionScope;
 import org.l2jmobius.gameserver.enums.IllegalActionPunishmentType;
 import org.l2jmobius.gameserver.model.Location;
@@ -410,32 +412,36 @@ public class Util
 				break;
 			}
 			
-			final int hParamPos = htmlLower.indexOf("-h ", bypassStartEnd);
-			String bypass;
-			if ((hParamPos != -1) && (hParamPos < bypassEnd))
-			{
-				bypass = html.substring(hParamPos + 3, bypassEnd).trim();
-			}
-			else
-			{
-				bypass = html.substring(bypassStartEnd, bypassEnd).trim();
-			}
-			
-			final int firstParameterStart = bypass.indexOf(AbstractHtmlPacket.VAR_PARAM_START_CHAR);
-			if (firstParameterStart != -1)
-			{
-				bypass = bypass.substring(0, firstParameterStart + 1);
-			}
-			
-			if (Config.HTML_ACTION_CACHE_DEBUG)
-			{
-				LOGGER.info("Cached html bypass(" + scope + "): '" + bypass + "'");
-			}
-			player.addHtmlAction(scope, bypass);
+			addHtmlBypass(player, scope, html, htmlLower.indexOf("-h ", bypassStartEnd), bypassStartEnd, bypassEnd);
 			bypassStart = htmlLower.indexOf("=\"bypass ", bypassEnd);
 		}
 	}
 	
+	private static void addHtmlBypass(Player player, HtmlActionScope scope, String html, int hParamPos, int bypassStartEnd, int bypassEnd)
+	{
+		String bypass;
+		if ((hParamPos != -1) && (hParamPos < bypassEnd))
+		{
+			bypass = html.substring(hParamPos + 3, bypassEnd).trim();
+		}
+		else
+		{
+			bypass = html.substring(bypassStartEnd, bypassEnd).trim();
+		}
+		
+		final int firstParameterStart = bypass.indexOf(AbstractHtmlPacket.VAR_PARAM_START_CHAR);
+		if (firstParameterStart != -1)
+		{
+			bypass = bypass.substring(0, firstParameterStart + 1);
+		}
+		
+		if (Config.HTML_ACTION_CACHE_DEBUG)
+		{
+			LOGGER.info("Cached html bypass(" + scope + "): '" + bypass + "'");
+		}
+		player.addHtmlAction(scope, bypass);
+	}
+	
 	private static void buildHtmlLinkCache(Player player, HtmlActionScope scope, String html)
 	{
 		final String htmlLower = html.toLowerCase(Locale.ENGLISH);
@@ -451,29 +457,34 @@ public class Util
 				break;
 			}
 			
-			final String htmlLink = html.substring(linkStartEnd, linkEnd).trim();
-			if (htmlLink.isEmpty())
-			{
-				LOGGER.warning("Html link path is empty!");
-				continue;
-			}
-			
-			if (htmlLink.contains(".."))
-			{
-				LOGGER.warning("Html link path is invalid: " + htmlLink);
-				continue;
-			}
-			
-			if (Config.HTML_ACTION_CACHE_DEBUG)
-			{
-				LOGGER.info("Cached html link(" + scope + "): '" + htmlLink + "'");
-			}
-			// let's keep an action cache with "link " lowercase literal kept
-			player.addHtmlAction(scope, "link " + htmlLink);
+			addHtmlLink(player, scope, html, linkStartEnd, linkEnd);
 			linkStart = htmlLower.indexOf("=\"link ", linkEnd);
 		}
 	}
 	
+	private static void addHtmlLink(Player player, HtmlActionScope scope, String html, int linkStartEnd, int linkEnd)
+	{
+		final String htmlLink = html.substring(linkStartEnd, linkEnd).trim();
+		if (htmlLink.isEmpty())
+		{
+			LOGGER.warning("Html link path is empty!");
+			return;
+		}
+		
+		if (htmlLink.contains(".."))
+		{
+			LOGGER.warning("Html link path is invalid: " + htmlLink);
+			return;
+		}
+		
+		if (Config.HTML_ACTION_CACHE_DEBUG)
+		{
+			LOGGER.info("Cached html link(" + scope + "): '" + htmlLink + "'");
+		}
+		// let's keep an action cache with "link " lowercase literal kept
+		player.addHtmlAction(scope, "link " + htmlLink);
+	}
+	
 	/**
 	 * Builds the html action cache for the specified scope.<br>
 	 * An {@code npcObjId} of 0 means, the cached actions can be clicked<br>
@@ -499,6 +510,75 @@ public class Util
 		buildHtmlLinkCache(player, scope, html);
 	}
 	
+	/**
+	 * Builds the html action cache for the specified scope, from the action positions found while rendering a {@link HtmTemplate}.
+	 * @param player the player to build the html action cache for
+	 * @param scope the scope to build the html action cache for
+	 * @param npcObjId the npc object id the html actions are cached for
+	 * @param html the rendered html code
+	 * @param actions the positions of the actions in the rendered html code
+	 */
+	public static void buildHtmlActionCache(Player player, HtmlActionScope scope, int npcObjId, String html, ActionPositions actions)
+	{
+		if ((player == null) || (scope == null) || (npcObjId < 0) || (html == null))
+		{
+			throw new IllegalArgumentException();
+		}
+		
+		if (Config.HTML_ACTION_CACHE_DEBUG)
+		{
+			LOGGER.info("Set html action npc(" + scope + "): " + npcObjId);
+		}
+		player.setHtmlActionOriginObjectId(scope, npcObjId);
+		
+		// Bypasses first and then links, skipping actions inside the quotes of a previous one, as the html scan does.
+		int bypassEnd = 0;
+		for (int i = 0; i < actions.size(); i++)
+		{
+			final int bypassStart = actions.get(i);
+			if ((bypassStart < bypassEnd) || !html.regionMatches(true, bypassStart, "=\"bypass ", 0, 9))
+			{
+				continue;
+			}
+			
+			final int bypassStartEnd = bypassStart + 9;
+			bypassEnd = html.indexOf('"', bypassStartEnd);
+			if (bypassEnd == -1)
+			{
+				break;
+			}
+			
+			int hParamPos = -1;
+			for (int pos = bypassStartEnd; (pos + 3) <= bypassEnd; pos++)
+			{
+				if (html.regionMatches(true, pos, "-h ", 0, 3))
+				{
+					hParamPos = pos;
+					break;
+				}
+			}
+			addHtmlBypass(player, scope, html, hParamPos, bypassStartEnd, bypassEnd);
+		}
+		
+		int linkEnd = 0;
+		for (int i = 0; i < actions.size(); i++)
+		{
+			final int linkStart = actions.get(i);
+			if ((linkStart < linkEnd) || !html.regionMatches(true, linkStart, "=\"link ", 0, 7))
+			{
+				continue;
+			}
+			
+			final int linkStartEnd = linkStart + 7;
+			linkEnd = html.indexOf('"', linkStartEnd);
+			if (linkEnd == -1)
+			{
+				break;
+			}
+			addHtmlLink(player, scope, html, linkStartEnd, linkEnd);
+		}
+	}
+	
 	/**
 	 * Helper method to send a community board html to the specified player.<br>
 	 * HtmlActionCache will be build with npc origin 0 which means the<br>
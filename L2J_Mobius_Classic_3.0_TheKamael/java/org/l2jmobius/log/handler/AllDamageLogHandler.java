@@ -17,9 +17,8 @@
 package org.l2jmobius.log.handler;
 
 import java.io.IOException;
-import java.util.logging.FileHandler;
 
-public class AllDamageLogHandler extends FileHandler
+public class AllDamageLogHandler extends AsyncFileHandler
 {
 	public AllDamageLogHandler() throws IOException
 	{
@@ -0,0 +1,460 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.log.handler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.ErrorManager;
+import java.util.logging.Filter;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.LogRecord;
+import java.util.logging.XMLFormatter;
+
+/**
+ * File handler that formats and writes log records on its own thread.<br>
+ * Logging threads only check the level and filter and queue the record in a bounded buffer, records are written to the file channel in batches.<br>
+ * Configured like {@link java.util.logging.FileHandler} with the {@code pattern}, {@code limit}, {@code count}, {@code append}, {@code level}, {@code filter}, {@code formatter} and {@code encoding} properties of the handler class, and:
+ * <ul>
+ * <li>{@code queueSize}: records the buffer holds (default 8192).</li>
+ * <li>{@code overflow}: {@code BLOCK} waits for space in a full buffer, {@code DROP} drops the record and {@code SAMPLE} keeps one of every {@code sampleRate} records once the buffer is half full, dropping the record when it is full (default BLOCK).</li>
+ * <li>{@code sampleRate}: records per kept record with {@code SAMPLE} (default 10).</li>
+ * </ul>
+ * Formatters run on the writer thread, so record parameters must not change after they are logged.<br>
+ * The file size {@code limit} is checked after each batch.
+ */
+public class AsyncFileHandler extends Handler
+{
+	private static final List<AsyncFileHandler> HANDLERS = new CopyOnWriteArrayList<>();
+	private static final LogRecord CLOSE = new LogRecord(Level.OFF, "");
+	private static final int BATCH_SIZE = 512;
+	
+	private final String _pattern;
+	private final long _limit;
+	private final int _count;
+	private final OverflowPolicy _overflow;
+	private final int _sampleRate;
+	private final BlockingQueue<LogRecord> _queue;
+	private final Thread _thread;
+	private final long _startTime = System.currentTimeMillis();
+	
+	private final StringBuilder _builder = new StringBuilder();
+	private FileChannel _channel;
+	private long _fileSize;
+	private volatile boolean _closed;
+	
+	private final AtomicLong _queued = new AtomicLong();
+	private final AtomicLong _dropped = new AtomicLong();
+	private final AtomicLong _sampleCounter = new AtomicLong();
+	private final AtomicLong _written = new AtomicLong();
+	private final AtomicLong _batches = new AtomicLong();
+	
+	public enum OverflowPolicy
+	{
+		BLOCK,
+		DROP,
+		SAMPLE
+	}
+	
+	public AsyncFileHandler() throws IOException
+	{
+		final String prefix = getClass().getName() + ".";
+		_pattern = getProperty(prefix + "pattern", "%h/java%u.log");
+		_limit = Math.max(0, Long.parseLong(getProperty(prefix + "limit", "0")));
+		_count = Math.max(1, Integer.parseInt(getProperty(prefix + "count", "1")));
+		_overflow = OverflowPolicy.valueOf(getProperty(prefix + "overflow", "BLOCK").toUpperCase());
+		_sampleRate = Math.max(1, Integer.parseInt(getProperty(prefix + "sampleRate", "10")));
+		_queue = new ArrayBlockingQueue<>(Math.max(1, Integer.parseInt(getProperty(prefix + "queueSize", "8192"))));
+		
+		setLevel(Level.parse(getProperty(prefix + "level", "ALL")));
+		setEncoding(LogManager.getLogManager().getProperty(prefix + "encoding"));
+		final Object filter = newInstance(LogManager.getLogManager().getProperty(prefix + "filter"));
+		if (filter instanceof Filter)
+		{
+			setFilter((Filter) filter);
+		}
+		final Object formatter = newInstance(getProperty(prefix + "formatter", XMLFormatter.class.getName()));
+		setFormatter(formatter instanceof Formatter ? (Formatter) formatter : new XMLFormatter());
+		
+		final boolean append = Boolean.parseBoolean(getProperty(prefix + "append", "false"));
+		if (!append)
+		{
+			rotate();
+		}
+		open(append);
+		
+		_thread = new Thread(this::run, getClass().getSimpleName());
+		_thread.setDaemon(true);
+		_thread.start();
+		HANDLERS.add(this);
+	}
+	
+	private static String getProperty(String name, String defaultValue)
+	{
+		final String value = LogManager.getLogManager().getProperty(name);
+		return value != null ? value.trim() : defaultValue;
+	}
+	
+	private Object newInstance(String className)
+	{
+		if (className == null)
+		{
+			return null;
+		}
+		
+		try
+		{
+			return ClassLoader.getSystemClassLoader().loadClass(className.trim()).getDeclaredConstructor().newInstance();
+		}
+		catch (Exception e)
+		{
+			reportError("Could not create " + className, e, ErrorManager.GENERIC_FAILURE);
+			return null;
+		}
+	}
+	
+	@Override
+	public void publish(LogRecord record)
+	{
+		if (_closed || !isLoggable(record))
+		{
+			return;
+		}
+		
+		switch (_overflow)
+		{
+			case BLOCK:
+			{
+				try
+				{
+					_queue.put(record);
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					_dropped.incrementAndGet();
+					return;
+				}
+				break;
+			}
+			case DROP:
+			{
+				if (!_queue.offer(record))
+				{
+					_dropped.incrementAndGet();
+					return;
+				}
+				break;
+			}
+			case SAMPLE:
+			{
+				if ((_queue.remainingCapacity() < _queue.size()) && ((_sampleCounter.incrementAndGet() % _sampleRate) != 0))
+				{
+					_dropped.incrementAndGet();
+					return;
+				}
+				if (!_queue.offer(record))
+				{
+					_dropped.incrementAndGet();
+					return;
+				}
+				break;
+			}
+		}
+		_queued.incrementAndGet();
+	}
+	
+	private void run()
+	{
+		final List<LogRecord> batch = new ArrayList<>(BATCH_SIZE);
+		boolean running = true;
+		while (running)
+		{
+			try
+			{
+				batch.add(_queue.take());
+			}
+			catch (InterruptedException e)
+			{
+				break;
+			}
+			
+			_queue.drainTo(batch, BATCH_SIZE - 1);
+			running = !batch.contains(CLOSE);
+			write(batch);
+			batch.clear();
+		}
+	}
+	
+	private synchronized void write(List<LogRecord> batch)
+	{
+		if (_channel == null)
+		{
+			return;
+		}
+		
+		_builder.setLength(0);
+		int records = 0;
+		for (LogRecord record : batch)
+		{
+			if (record == CLOSE)
+			{
+				continue;
+			}
+			
+			try
+			{
+				_builder.append(getFormatter().format(record));
+				records++;
+			}
+			catch (Exception e)
+			{
+				reportError(null, e, ErrorManager.FORMAT_FAILURE);
+			}
+		}
+		
+		if (records == 0)
+		{
+			return;
+		}
+		
+		write(_builder);
+		_written.addAndGet(records);
+		_batches.incrementAndGet();
+		
+		if ((_limit > 0) && (_fileSize >= _limit))
+		{
+			try
+			{
+				_channel.close();
+				rotate();
+				open(false);
+			}
+			catch (IOException e)
+			{
+				_channel = null;
+				reportError("Could not rotate " + _pattern, e, ErrorManager.OPEN_FAILURE);
+			}
+		}
+	}
+	
+	private void write(CharSequence text)
+	{
+		if (text.length() == 0)
+		{
+			return;
+		}
+		
+		final String encoding = getEncoding();
+		final ByteBuffer buffer = (encoding != null ? Charset.forName(encoding) : Charset.defaultCharset()).encode(CharBuffer.wrap(text));
+		try
+		{
+			while (buffer.hasRemaining())
+			{
+				_fileSize += _channel.write(buffer);
+			}
+		}
+		catch (IOException e)
+		{
+			reportError(null, e, ErrorManager.WRITE_FAILURE);
+		}
+	}
+	
+	private void open(boolean append) throws IOException
+	{
+		final Path path = getPath(0);
+		if (path.getParent() != null)
+		{
+			Files.createDirectories(path.getParent());
+		}
+		
+		_channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+		_fileSize = _channel.size();
+		write(getFormatter().getHead(this));
+	}
+	
+	/**
+	 * Moves each log file to the next generation, dropping the last one.
+	 * @throws IOException if a file could not be moved
+	 */
+	private void rotate() throws IOException
+	{
+		for (int generation = _count - 2; generation >= 0; generation--)
+		{
+			final Path path = getPath(generation);
+			if (Files.exists(path))
+			{
+				Files.move(path, getPath(generation + 1), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+	}
+	
+	/**
+	 * @param generation the file generation
+	 * @return the path of the log file of the generation, with {@code %t}, {@code %h}, {@code %g}, {@code %u} and {@code %%} replaced as {@link java.util.logging.FileHandler} does
+	 */
+	private Path getPath(int generation)
+	{
+		final StringBuilder sb = new StringBuilder();
+		boolean hasGeneration = false;
+		for (int i = 0; i < _pattern.length(); i++)
+		{
+			final char c = _pattern.charAt(i);
+			if ((c != '%') || (i == (_pattern.length() - 1)))
+			{
+				sb.append(c);
+				continue;
+			}
+			
+			switch (_pattern.charAt(++i))
+			{
+				case 't':
+				{
+					sb.append(System.getProperty("java.io.tmpdir"));
+					break;
+				}
+				case 'h':
+				{
+					sb.append(System.getProperty("user.home"));
+					break;
+				}
+				case 'g':
+				{
+					sb.append(generation);
+					hasGeneration = true;
+					break;
+				}
+				case 'u':
+				{
+					sb.append('0');
+					break;
+				}
+				case '%':
+				{
+					sb.append('%');
+					break;
+				}
+				default:
+				{
+					sb.append('%').append(_pattern.charAt(i));
+					break;
+				}
+			}
+		}
+		if (!hasGeneration && (_count > 1))
+		{
+			sb.append('.').append(generation);
+		}
+		return Paths.get(sb.toString());
+	}
+	
+	/**
+	 * Records are written by the writer thread as soon as they are queued.
+	 */
+	@Override
+	public void flush()
+	{
+	}
+	
+	/**
+	 * Writes the queued records and closes the file.
+	 */
+	@Override
+	public void close()
+	{
+		if (_closed)
+		{
+			return;
+		}
+		_closed = true;
+		HANDLERS.remove(this);
+		
+		try
+		{
+			if (_queue.offer(CLOSE, 5, TimeUnit.SECONDS))
+			{
+				_thread.join(5000);
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		
+		final List<LogRecord> batch = new ArrayList<>();
+		_queue.drainTo(batch);
+		synchronized (this)
+		{
+			write(batch);
+			if (_channel != null)
+			{
+				write(getFormatter().getTail(this));
+				try
+				{
+					_channel.close();
+				}
+				catch (IOException e)
+				{
+					reportError(null, e, ErrorManager.CLOSE_FAILURE);
+				}
+				_channel = null;
+			}
+		}
+	}
+	
+	/**
+	 * Writes the queued records of every open handler and closes their files.<br>
+	 * Called before {@link Runtime#halt(int)}, which skips the shutdown hook of the log manager.
+	 */
+	public static void closeAll()
+	{
+		for (AsyncFileHandler handler : HANDLERS)
+		{
+			handler.close();
+		}
+	}
+	
+	public static String[] getStats()
+	{
+		final List<String> stats = new ArrayList<>();
+		stats.add("Async log handlers:");
+		for (AsyncFileHandler handler : HANDLERS)
+		{
+			final long seconds = Math.max(1, (System.currentTimeMillis() - handler._startTime) / 1000);
+			stats.add(" |- " + handler.getClass().getSimpleName() + ": queued " + handler._queued.get() + ", written " + handler._written.get() + " (" + (handler._written.get() / seconds) + "/s), dropped " + handler._dropped.get() + ", pending " + handler._queue.size() + ", batches " + handler._batches.get());
+		}
+		stats.add(" | -------");
+		return stats.toArray(new String[stats.size()]);
+	}
+}
@@ -17,12 +17,11 @@
 package org.l2jmobius.log.handler;
 
 import java.io.IOException;
-import java.util.logging.FileHandler;
 
 /**
  * @author zabbix
  */
-public class AuditLogHandler extends FileHandler
+public class AuditLogHandler extends AsyncFileHandler
 {
 	public AuditLogHandler() throws IOException
 	{
@@ -17,9 +17,8 @@
 package org.l2jmobius.log.handler;
 
 import java.io.IOException;
-import java.util.logging.FileHandler;
 
-public class EnchantSkillLogHandler extends FileHandler
+public class EnchantSkillLogHandler extends AsyncFileHandler
 {
 	public EnchantSkillLogHandler() throws IOException
 	{
@@ -17,9 +17,8 @@
 package org.l2jmobius.log.handler;
 
 import java.io.IOException;
-import java.util.logging.FileHandler;
 
-public class GMAuditLogHandler extends FileHandler
+public class GMAuditLogHandler extends AsyncFileHandler
 {
 	public GMAuditLogHandler() throws IOException
 	{
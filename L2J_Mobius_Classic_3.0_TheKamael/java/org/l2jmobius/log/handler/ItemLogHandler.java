@@ -17,12 +17,11 @@
 package org.l2jmobius.log.handler;
 
 import java.io.IOException;
-import java.util.logging.FileHandler;
 
 /**
  * @author Advi
  */
-public class ItemLogHandler extends FileHandler
+public class ItemLogHandler extends AsyncFileHandler
 {
 	public ItemLogHandler() throws IOException
 	{
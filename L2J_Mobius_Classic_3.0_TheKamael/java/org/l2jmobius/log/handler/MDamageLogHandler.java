@@ -17,9 +17,8 @@
 package org.l2jmobius.log.handler;
 
 import java.io.IOException;
-import java.util.logging.FileHandler;
 
-public class MDamageLogHandler extends FileHandler
+public class MDamageLogHandler extends AsyncFileHandler
 {
 	public MDamageLogHandler() throws IOException
 	{
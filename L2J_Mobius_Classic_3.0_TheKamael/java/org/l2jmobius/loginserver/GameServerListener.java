@@ -16,34 +16,127 @@
  */
 package org.l2jmobius.loginserver;
 
-import java.io.IOException;
-import java.net.Socket;
 import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
 
 import org.l2jmobius.Config;
+import org.l2jmobius.commons.network.NetworkManager;
+import org.l2jmobius.loginserver.network.EventLoopGroupManager;
+import org.l2jmobius.loginserver.network.GameServerInitializer;
 
 /**
+ * Accepts the game server connections on the event loops of the login server.
  * @author KenM
  */
-public class GameServerListener extends FloodProtectedListener
+public class GameServerListener extends NetworkManager
 {
+	private static final Logger LOGGER = Logger.getLogger(GameServerListener.class.getName());
+	
 	private static Collection<GameServerThread> _gameServers = ConcurrentHashMap.newKeySet();
+	private final Map<String, ForeignConnection> _floodProtection = new ConcurrentHashMap<>();
+	
+	protected GameServerListener()
+	{
+		super(EventLoopGroupManager.getInstance().getBossGroup(), EventLoopGroupManager.getInstance().getWorkerGroup(), new GameServerInitializer(), Config.GAME_SERVER_LOGIN_HOST.equals("*") ? "0.0.0.0" : Config.GAME_SERVER_LOGIN_HOST, Config.GAME_SERVER_LOGIN_PORT);
+	}
 	
-	public GameServerListener() throws IOException
+	/**
+	 * @param ip the address of a new connection
+	 * @return {@code true} if the connection is accepted, {@code false} if it floods the listener
+	 */
+	public synchronized boolean acceptConnection(String ip)
 	{
-		super(Config.GAME_SERVER_LOGIN_HOST, Config.GAME_SERVER_LOGIN_PORT);
-		setName(getClass().getSimpleName());
+		if (!Config.FLOOD_PROTECTION)
+		{
+			return true;
+		}
+		
+		ForeignConnection fConnection = _floodProtection.get(ip);
+		if (fConnection != null)
+		{
+			fConnection.connectionNumber += 1;
+			if (((fConnection.connectionNumber > Config.FAST_CONNECTION_LIMIT) && ((System.currentTimeMillis() - fConnection.lastConnection) < Config.NORMAL_CONNECTION_TIME)) || ((System.currentTimeMillis() - fConnection.lastConnection) < Config.FAST_CONNECTION_TIME) || (fConnection.connectionNumber > Config.MAX_CONNECTION_PER_IP))
+			{
+				fConnection.lastConnection = System.currentTimeMillis();
+				fConnection.connectionNumber -= 1;
+				if (!fConnection.isFlooding)
+				{
+					LOGGER.warning("Potential Flood from " + ip);
+				}
+				fConnection.isFlooding = true;
+				return false;
+			}
+			if (fConnection.isFlooding) // if connection was flooding server but now passed the check
+			{
+				fConnection.isFlooding = false;
+				LOGGER.info(ip + " is not considered as flooding anymore.");
+			}
+			fConnection.lastConnection = System.currentTimeMillis();
+		}
+		else
+		{
+			fConnection = new ForeignConnection(System.currentTimeMillis());
+			_floodProtection.put(ip, fConnection);
+		}
+		return true;
 	}
 	
-	@Override
-	public void addClient(Socket s)
+	public synchronized void removeFloodProtection(String ip)
 	{
-		_gameServers.add(new GameServerThread(s));
+		if (!Config.FLOOD_PROTECTION)
+		{
+			return;
+		}
+		final ForeignConnection fConnection = _floodProtection.get(ip);
+		if (fConnection != null)
+		{
+			fConnection.connectionNumber -= 1;
+			if (fConnection.connectionNumber == 0)
+			{
+				_floodProtection.remove(ip);
+			}
+		}
+		else
+		{
+			LOGGER.warning("Removing a flood protection for a GameServer that was not in the connection map??? :" + ip);
+		}
+	}
+	
+	public void addGameServer(GameServerThread gst)
+	{
+		_gameServers.add(gst);
 	}
 	
 	public void removeGameServer(GameServerThread gst)
 	{
 		_gameServers.remove(gst);
 	}
+	
+	protected static class ForeignConnection
+	{
+		public int connectionNumber;
+		public long lastConnection;
+		public boolean isFlooding = false;
+		
+		/**
+		 * @param time
+		 */
+		public ForeignConnection(long time)
+		{
+			lastConnection = time;
+			connectionNumber = 1;
+		}
+	}
+	
+	public static GameServerListener getInstance()
+	{
+		return SingletonHolder.INSTANCE;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final GameServerListener INSTANCE = new GameServerListener();
+	}
 }
@@ -16,18 +16,20 @@
  */
 package org.l2jmobius.loginserver;
 
-import java.io.BufferedOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.Socket;
+import java.net.InetSocketAddress;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.l2jmobius.commons.network.BaseSendablePacket;
+import org.l2jmobius.commons.network.codecs.NewCryptCodec;
+import org.l2jmobius.commons.threads.ThreadPool;
 import org.l2jmobius.commons.util.crypt.NewCrypt;
 import org.l2jmobius.commons.util.crypt.ScrambledKeyPair;
 import org.l2jmobius.loginserver.GameServerTable.GameServerInfo;
@@ -39,22 +41,26 @@ import org.l2jmobius.loginserver.network.loginserverpackets.KickPlayer;
 import org.l2jmobius.loginserver.network.loginserverpackets.LoginServerFail;
 import org.l2jmobius.loginserver.network.loginserverpackets.RequestCharacters;
 
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+
 /**
+ * The connection of a game server, handled on the event loop of its channel.
  * @author -Wooden-
  * @author KenM
  */
-public class GameServerThread extends Thread
+public class GameServerThread extends SimpleChannelInboundHandler<byte[]>
 {
 	protected static final Logger LOGGER = Logger.getLogger(GameServerThread.class.getName());
-	private final Socket _connection;
-	private InputStream _in;
-	private OutputStream _out;
+	private final NewCryptCodec _cryptCodec;
+	private Channel _channel;
 	private final RSAPublicKey _publicKey;
 	private final RSAPrivateKey _privateKey;
-	private NewCrypt _blowfish;
-	private GameServerState _loginConnectionState = GameServerState.CONNECTED;
-	
-	private final String _connectionIp;
+	private volatile GameServerState _loginConnectionState = GameServerState.CONNECTED;
+	private final Queue<Runnable> _tasks = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger _pendingTasks = new AtomicInteger();
 	
 	private GameServerInfo _gsi;
 	
@@ -63,10 +69,20 @@ public class GameServerThread extends Thread
 	
 	private String _connectionIPAddress;
 	
+	public GameServerThread(NewCryptCodec cryptCodec)
+	{
+		_cryptCodec = cryptCodec;
+		final ScrambledKeyPair pair = LoginController.getInstance().getScrambledRSAKeyPair();
+		_privateKey = (RSAPrivateKey) pair.getPrivateKey();
+		_publicKey = (RSAPublicKey) pair.getPublicKey();
+	}
+	
 	@Override
-	public void run()
+	public void channelActive(ChannelHandlerContext ctx)
 	{
-		_connectionIPAddress = _connection.getInetAddress().getHostAddress();
+		_channel = ctx.channel();
+		_connectionIPAddress = ((InetSocketAddress) _channel.remoteAddress()).getAddress().getHostAddress();
+		GameServerListener.getInstance().addGameServer(this);
 		if (isBannedGameserverIP(_connectionIPAddress))
 		{
 			LOGGER.info("GameServerRegistration: IP Address " + _connectionIPAddress + " is on Banned IP list.");
@@ -75,74 +91,70 @@ public class GameServerThread extends Thread
 			return;
 		}
 		
-		final InitLS startPacket = new InitLS(_publicKey.getModulus().toByteArray());
-		try
+		sendPacket(new InitLS(_publicKey.getModulus().toByteArray()));
+	}
+	
+	@Override
+	protected void channelRead0(ChannelHandlerContext ctx, byte[] data)
+	{
+		GameServerPacketHandler.handlePacket(data, this);
+	}
+	
+	/**
+	 * Runs the database work of a packet of this game server on the thread pool, one task at a time in the order the packets were received.
+	 * @param task the task
+	 */
+	public void execute(Runnable task)
+	{
+		_tasks.offer(task);
+		if (_pendingTasks.getAndIncrement() == 0)
+		{
+			ThreadPool.execute(this::runTasks);
+		}
+	}
+	
+	private void runTasks()
+	{
+		Runnable task;
+		while ((task = _tasks.poll()) != null)
 		{
-			sendPacket(startPacket);
+			try
+			{
+				task.run();
+			}
+			catch (Exception e)
+			{
+				LOGGER.log(Level.WARNING, "GameServer " + _connectionIPAddress + ": Problem running packet task.", e);
+			}
 			
-			int lengthHi = 0;
-			int lengthLo = 0;
-			int length = 0;
-			boolean checksumOk = false;
-			for (;;)
+			if (_pendingTasks.decrementAndGet() == 0)
 			{
-				lengthLo = _in.read();
-				lengthHi = _in.read();
-				length = (lengthHi * 256) + lengthLo;
-				if ((lengthHi < 0) || _connection.isClosed())
-				{
-					LOGGER.finer("LoginServerThread: Login terminated the connection.");
-					break;
-				}
-				
-				final byte[] data = new byte[length - 2];
-				int receivedBytes = 0;
-				int newBytes = 0;
-				int left = length - 2;
-				while ((newBytes != -1) && (receivedBytes < (length - 2)))
-				{
-					newBytes = _in.read(data, receivedBytes, left);
-					receivedBytes += newBytes;
-					left -= newBytes;
-				}
-				
-				if (receivedBytes != (length - 2))
-				{
-					LOGGER.warning("Incomplete Packet is sent to the server, closing connection.(LS)");
-					break;
-				}
-				
-				// decrypt if we have a key
-				_blowfish.decrypt(data, 0, data.length);
-				checksumOk = NewCrypt.verifyChecksum(data);
-				if (!checksumOk)
-				{
-					LOGGER.warning("Incorrect packet checksum, closing connection (LS)");
-					return;
-				}
-				
-				GameServerPacketHandler.handlePacket(data, this);
+				return;
 			}
 		}
-		catch (IOException e)
-		{
-			final String serverName = getServerId() != -1 ? "[" + getServerId() + "] " + GameServerTable.getInstance().getServerNameById(getServerId()) : "(" + _connectionIPAddress + ")";
-			final String msg = "GameServer " + serverName + ": Connection lost: " + e.getMessage();
-			LOGGER.info(msg);
-		}
-		finally
+	}
+	
+	@Override
+	public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause)
+	{
+		final String serverName = getServerId() != -1 ? "[" + getServerId() + "] " + GameServerTable.getInstance().getServerNameById(getServerId()) : "(" + _connectionIPAddress + ")";
+		LOGGER.info("GameServer " + serverName + ": Connection lost: " + cause.getMessage());
+		ctx.close();
+	}
+	
+	@Override
+	public void channelInactive(ChannelHandlerContext ctx)
+	{
+		if (isAuthed())
 		{
-			if (isAuthed())
+			if (_gsi != null)
 			{
-				if (_gsi != null)
-				{
-					_gsi.setDown();
-				}
-				LOGGER.info("Server [" + getServerId() + "] " + GameServerTable.getInstance().getServerNameById(getServerId()) + " is now set as disconnected.");
+				_gsi.setDown();
 			}
-			LoginServer.getInstance().getGameServerListener().removeGameServer(this);
-			LoginServer.getInstance().getGameServerListener().removeFloodProtection(_connectionIp);
+			LOGGER.info("Server [" + getServerId() + "] " + GameServerTable.getInstance().getServerNameById(getServerId()) + " is now set as disconnected.");
 		}
+		GameServerListener.getInstance().removeGameServer(this);
+		GameServerListener.getInstance().removeFloodProtection(_connectionIPAddress);
 	}
 	
 	public boolean hasAccountOnGameServer(String account)
@@ -178,16 +190,7 @@ public class GameServerThread extends Thread
 	
 	public void forceClose(int reason)
 	{
-		sendPacket(new LoginServerFail(reason));
-		
-		try
-		{
-			_connection.close();
-		}
-		catch (IOException e)
-		{
-			LOGGER.finer("GameServerThread: Failed disconnecting banned server, server already disconnected.");
-		}
+		_channel.writeAndFlush(new LoginServerFail(reason)).addListener(ChannelFutureListener.CLOSE);
 	}
 	
 	/**
@@ -199,51 +202,12 @@ public class GameServerThread extends Thread
 		return false;
 	}
 	
-	public GameServerThread(Socket con)
-	{
-		_connection = con;
-		_connectionIp = con.getInetAddress().getHostAddress();
-		try
-		{
-			_in = _connection.getInputStream();
-			_out = new BufferedOutputStream(_connection.getOutputStream());
-		}
-		catch (IOException e)
-		{
-			LOGGER.warning(getClass().getSimpleName() + ": " + e.getMessage());
-		}
-		final ScrambledKeyPair pair = LoginController.getInstance().getScrambledRSAKeyPair();
-		_privateKey = (RSAPrivateKey) pair.getPrivateKey();
-		_publicKey = (RSAPublicKey) pair.getPublicKey();
-		_blowfish = new NewCrypt("_;v.]05-31!|+-%xT!^[$\00");
-		setName(getClass().getSimpleName() + "-" + getId() + "@" + _connectionIp);
-		start();
-	}
-	
 	/**
 	 * @param sl
 	 */
 	public void sendPacket(BaseSendablePacket sl)
 	{
-		try
-		{
-			final byte[] data = sl.getContent();
-			NewCrypt.appendChecksum(data);
-			_blowfish.crypt(data, 0, data.length);
-			
-			final int len = data.length + 2;
-			synchronized (_out)
-			{
-				_out.write(len & 0xff);
-				_out.write((len >> 8) & 0xff);
-				_out.write(data);
-				_out.flush();
-			}
-		}
-		catch (IOException e)
-		{
-			LOGGER.severe("IOException while sending packet " + sl.getClass().getSimpleName());
-		}
+		_channel.writeAndFlush(sl);
 	}
 	
 	public void kickPlayer(String account)
@@ -332,7 +296,7 @@ public class GameServerThread extends Thread
 	
 	public void SetBlowFish(NewCrypt blowfish)
 	{
-		_blowfish = blowfish;
+		_cryptCodec.setCrypt(blowfish);
 	}
 	
 	public void addAccountOnGameServer(String account)
@@ -33,8 +33,10 @@ import org.l2jmobius.Config;
 import org.l2jmobius.commons.database.DatabaseBackup;
 import org.l2jmobius.commons.database.DatabaseFactory;
 import org.l2jmobius.commons.enums.ServerMode;
+import org.l2jmobius.commons.threads.ThreadPool;
 import org.l2jmobius.commons.util.PropertiesParser;
 import org.l2jmobius.gameserver.network.loginserverpackets.game.ServerStatus;
+import org.l2jmobius.log.handler.AsyncFileHandler;
 import org.l2jmobius.loginserver.network.ClientNetworkManager;
 import org.l2jmobius.loginserver.ui.Gui;
 
@@ -47,7 +49,6 @@ public class LoginServer
 	
 	public static final int PROTOCOL_REV = 0x0106;
 	private static LoginServer INSTANCE;
-	private GameServerListener _gameServerListener;
 	private Thread _restartLoginServer;
 	private static int _loginStatus = ServerStatus.STATUS_NORMAL;
 	
@@ -91,6 +92,9 @@ public class LoginServer
 		// Load Config
 		Config.load(ServerMode.LOGIN);
 		
+		// Thread pools, for the database work of game server packets
+		ThreadPool.init();
+		
 		// Prepare Database
 		DatabaseFactory.init();
 		
@@ -118,11 +122,9 @@ public class LoginServer
 		
 		try
 		{
-			_gameServerListener = new GameServerListener();
-			_gameServerListener.start();
-			LOGGER.info("Listening for GameServers on " + Config.GAME_SERVER_LOGIN_HOST + ":" + Config.GAME_SERVER_LOGIN_PORT);
+			GameServerListener.getInstance().start();
 		}
-		catch (IOException e)
+		catch (Exception e)
 		{
 			LOGGER.log(Level.SEVERE, "FATAL: Failed to start the Game Server Listener. Reason: " + e.getMessage(), e);
 			System.exit(1);
@@ -131,11 +133,6 @@ public class LoginServer
 		ClientNetworkManager.getInstance().start();
 	}
 	
-	public GameServerListener getGameServerListener()
-	{
-		return _gameServerListener;
-	}
-	
 	public void loadBanFile()
 	{
 		final File bannedFile = new File("./banned_ip.cfg");
@@ -224,6 +221,7 @@ public class LoginServer
 		{
 			DatabaseBackup.performBackup();
 		}
+		AsyncFileHandler.closeAll();
 		Runtime.getRuntime().exit(restart ? 2 : 0);
 	}
 	
@@ -0,0 +1,52 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.loginserver.network;
+
+import java.nio.ByteOrder;
+
+import org.l2jmobius.commons.network.codecs.LengthFieldBasedFrameEncoder;
+import org.l2jmobius.commons.network.codecs.NewCryptCodec;
+import org.l2jmobius.loginserver.GameServerListener;
+import org.l2jmobius.loginserver.GameServerThread;
+
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+
+/**
+ * Pipeline of the login server link to a game server, framed by a length prefix and encrypted with {@link NewCryptCodec}.
+ */
+public class GameServerInitializer extends ChannelInitializer<SocketChannel>
+{
+	private static final LengthFieldBasedFrameEncoder LENGTH_ENCODER = new LengthFieldBasedFrameEncoder();
+	
+	@Override
+	protected void initChannel(SocketChannel ch)
+	{
+		if (!GameServerListener.getInstance().acceptConnection(ch.remoteAddress().getAddress().getHostAddress()))
+		{
+			ch.close();
+			return;
+		}
+		
+		final NewCryptCodec cryptCodec = new NewCryptCodec();
+		ch.pipeline().addLast("length-decoder", new LengthFieldBasedFrameDecoder(ByteOrder.LITTLE_ENDIAN, 0xFFFF, 0, 2, -2, 2, false));
+		ch.pipeline().addLast("length-encoder", LENGTH_ENCODER);
+		ch.pipeline().addLast("crypt-codec", cryptCodec);
+		ch.pipeline().addLast(new GameServerThread(cryptCodec));
+	}
+}
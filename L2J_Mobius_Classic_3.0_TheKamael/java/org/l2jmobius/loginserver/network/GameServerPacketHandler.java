@@ -47,6 +47,12 @@ public class GameServerPacketHandler
 		AUTHED
 	}
 	
+	/**
+	 * Reads a packet on the network thread, packets that use the database run later with {@link GameServerThread#execute(Runnable)}.
+	 * @param data the packet data
+	 * @param server the game server
+	 * @return the packet read on the network thread, or {@code null}
+	 */
 	public static BaseRecievePacket handlePacket(byte[] data, GameServerThread server)
 	{
 		BaseRecievePacket msg = null;
@@ -78,7 +84,8 @@ public class GameServerPacketHandler
 				{
 					case 0x01:
 					{
-						msg = new GameServerAuth(data, server);
+						// Registering a new game server writes to the database and the hexid file.
+						server.execute(() -> new GameServerAuth(data, server));
 						break;
 					}
 					default:
@@ -106,7 +113,7 @@ public class GameServerPacketHandler
 					}
 					case 0x04:
 					{
-						msg = new ChangeAccessLevel(data, server);
+						server.execute(() -> new ChangeAccessLevel(data, server));
 						break;
 					}
 					case 0x05:
@@ -121,7 +128,7 @@ public class GameServerPacketHandler
 					}
 					case 0x07:
 					{
-						msg = new PlayerTracert(data);
+						server.execute(() -> new PlayerTracert(data));
 						break;
 					}
 					case 0x08:
@@ -136,12 +143,12 @@ public class GameServerPacketHandler
 					}
 					case 0x0A:
 					{
-						msg = new RequestTempBan(data);
+						server.execute(() -> new RequestTempBan(data));
 						break;
 					}
 					case 0x0B:
 					{
-						new ChangePassword(data);
+						server.execute(() -> new ChangePassword(data));
 						break;
 					}
 					default:
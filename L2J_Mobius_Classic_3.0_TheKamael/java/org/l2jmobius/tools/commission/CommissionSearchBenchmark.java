@@ -0,0 +1,229 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.tools.commission;
+
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.l2jmobius.gameserver.instancemanager.ItemCommissionManager;
+import org.l2jmobius.gameserver.model.commission.CommissionItemType;
+import org.l2jmobius.gameserver.model.item.type.CrystalType;
+
+/**
+ * Benchmark of the {@link ItemCommissionManager} search with synthetic listings, without datapack or database.<br>
+ * Each search shape is run with:
+ * <ul>
+ * <li>the full scan it replaces, the first matching listings in commission id order,</li>
+ * <li>the full scan sorted by price, the same result as the merge,</li>
+ * <li>the merge of the price ordered item type and grade sets of {@link ItemCommissionManager#search}.</li>
+ * </ul>
+ * The merged results are checked against a full sort of the matching listings by price.
+ * 
+ * <pre>
+ * java -cp "./../libs/*" org.l2jmobius.tools.commission.CommissionSearchBenchmark [listings] [seed]
+ * </pre>
+ */
+public class CommissionSearchBenchmark
+{
+	private static final int LIMIT = 999;
+	private static final int WARMUP = 50;
+	private static final int MIN_ROUNDS = 20;
+	private static final long MIN_TIME = 500000000L;
+	private static final String[] WORDS =
+	{
+		"Sword",
+		"Blade",
+		"Bow",
+		"Staff",
+		"Helmet",
+		"Gloves",
+		"Boots",
+		"Ring",
+		"Earring",
+		"Necklace",
+		"Potion",
+		"Scroll",
+		"Dye",
+		"Crystal",
+		"Stone",
+		"Recipe"
+	};
+	private static final String[] PREFIXES =
+	{
+		"Ancient",
+		"Blessed",
+		"Dark",
+		"Elven",
+		"Great",
+		"Heavy",
+		"Light",
+		"Major",
+		"Noble",
+		"Sealed"
+	};
+	private static final Comparator<Listing> PRICE_ORDER = Comparator.comparingLong(Listing::getPricePerUnit).thenComparingLong(Listing::getCommissionId);
+	
+	public static void main(String[] args)
+	{
+		final int count = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		final long seed = args.length > 1 ? Long.parseLong(args[1]) : 12345;
+		
+		// Both layouts of the manager, the commission id map and the item type and grade index.
+		final Random random = new Random(seed);
+		final CommissionItemType[] types = CommissionItemType.values();
+		final CrystalType[] grades = CrystalType.values();
+		final Map<Long, Listing> listings = new ConcurrentSkipListMap<>();
+		final Map<CommissionItemType, Map<CrystalType, NavigableSet<Listing>>> index = new ConcurrentHashMap<>();
+		for (long id = 1; id <= count; id++)
+		{
+			final String name = PREFIXES[random.nextInt(PREFIXES.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+			final Listing listing = new Listing(id, types[random.nextInt(types.length)], grades[random.nextInt(grades.length)], name, 1 + random.nextInt(10000000));
+			listings.put(id, listing);
+			index.computeIfAbsent(listing._type, k -> new ConcurrentHashMap<>()).computeIfAbsent(listing._grade, k -> new ConcurrentSkipListSet<>(PRICE_ORDER)).add(listing);
+		}
+		System.out.println("Listings: " + count + " Item types: " + types.length + " Grades: " + grades.length);
+		
+		// @formatter:off
+		final Search[] searches =
+		{
+			new Search("type and grade", EnumSet.of(types[0]), grades[1], ""),
+			new Search("type, any grade", EnumSet.of(types[0]), null, ""),
+			new Search("type group, any grade", EnumSet.range(types[0], types[Math.min(10, types.length - 1)]), null, ""),
+			new Search("type group and name", EnumSet.range(types[0], types[Math.min(10, types.length - 1)]), null, "sword"),
+			new Search("any type, grade", null, grades[1], ""),
+			new Search("any type, rare name", null, null, "sealed dye"),
+		};
+		// @formatter:on
+		
+		boolean passed = true;
+		for (Search search : searches)
+		{
+			final Predicate<Listing> nameFilter = search._name.isEmpty() ? null : listing -> listing.getName().toLowerCase(Locale.ENGLISH).contains(search._name);
+			final Predicate<Listing> fullFilter = listing -> ((search._types == null) || search._types.contains(listing._type)) && ((search._grade == null) || (search._grade == listing._grade)) && ((nameFilter == null) || nameFilter.test(listing));
+			
+			// The cheapest matching listings, in price order.
+			final List<Listing> expected = listings.values().stream().filter(fullFilter).sorted(PRICE_ORDER).limit(LIMIT).collect(Collectors.toList());
+			final List<Listing> result = ItemCommissionManager.search(index, PRICE_ORDER, search._types, search._grade, nameFilter, LIMIT);
+			final boolean matches = expected.equals(result);
+			passed &= matches;
+			
+			final double scan = time(() -> listings.values().stream().filter(fullFilter).limit(LIMIT).collect(Collectors.toList()).size());
+			final double sort = time(() -> listings.values().stream().filter(fullFilter).sorted(PRICE_ORDER).limit(LIMIT).collect(Collectors.toList()).size());
+			final double merge = time(() -> ItemCommissionManager.search(index, PRICE_ORDER, search._types, search._grade, nameFilter, LIMIT).size());
+			System.out.println(String.format("%-22s results: %4d scan: %8.1f us scan and sort: %8.1f us merge: %8.1f us %s", search._label, result.size(), scan / 1000, sort / 1000, merge / 1000, matches ? "" : "MISMATCH"));
+		}
+		
+		System.out.println(passed ? "PASSED" : "FAILED");
+		System.exit(passed ? 0 : 1);
+	}
+	
+	/**
+	 * @param search the search to run
+	 * @return the mean time of one search in nanoseconds
+	 */
+	private static double time(SearchRun search)
+	{
+		long sink = 0;
+		for (int i = 0; i < WARMUP; i++)
+		{
+			sink += search.run();
+		}
+		final long start = System.nanoTime();
+		long duration = 0;
+		int rounds = 0;
+		while ((rounds < MIN_ROUNDS) || (duration < MIN_TIME))
+		{
+			sink += search.run();
+			duration = System.nanoTime() - start;
+			rounds++;
+		}
+		if (sink < 0)
+		{
+			System.out.println(sink);
+		}
+		return (double) duration / rounds;
+	}
+	
+	@FunctionalInterface
+	private interface SearchRun
+	{
+		int run();
+	}
+	
+	private static class Search
+	{
+		protected final String _label;
+		protected final Set<CommissionItemType> _types;
+		protected final CrystalType _grade;
+		protected final String _name;
+		
+		protected Search(String label, Set<CommissionItemType> types, CrystalType grade, String name)
+		{
+			_label = label;
+			_types = types;
+			_grade = grade;
+			_name = name;
+		}
+	}
+	
+	/**
+	 * The commission item fields the search reads.
+	 */
+	private static class Listing
+	{
+		private final long _commissionId;
+		protected final CommissionItemType _type;
+		protected final CrystalType _grade;
+		private final String _name;
+		private final long _pricePerUnit;
+		
+		protected Listing(long commissionId, CommissionItemType type, CrystalType grade, String name, long pricePerUnit)
+		{
+			_commissionId = commissionId;
+			_type = type;
+			_grade = grade;
+			_name = name;
+			_pricePerUnit = pricePerUnit;
+		}
+		
+		public long getCommissionId()
+		{
+			return _commissionId;
+		}
+		
+		public String getName()
+		{
+			return _name;
+		}
+		
+		public long getPricePerUnit()
+		{
+			return _pricePerUnit;
+		}
+	}
+}
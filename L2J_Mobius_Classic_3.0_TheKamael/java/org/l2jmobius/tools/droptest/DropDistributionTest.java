@@ -0,0 +1,675 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.tools.droptest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.IntPredicate;
+
+import org.l2jmobius.Config;
+import org.l2jmobius.commons.util.Rnd;
+import org.l2jmobius.gameserver.enums.DropType;
+import org.l2jmobius.gameserver.model.drops.DropSampler;
+import org.l2jmobius.gameserver.model.holders.DropGroupHolder;
+import org.l2jmobius.gameserver.model.holders.DropHolder;
+import org.l2jmobius.gameserver.model.holders.ItemHolder;
+import org.l2jmobius.gameserver.model.itemcontainer.Inventory;
+import org.l2jmobius.gameserver.util.Util;
+
+/**
+ * Statistical comparison of the {@link DropSampler} with the per item drop calculation it replaces, without datapack or database.<br>
+ * Synthetic drop groups, drop and spoil lists are rolled by both implementations for several kill scenarios, then compared with:
+ * <ul>
+ * <li>a two proportion z-test of the drop frequency of each item,</li>
+ * <li>a z-test of the mean amount of each item,</li>
+ * <li>a chi-square homogeneity test of the number of items dropped per kill.</li>
+ * </ul>
+ * The champion extra drop and the VIP drops are rolled after the sampler and did not change, so they are left out.
+ * 
+ * <pre>
+ * java -cp "./../libs/*" org.l2jmobius.tools.droptest.DropDistributionTest [kills] [seed]
+ * </pre>
+ */
+public class DropDistributionTest
+{
+	private static final double MAX_Z = 5;
+	private static final int MIN_AMOUNT_DROPS = 30;
+	private static final int HERB_ID = 8600;
+	private static final int DISABLED_ID = 1000;
+	private static final int BOOSTED_ID = 1001;
+	private static final int PREMIUM_ID = 1002;
+	private static final IntPredicate HERBS = itemId -> (itemId >= HERB_ID) && (itemId < (HERB_ID + 100));
+	
+	public static void main(String[] args)
+	{
+		final int kills = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		final long seed = args.length > 1 ? Long.parseLong(args[1]) : 12345;
+		
+		loadRates();
+		final Random random = new Random(seed);
+		final List<DropGroupHolder> groups = createGroups();
+		final List<DropHolder> dropList = createList(random, DropType.DROP, 60);
+		final List<DropHolder> spoilList = createList(random, DropType.SPOIL, 12);
+		final DropSampler sampler = DropSampler.compile(groups, dropList, spoilList, HERBS);
+		
+		// @formatter:off
+		final Scenario[] scenarios =
+		{
+			new Scenario("normal", 0, false, false, false, 1, 1, 1, Config.DROP_MAX_OCCURRENCES_NORMAL),
+			new Scenario("level gap", -9, false, false, false, 1, 1, 1, Config.DROP_MAX_OCCURRENCES_NORMAL),
+			new Scenario("champion", 2, true, false, false, 1, 1, 1, Config.DROP_MAX_OCCURRENCES_NORMAL),
+			new Scenario("raid", -3, false, true, false, 1, 1, 1, Config.DROP_MAX_OCCURRENCES_RAIDBOSS),
+			new Scenario("premium bonus", 0, false, false, true, 1.7, 1.3, 1.5, Config.DROP_MAX_OCCURRENCES_NORMAL),
+			new Scenario("single occurrence", 0, true, false, true, 2.5, 1, 1, 1),
+		};
+		// @formatter:on
+		
+		boolean passed = true;
+		System.out.println("Drop distribution test, " + kills + " kills per scenario, seed " + seed + ".");
+		for (Scenario scenario : scenarios)
+		{
+			passed &= compare(scenario, "groups", kills, () -> Reference.calculateGroupDrops(groups, scenario), () -> sampler.calculateGroupDrops(scenario._levelDifference, scenario.getMask(), scenario._maxOccurrences, scenario._bonusRate, scenario._bonusAmount, scenario._bonusAdena));
+			passed &= compare(scenario, "drop list", kills, () -> Reference.calculateUngroupedDrops(dropList, scenario), () -> sampler.calculateUngroupedDrops(DropType.DROP, scenario._levelDifference, scenario.getMask(), scenario._maxOccurrences, scenario._bonusRate, scenario._bonusAmount, scenario._bonusAdena));
+			passed &= compare(scenario, "spoil list", kills, () -> Reference.calculateUngroupedDrops(spoilList, scenario), () -> sampler.calculateUngroupedDrops(DropType.SPOIL, scenario._levelDifference, scenario.getMask(), scenario._maxOccurrences, scenario._bonusRate, scenario._bonusAmount, scenario._bonusAdena));
+		}
+		System.out.println(passed ? "PASSED" : "FAILED");
+		System.exit(passed ? 0 : 1);
+	}
+	
+	private static void loadRates()
+	{
+		Config.RATE_DROP_CHANCE_BY_ID = new HashMap<>();
+		Config.RATE_DROP_CHANCE_BY_ID.put(Inventory.ADENA_ID, 1.2f);
+		Config.RATE_DROP_CHANCE_BY_ID.put(DISABLED_ID, 0f);
+		Config.RATE_DROP_CHANCE_BY_ID.put(BOOSTED_ID, 4f);
+		Config.RATE_DROP_AMOUNT_BY_ID = new HashMap<>();
+		Config.RATE_DROP_AMOUNT_BY_ID.put(Inventory.ADENA_ID, 3f);
+		Config.PREMIUM_RATE_DROP_CHANCE_BY_ID = new HashMap<>();
+		Config.PREMIUM_RATE_DROP_CHANCE_BY_ID.put(PREMIUM_ID, 2f);
+		Config.PREMIUM_RATE_DROP_AMOUNT_BY_ID = new HashMap<>();
+		Config.PREMIUM_RATE_DROP_AMOUNT_BY_ID.put(PREMIUM_ID, 5f);
+		Config.RATE_DEATH_DROP_CHANCE_MULTIPLIER = 1.5f;
+		Config.RATE_DEATH_DROP_AMOUNT_MULTIPLIER = 2;
+		Config.RATE_RAID_DROP_CHANCE_MULTIPLIER = 3;
+		Config.RATE_RAID_DROP_AMOUNT_MULTIPLIER = 1.5f;
+		Config.RATE_HERB_DROP_CHANCE_MULTIPLIER = 0.5f;
+		Config.RATE_HERB_DROP_AMOUNT_MULTIPLIER = 1;
+		Config.RATE_SPOIL_DROP_CHANCE_MULTIPLIER = 1.25f;
+		Config.RATE_SPOIL_DROP_AMOUNT_MULTIPLIER = 2;
+		Config.CHAMPION_REWARDS_CHANCE = 2.5f;
+		Config.CHAMPION_REWARDS_AMOUNT = 1.5f;
+		Config.CHAMPION_ADENAS_REWARDS_CHANCE = 1.5f;
+		Config.CHAMPION_ADENAS_REWARDS_AMOUNT = 2;
+		Config.PREMIUM_RATE_DROP_CHANCE = 1.3f;
+		Config.PREMIUM_RATE_DROP_AMOUNT = 1.2f;
+		Config.PREMIUM_RATE_SPOIL_CHANCE = 1.4f;
+		Config.PREMIUM_RATE_SPOIL_AMOUNT = 1.1f;
+		Config.DROP_MAX_OCCURRENCES_NORMAL = 2;
+		Config.DROP_MAX_OCCURRENCES_RAIDBOSS = 7;
+		Config.DROP_ADENA_MIN_LEVEL_DIFFERENCE = 8;
+		Config.DROP_ADENA_MAX_LEVEL_DIFFERENCE = 15;
+		Config.DROP_ADENA_MIN_LEVEL_GAP_CHANCE = 10;
+		Config.DROP_ITEM_MIN_LEVEL_DIFFERENCE = 5;
+		Config.DROP_ITEM_MAX_LEVEL_DIFFERENCE = 10;
+		Config.DROP_ITEM_MIN_LEVEL_GAP_CHANCE = 10;
+		DropSampler.reloadLevelGaps();
+	}
+	
+	private static List<DropGroupHolder> createGroups()
+	{
+		final List<DropGroupHolder> groups = new ArrayList<>();
+		final DropGroupHolder partial = new DropGroupHolder(60);
+		partial.addDrop(new DropHolder(DropType.DROP, 2001, 1, 1, 35));
+		partial.addDrop(new DropHolder(DropType.DROP, Inventory.ADENA_ID, 100, 500, 25));
+		partial.addDrop(new DropHolder(DropType.DROP, DISABLED_ID, 1, 1, 10));
+		partial.addDrop(new DropHolder(DropType.DROP, 2002, 1, 3, 7.5));
+		partial.addDrop(new DropHolder(DropType.DROP, HERB_ID + 1, 1, 1, 2.5));
+		groups.add(partial);
+		
+		// Chances over 100, the last items can only drop when the level gap skips an earlier one.
+		final DropGroupHolder overflow = new DropGroupHolder(35);
+		overflow.addDrop(new DropHolder(DropType.DROP, 2003, 1, 2, 60));
+		overflow.addDrop(new DropHolder(DropType.DROP, BOOSTED_ID, 1, 1, 30));
+		overflow.addDrop(new DropHolder(DropType.DROP, PREMIUM_ID, 5, 10, 20));
+		overflow.addDrop(new DropHolder(DropType.DROP, 2004, 1, 1, 15));
+		groups.add(overflow);
+		
+		final DropGroupHolder rare = new DropGroupHolder(5);
+		rare.addDrop(new DropHolder(DropType.DROP, 2005, 1, 1, 50));
+		rare.addDrop(new DropHolder(DropType.DROP, 2006, 1, 1, 50));
+		groups.add(rare);
+		return groups;
+	}
+	
+	/**
+	 * @param random the table generator
+	 * @param dropType the drop type of the items
+	 * @param size the number of items
+	 * @return items with chances from 0.001 to 150, sorted by chance like the NPC data
+	 */
+	private static List<DropHolder> createList(Random random, DropType dropType, int size)
+	{
+		final int firstId = dropType == DropType.SPOIL ? 4000 : 3000;
+		final List<DropHolder> list = new ArrayList<>(size);
+		list.add(new DropHolder(dropType, Inventory.ADENA_ID, 50, 150, 70));
+		list.add(new DropHolder(dropType, firstId, 1, 1, 100));
+		list.add(new DropHolder(dropType, firstId + 1, 2, 4, 150));
+		if (dropType != DropType.SPOIL)
+		{
+			list.add(new DropHolder(dropType, DISABLED_ID, 1, 1, 40));
+			list.add(new DropHolder(dropType, BOOSTED_ID, 1, 1, 30));
+			list.add(new DropHolder(dropType, PREMIUM_ID, 1, 5, 8));
+			list.add(new DropHolder(dropType, HERB_ID + 2, 1, 1, 20));
+			list.add(new DropHolder(dropType, HERB_ID + 3, 1, 2, 5));
+		}
+		for (int i = list.size(); i < size; i++)
+		{
+			final double chance = Math.pow(10, (random.nextDouble() * 4.8) - 3);
+			final long min = 1 + random.nextInt(3);
+			list.add(new DropHolder(dropType, firstId + i, min, min + random.nextInt(5), chance));
+		}
+		Collections.sort(list, (d1, d2) -> Double.valueOf(d2.getChance()).compareTo(Double.valueOf(d1.getChance())));
+		return list;
+	}
+	
+	private static boolean compare(Scenario scenario, String part, int kills, DropCalculation reference, DropCalculation sampler)
+	{
+		// Warm up both implementations before the measured runs.
+		run(reference, new Tally(), kills / 10);
+		run(sampler, new Tally(), kills / 10);
+		
+		final Tally expected = new Tally();
+		final Tally actual = new Tally();
+		final long referenceTime = run(reference, expected, kills);
+		final long samplerTime = run(sampler, actual, kills);
+		
+		final Set<Integer> itemIds = new TreeSet<>(expected._items.keySet());
+		itemIds.addAll(actual._items.keySet());
+		double maxZ = 0;
+		String worst = "-";
+		for (Integer itemId : itemIds)
+		{
+			final long[] e = expected._items.getOrDefault(itemId, new long[3]);
+			final long[] a = actual._items.getOrDefault(itemId, new long[3]);
+			final double frequencyZ = proportionZ(e[0], a[0], kills);
+			final double amountZ = meanZ(e, a);
+			if (Math.max(frequencyZ, amountZ) > maxZ)
+			{
+				maxZ = Math.max(frequencyZ, amountZ);
+				worst = "item " + itemId + (frequencyZ >= amountZ ? " frequency " : " amount ") + String.format("%.3f/%.3f", (e[0] * 100d) / kills, (a[0] * 100d) / kills) + "%";
+			}
+		}
+		
+		final double countZ = chiSquareZ(expected._counts, actual._counts);
+		final boolean passed = (maxZ < MAX_Z) && (countZ < MAX_Z);
+		System.out.println(String.format(" |- %-18s %-10s items |z| max %5.2f (%s), drop counts chi-square z %5.2f, %5.2fus -> %5.2fus per kill: %s", scenario._name, part, maxZ, worst, countZ, referenceTime / (kills * 1000d), samplerTime / (kills * 1000d), passed ? "ok" : "FAILED"));
+		return passed;
+	}
+	
+	private static long run(DropCalculation calculation, Tally tally, int kills)
+	{
+		final long start = System.nanoTime();
+		for (int i = 0; i < kills; i++)
+		{
+			tally.add(calculation.calculate());
+		}
+		return System.nanoTime() - start;
+	}
+	
+	/**
+	 * @param expected the kills dropping the item with the reference
+	 * @param actual the kills dropping the item with the sampler
+	 * @param kills the kills of each implementation
+	 * @return the absolute z value of the difference of both frequencies
+	 */
+	private static double proportionZ(long expected, long actual, int kills)
+	{
+		final double pooled = (expected + actual) / (2d * kills);
+		final double deviation = Math.sqrt((pooled * (1 - pooled) * 2) / kills);
+		return deviation > 0 ? Math.abs(expected - actual) / (kills * deviation) : expected == actual ? 0 : Double.POSITIVE_INFINITY;
+	}
+	
+	/**
+	 * @param expected drops, sum and sum of squares of the amounts with the reference
+	 * @param actual drops, sum and sum of squares of the amounts with the sampler
+	 * @return the absolute z value of the difference of both mean amounts
+	 */
+	private static double meanZ(long[] expected, long[] actual)
+	{
+		// Too few drops to estimate the variances.
+		if ((expected[0] < MIN_AMOUNT_DROPS) || (actual[0] < MIN_AMOUNT_DROPS))
+		{
+			return 0;
+		}
+		
+		final double expectedMean = (double) expected[1] / expected[0];
+		final double actualMean = (double) actual[1] / actual[0];
+		final double expectedVariance = Math.max(0, ((double) expected[2] / expected[0]) - (expectedMean * expectedMean));
+		final double actualVariance = Math.max(0, ((double) actual[2] / actual[0]) - (actualMean * actualMean));
+		final double deviation = Math.sqrt((expectedVariance / expected[0]) + (actualVariance / actual[0]));
+		return deviation > 0 ? Math.abs(expectedMean - actualMean) / deviation : expectedMean == actualMean ? 0 : Double.POSITIVE_INFINITY;
+	}
+	
+	/**
+	 * @param expected the kills of each drop count with the reference
+	 * @param actual the kills of each drop count with the sampler
+	 * @return the chi-square statistic of both histograms turned into a normal z value (Wilson-Hilferty)
+	 */
+	private static double chiSquareZ(long[] expected, long[] actual)
+	{
+		double chiSquare = 0;
+		int degrees = -1;
+		for (int i = 0; i < expected.length; i++)
+		{
+			final long total = expected[i] + actual[i];
+			if (total == 0)
+			{
+				continue;
+			}
+			
+			// Both samples have the same size, so each expects half of the total.
+			final double half = total / 2d;
+			chiSquare += (((expected[i] - half) * (expected[i] - half)) + ((actual[i] - half) * (actual[i] - half))) / half;
+			degrees++;
+		}
+		if (degrees <= 0)
+		{
+			return 0;
+		}
+		
+		final double ratio = chiSquare / degrees;
+		final double variance = 2d / (9 * degrees);
+		return (Math.cbrt(ratio) - (1 - variance)) / Math.sqrt(variance);
+	}
+	
+	private interface DropCalculation
+	{
+		List<ItemHolder> calculate();
+	}
+	
+	private static class Tally
+	{
+		// Drops, sum of amounts and sum of squared amounts by item id.
+		private final Map<Integer, long[]> _items = new HashMap<>();
+		private final long[] _counts = new long[64];
+		
+		public void add(List<ItemHolder> drops)
+		{
+			if (drops == null)
+			{
+				_counts[0]++;
+				return;
+			}
+			
+			_counts[Math.min(drops.size(), _counts.length - 1)]++;
+			for (ItemHolder drop : drops)
+			{
+				final long[] item = _items.computeIfAbsent(drop.getId(), id -> new long[3]);
+				item[0]++;
+				item[1] += drop.getCount();
+				item[2] += drop.getCount() * drop.getCount();
+			}
+		}
+	}
+	
+	private static class Scenario
+	{
+		private final String _name;
+		private final int _levelDifference;
+		private final boolean _champion;
+		private final boolean _raid;
+		private final boolean _premium;
+		private final double _bonusRate;
+		private final double _bonusAmount;
+		private final double _bonusAdena;
+		private final int _maxOccurrences;
+		
+		public Scenario(String name, int levelDifference, boolean champion, boolean raid, boolean premium, double bonusRate, double bonusAmount, double bonusAdena, int maxOccurrences)
+		{
+			_name = name;
+			_levelDifference = levelDifference;
+			_champion = champion;
+			_raid = raid;
+			_premium = premium;
+			_bonusRate = bonusRate;
+			_bonusAmount = bonusAmount;
+			_bonusAdena = bonusAdena;
+			_maxOccurrences = maxOccurrences;
+		}
+		
+		public int getMask()
+		{
+			return DropSampler.getMask(_champion, _raid, _premium);
+		}
+	}
+	
+	/**
+	 * The drop calculation of NpcTemplate before the {@link DropSampler}, with the victim and killer replaced by the scenario.
+	 */
+	private static class Reference
+	{
+		public static List<ItemHolder> calculateGroupDrops(List<DropGroupHolder> dropGroups, Scenario scenario)
+		{
+			// level difference calculations
+			final int levelDifference = scenario._levelDifference;
+			final double levelGapChanceToDropAdena = Util.map(levelDifference, -Config.DROP_ADENA_MAX_LEVEL_DIFFERENCE, -Config.DROP_ADENA_MIN_LEVEL_DIFFERENCE, Config.DROP_ADENA_MIN_LEVEL_GAP_CHANCE, 100d);
+			final double levelGapChanceToDrop = Util.map(levelDifference, -Config.DROP_ITEM_MAX_LEVEL_DIFFERENCE, -Config.DROP_ITEM_MIN_LEVEL_DIFFERENCE, Config.DROP_ITEM_MIN_LEVEL_GAP_CHANCE, 100d);
+			
+			int dropOccurrenceCounter = scenario._maxOccurrences;
+			List<ItemHolder> calculatedDrops = null;
+			for (DropGroupHolder group : dropGroups)
+			{
+				if (dropOccurrenceCounter <= 0)
+				{
+					break;
+				}
+				
+				double groupRate = 1;
+				final List<DropHolder> groupDrops = group.getDropList();
+				for (DropHolder dropItem : groupDrops)
+				{
+					final int itemId = dropItem.getItemId();
+					final Float itemChance = Config.RATE_DROP_CHANCE_BY_ID.get(itemId);
+					if ((itemChance != null) && (itemChance <= 0))
+					{
+						continue;
+					}
+					
+					// keep lowest to avoid chance by id configuration conflicts
+					groupRate = Math.min(groupRate, getChanceRate(itemId, scenario));
+				}
+				
+				// bonus drop rate effect
+				groupRate *= scenario._bonusRate;
+				
+				if ((Rnd.nextDouble() * 100) < (group.getChance() * groupRate))
+				{
+					double totalChance = 0; // total group chance is 100
+					final double dropChance = Rnd.nextDouble() * 100;
+					GROUP_DROP: for (DropHolder dropItem : groupDrops)
+					{
+						if (dropOccurrenceCounter <= 0)
+						{
+							break;
+						}
+						
+						// calculate if item will drop
+						totalChance += dropItem.getChance();
+						if (dropChance >= totalChance)
+						{
+							continue;
+						}
+						
+						// check level gap that may prevent to drop item
+						if ((Rnd.nextDouble() * 100) > (dropItem.getItemId() == Inventory.ADENA_ID ? levelGapChanceToDropAdena : levelGapChanceToDrop))
+						{
+							continue;
+						}
+						
+						// skip zero chance drops
+						final Float itemChance = Config.RATE_DROP_CHANCE_BY_ID.get(dropItem.getItemId());
+						if ((itemChance != null) && (itemChance <= 0))
+						{
+							continue;
+						}
+						
+						// create the drop
+						final ItemHolder drop = new ItemHolder(dropItem.getItemId(), (long) (Rnd.get(dropItem.getMin(), dropItem.getMax()) * getAmountRate(dropItem.getItemId(), scenario)));
+						
+						// create list
+						if (calculatedDrops == null)
+						{
+							calculatedDrops = new ArrayList<>(dropOccurrenceCounter);
+						}
+						
+						// finally
+						if (itemChance != null)
+						{
+							if ((dropItem.getChance() * itemChance) < 100)
+							{
+								dropOccurrenceCounter--;
+							}
+						}
+						else if (dropItem.getChance() < 100)
+						{
+							dropOccurrenceCounter--;
+						}
+						calculatedDrops.add(drop);
+						
+						// no more drops from this group
+						break GROUP_DROP;
+					}
+				}
+			}
+			return calculatedDrops;
+		}
+		
+		public static List<ItemHolder> calculateUngroupedDrops(List<DropHolder> dropList, Scenario scenario)
+		{
+			// level difference calculations
+			final int levelDifference = scenario._levelDifference;
+			final double levelGapChanceToDropAdena = Util.map(levelDifference, -Config.DROP_ADENA_MAX_LEVEL_DIFFERENCE, -Config.DROP_ADENA_MIN_LEVEL_DIFFERENCE, Config.DROP_ADENA_MIN_LEVEL_GAP_CHANCE, 100d);
+			final double levelGapChanceToDrop = Util.map(levelDifference, -Config.DROP_ITEM_MAX_LEVEL_DIFFERENCE, -Config.DROP_ITEM_MIN_LEVEL_DIFFERENCE, Config.DROP_ITEM_MIN_LEVEL_GAP_CHANCE, 100d);
+			
+			int dropOccurrenceCounter = scenario._maxOccurrences;
+			List<ItemHolder> calculatedDrops = null;
+			List<ItemHolder> randomDrops = null;
+			ItemHolder cachedItem = null;
+			if (dropOccurrenceCounter > 0)
+			{
+				for (DropHolder dropItem : dropList)
+				{
+					// check if maximum drop occurrences have been reached
+					// items that have 100% drop chance without server rate multipliers drop normally
+					if ((dropOccurrenceCounter == 0) && (dropItem.getChance() < 100) && (randomDrops != null) && (calculatedDrops != null))
+					{
+						// remove highest chance item (temporarily if no other item replaces it)
+						cachedItem = randomDrops.remove(0);
+						calculatedDrops.remove(cachedItem);
+						dropOccurrenceCounter = 1;
+					}
+					
+					// check level gap that may prevent to drop item
+					if ((Rnd.nextDouble() * 100) > (dropItem.getItemId() == Inventory.ADENA_ID ? levelGapChanceToDropAdena : levelGapChanceToDrop))
+					{
+						continue;
+					}
+					
+					// calculate chances
+					final ItemHolder drop = calculateUngroupedDrop(dropItem, scenario);
+					if (drop == null)
+					{
+						continue;
+					}
+					
+					// create lists
+					if (randomDrops == null)
+					{
+						randomDrops = new ArrayList<>(dropOccurrenceCounter);
+					}
+					if (calculatedDrops == null)
+					{
+						calculatedDrops = new ArrayList<>(dropOccurrenceCounter);
+					}
+					
+					// finally
+					final Float itemChance = Config.RATE_DROP_CHANCE_BY_ID.get(dropItem.getItemId());
+					if (itemChance != null)
+					{
+						if ((dropItem.getChance() * itemChance) < 100)
+						{
+							dropOccurrenceCounter--;
+							randomDrops.add(drop);
+						}
+					}
+					else if (dropItem.getChance() < 100)
+					{
+						dropOccurrenceCounter--;
+						randomDrops.add(drop);
+					}
+					calculatedDrops.add(drop);
+				}
+			}
+			// add temporarily removed item when not replaced
+			if ((dropOccurrenceCounter > 0) && (cachedItem != null) && (calculatedDrops != null))
+			{
+				calculatedDrops.add(cachedItem);
+			}
+			return calculatedDrops;
+		}
+		
+		private static ItemHolder calculateUngroupedDrop(DropHolder dropItem, Scenario scenario)
+		{
+			if (dropItem.getDropType() == DropType.SPOIL)
+			{
+				// chance
+				double rateChance = Config.RATE_SPOIL_DROP_CHANCE_MULTIPLIER;
+				// premium chance
+				if (scenario._premium)
+				{
+					rateChance *= Config.PREMIUM_RATE_SPOIL_CHANCE;
+				}
+				// bonus spoil rate effect
+				rateChance *= scenario._bonusRate;
+				
+				// calculate if item will be rewarded
+				if ((Rnd.nextDouble() * 100) < (dropItem.getChance() * rateChance))
+				{
+					// amount is calculated after chance returned success
+					double rateAmount = Config.RATE_SPOIL_DROP_AMOUNT_MULTIPLIER;
+					// premium amount
+					if (scenario._premium)
+					{
+						rateAmount *= Config.PREMIUM_RATE_SPOIL_AMOUNT;
+					}
+					
+					// finally
+					return new ItemHolder(dropItem.getItemId(), (long) (Rnd.get(dropItem.getMin(), dropItem.getMax()) * rateAmount));
+				}
+				return null;
+			}
+			
+			// calculate if item will drop
+			final int itemId = dropItem.getItemId();
+			final double rateChance = getChanceRate(itemId, scenario) * scenario._bonusRate;
+			if ((Rnd.nextDouble() * 100) < (dropItem.getChance() * rateChance))
+			{
+				return new ItemHolder(itemId, (long) (Rnd.get(dropItem.getMin(), dropItem.getMax()) * getAmountRate(itemId, scenario)));
+			}
+			return null;
+		}
+		
+		private static double getChanceRate(int itemId, Scenario scenario)
+		{
+			final boolean herb = HERBS.test(itemId);
+			final boolean champion = scenario._champion;
+			
+			// chance
+			double rateChance = 1;
+			if (Config.RATE_DROP_CHANCE_BY_ID.get(itemId) != null)
+			{
+				rateChance *= Config.RATE_DROP_CHANCE_BY_ID.get(itemId);
+				if (champion && (itemId == Inventory.ADENA_ID))
+				{
+					rateChance *= Config.CHAMPION_ADENAS_REWARDS_CHANCE;
+				}
+			}
+			else if (herb)
+			{
+				rateChance *= Config.RATE_HERB_DROP_CHANCE_MULTIPLIER;
+			}
+			else if (scenario._raid)
+			{
+				rateChance *= Config.RATE_RAID_DROP_CHANCE_MULTIPLIER;
+			}
+			else
+			{
+				rateChance *= Config.RATE_DEATH_DROP_CHANCE_MULTIPLIER * (champion ? Config.CHAMPION_REWARDS_CHANCE : 1);
+			}
+			
+			// premium chance
+			if (scenario._premium)
+			{
+				if (Config.PREMIUM_RATE_DROP_CHANCE_BY_ID.get(itemId) != null)
+				{
+					rateChance *= Config.PREMIUM_RATE_DROP_CHANCE_BY_ID.get(itemId);
+				}
+				else if (!herb && !scenario._raid)
+				{
+					rateChance *= Config.PREMIUM_RATE_DROP_CHANCE;
+				}
+			}
+			return rateChance;
+		}
+		
+		private static double getAmountRate(int itemId, Scenario scenario)
+		{
+			final boolean herb = HERBS.test(itemId);
+			final boolean champion = scenario._champion;
+			
+			// calculate amount
+			double rateAmount = 1;
+			if (Config.RATE_DROP_AMOUNT_BY_ID.get(itemId) != null)
+			{
+				rateAmount *= Config.RATE_DROP_AMOUNT_BY_ID.get(itemId);
+				if (champion && (itemId == Inventory.ADENA_ID))
+				{
+					rateAmount *= Config.CHAMPION_ADENAS_REWARDS_AMOUNT;
+				}
+			}
+			else if (herb)
+			{
+				rateAmount *= Config.RATE_HERB_DROP_AMOUNT_MULTIPLIER;
+			}
+			else if (scenario._raid)
+			{
+				rateAmount *= Config.RATE_RAID_DROP_AMOUNT_MULTIPLIER;
+			}
+			else
+			{
+				rateAmount *= Config.RATE_DEATH_DROP_AMOUNT_MULTIPLIER * (champion ? Config.CHAMPION_REWARDS_AMOUNT : 1);
+			}
+			
+			// premium amount
+			if (scenario._premium)
+			{
+				if (Config.PREMIUM_RATE_DROP_AMOUNT_BY_ID.get(itemId) != null)
+				{
+					rateAmount *= Config.PREMIUM_RATE_DROP_AMOUNT_BY_ID.get(itemId);
+				}
+				else if (!herb && !scenario._raid)
+				{
+					rateAmount *= Config.PREMIUM_RATE_DROP_AMOUNT;
+				}
+			}
+			
+			// bonus drop amount effect
+			rateAmount *= scenario._bonusAmount;
+			if (itemId == Inventory.ADENA_ID)
+			{
+				rateAmount *= scenario._bonusAdena;
+			}
+			return rateAmount;
+		}
+	}
+}
@@ -0,0 +1,573 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.tools.geodata;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.l2jmobius.gameserver.geoengine.geodata.Cell;
+import org.l2jmobius.gameserver.geoengine.geodata.IBlock;
+import org.l2jmobius.gameserver.geoengine.geodata.IRegion;
+import org.l2jmobius.gameserver.geoengine.geodata.regions.Region;
+
+/**
+ * Checks and measures the geodata {@link Region} loader against the block object loader it replaced.<br>
+ * The .l2j files of a geodata directory are read once, so both loaders find them in the page cache, then:
+ * <ul>
+ * <li>both loaders load every file, their load time and retained heap are measured,</li>
+ * <li>the block offset index of every mapped region is built, as if players visited all of them,</li>
+ * <li>random queries are run on both, they must return the same values, and are timed.</li>
+ * </ul>
+ * When the directory holds no .l2j files, regions of flat, complex and multilayer blocks are generated in a temporary directory.
+ * 
+ * <pre>
+ * java -cp "./../libs/*" org.l2jmobius.tools.geodata.GeodataLoadBenchmark [geodata directory] [generated regions] [seed]
+ * </pre>
+ */
+public class GeodataLoadBenchmark
+{
+	private static final int QUERIES = 2000000;
+	
+	public static void main(String[] args) throws Exception
+	{
+		final Path directory = Paths.get(args.length > 0 ? args[0] : "./data/geodata");
+		final int generatedRegions = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+		final long seed = args.length > 2 ? Long.parseLong(args[2]) : 12345;
+		
+		final Random random = new Random(seed);
+		List<Path> files = listFiles(directory);
+		Path generated = null;
+		if (files.isEmpty())
+		{
+			generated = Files.createTempDirectory("geodata");
+			for (int i = 0; i < generatedRegions; i++)
+			{
+				createRegion(generated.resolve((16 + (i / 8)) + "_" + (10 + (i % 8)) + ".l2j"), random);
+			}
+			files = listFiles(generated);
+		}
+		
+		boolean passed = false;
+		try
+		{
+			// Read every file once, so both loaders find them in the page cache.
+			long bytes = 0;
+			for (Path file : files)
+			{
+				bytes += Files.readAllBytes(file).length;
+			}
+			System.out.println("Regions: " + files.size() + (generated != null ? " generated" : " from " + directory) + ", " + (bytes / 1048576) + "MB");
+			
+			// Block object loader.
+			long heap = getUsedHeap();
+			long start = System.nanoTime();
+			final IRegion[] reference = new IRegion[files.size()];
+			for (int i = 0; i < reference.length; i++)
+			{
+				reference[i] = new Reference(map(files.get(i)));
+			}
+			final long referenceTime = System.nanoTime() - start;
+			final long referenceHeap = getUsedHeap() - heap;
+			
+			// Mapped loader, then the index of every region.
+			heap = getUsedHeap();
+			start = System.nanoTime();
+			final Region[] regions = new Region[files.size()];
+			for (int i = 0; i < regions.length; i++)
+			{
+				regions[i] = new Region(files.get(i).getFileName().toString(), map(files.get(i)));
+			}
+			final long mapTime = System.nanoTime() - start;
+			final long mapHeap = getUsedHeap() - heap;
+			start = System.nanoTime();
+			boolean indexed = true;
+			for (Region region : regions)
+			{
+				indexed &= region.hasGeo();
+			}
+			final long indexTime = System.nanoTime() - start;
+			final long indexHeap = getUsedHeap() - heap;
+			
+			// Same answers for random cells and heights.
+			final int[][] queries = new int[QUERIES][];
+			for (int i = 0; i < QUERIES; i++)
+			{
+				queries[i] = new int[]
+				{
+					random.nextInt(regions.length),
+					random.nextInt(IRegion.REGION_CELLS_X),
+					random.nextInt(IRegion.REGION_CELLS_Y),
+					random.nextInt(2000) - 1000,
+					1 << random.nextInt(4)
+				};
+			}
+			int mismatches = 0;
+			for (int[] query : queries)
+			{
+				if (!matches(reference[query[0]], regions[query[0]], query))
+				{
+					mismatches++;
+				}
+			}
+			
+			// Warm up, then measure.
+			time(reference, queries);
+			time(regions, queries);
+			final double referenceQuery = time(reference, queries);
+			final double regionQuery = time(regions, queries);
+			
+			System.out.println(String.format("Block objects: load %7.1f ms, heap %8.1f MB, query %5.1f ns", referenceTime / 1000000.0, referenceHeap / 1048576.0, referenceQuery));
+			System.out.println(String.format("Mapped index:  load %7.1f ms, heap %8.1f MB, query %5.1f ns", mapTime / 1000000.0, mapHeap / 1048576.0, regionQuery));
+			System.out.println(String.format("All indexed:   index %6.1f ms, heap %8.1f MB", indexTime / 1000000.0, indexHeap / 1048576.0));
+			for (String line : Region.getStats())
+			{
+				System.out.println(line);
+			}
+			System.out.println("Mismatches: " + mismatches);
+			
+			passed = indexed && (mismatches == 0);
+		}
+		finally
+		{
+			if (generated != null)
+			{
+				for (Path file : files)
+				{
+					Files.deleteIfExists(file);
+				}
+				Files.deleteIfExists(generated);
+			}
+		}
+		
+		System.out.println(passed ? "PASSED" : "FAILED");
+		System.exit(passed ? 0 : 1);
+	}
+	
+	/**
+	 * @param expected the region of the former loader
+	 * @param region the mapped region
+	 * @param query the region index, geo X, geo Y, world Z and direction
+	 * @return {@code true} if both regions give the same answers
+	 */
+	private static boolean matches(IRegion expected, IRegion region, int[] query)
+	{
+		final int geoX = query[1];
+		final int geoY = query[2];
+		final int worldZ = query[3];
+		return (expected.getNearestZ(geoX, geoY, worldZ) == region.getNearestZ(geoX, geoY, worldZ)) && (expected.getNextLowerZ(geoX, geoY, worldZ) == region.getNextLowerZ(geoX, geoY, worldZ)) && (expected.getNextHigherZ(geoX, geoY, worldZ) == region.getNextHigherZ(geoX, geoY, worldZ)) && (expected.checkNearestNswe(geoX, geoY, worldZ, query[4]) == region.checkNearestNswe(geoX, geoY, worldZ, query[4]));
+	}
+	
+	private static List<Path> listFiles(Path directory) throws IOException
+	{
+		final List<Path> files = new ArrayList<>();
+		if (Files.isDirectory(directory))
+		{
+			try (Stream<Path> stream = Files.list(directory))
+			{
+				stream.filter(path -> path.getFileName().toString().matches("\\d+_\\d+\\.l2j")).sorted().forEach(files::add);
+			}
+		}
+		return files;
+	}
+	
+	private static ByteBuffer map(Path file) throws IOException
+	{
+		try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r"))
+		{
+			return raf.getChannel().map(MapMode.READ_ONLY, 0, raf.length()).order(ByteOrder.LITTLE_ENDIAN);
+		}
+	}
+	
+	private static long getUsedHeap() throws InterruptedException
+	{
+		for (int i = 0; i < 3; i++)
+		{
+			System.gc();
+			Thread.sleep(100);
+		}
+		return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+	}
+	
+	/**
+	 * @param regions the regions
+	 * @param queries the queries
+	 * @return the mean time of one nearest Z query in nanoseconds
+	 */
+	private static double time(IRegion[] regions, int[][] queries)
+	{
+		long sum = 0;
+		final long start = System.nanoTime();
+		for (int[] query : queries)
+		{
+			sum += regions[query[0]].getNearestZ(query[1], query[2], query[3]);
+		}
+		final long time = System.nanoTime() - start;
+		if (sum == Long.MIN_VALUE)
+		{
+			System.out.println(sum);
+		}
+		return (double) time / queries.length;
+	}
+	
+	/**
+	 * Writes a region of rolling terrain, with flat plains, complex blocks and a few multilayer blocks for bridges and buildings.
+	 * @param file the region file
+	 * @param random the terrain generator
+	 * @throws IOException if the file cannot be written
+	 */
+	private static void createRegion(Path file, Random random) throws IOException
+	{
+		final ByteBuffer buffer = ByteBuffer.allocate(IRegion.REGION_BLOCKS * (1 + (IBlock.BLOCK_CELLS * 7))).order(ByteOrder.LITTLE_ENDIAN);
+		for (int blockX = 0; blockX < IRegion.REGION_BLOCKS_X; blockX++)
+		{
+			for (int blockY = 0; blockY < IRegion.REGION_BLOCKS_Y; blockY++)
+			{
+				final int type = random.nextInt(100);
+				if (type < 30)
+				{
+					buffer.put((byte) IBlock.TYPE_FLAT);
+					buffer.putShort((short) getHeight(blockX * IBlock.BLOCK_CELLS_X, blockY * IBlock.BLOCK_CELLS_Y));
+				}
+				else if (type < 90)
+				{
+					buffer.put((byte) IBlock.TYPE_COMPLEX);
+					for (int cell = 0; cell < IBlock.BLOCK_CELLS; cell++)
+					{
+						buffer.putShort(getCellData(getHeight((blockX * IBlock.BLOCK_CELLS_X) + (cell / IBlock.BLOCK_CELLS_Y), (blockY * IBlock.BLOCK_CELLS_Y) + (cell % IBlock.BLOCK_CELLS_Y)), random));
+					}
+				}
+				else
+				{
+					buffer.put((byte) IBlock.TYPE_MULTILAYER);
+					for (int cell = 0; cell < IBlock.BLOCK_CELLS; cell++)
+					{
+						final int height = getHeight((blockX * IBlock.BLOCK_CELLS_X) + (cell / IBlock.BLOCK_CELLS_Y), (blockY * IBlock.BLOCK_CELLS_Y) + (cell % IBlock.BLOCK_CELLS_Y));
+						final int layers = 1 + random.nextInt(3);
+						buffer.put((byte) layers);
+						for (int layer = layers - 1; layer >= 0; layer--)
+						{
+							buffer.putShort(getCellData(height + (layer * 160), random));
+						}
+					}
+				}
+			}
+		}
+		Files.write(file, Arrays.copyOf(buffer.array(), buffer.position()));
+	}
+	
+	private static int getHeight(int cellX, int cellY)
+	{
+		return (int) (600 * Math.sin(cellX / 300.0) * Math.cos(cellY / 240.0)) & ~7;
+	}
+	
+	private static short getCellData(int height, Random random)
+	{
+		return (short) (((height << 1) & 0xFFF0) | (random.nextInt(100) < 5 ? random.nextInt(Cell.NSWE_ALL) : Cell.NSWE_ALL));
+	}
+	
+	/**
+	 * The former loader, every block of a region is parsed into its own object.
+	 */
+	private static class Reference implements IRegion
+	{
+		private final IBlock[] _blocks = new IBlock[IRegion.REGION_BLOCKS];
+		
+		protected Reference(ByteBuffer bb)
+		{
+			for (int blockOffset = 0; blockOffset < IRegion.REGION_BLOCKS; blockOffset++)
+			{
+				final int blockType = bb.get();
+				switch (blockType)
+				{
+					case IBlock.TYPE_FLAT:
+					{
+						_blocks[blockOffset] = new FlatBlock(bb);
+						break;
+					}
+					case IBlock.TYPE_COMPLEX:
+					{
+						_blocks[blockOffset] = new ComplexBlock(bb);
+						break;
+					}
+					case IBlock.TYPE_MULTILAYER:
+					{
+						_blocks[blockOffset] = new MultilayerBlock(bb);
+						break;
+					}
+					default:
+					{
+						throw new RuntimeException("Invalid block type " + blockType + "!");
+					}
+				}
+			}
+		}
+		
+		private IBlock getBlock(int geoX, int geoY)
+		{
+			return _blocks[(((geoX / IBlock.BLOCK_CELLS_X) % IRegion.REGION_BLOCKS_X) * IRegion.REGION_BLOCKS_Y) + ((geoY / IBlock.BLOCK_CELLS_Y) % IRegion.REGION_BLOCKS_Y)];
+		}
+		
+		@Override
+		public boolean checkNearestNswe(int geoX, int geoY, int worldZ, int nswe)
+		{
+			return getBlock(geoX, geoY).checkNearestNswe(geoX, geoY, worldZ, nswe);
+		}
+		
+		@Override
+		public int getNearestZ(int geoX, int geoY, int worldZ)
+		{
+			return getBlock(geoX, geoY).getNearestZ(geoX, geoY, worldZ);
+		}
+		
+		@Override
+		public int getNextLowerZ(int geoX, int geoY, int worldZ)
+		{
+			return getBlock(geoX, geoY).getNextLowerZ(geoX, geoY, worldZ);
+		}
+		
+		@Override
+		public int getNextHigherZ(int geoX, int geoY, int worldZ)
+		{
+			return getBlock(geoX, geoY).getNextHigherZ(geoX, geoY, worldZ);
+		}
+		
+		@Override
+		public boolean hasGeo()
+		{
+			return true;
+		}
+	}
+	
+	private static class FlatBlock implements IBlock
+	{
+		private final short _height;
+		
+		protected FlatBlock(ByteBuffer bb)
+		{
+			_height = bb.getShort();
+		}
+		
+		@Override
+		public boolean checkNearestNswe(int geoX, int geoY, int worldZ, int nswe)
+		{
+			return true;
+		}
+		
+		@Override
+		public int getNearestZ(int geoX, int geoY, int worldZ)
+		{
+			return _height;
+		}
+		
+		@Override
+		public int getNextLowerZ(int geoX, int geoY, int worldZ)
+		{
+			return _height <= worldZ ? _height : worldZ;
+		}
+		
+		@Override
+		public int getNextHigherZ(int geoX, int geoY, int worldZ)
+		{
+			return _height >= worldZ ? _height : worldZ;
+		}
+	}
+	
+	private static class ComplexBlock implements IBlock
+	{
+		private final short[] _data = new short[IBlock.BLOCK_CELLS];
+		
+		protected ComplexBlock(ByteBuffer bb)
+		{
+			for (int cellOffset = 0; cellOffset < IBlock.BLOCK_CELLS; cellOffset++)
+			{
+				_data[cellOffset] = bb.getShort();
+			}
+		}
+		
+		private short getCellData(int geoX, int geoY)
+		{
+			return _data[((geoX % IBlock.BLOCK_CELLS_X) * IBlock.BLOCK_CELLS_Y) + (geoY % IBlock.BLOCK_CELLS_Y)];
+		}
+		
+		private int getCellHeight(int geoX, int geoY)
+		{
+			return (short) (getCellData(geoX, geoY) & 0x0FFF0) >> 1;
+		}
+		
+		@Override
+		public boolean checkNearestNswe(int geoX, int geoY, int worldZ, int nswe)
+		{
+			return (((byte) (getCellData(geoX, geoY) & 0x000F)) & nswe) == nswe;
+		}
+		
+		@Override
+		public int getNearestZ(int geoX, int geoY, int worldZ)
+		{
+			return getCellHeight(geoX, geoY);
+		}
+		
+		@Override
+		public int getNextLowerZ(int geoX, int geoY, int worldZ)
+		{
+			final int cellHeight = getCellHeight(geoX, geoY);
+			return cellHeight <= worldZ ? cellHeight : worldZ;
+		}
+		
+		@Override
+		public int getNextHigherZ(int geoX, int geoY, int worldZ)
+		{
+			final int cellHeight = getCellHeight(geoX, geoY);
+			return cellHeight >= worldZ ? cellHeight : worldZ;
+		}
+	}
+	
+	private static class MultilayerBlock implements IBlock
+	{
+		private final byte[] _data;
+		
+		protected MultilayerBlock(ByteBuffer bb)
+		{
+			final int start = bb.position();
+			for (int blockCellOffset = 0; blockCellOffset < IBlock.BLOCK_CELLS; blockCellOffset++)
+			{
+				final byte nLayers = bb.get();
+				if ((nLayers <= 0) || (nLayers > 125))
+				{
+					throw new RuntimeException("Geo file corrupted! Invalid layers count!");
+				}
+				bb.position(bb.position() + (nLayers * 2));
+			}
+			
+			_data = new byte[bb.position() - start];
+			bb.position(start);
+			bb.get(_data);
+		}
+		
+		private int getCellDataOffset(int geoX, int geoY)
+		{
+			final int cellLocalOffset = ((geoX % IBlock.BLOCK_CELLS_X) * IBlock.BLOCK_CELLS_Y) + (geoY % IBlock.BLOCK_CELLS_Y);
+			int cellDataOffset = 0;
+			for (int i = 0; i < cellLocalOffset; i++)
+			{
+				cellDataOffset += 1 + (_data[cellDataOffset] * 2);
+			}
+			return cellDataOffset;
+		}
+		
+		private short getLayerData(int dataOffset)
+		{
+			return (short) ((_data[dataOffset] & 0xFF) | (_data[dataOffset + 1] << 8));
+		}
+		
+		private static int getLayerHeight(short layer)
+		{
+			return (short) (layer & 0x0fff0) >> 1;
+		}
+		
+		private short getNearestLayer(int geoX, int geoY, int worldZ)
+		{
+			final int startOffset = getCellDataOffset(geoX, geoY);
+			final int endOffset = startOffset + 1 + (_data[startOffset] * 2);
+			int nearestDZ = 0;
+			short nearestData = 0;
+			for (int offset = startOffset + 1; offset < endOffset; offset += 2)
+			{
+				final short layerData = getLayerData(offset);
+				final int layerZ = getLayerHeight(layerData);
+				if (layerZ == worldZ)
+				{
+					return layerData;
+				}
+				
+				final int layerDZ = Math.abs(layerZ - worldZ);
+				if ((offset == (startOffset + 1)) || (layerDZ < nearestDZ))
+				{
+					nearestDZ = layerDZ;
+					nearestData = layerData;
+				}
+			}
+			return nearestData;
+		}
+		
+		@Override
+		public boolean checkNearestNswe(int geoX, int geoY, int worldZ, int nswe)
+		{
+			return (((byte) (getNearestLayer(geoX, geoY, worldZ) & 0x000F)) & nswe) == nswe;
+		}
+		
+		@Override
+		public int getNearestZ(int geoX, int geoY, int worldZ)
+		{
+			return getLayerHeight(getNearestLayer(geoX, geoY, worldZ));
+		}
+		
+		@Override
+		public int getNextLowerZ(int geoX, int geoY, int worldZ)
+		{
+			final int startOffset = getCellDataOffset(geoX, geoY);
+			final int endOffset = startOffset + 1 + (_data[startOffset] * 2);
+			int lowerZ = Integer.MIN_VALUE;
+			for (int offset = startOffset + 1; offset < endOffset; offset += 2)
+			{
+				final int layerZ = getLayerHeight(getLayerData(offset));
+				if (layerZ == worldZ)
+				{
+					return layerZ;
+				}
+				
+				if ((layerZ < worldZ) && (layerZ > lowerZ))
+				{
+					lowerZ = layerZ;
+				}
+			}
+			return lowerZ == Integer.MIN_VALUE ? worldZ : lowerZ;
+		}
+		
+		@Override
+		public int getNextHigherZ(int geoX, int geoY, int worldZ)
+		{
+			final int startOffset = getCellDataOffset(geoX, geoY);
+			final int endOffset = startOffset + 1 + (_data[startOffset] * 2);
+			int higherZ = Integer.MAX_VALUE;
+			for (int offset = startOffset + 1; offset < endOffset; offset += 2)
+			{
+				final int layerZ = getLayerHeight(getLayerData(offset));
+				if (layerZ == worldZ)
+				{
+					return layerZ;
+				}
+				
+				if ((layerZ > worldZ) && (layerZ < higherZ))
+				{
+					higherZ = layerZ;
+				}
+			}
+			return higherZ == Integer.MAX_VALUE ? worldZ : higherZ;
+		}
+	}
+}
@@ -0,0 +1,292 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.tools.idmanager;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.l2jmobius.commons.util.IdBitmap;
+import org.l2jmobius.gameserver.instancemanager.IdManager;
+
+/**
+ * Checks and measures the {@link IdBitmap} of the {@link IdManager} without database.<br>
+ * Both allocators start from the same used ids, standing for the ids collected from the database, then:
+ * <ul>
+ * <li>several threads take and release ids of the bitmap, no id may be held twice at the same time nor be one of the used ids,</li>
+ * <li>short lived threads take and release an id each, half of them releasing their lease, then one thread must be able to take every id of the bitmap,</li>
+ * <li>threads take bursts of ids and release them, like mass drops and decays, with the bitmap and with the synchronized bit set it replaced.</li>
+ * </ul>
+ * 
+ * <pre>
+ * java -cp "./../libs/*" org.l2jmobius.tools.idmanager.IdLeaseBenchmark [operations] [used ids] [seed]
+ * </pre>
+ */
+public class IdLeaseBenchmark
+{
+	private static final int SIZE = 0x7FFFFFFF - 0x10000000;
+	private static final int BURST = 100;
+	private static final int[] EXHAUSTED_SIZES =
+	{
+		65536, // A full page of whole words.
+		65536 + 100,
+		100000
+	};
+	private static final int[] THREADS =
+	{
+		1,
+		4,
+		16
+	};
+	
+	public static void main(String[] args) throws Exception
+	{
+		final int operations = args.length > 0 ? Integer.parseInt(args[0]) : 4000000;
+		final int usedCount = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+		final long seed = args.length > 2 ? Long.parseLong(args[2]) : 12345;
+		
+		// Used ids spread over the first ids, like characters, items and clans of a live server.
+		final Random random = new Random(seed);
+		final int[] usedIds = new int[usedCount];
+		for (int i = 0; i < usedCount; i++)
+		{
+			usedIds[i] = random.nextInt(usedCount * 2);
+		}
+		System.out.println("Operations: " + operations + " Used ids: " + usedCount + " Burst: " + BURST);
+		
+		boolean passed = check(usedIds, operations / 4);
+		for (int size : EXHAUSTED_SIZES)
+		{
+			passed &= checkExhaustion(size, 200);
+		}
+		for (int threads : THREADS)
+		{
+			// Warm up, then measure.
+			run(new BitmapAllocator(usedIds), threads, operations / 4);
+			run(new Reference(usedIds), threads, operations / 4);
+			final double bitmap = run(new BitmapAllocator(usedIds), threads, operations);
+			final double reference = run(new Reference(usedIds), threads, operations);
+			System.out.println(String.format("%2d threads: synchronized bit set: %6.1f ns per id, bitmap: %6.1f ns per id", threads, reference, bitmap));
+		}
+		
+		System.out.println(passed ? "PASSED" : "FAILED");
+		System.exit(passed ? 0 : 1);
+	}
+	
+	/**
+	 * @param usedIds the ids used from the start
+	 * @param operations the number of ids to take
+	 * @return {@code true} if no id was handed out twice
+	 */
+	private static boolean check(int[] usedIds, int operations) throws InterruptedException
+	{
+		final IdBitmap bitmap = new IdBitmap(SIZE);
+		final Set<Integer> reserved = ConcurrentHashMap.newKeySet();
+		for (int id : usedIds)
+		{
+			bitmap.setUsed(id);
+			reserved.add(id);
+		}
+		final long startUsed = bitmap.getUsedCount();
+		
+		final Set<Integer> held = ConcurrentHashMap.newKeySet();
+		final AtomicInteger errors = new AtomicInteger();
+		final int threads = THREADS[THREADS.length - 1];
+		final CountDownLatch latch = new CountDownLatch(threads);
+		for (int t = 0; t < threads; t++)
+		{
+			final Random random = new Random(t);
+			new Thread(() ->
+			{
+				final int[] ids = new int[BURST];
+				for (int i = 0; i < (operations / threads / BURST); i++)
+				{
+					final int count = 1 + random.nextInt(BURST);
+					for (int j = 0; j < count; j++)
+					{
+						ids[j] = bitmap.next();
+						if (reserved.contains(ids[j]) || !held.add(ids[j]))
+						{
+							errors.incrementAndGet();
+						}
+					}
+					for (int j = 0; j < count; j++)
+					{
+						held.remove(ids[j]);
+						if (!bitmap.release(ids[j]))
+						{
+							errors.incrementAndGet();
+						}
+					}
+				}
+				latch.countDown();
+			}).start();
+		}
+		latch.await();
+		
+		// Leased words keep their unused ids marked, everything taken was released.
+		final long leftover = (bitmap.getUsedCount() - startUsed);
+		System.out.println("Check: " + threads + " threads, errors: " + errors.get() + ", ids still used after release: " + leftover + ", lease retries: " + bitmap.getLeaseRetries());
+		return (errors.get() == 0) && (leftover == 0);
+	}
+	
+	/**
+	 * @param size the number of ids of the bitmap
+	 * @param threads the number of short lived threads
+	 * @return {@code true} if every id could be taken after the threads ended
+	 */
+	private static boolean checkExhaustion(int size, int threads) throws InterruptedException
+	{
+		final IdBitmap bitmap = new IdBitmap(size);
+		for (int t = 0; t < threads; t++)
+		{
+			final boolean releaseLease = (t % 2) == 0;
+			final Thread thread = new Thread(() ->
+			{
+				bitmap.release(bitmap.next());
+				if (releaseLease)
+				{
+					bitmap.releaseLease();
+				}
+			});
+			thread.start();
+			thread.join();
+		}
+		
+		int taken = 0;
+		while (bitmap.next() >= 0)
+		{
+			taken++;
+		}
+		System.out.println("Exhaustion: " + size + " ids, " + threads + " ended threads, taken afterwards: " + taken + ", abandoned leases: " + bitmap.getAbandonedLeases());
+		return (taken == size) && (bitmap.getFreeCount() == 0);
+	}
+	
+	/**
+	 * @param allocator the allocator
+	 * @param threads the number of threads
+	 * @param operations the number of ids to take and release
+	 * @return the mean time of taking and releasing one id in nanoseconds
+	 */
+	private static double run(Allocator allocator, int threads, int operations) throws InterruptedException
+	{
+		final CountDownLatch ready = new CountDownLatch(threads);
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(threads);
+		for (int t = 0; t < threads; t++)
+		{
+			new Thread(() ->
+			{
+				final int[] ids = new int[BURST];
+				ready.countDown();
+				try
+				{
+					start.await();
+				}
+				catch (InterruptedException e)
+				{
+					return;
+				}
+				for (int i = 0; i < (operations / threads / BURST); i++)
+				{
+					for (int j = 0; j < BURST; j++)
+					{
+						ids[j] = allocator.next();
+					}
+					for (int j = 0; j < BURST; j++)
+					{
+						allocator.release(ids[j]);
+					}
+				}
+				done.countDown();
+			}).start();
+		}
+		ready.await();
+		final long time = System.nanoTime();
+		start.countDown();
+		done.await();
+		return (double) (System.nanoTime() - time) / operations;
+	}
+	
+	private interface Allocator
+	{
+		int next();
+		
+		void release(int id);
+	}
+	
+	private static class BitmapAllocator implements Allocator
+	{
+		private final IdBitmap _bitmap = new IdBitmap(SIZE);
+		
+		protected BitmapAllocator(int[] usedIds)
+		{
+			for (int id : usedIds)
+			{
+				_bitmap.setUsed(id);
+			}
+		}
+		
+		@Override
+		public int next()
+		{
+			return _bitmap.next();
+		}
+		
+		@Override
+		public void release(int id)
+		{
+			_bitmap.release(id);
+		}
+	}
+	
+	/**
+	 * The former allocator, one bit set behind one lock with a next clear bit cursor.
+	 */
+	private static class Reference implements Allocator
+	{
+		private final BitSet _usedIds = new BitSet();
+		private int _nextId;
+		
+		protected Reference(int[] usedIds)
+		{
+			for (int id : usedIds)
+			{
+				_usedIds.set(id);
+			}
+			_nextId = _usedIds.nextClearBit(0);
+		}
+		
+		@Override
+		public synchronized int next()
+		{
+			final int id = _nextId;
+			_usedIds.set(id);
+			_nextId = _usedIds.nextClearBit(id);
+			return id;
+		}
+		
+		@Override
+		public synchronized void release(int id)
+		{
+			_usedIds.clear(id);
+		}
+	}
+}
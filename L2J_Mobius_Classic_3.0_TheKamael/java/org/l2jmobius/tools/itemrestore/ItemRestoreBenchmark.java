@@ -0,0 +1,415 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.tools.itemrestore;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.l2jmobius.commons.util.PropertiesParser;
+import org.l2jmobius.gameserver.model.item.enchant.attribute.AttributeHolder;
+import org.l2jmobius.gameserver.model.item.instance.ItemRestoreData;
+
+/**
+ * Checks and measures the {@link ItemRestoreData} bulk restore against the game server database.<br>
+ * Items of an unused owner id are written with attributes, special abilities and variables, then:
+ * <ul>
+ * <li>the items are restored with the per item queries they replaced and with one query per item data table, both must read the same data,</li>
+ * <li>each restore is timed on its own, the mean, median and slowest wall time of both ways are shown with the number of queries they cost and the round trip time of the database.</li>
+ * </ul>
+ * Augmentations are written without options, because building them needs the option datapack, so their query is only timed.<br>
+ * Every row written is deleted at the end. The database settings are read from the game server configuration.
+ * 
+ * <pre>
+ * java -cp "./../libs/*" org.l2jmobius.tools.itemrestore.ItemRestoreBenchmark [items] [rounds] [owner id]
+ * </pre>
+ */
+public class ItemRestoreBenchmark
+{
+	private static final String SERVER_CONFIG_FILE = "./config/Server.ini";
+	private static final int FIRST_OBJECT_ID = 0x7FFF0000;
+	private static final String[] TABLES =
+	{
+		"item_variations WHERE itemId",
+		"item_elementals WHERE itemId",
+		"item_special_abilities WHERE objectId",
+		"item_variables WHERE id",
+		"items WHERE object_id"
+	};
+	
+	private static int _queries;
+	
+	public static void main(String[] args) throws Exception
+	{
+		final int itemCount = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+		final int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		final int ownerId = args.length > 2 ? Integer.parseInt(args[2]) : 0x7FFFFF00;
+		
+		final PropertiesParser serverConfig = new PropertiesParser(SERVER_CONFIG_FILE);
+		try (Connection con = DriverManager.getConnection(serverConfig.getString("URL", "jdbc:mariadb://localhost/l2jgs"), serverConfig.getString("Login", "root"), serverConfig.getString("Password", "")))
+		{
+			try (PreparedStatement ps = con.prepareStatement("SELECT COUNT(*) FROM items WHERE owner_id=? OR object_id BETWEEN ? AND ?"))
+			{
+				ps.setInt(1, ownerId);
+				ps.setInt(2, FIRST_OBJECT_ID);
+				ps.setInt(3, FIRST_OBJECT_ID + itemCount);
+				try (ResultSet rs = ps.executeQuery())
+				{
+					if (rs.next() && (rs.getInt(1) > 0))
+					{
+						System.out.println("Owner id " + ownerId + " or object ids from " + FIRST_OBJECT_ID + " are in use, pick another owner id.");
+						System.out.println("FAILED");
+						System.exit(1);
+					}
+				}
+			}
+			
+			boolean passed = false;
+			try
+			{
+				final int equipable = insertItems(con, itemCount, ownerId);
+				System.out.println("Items: " + itemCount + " (" + equipable + " equipable) Rounds: " + rounds);
+				
+				// Both restores must read the same data.
+				final Map<Integer, String> expected = restorePerItem(con, ownerId);
+				final Map<Integer, String> result = restoreBulk(con, ownerId);
+				int mismatches = 0;
+				for (Entry<Integer, String> entry : expected.entrySet())
+				{
+					if (!entry.getValue().equals(result.get(entry.getKey())))
+					{
+						mismatches++;
+					}
+				}
+				passed = (mismatches == 0) && (expected.size() == itemCount) && (result.size() == itemCount);
+				System.out.println("Restored items: " + expected.size() + " / " + result.size() + ", mismatches: " + mismatches);
+				
+				// Warm up, then measure.
+				restorePerItem(con, ownerId);
+				restoreBulk(con, ownerId);
+				System.out.println(String.format("Round trip:       %8.3f ms per query", measureRoundTrip(con, rounds * 10)));
+				measure("Per item queries:", con, ownerId, rounds, false);
+				measure("Bulk restore:    ", con, ownerId, rounds, true);
+			}
+			finally
+			{
+				deleteItems(con, itemCount);
+			}
+			
+			System.out.println(passed ? "PASSED" : "FAILED");
+			System.exit(passed ? 0 : 1);
+		}
+	}
+	
+	/**
+	 * Times each restore on its own and prints the mean, median and slowest wall time.
+	 * @param label the name of the restore
+	 * @param con the database connection
+	 * @param ownerId the owner of the items
+	 * @param rounds the number of restores
+	 * @param bulk {@code true} for the bulk restore, {@code false} for the per item queries
+	 */
+	private static void measure(String label, Connection con, int ownerId, int rounds, boolean bulk) throws SQLException
+	{
+		final long[] times = new long[rounds];
+		long total = 0;
+		_queries = 0;
+		for (int i = 0; i < rounds; i++)
+		{
+			final long start = System.nanoTime();
+			if (bulk)
+			{
+				restoreBulk(con, ownerId);
+			}
+			else
+			{
+				restorePerItem(con, ownerId);
+			}
+			times[i] = System.nanoTime() - start;
+			total += times[i];
+		}
+		Arrays.sort(times);
+		System.out.println(String.format("%s %8.2f ms per restore (median %8.2f ms, slowest %8.2f ms), %d queries", label, total / 1000000.0 / rounds, times[rounds / 2] / 1000000.0, times[rounds - 1] / 1000000.0, _queries / rounds));
+	}
+	
+	/**
+	 * @param con the database connection
+	 * @param queries the number of queries
+	 * @return the mean time of a query that reads nothing in milliseconds
+	 */
+	private static double measureRoundTrip(Connection con, int queries) throws SQLException
+	{
+		try (PreparedStatement ps = con.prepareStatement("SELECT 1"))
+		{
+			final long start = System.nanoTime();
+			for (int i = 0; i < queries; i++)
+			{
+				try (ResultSet rs = ps.executeQuery())
+				{
+					rs.next();
+				}
+			}
+			return (System.nanoTime() - start) / 1000000.0 / queries;
+		}
+	}
+	
+	/**
+	 * Writes the items, every other one is taken as equipable and gets item data.
+	 * @param con the database connection
+	 * @param itemCount the number of items
+	 * @param ownerId the owner of the items
+	 * @return the number of equipable items
+	 */
+	private static int insertItems(Connection con, int itemCount, int ownerId) throws SQLException
+	{
+		final Random random = new Random(itemCount);
+		int equipable = 0;
+		try (PreparedStatement items = con.prepareStatement("INSERT INTO items (owner_id,object_id,item_id,count,enchant_level,loc,loc_data,custom_type1,custom_type2,mana_left,time) VALUES (?,?,?,?,?,?,?,0,0,-1,0)");
+			PreparedStatement variations = con.prepareStatement("INSERT INTO item_variations (itemId,mineralId,option1,option2) VALUES (?,?,-1,-1)");
+			PreparedStatement elementals = con.prepareStatement("INSERT INTO item_elementals (itemId,elemType,elemValue) VALUES (?,?,?)");
+			PreparedStatement abilities = con.prepareStatement("INSERT INTO item_special_abilities (objectId,type,optionId,position) VALUES (?,?,?,?)");
+			PreparedStatement variables = con.prepareStatement("INSERT INTO item_variables (id,var,val) VALUES (?,?,?)"))
+		{
+			for (int i = 0; i < itemCount; i++)
+			{
+				final int objectId = FIRST_OBJECT_ID + i;
+				items.setInt(1, ownerId);
+				items.setInt(2, objectId);
+				items.setInt(3, 1 + random.nextInt(50000));
+				items.setLong(4, 1 + random.nextInt(1000));
+				items.setInt(5, random.nextInt(16));
+				items.setString(6, (i % 3) == 0 ? "WAREHOUSE" : "INVENTORY");
+				items.setInt(7, 0);
+				items.addBatch();
+				
+				if ((i % 2) == 0)
+				{
+					equipable++;
+					variations.setInt(1, objectId);
+					variations.setInt(2, random.nextInt(1000));
+					variations.addBatch();
+					
+					final int attributes = random.nextInt(3);
+					for (int type = 0; type < attributes; type++)
+					{
+						elementals.setInt(1, objectId);
+						elementals.setInt(2, type);
+						elementals.setInt(3, 1 + random.nextInt(300));
+						elementals.addBatch();
+					}
+					
+					final int specialAbilities = random.nextInt(3);
+					for (int position = 0; position < specialAbilities; position++)
+					{
+						abilities.setInt(1, objectId);
+						abilities.setInt(2, 1 + random.nextInt(2));
+						abilities.setInt(3, 1 + random.nextInt(10000) + (position * 10000));
+						abilities.setInt(4, position);
+						abilities.addBatch();
+					}
+				}
+				
+				if ((i % 5) == 0)
+				{
+					variables.setInt(1, objectId);
+					variables.setString(2, "visualId");
+					variables.setString(3, String.valueOf(random.nextInt(50000)));
+					variables.addBatch();
+					variables.setInt(1, objectId);
+					variables.setString(2, "visualAppearanceLifetime");
+					variables.setString(3, String.valueOf(random.nextLong()));
+					variables.addBatch();
+				}
+			}
+			items.executeBatch();
+			variations.executeBatch();
+			elementals.executeBatch();
+			abilities.executeBatch();
+			variables.executeBatch();
+		}
+		return equipable;
+	}
+	
+	private static void deleteItems(Connection con, int itemCount) throws SQLException
+	{
+		for (String table : TABLES)
+		{
+			try (PreparedStatement ps = con.prepareStatement("DELETE FROM " + table + " BETWEEN ? AND ?"))
+			{
+				ps.setInt(1, FIRST_OBJECT_ID);
+				ps.setInt(2, FIRST_OBJECT_ID + itemCount);
+				ps.executeUpdate();
+			}
+		}
+	}
+	
+	/**
+	 * The former restore, the item data is read with its own queries for each item.
+	 * @param con the database connection
+	 * @param ownerId the owner of the items
+	 * @return the item data by object id
+	 */
+	private static Map<Integer, String> restorePerItem(Connection con, int ownerId) throws SQLException
+	{
+		final Map<Integer, String> restored = new LinkedHashMap<>();
+		for (int[] item : selectItems(con, ownerId))
+		{
+			final int objectId = item[0];
+			final List<String> attributes = new ArrayList<>();
+			final List<String> specialAbilities = new ArrayList<>();
+			if (item[1] != 0)
+			{
+				try (PreparedStatement ps1 = con.prepareStatement("SELECT mineralId,option1,option2 FROM item_variations WHERE itemId=?");
+					PreparedStatement ps2 = con.prepareStatement("SELECT elemType,elemValue FROM item_elementals WHERE itemId=?"))
+				{
+					ps1.setInt(1, objectId);
+					_queries++;
+					try (ResultSet rs = ps1.executeQuery())
+					{
+						while (rs.next())
+						{
+							rs.getInt("option1");
+						}
+					}
+					
+					ps2.setInt(1, objectId);
+					_queries++;
+					try (ResultSet rs = ps2.executeQuery())
+					{
+						while (rs.next())
+						{
+							attributes.add(rs.getByte("elemType") + ":" + rs.getInt("elemValue"));
+						}
+					}
+				}
+				
+				try (PreparedStatement ps = con.prepareStatement("SELECT * FROM item_special_abilities WHERE objectId = ? ORDER BY position"))
+				{
+					ps.setInt(1, objectId);
+					_queries++;
+					try (ResultSet rs = ps.executeQuery())
+					{
+						while (rs.next())
+						{
+							specialAbilities.add(rs.getInt("optionId") + ":" + rs.getInt("position") + ":" + rs.getInt("type"));
+						}
+					}
+				}
+			}
+			
+			final Map<String, String> variables = new HashMap<>();
+			try (PreparedStatement ps = con.prepareStatement("SELECT * FROM item_variables WHERE id = ?"))
+			{
+				ps.setInt(1, objectId);
+				_queries++;
+				try (ResultSet rs = ps.executeQuery())
+				{
+					while (rs.next())
+					{
+						variables.put(rs.getString("var"), rs.getString("val"));
+					}
+				}
+			}
+			restored.put(objectId, describe(attributes, specialAbilities, variables));
+		}
+		return restored;
+	}
+	
+	/**
+	 * The bulk restore, the item data of all items is read by {@link ItemRestoreData}.
+	 * @param con the database connection
+	 * @param ownerId the owner of the items
+	 * @return the item data by object id
+	 */
+	private static Map<Integer, String> restoreBulk(Connection con, int ownerId) throws SQLException
+	{
+		final List<int[]> items = selectItems(con, ownerId);
+		final ItemRestoreData data = ItemRestoreData.load(con, "owner_id=?", ownerId);
+		_queries += 4;
+		final Map<Integer, String> restored = new LinkedHashMap<>();
+		for (int[] item : items)
+		{
+			final int objectId = item[0];
+			final List<String> attributes = new ArrayList<>();
+			final List<String> specialAbilities = new ArrayList<>();
+			if (item[1] != 0)
+			{
+				for (AttributeHolder attribute : data.getAttributes(objectId))
+				{
+					attributes.add(attribute.getType().getClientId() + ":" + attribute.getValue());
+				}
+				for (int[] specialAbility : data.getSpecialAbilities(objectId))
+				{
+					specialAbilities.add(specialAbility[0] + ":" + specialAbility[1] + ":" + specialAbility[2]);
+				}
+			}
+			
+			final Map<String, String> variables = new HashMap<>();
+			for (Entry<String, Object> entry : data.getVariables(objectId).getSet().entrySet())
+			{
+				variables.put(entry.getKey(), String.valueOf(entry.getValue()));
+			}
+			restored.put(objectId, describe(attributes, specialAbilities, variables));
+		}
+		return restored;
+	}
+	
+	/**
+	 * @param con the database connection
+	 * @param ownerId the owner of the items
+	 * @return the object id of each item and 1 if the item has item data, 0 otherwise
+	 */
+	private static List<int[]> selectItems(Connection con, int ownerId) throws SQLException
+	{
+		final List<int[]> items = new ArrayList<>();
+		try (PreparedStatement ps = con.prepareStatement("SELECT * FROM items WHERE owner_id=?"))
+		{
+			ps.setInt(1, ownerId);
+			_queries++;
+			try (ResultSet rs = ps.executeQuery())
+			{
+				while (rs.next())
+				{
+					final int objectId = rs.getInt("object_id");
+					items.add(new int[]
+					{
+						objectId,
+						((objectId - FIRST_OBJECT_ID) % 2) == 0 ? 1 : 0
+					});
+				}
+			}
+		}
+		return items;
+	}
+	
+	private static String describe(List<String> attributes, List<String> specialAbilities, Map<String, String> variables)
+	{
+		attributes.sort(null);
+		return attributes + " " + specialAbilities + " " + new TreeMap<>(variables);
+	}
+}
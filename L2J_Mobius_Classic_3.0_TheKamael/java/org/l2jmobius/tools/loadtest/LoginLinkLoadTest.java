@@ -0,0 +1,251 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.tools.loadtest;
+
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.l2jmobius.commons.network.BaseRecievePacket;
+import org.l2jmobius.commons.network.codecs.LengthFieldBasedFrameEncoder;
+import org.l2jmobius.commons.network.codecs.NewCryptCodec;
+import org.l2jmobius.gameserver.LoginServerThread.SessionKey;
+import org.l2jmobius.gameserver.network.loginserverpackets.game.PlayerAuthRequest;
+import org.l2jmobius.gameserver.network.loginserverpackets.login.PlayerAuthResponse;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+
+/**
+ * Load test of the Login Server <-> Game Server link, without database.<br>
+ * A local login endpoint answers the player authentication requests of a game server link, the requests of all accounts are sent at the same time from several threads.<br>
+ * Both sides use the pipeline and the packets of the real link, the game server registration handshake is skipped.
+ * 
+ * <pre>
+ * java -cp "./../libs/*" org.l2jmobius.tools.loadtest.LoginLinkLoadTest [accounts] [threads] [rounds]
+ * </pre>
+ */
+public class LoginLinkLoadTest
+{
+	private static final String ACCOUNT_PREFIX = "loadtest";
+	
+	public static void main(String[] args) throws Exception
+	{
+		final int accounts = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		final int threads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+		final int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+		
+		final NioEventLoopGroup bossGroup = new NioEventLoopGroup(1);
+		final NioEventLoopGroup workerGroup = new NioEventLoopGroup(2);
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try
+		{
+			// @formatter:off
+			final Channel server = new ServerBootstrap()
+				.group(bossGroup, workerGroup)
+				.channel(NioServerSocketChannel.class)
+				.childHandler(new LinkInitializer(new LoginHandler()))
+				.bind("127.0.0.1", 0).sync().channel();
+			// @formatter:on
+			
+			// Connected the same way as the game server, without a Bootstrap.
+			final GameHandler game = new GameHandler(accounts);
+			final NioSocketChannel client = new NioSocketChannel();
+			client.config().setTcpNoDelay(true);
+			client.pipeline().addLast(new LinkInitializer(game));
+			workerGroup.register(client).sync();
+			client.connect(server.localAddress()).sync();
+			
+			System.out.println("Login link load test: " + accounts + " accounts, " + threads + " threads, " + rounds + " rounds.");
+			for (int round = 1; round <= rounds; round++)
+			{
+				final CountDownLatch answers = game.startRound();
+				final long start = System.nanoTime();
+				for (int t = 0; t < threads; t++)
+				{
+					final int first = t;
+					executor.execute(() ->
+					{
+						for (int i = first; i < accounts; i += threads)
+						{
+							game.sendRequest(client, i);
+						}
+					});
+				}
+				
+				if (!answers.await(60, TimeUnit.SECONDS))
+				{
+					System.out.println("Round " + round + ": timed out, " + answers.getCount() + " answers missing.");
+					break;
+				}
+				
+				final long time = System.nanoTime() - start;
+				final long[] latencies = game.getLatencies();
+				Arrays.sort(latencies);
+				final double average = Arrays.stream(latencies).average().orElse(0);
+				System.out.println(String.format("Round %d: %d requests in %d ms, %d requests/s, %d rejected, latency avg %.2f ms, p50 %.2f ms, p99 %.2f ms, max %.2f ms.", round, accounts, TimeUnit.NANOSECONDS.toMillis(time), (accounts * 1000000000L) / Math.max(1, time), game.getRejected(), average / 1000000, latencies[accounts / 2] / 1000000d, latencies[(int) (accounts * 0.99)] / 1000000d, latencies[accounts - 1] / 1000000d));
+			}
+			
+			client.close().sync();
+			server.close().sync();
+		}
+		finally
+		{
+			executor.shutdownNow();
+			bossGroup.shutdownGracefully();
+			workerGroup.shutdownGracefully();
+		}
+	}
+	
+	private static SessionKey getSessionKey(int account)
+	{
+		return new SessionKey(account, ~account, account * 31, account ^ 0x5A5A5A5A);
+	}
+	
+	private static class LinkInitializer extends ChannelInitializer<SocketChannel>
+	{
+		private static final LengthFieldBasedFrameEncoder LENGTH_ENCODER = new LengthFieldBasedFrameEncoder();
+		
+		private final ChannelHandler _handler;
+		
+		public LinkInitializer(ChannelHandler handler)
+		{
+			_handler = handler;
+		}
+		
+		@Override
+		protected void initChannel(SocketChannel ch)
+		{
+			ch.pipeline().addLast("length-decoder", new LengthFieldBasedFrameDecoder(ByteOrder.LITTLE_ENDIAN, 0xFFFF, 0, 2, -2, 2, false));
+			ch.pipeline().addLast("length-encoder", LENGTH_ENCODER);
+			ch.pipeline().addLast("crypt-codec", new NewCryptCodec());
+			ch.pipeline().addLast(_handler);
+		}
+	}
+	
+	/**
+	 * Answers the player authentication requests the way the login server does, checking the session key of each account.
+	 */
+	@ChannelHandler.Sharable
+	private static class LoginHandler extends SimpleChannelInboundHandler<byte[]>
+	{
+		@Override
+		protected void channelRead0(ChannelHandlerContext ctx, byte[] data)
+		{
+			if ((data[0] & 0xff) != 0x05)
+			{
+				return;
+			}
+			
+			final AuthRequestReader request = new AuthRequestReader(data);
+			final SessionKey key = getSessionKey(Integer.parseInt(request.account.substring(ACCOUNT_PREFIX.length())));
+			final boolean authed = (key.playOkID1 == request.playKey1) && (key.playOkID2 == request.playKey2) && (key.loginOkID1 == request.loginKey1) && (key.loginOkID2 == request.loginKey2);
+			ctx.writeAndFlush(new org.l2jmobius.loginserver.network.loginserverpackets.PlayerAuthResponse(request.account, authed));
+		}
+	}
+	
+	private static class AuthRequestReader extends BaseRecievePacket
+	{
+		public final String account;
+		public final int playKey1;
+		public final int playKey2;
+		public final int loginKey1;
+		public final int loginKey2;
+		
+		public AuthRequestReader(byte[] decrypt)
+		{
+			super(decrypt);
+			account = readS();
+			playKey1 = readD();
+			playKey2 = readD();
+			loginKey1 = readD();
+			loginKey2 = readD();
+		}
+	}
+	
+	/**
+	 * Sends the player authentication requests and measures the time until each answer is received.
+	 */
+	private static class GameHandler extends SimpleChannelInboundHandler<byte[]>
+	{
+		private final long[] _sendTimes;
+		private final long[] _latencies;
+		private final AtomicInteger _rejected = new AtomicInteger();
+		private volatile CountDownLatch _answers;
+		
+		public GameHandler(int accounts)
+		{
+			_sendTimes = new long[accounts];
+			_latencies = new long[accounts];
+		}
+		
+		public CountDownLatch startRound()
+		{
+			_rejected.set(0);
+			_answers = new CountDownLatch(_sendTimes.length);
+			return _answers;
+		}
+		
+		public void sendRequest(Channel channel, int account)
+		{
+			// Written before the request is queued on the event loop, so it is visible when the answer is read.
+			_sendTimes[account] = System.nanoTime();
+			channel.writeAndFlush(new PlayerAuthRequest(ACCOUNT_PREFIX + account, getSessionKey(account)));
+		}
+		
+		@Override
+		protected void channelRead0(ChannelHandlerContext ctx, byte[] data)
+		{
+			if ((data[0] & 0xff) != 0x03)
+			{
+				return;
+			}
+			
+			final PlayerAuthResponse response = new PlayerAuthResponse(data);
+			final int account = Integer.parseInt(response.getAccount().substring(ACCOUNT_PREFIX.length()));
+			_latencies[account] = System.nanoTime() - _sendTimes[account];
+			if (!response.isAuthed())
+			{
+				_rejected.incrementAndGet();
+			}
+			_answers.countDown();
+		}
+		
+		public long[] getLatencies()
+		{
+			return _latencies.clone();
+		}
+		
+		public int getRejected()
+		{
+			return _rejected.get();
+		}
+	}
+}
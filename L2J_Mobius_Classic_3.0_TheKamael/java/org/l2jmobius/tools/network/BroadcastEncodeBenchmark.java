@@ -0,0 +1,250 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.tools.network;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.l2jmobius.commons.network.IOutgoingPacket;
+import org.l2jmobius.commons.network.PacketWriter;
+import org.l2jmobius.commons.network.SharedPacket;
+import org.l2jmobius.commons.network.codecs.CryptCodec;
+import org.l2jmobius.commons.network.codecs.LengthFieldBasedFrameEncoder;
+import org.l2jmobius.commons.network.codecs.PacketEncoder;
+import org.l2jmobius.gameserver.network.ClientInitializer;
+import org.l2jmobius.gameserver.network.Crypt;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * Checks and measures the {@link SharedPacket} broadcast path without datapack, database or sockets.<br>
+ * Each receiver is an embedded channel with the outgoing codecs of the game client pipeline and its own key. The same broadcasts are written:
+ * <ul>
+ * <li>as packets, encoded by the {@link PacketEncoder} of every receiver,</li>
+ * <li>as retained duplicates of one {@link SharedPacket} per broadcast.</li>
+ * </ul>
+ * Both ways must put the same encrypted bytes on every channel, then both are timed on a single thread, with the bytes they allocate.<br>
+ * The broadcast packet is a synthetic one of about the size of a CharInfo.
+ * 
+ * <pre>
+ * java -cp "./../libs/*" org.l2jmobius.tools.network.BroadcastEncodeBenchmark [receivers] [broadcasts] [seed]
+ * </pre>
+ */
+public class BroadcastEncodeBenchmark
+{
+	private static final LengthFieldBasedFrameEncoder LENGTH_ENCODER = new LengthFieldBasedFrameEncoder();
+	private static final PacketEncoder PACKET_ENCODER = new PacketEncoder(ClientInitializer.MAX_PACKET_SIZE);
+	private static final AtomicLong PACKET_WRITES = new AtomicLong();
+	
+	public static void main(String[] args)
+	{
+		final int receivers = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+		final int broadcasts = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+		final long seed = args.length > 2 ? Long.parseLong(args[2]) : 12345;
+		
+		final Random random = new Random(seed);
+		final TestPacket[] packets = new TestPacket[64];
+		for (int i = 0; i < packets.length; i++)
+		{
+			packets[i] = new TestPacket(random);
+		}
+		
+		// Same keys on both sides, the output of each pair of channels must match byte for byte.
+		final byte[][] keys = new byte[receivers][16];
+		for (byte[] key : keys)
+		{
+			random.nextBytes(key);
+		}
+		final EmbeddedChannel[] encoded = createChannels(keys);
+		final EmbeddedChannel[] shared = createChannels(keys);
+		boolean passed = true;
+		for (int i = 0; i < 100; i++)
+		{
+			final TestPacket packet = packets[i % packets.length];
+			writeEncoded(encoded, packet);
+			writeShared(shared, packet);
+			for (int j = 0; j < receivers; j++)
+			{
+				if (!Arrays.equals(readOutbound(encoded[j]), readOutbound(shared[j])))
+				{
+					passed = false;
+				}
+			}
+		}
+		System.out.println("Receivers: " + receivers + " Broadcasts: " + broadcasts + " Packet size: " + packets[0].size() + " bytes, Output: " + (passed ? "identical" : "MISMATCH"));
+		
+		// Warm up, then measure.
+		run(encoded, packets, broadcasts / 4, false);
+		run(shared, packets, broadcasts / 4, true);
+		final long[] encodedResult = run(encoded, packets, broadcasts, false);
+		final long[] sharedResult = run(shared, packets, broadcasts, true);
+		print("Encoded per receiver", encodedResult, broadcasts, receivers);
+		print("Shared buffer", sharedResult, broadcasts, receivers);
+		
+		for (int i = 0; i < receivers; i++)
+		{
+			encoded[i].finishAndReleaseAll();
+			shared[i].finishAndReleaseAll();
+		}
+		
+		System.out.println(passed ? "PASSED" : "FAILED");
+		System.exit(passed ? 0 : 1);
+	}
+	
+	private static EmbeddedChannel[] createChannels(byte[][] keys)
+	{
+		final EmbeddedChannel[] channels = new EmbeddedChannel[keys.length];
+		for (int i = 0; i < keys.length; i++)
+		{
+			final Crypt crypt = new Crypt();
+			crypt.setKey(keys[i]);
+			channels[i] = new EmbeddedChannel(LENGTH_ENCODER, new CryptCodec(crypt), PACKET_ENCODER);
+		}
+		return channels;
+	}
+	
+	private static void writeEncoded(EmbeddedChannel[] channels, IOutgoingPacket packet)
+	{
+		for (EmbeddedChannel channel : channels)
+		{
+			channel.writeOutbound(packet);
+		}
+	}
+	
+	private static void writeShared(EmbeddedChannel[] channels, IOutgoingPacket packet)
+	{
+		final SharedPacket shared = new SharedPacket(packet, ClientInitializer.MAX_PACKET_SIZE);
+		try
+		{
+			for (EmbeddedChannel channel : channels)
+			{
+				channel.writeOutbound(shared.retainedBuffer());
+			}
+		}
+		finally
+		{
+			shared.release();
+		}
+	}
+	
+	private static byte[] readOutbound(EmbeddedChannel channel)
+	{
+		final ByteBuf length = channel.readOutbound();
+		final ByteBuf body = channel.readOutbound();
+		final byte[] bytes = new byte[length.readableBytes() + body.readableBytes()];
+		length.readBytes(bytes, 0, length.readableBytes());
+		body.readBytes(bytes, bytes.length - body.readableBytes(), body.readableBytes());
+		length.release();
+		body.release();
+		return bytes;
+	}
+	
+	private static void discardOutbound(EmbeddedChannel channel)
+	{
+		ByteBuf buffer;
+		while ((buffer = channel.readOutbound()) != null)
+		{
+			buffer.release();
+		}
+	}
+	
+	/**
+	 * @param channels the receivers
+	 * @param packets the packets to broadcast in turn
+	 * @param broadcasts the number of broadcasts
+	 * @param shared {@code true} to share one buffer per broadcast
+	 * @return the duration in nanoseconds, the allocated bytes and the packet writes
+	 */
+	private static long[] run(EmbeddedChannel[] channels, TestPacket[] packets, int broadcasts, boolean shared)
+	{
+		final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		final long threadId = Thread.currentThread().getId();
+		final long bytes = bean.getThreadAllocatedBytes(threadId);
+		final long writes = PACKET_WRITES.get();
+		final long start = System.nanoTime();
+		for (int i = 0; i < broadcasts; i++)
+		{
+			final TestPacket packet = packets[i % packets.length];
+			if (shared)
+			{
+				writeShared(channels, packet);
+			}
+			else
+			{
+				writeEncoded(channels, packet);
+			}
+			
+			for (EmbeddedChannel channel : channels)
+			{
+				discardOutbound(channel);
+			}
+		}
+		return new long[]
+		{
+			System.nanoTime() - start,
+			bean.getThreadAllocatedBytes(threadId) - bytes,
+			PACKET_WRITES.get() - writes
+		};
+	}
+	
+	private static void print(String label, long[] result, int broadcasts, int receivers)
+	{
+		System.out.println(String.format("%-21s %8.1f us per broadcast, %6.0f bytes allocated per receiver, %d packet writes", label, result[0] / 1000.0 / broadcasts, (double) result[1] / broadcasts / receivers, result[2]));
+	}
+	
+	/**
+	 * Strings and numbers in about the proportions of a CharInfo.
+	 */
+	private static class TestPacket implements IOutgoingPacket
+	{
+		private final String _name;
+		private final String _title;
+		private final int[] _values = new int[90];
+		
+		protected TestPacket(Random random)
+		{
+			_name = "Player" + random.nextInt(100000);
+			_title = "Title" + random.nextInt(100000);
+			for (int i = 0; i < _values.length; i++)
+			{
+				_values[i] = random.nextInt();
+			}
+		}
+		
+		protected int size()
+		{
+			return 1 + ((_name.length() + 1) * 2) + ((_title.length() + 1) * 2) + (_values.length * 4);
+		}
+		
+		@Override
+		public boolean write(PacketWriter packet)
+		{
+			PACKET_WRITES.incrementAndGet();
+			packet.writeC(0x31);
+			packet.writeS(_name);
+			for (int value : _values)
+			{
+				packet.writeD(value);
+			}
+			packet.writeS(_title);
+			return true;
+		}
+	}
+}
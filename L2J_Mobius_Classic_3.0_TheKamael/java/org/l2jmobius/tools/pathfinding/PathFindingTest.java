@@ -0,0 +1,659 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.tools.pathfinding;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.l2jmobius.Config;
+import org.l2jmobius.gameserver.geoengine.GeoEngine;
+import org.l2jmobius.gameserver.geoengine.geodata.Cell;
+import org.l2jmobius.gameserver.geoengine.geodata.IBlock;
+import org.l2jmobius.gameserver.geoengine.geodata.IRegion;
+import org.l2jmobius.gameserver.geoengine.pathfinding.AbstractNodeLoc;
+import org.l2jmobius.gameserver.geoengine.pathfinding.cellnodes.CellNodeBuffer;
+import org.l2jmobius.gameserver.geoengine.pathfinding.cellnodes.CellPathFinding;
+import org.l2jmobius.gameserver.geoengine.pathfinding.cellnodes.NodeLoc;
+
+/**
+ * Checks and measures the cell pathfinding without datapack or database.<br>
+ * A geodata region with hills, cliffs and walls is generated in a temporary directory, then:
+ * <ul>
+ * <li>every search is run by the {@link CellNodeBuffer} and by the linked node search it replaced, both must return the same path,</li>
+ * <li>both searches are timed on a single thread, with the bytes they allocate,</li>
+ * <li>several threads search through {@link CellPathFinding}, whose buffers must stay within the configured pool.</li>
+ * </ul>
+ * 
+ * <pre>
+ * java -cp "./../libs/*" org.l2jmobius.tools.pathfinding.PathFindingTest [searches] [threads] [seed]
+ * </pre>
+ */
+public class PathFindingTest
+{
+	private static final int REGION_X = 20;
+	private static final int REGION_Y = 18;
+	private static final int AREA_OFFSET = 768; // Generated area, in cells from the region corner.
+	private static final int AREA_SIZE = 512;
+	private static final int MAX_DISTANCE = 200;
+	private static final String BUFFERS = "100x6;128x6;192x6;256x4;320x4;384x4;500x2";
+	
+	public static void main(String[] args) throws Exception
+	{
+		final int searches = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		final int threads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+		final long seed = args.length > 2 ? Long.parseLong(args[2]) : 12345;
+		
+		final Random random = new Random(seed);
+		loadConfig(createGeodata(random));
+		final GeoEngine geoEngine = GeoEngine.getInstance();
+		final int baseX = (REGION_X * IRegion.REGION_CELLS_X) + AREA_OFFSET;
+		final int baseY = (REGION_Y * IRegion.REGION_CELLS_Y) + AREA_OFFSET;
+		
+		final List<int[]> pairs = new ArrayList<>(searches);
+		while (pairs.size() < searches)
+		{
+			final int x = baseX + MAX_DISTANCE + random.nextInt(AREA_SIZE - (2 * MAX_DISTANCE));
+			final int y = baseY + MAX_DISTANCE + random.nextInt(AREA_SIZE - (2 * MAX_DISTANCE));
+			final int tx = x + random.nextInt((2 * MAX_DISTANCE) + 1) - MAX_DISTANCE;
+			final int ty = y + random.nextInt((2 * MAX_DISTANCE) + 1) - MAX_DISTANCE;
+			pairs.add(new int[]
+			{
+				x,
+				y,
+				geoEngine.getNearestZ(x, y, 0),
+				tx,
+				ty,
+				geoEngine.getNearestZ(tx, ty, 0)
+			});
+		}
+		
+		System.out.println("Cell pathfinding test, " + searches + " searches, " + threads + " threads, seed " + seed + ".");
+		boolean passed = compare(pairs);
+		benchmark(pairs);
+		passed &= runPool(pairs, threads);
+		System.out.println(passed ? "PASSED" : "FAILED");
+		System.exit(passed ? 0 : 1);
+	}
+	
+	private static void loadConfig(Path geodataPath)
+	{
+		Config.GEODATA_PATH = geodataPath;
+		Config.PATHFIND_BUFFERS = BUFFERS;
+		Config.LOW_WEIGHT = 0.5f;
+		Config.MEDIUM_WEIGHT = 2;
+		Config.HIGH_WEIGHT = 3;
+		Config.DIAGONAL_WEIGHT = 0.707f;
+		Config.ADVANCED_DIAGONAL_STRATEGY = true;
+		Config.MAX_POSTFILTER_PASSES = 3;
+		Config.DEBUG_PATH = false;
+	}
+	
+	/**
+	 * Writes a region of flat blocks, with complex blocks in the searched area.
+	 * @param random the terrain generator
+	 * @return the geodata directory
+	 * @throws IOException if the region file cannot be written
+	 */
+	private static Path createGeodata(Random random) throws IOException
+	{
+		final short[][] heights = new short[AREA_SIZE][AREA_SIZE];
+		final boolean[][] blocked = new boolean[AREA_SIZE][AREA_SIZE];
+		for (int x = 0; x < AREA_SIZE; x++)
+		{
+			for (int y = 0; y < AREA_SIZE; y++)
+			{
+				heights[x][y] = (short) ((int) (200 * Math.sin(x / 60.0) * Math.cos(y / 45.0)) & ~7);
+				blocked[x][y] = random.nextInt(100) < 3;
+			}
+		}
+		
+		// Plateaus, their edges are cliffs.
+		for (int i = 0; i < 60; i++)
+		{
+			final int x = random.nextInt(AREA_SIZE - 40);
+			final int y = random.nextInt(AREA_SIZE - 40);
+			final int width = 5 + random.nextInt(35);
+			final int length = 5 + random.nextInt(35);
+			for (int px = x; px < (x + width); px++)
+			{
+				for (int py = y; py < (y + length); py++)
+				{
+					heights[px][py] += 48;
+				}
+			}
+		}
+		
+		// Walls, with a gap.
+		for (int i = 0; i < 150; i++)
+		{
+			final boolean horizontal = random.nextBoolean();
+			final int x = random.nextInt(AREA_SIZE);
+			final int y = random.nextInt(AREA_SIZE);
+			final int length = 10 + random.nextInt(80);
+			final int gap = random.nextInt(length);
+			for (int j = 0; j < length; j++)
+			{
+				final int wx = horizontal ? x + j : x;
+				final int wy = horizontal ? y : y + j;
+				if ((wx < AREA_SIZE) && (wy < AREA_SIZE) && ((j < gap) || (j > (gap + 2))))
+				{
+					blocked[wx][wy] = true;
+				}
+			}
+		}
+		
+		final int areaBlocks = AREA_SIZE / IBlock.BLOCK_CELLS_X;
+		final int firstBlock = AREA_OFFSET / IBlock.BLOCK_CELLS_X;
+		final ByteBuffer buffer = ByteBuffer.allocate((IRegion.REGION_BLOCKS * 3) + (areaBlocks * areaBlocks * IBlock.BLOCK_CELLS * 2)).order(ByteOrder.LITTLE_ENDIAN);
+		for (int blockX = 0; blockX < IRegion.REGION_BLOCKS_X; blockX++)
+		{
+			for (int blockY = 0; blockY < IRegion.REGION_BLOCKS_Y; blockY++)
+			{
+				if ((blockX < firstBlock) || (blockX >= (firstBlock + areaBlocks)) || (blockY < firstBlock) || (blockY >= (firstBlock + areaBlocks)))
+				{
+					buffer.put((byte) IBlock.TYPE_FLAT);
+					buffer.putShort((short) 0);
+					continue;
+				}
+				
+				buffer.put((byte) IBlock.TYPE_COMPLEX);
+				for (int cellX = 0; cellX < IBlock.BLOCK_CELLS_X; cellX++)
+				{
+					for (int cellY = 0; cellY < IBlock.BLOCK_CELLS_Y; cellY++)
+					{
+						final int x = ((blockX - firstBlock) * IBlock.BLOCK_CELLS_X) + cellX;
+						final int y = ((blockY - firstBlock) * IBlock.BLOCK_CELLS_Y) + cellY;
+						int nswe = 0;
+						if (!blocked[x][y])
+						{
+							nswe |= isOpen(blocked, x + 1, y) ? Cell.NSWE_EAST : 0;
+							nswe |= isOpen(blocked, x - 1, y) ? Cell.NSWE_WEST : 0;
+							nswe |= isOpen(blocked, x, y + 1) ? Cell.NSWE_SOUTH : 0;
+							nswe |= isOpen(blocked, x, y - 1) ? Cell.NSWE_NORTH : 0;
+						}
+						buffer.putShort((short) (((heights[x][y] << 1) & 0xFFF0) | nswe));
+					}
+				}
+			}
+		}
+		
+		final Path directory = Files.createTempDirectory("geodata");
+		final Path file = directory.resolve(REGION_X + "_" + REGION_Y + ".l2j");
+		Files.write(file, buffer.array());
+		file.toFile().deleteOnExit();
+		directory.toFile().deleteOnExit();
+		return directory;
+	}
+	
+	private static boolean isOpen(boolean[][] blocked, int x, int y)
+	{
+		return (x < 0) || (y < 0) || (x >= AREA_SIZE) || (y >= AREA_SIZE) || !blocked[x][y];
+	}
+	
+	private static int getMapSize(int[] pair)
+	{
+		final int size = 64 + (2 * Math.max(Math.abs(pair[0] - pair[3]), Math.abs(pair[1] - pair[4])));
+		for (String buffer : BUFFERS.split(";"))
+		{
+			final int mapSize = Integer.parseInt(buffer.split("x")[0]);
+			if (mapSize >= size)
+			{
+				return mapSize;
+			}
+		}
+		return 0;
+	}
+	
+	private static boolean compare(List<int[]> pairs)
+	{
+		final CellNodeBuffer buffer = new CellNodeBuffer();
+		final Map<Integer, Reference> references = new HashMap<>();
+		int found = 0;
+		int mismatches = 0;
+		for (int[] pair : pairs)
+		{
+			final int mapSize = getMapSize(pair);
+			final List<AbstractNodeLoc> expected = references.computeIfAbsent(mapSize, Reference::new).findPath(pair[0], pair[1], pair[2], pair[3], pair[4], pair[5]);
+			buffer.init(mapSize);
+			final List<AbstractNodeLoc> path = buffer.findPath(pair[0], pair[1], pair[2], pair[3], pair[4], pair[5]) ? buffer.constructPath() : null;
+			if (expected != null)
+			{
+				found++;
+			}
+			if (!isSamePath(expected, path))
+			{
+				if (mismatches++ < 10)
+				{
+					System.out.println("Different path from " + pair[0] + "," + pair[1] + "," + pair[2] + " to " + pair[3] + "," + pair[4] + "," + pair[5] + ": expected " + toString(expected) + ", found " + toString(path));
+				}
+			}
+		}
+		System.out.println("Equivalence: " + pairs.size() + " searches, " + found + " paths found, " + mismatches + " different.");
+		return mismatches == 0;
+	}
+	
+	private static boolean isSamePath(List<AbstractNodeLoc> expected, List<AbstractNodeLoc> path)
+	{
+		if ((expected == null) || (path == null))
+		{
+			return expected == path;
+		}
+		if (expected.size() != path.size())
+		{
+			return false;
+		}
+		for (int i = 0; i < expected.size(); i++)
+		{
+			final AbstractNodeLoc a = expected.get(i);
+			final AbstractNodeLoc b = path.get(i);
+			if ((a.getX() != b.getX()) || (a.getY() != b.getY()) || (a.getZ() != b.getZ()))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private static String toString(List<AbstractNodeLoc> path)
+	{
+		if (path == null)
+		{
+			return "none";
+		}
+		final StringBuilder sb = new StringBuilder();
+		for (AbstractNodeLoc loc : path)
+		{
+			sb.append('[').append(loc.getX()).append(',').append(loc.getY()).append(',').append(loc.getZ()).append(']');
+		}
+		return sb.toString();
+	}
+	
+	private static void benchmark(List<int[]> pairs)
+	{
+		final Map<Integer, Reference> references = new HashMap<>();
+		final CellNodeBuffer buffer = new CellNodeBuffer();
+		final Search reference = pair -> references.computeIfAbsent(getMapSize(pair), Reference::new).findPath(pair[0], pair[1], pair[2], pair[3], pair[4], pair[5]) != null;
+		final Search workspace = pair ->
+		{
+			buffer.init(getMapSize(pair));
+			return buffer.findPath(pair[0], pair[1], pair[2], pair[3], pair[4], pair[5]) && (buffer.constructPath() != null);
+		};
+		
+		// Warm up both implementations before the measured runs.
+		for (int i = 0; i < 3; i++)
+		{
+			measure(reference, pairs);
+			measure(workspace, pairs);
+		}
+		
+		final long[] referenceResult = measure(reference, pairs);
+		final long[] workspaceResult = measure(workspace, pairs);
+		System.out.println("Linked nodes: " + format(referenceResult, pairs.size()));
+		System.out.println("Workspace: .. " + format(workspaceResult, pairs.size()));
+	}
+	
+	/**
+	 * @param search the search
+	 * @param pairs the searches
+	 * @return the elapsed nanoseconds and the allocated bytes of the current thread
+	 */
+	private static long[] measure(Search search, List<int[]> pairs)
+	{
+		final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		final long threadId = Thread.currentThread().getId();
+		final long bytes = bean.getThreadAllocatedBytes(threadId);
+		final long start = System.nanoTime();
+		for (int[] pair : pairs)
+		{
+			search.run(pair);
+		}
+		return new long[]
+		{
+			System.nanoTime() - start,
+			bean.getThreadAllocatedBytes(threadId) - bytes
+		};
+	}
+	
+	private static String format(long[] result, int searches)
+	{
+		return (result[0] / searches / 1000) + "us per search, " + (result[1] / searches / 1024) + "KB allocated per search";
+	}
+	
+	/**
+	 * Searches from several threads through {@link CellPathFinding}, the allocated buffers must not exceed the configured counts.
+	 * @param pairs the searches
+	 * @param threads the number of threads
+	 * @return {@code true} if the pooled buffers stayed within the configured counts
+	 * @throws InterruptedException if interrupted while waiting for the threads
+	 */
+	private static boolean runPool(List<int[]> pairs, int threads) throws InterruptedException
+	{
+		final GeoEngine geoEngine = GeoEngine.getInstance();
+		final CellPathFinding pathFinding = CellPathFinding.getInstance();
+		final AtomicLong found = new AtomicLong();
+		final CountDownLatch latch = new CountDownLatch(threads);
+		final long start = System.nanoTime();
+		for (int t = 0; t < threads; t++)
+		{
+			final int offset = t;
+			new Thread(() ->
+			{
+				for (int i = offset; i < pairs.size(); i += threads)
+				{
+					final int[] pair = pairs.get(i);
+					if (pathFinding.findPath(geoEngine.getWorldX(pair[0]), geoEngine.getWorldY(pair[1]), pair[2], geoEngine.getWorldX(pair[3]), geoEngine.getWorldY(pair[4]), pair[5], null, false) != null)
+					{
+						found.incrementAndGet();
+					}
+				}
+				latch.countDown();
+			}).start();
+		}
+		latch.await();
+		System.out.println("Pool: " + pairs.size() + " searches on " + threads + " threads in " + ((System.nanoTime() - start) / 1000000) + "ms, " + found.get() + " paths found.");
+		
+		long allocations = 0;
+		long overflows = 0;
+		for (String line : pathFinding.getStat())
+		{
+			System.out.println(line);
+			if (line.contains("BufferAllocs:"))
+			{
+				allocations = Long.parseLong(line.replaceAll("[^0-9]", ""));
+			}
+			else if (line.contains("BufferOverflows:"))
+			{
+				overflows = Long.parseLong(line.replaceAll("[^0-9]", ""));
+			}
+		}
+		
+		// Each pooled buffer is allocated once, temporary buffers once per search.
+		int pooled = 0;
+		for (String buffer : BUFFERS.split(";"))
+		{
+			pooled += Integer.parseInt(buffer.split("x")[1]);
+		}
+		return (allocations - overflows) <= pooled;
+	}
+	
+	private interface Search
+	{
+		boolean run(int[] pair);
+	}
+	
+	/**
+	 * The linked node search used before the {@link CellNodeBuffer} workspace, with the same node order and costs.
+	 */
+	private static class Reference
+	{
+		private static final int MAX_ITERATIONS = 3500;
+		
+		private final int _mapSize;
+		private final Node[][] _buffer;
+		private int _baseX;
+		private int _baseY;
+		private int _targetX;
+		private int _targetY;
+		private int _targetZ;
+		private Node _current;
+		
+		public Reference(int mapSize)
+		{
+			_mapSize = mapSize;
+			_buffer = new Node[mapSize][mapSize];
+		}
+		
+		public List<AbstractNodeLoc> findPath(int x, int y, int z, int tx, int ty, int tz)
+		{
+			try
+			{
+				_baseX = x + ((tx - x - _mapSize) / 2);
+				_baseY = y + ((ty - y - _mapSize) / 2);
+				_targetX = tx;
+				_targetY = ty;
+				_targetZ = tz;
+				_current = getNode(x, y, z);
+				_current._cost = (float) getCost(x, y, z, Config.HIGH_WEIGHT);
+				for (int count = 0; count < MAX_ITERATIONS; count++)
+				{
+					if ((_current._loc.getNodeX() == _targetX) && (_current._loc.getNodeY() == _targetY) && (Math.abs(_current._loc.getZ() - _targetZ) < 64))
+					{
+						return constructPath(_current);
+					}
+					
+					getNeighbors();
+					if (_current._next == null)
+					{
+						return null;
+					}
+					_current = _current._next;
+				}
+				return null;
+			}
+			finally
+			{
+				free();
+			}
+		}
+		
+		private void free()
+		{
+			for (Node[] nodes : _buffer)
+			{
+				for (Node node : nodes)
+				{
+					if (node != null)
+					{
+						node._parent = null;
+						node._next = null;
+						node._cost = -1000;
+						node._inUse = false;
+					}
+				}
+			}
+		}
+		
+		private void getNeighbors()
+		{
+			final NodeLoc loc = _current._loc;
+			if (loc.canGoNone())
+			{
+				return;
+			}
+			
+			final int x = loc.getNodeX();
+			final int y = loc.getNodeY();
+			final int z = loc.getZ();
+			final Node nodeE = loc.canGoEast() ? addNode(x + 1, y, z, false) : null;
+			final Node nodeS = loc.canGoSouth() ? addNode(x, y + 1, z, false) : null;
+			final Node nodeW = loc.canGoWest() ? addNode(x - 1, y, z, false) : null;
+			final Node nodeN = loc.canGoNorth() ? addNode(x, y - 1, z, false) : null;
+			if (!Config.ADVANCED_DIAGONAL_STRATEGY)
+			{
+				return;
+			}
+			
+			if ((nodeE != null) && (nodeS != null) && nodeE._loc.canGoSouth() && nodeS._loc.canGoEast())
+			{
+				addNode(x + 1, y + 1, z, true);
+			}
+			if ((nodeS != null) && (nodeW != null) && nodeW._loc.canGoSouth() && nodeS._loc.canGoWest())
+			{
+				addNode(x - 1, y + 1, z, true);
+			}
+			if ((nodeN != null) && (nodeE != null) && nodeE._loc.canGoNorth() && nodeN._loc.canGoEast())
+			{
+				addNode(x + 1, y - 1, z, true);
+			}
+			if ((nodeN != null) && (nodeW != null) && nodeW._loc.canGoNorth() && nodeN._loc.canGoWest())
+			{
+				addNode(x - 1, y - 1, z, true);
+			}
+		}
+		
+		private Node getNode(int x, int y, int z)
+		{
+			final int aX = x - _baseX;
+			final int aY = y - _baseY;
+			if ((aX < 0) || (aX >= _mapSize) || (aY < 0) || (aY >= _mapSize))
+			{
+				return null;
+			}
+			
+			Node result = _buffer[aX][aY];
+			if (result == null)
+			{
+				result = new Node(new NodeLoc(x, y, z));
+				_buffer[aX][aY] = result;
+			}
+			else if (!result._inUse)
+			{
+				result._inUse = true;
+				result._loc.set(x, y, z);
+			}
+			return result;
+		}
+		
+		private Node addNode(int x, int y, int z, boolean diagonal)
+		{
+			final Node newNode = getNode(x, y, z);
+			if (newNode == null)
+			{
+				return null;
+			}
+			if (newNode._cost >= 0)
+			{
+				return newNode;
+			}
+			
+			final int geoZ = newNode._loc.getZ();
+			final int stepZ = Math.abs(geoZ - _current._loc.getZ());
+			float weight = diagonal ? Config.DIAGONAL_WEIGHT : Config.LOW_WEIGHT;
+			if (!newNode._loc.canGoAll() || (stepZ > 16))
+			{
+				weight = Config.HIGH_WEIGHT;
+			}
+			else if (isHighWeight(x + 1, y, geoZ) || isHighWeight(x - 1, y, geoZ) || isHighWeight(x, y + 1, geoZ) || isHighWeight(x, y - 1, geoZ))
+			{
+				weight = Config.MEDIUM_WEIGHT;
+			}
+			
+			newNode._parent = _current;
+			newNode._cost = (float) getCost(x, y, geoZ, weight);
+			
+			Node node = _current;
+			int count = 0;
+			while ((node._next != null) && (count < (MAX_ITERATIONS * 4)))
+			{
+				count++;
+				if (node._next._cost > newNode._cost)
+				{
+					newNode._next = node._next;
+					break;
+				}
+				node = node._next;
+			}
+			node._next = newNode;
+			return newNode;
+		}
+		
+		private boolean isHighWeight(int x, int y, int z)
+		{
+			final Node result = getNode(x, y, z);
+			return (result == null) || !result._loc.canGoAll() || (Math.abs(result._loc.getZ() - z) > 16);
+		}
+		
+		private double getCost(int x, int y, int z, float weight)
+		{
+			final int dX = x - _targetX;
+			final int dY = y - _targetY;
+			final int dZ = z - _targetZ;
+			double result = Math.sqrt((dX * dX) + (dY * dY) + ((dZ * dZ) / 256.0));
+			if (result > weight)
+			{
+				result += weight;
+			}
+			return Math.min(result, Float.MAX_VALUE);
+		}
+		
+		private static List<AbstractNodeLoc> constructPath(Node found)
+		{
+			final LinkedList<AbstractNodeLoc> path = new LinkedList<>();
+			int previousDirectionX = Integer.MIN_VALUE;
+			int previousDirectionY = Integer.MIN_VALUE;
+			int directionX;
+			int directionY;
+			for (Node node = found; node._parent != null; node = node._parent)
+			{
+				if (!Config.ADVANCED_DIAGONAL_STRATEGY && (node._parent._parent != null))
+				{
+					final int tmpX = node._loc.getNodeX() - node._parent._parent._loc.getNodeX();
+					final int tmpY = node._loc.getNodeY() - node._parent._parent._loc.getNodeY();
+					if (Math.abs(tmpX) == Math.abs(tmpY))
+					{
+						directionX = tmpX;
+						directionY = tmpY;
+					}
+					else
+					{
+						directionX = node._loc.getNodeX() - node._parent._loc.getNodeX();
+						directionY = node._loc.getNodeY() - node._parent._loc.getNodeY();
+					}
+				}
+				else
+				{
+					directionX = node._loc.getNodeX() - node._parent._loc.getNodeX();
+					directionY = node._loc.getNodeY() - node._parent._loc.getNodeY();
+				}
+				
+				if ((directionX != previousDirectionX) || (directionY != previousDirectionY))
+				{
+					previousDirectionX = directionX;
+					previousDirectionY = directionY;
+					path.addFirst(new NodeLoc(node._loc.getNodeX(), node._loc.getNodeY(), node._loc.getZ()));
+				}
+			}
+			return path;
+		}
+	}
+	
+	private static class Node
+	{
+		private final NodeLoc _loc;
+		private Node _parent;
+		private Node _next;
+		private float _cost = -1000;
+		private boolean _inUse = true;
+		
+		public Node(NodeLoc loc)
+		{
+			_loc = loc;
+		}
+	}
+}
@@ -0,0 +1,281 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.tools.regeneration;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.l2jmobius.Config;
+import org.l2jmobius.commons.threads.ThreadPool;
+import org.l2jmobius.gameserver.model.StatSet;
+import org.l2jmobius.gameserver.model.actor.Creature;
+import org.l2jmobius.gameserver.model.actor.Player;
+import org.l2jmobius.gameserver.model.actor.status.CreatureStatus;
+import org.l2jmobius.gameserver.model.actor.templates.CreatureTemplate;
+import org.l2jmobius.gameserver.model.item.ItemTemplate;
+import org.l2jmobius.gameserver.model.item.Weapon;
+import org.l2jmobius.gameserver.model.item.instance.Item;
+import org.l2jmobius.gameserver.model.stats.Formulas;
+import org.l2jmobius.gameserver.taskmanager.RegenerationTaskManager;
+
+/**
+ * Checks and measures the {@link RegenerationTaskManager} without datapack or database.<br>
+ * Test creatures, whose regeneration only counts its calls, regenerate for a while:
+ * <ul>
+ * <li>with one task per creature on the scheduled pools, as before,</li>
+ * <li>with the real start and stop of {@link CreatureStatus}, through the manager.</li>
+ * </ul>
+ * Each creature must regenerate once per regeneration period in both cases. The scheduled pool queues, the time to start and stop all regenerations and the process CPU time are compared.
+ * 
+ * <pre>
+ * java -cp "./../libs/*" org.l2jmobius.tools.regeneration.RegenerationBenchmark [creatures] [seconds]
+ * </pre>
+ */
+public class RegenerationBenchmark
+{
+	private static final int FIRST_ID = 0x10000000;
+	
+	public static void main(String[] args) throws Exception
+	{
+		final int creatureCount = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		final int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		
+		// Default thread pools of the game server configuration.
+		Config.SCHEDULED_THREAD_POOL_COUNT = Runtime.getRuntime().availableProcessors();
+		Config.THREADS_PER_SCHEDULED_THREAD_POOL = 4;
+		Config.INSTANT_THREAD_POOL_COUNT = Runtime.getRuntime().availableProcessors();
+		Config.THREADS_PER_INSTANT_THREAD_POOL = 2;
+		ThreadPool.init();
+		
+		final CreatureTemplate template = new CreatureTemplate(new StatSet());
+		final List<TestCreature> creatures = new ArrayList<>(creatureCount);
+		for (int i = 0; i < creatureCount; i++)
+		{
+			creatures.add(new TestCreature(FIRST_ID + i, template));
+		}
+		final int period = Formulas.getRegeneratePeriod(creatures.get(0));
+		System.out.println("Creatures: " + creatureCount + " Period: " + period + " ms Window: " + seconds + " s Scheduled pools: " + Config.SCHEDULED_THREAD_POOL_COUNT + "x" + Config.THREADS_PER_SCHEDULED_THREAD_POOL);
+		System.out.println("Idle scheduled queues: " + getQueuedTasks());
+		RegenerationTaskManager.getInstance();
+		
+		// One task per creature, the former way.
+		final List<ScheduledFuture<?>> tasks = new ArrayList<>(creatureCount);
+		long start = System.nanoTime();
+		for (TestCreature creature : creatures)
+		{
+			final CreatureStatus status = creature.getStatus();
+			tasks.add(ThreadPool.scheduleAtFixedRate(status::doRegeneration, period, period));
+		}
+		final long scheduledStart = System.nanoTime() - start;
+		final int scheduledQueues = getQueuedTasks();
+		final long scheduledCpu = measure(creatures, seconds);
+		start = System.nanoTime();
+		for (ScheduledFuture<?> task : tasks)
+		{
+			task.cancel(false);
+		}
+		final long scheduledStop = System.nanoTime() - start;
+		final boolean scheduledPassed = check(creatures, seconds, period);
+		
+		// The manager, through the status of each creature.
+		start = System.nanoTime();
+		for (TestCreature creature : creatures)
+		{
+			creature.getStatus().startHpMpRegeneration();
+		}
+		final long managerStart = System.nanoTime() - start;
+		final int managerQueues = getQueuedTasks();
+		final long managerCpu = measure(creatures, seconds);
+		start = System.nanoTime();
+		for (TestCreature creature : creatures)
+		{
+			creature.getStatus().stopHpMpRegeneration();
+		}
+		final long managerStop = System.nanoTime() - start;
+		final boolean managerPassed = check(creatures, seconds, period);
+		
+		print("One task per creature", scheduledQueues, scheduledStart, scheduledStop, scheduledCpu, seconds, scheduledPassed);
+		print("Regeneration manager", managerQueues, managerStart, managerStop, managerCpu, seconds, managerPassed);
+		for (String line : RegenerationTaskManager.getInstance().getStats())
+		{
+			System.out.println(line);
+		}
+		
+		final boolean passed = scheduledPassed && managerPassed;
+		System.out.println(passed ? "PASSED" : "FAILED");
+		System.exit(passed ? 0 : 1);
+	}
+	
+	/**
+	 * Lets the creatures regenerate for a while, after resetting their counters.
+	 * @param creatures the creatures
+	 * @param seconds the duration
+	 * @return the CPU time of the process meanwhile in nanoseconds
+	 */
+	private static long measure(List<TestCreature> creatures, int seconds) throws InterruptedException
+	{
+		final com.sun.management.OperatingSystemMXBean bean = (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+		for (TestCreature creature : creatures)
+		{
+			creature._status._regenerations.set(0);
+		}
+		final long cpu = bean.getProcessCpuTime();
+		Thread.sleep(seconds * 1000L);
+		return bean.getProcessCpuTime() - cpu;
+	}
+	
+	/**
+	 * @param creatures the creatures
+	 * @param seconds the duration of the measure
+	 * @param period the regeneration period in milliseconds
+	 * @return {@code true} if every creature regenerated once per period, give or take one
+	 */
+	private static boolean check(List<TestCreature> creatures, int seconds, int period)
+	{
+		final int expected = (seconds * 1000) / period;
+		int wrong = 0;
+		for (TestCreature creature : creatures)
+		{
+			if (Math.abs(creature._status._regenerations.get() - expected) > 1)
+			{
+				wrong++;
+			}
+		}
+		if (wrong > 0)
+		{
+			System.out.println(wrong + " creatures did not regenerate about " + expected + " times.");
+		}
+		return wrong == 0;
+	}
+	
+	private static int getQueuedTasks()
+	{
+		int queued = 0;
+		boolean scheduled = false;
+		for (String line : ThreadPool.getStats())
+		{
+			if (line == null)
+			{
+				continue;
+			}
+			if (line.startsWith("Scheduled pool"))
+			{
+				scheduled = true;
+			}
+			else if (line.startsWith("Instant pool"))
+			{
+				scheduled = false;
+			}
+			else if (scheduled && line.contains("QueuedTaskCount"))
+			{
+				queued += Integer.parseInt(line.substring(line.lastIndexOf(' ') + 1));
+			}
+		}
+		return queued;
+	}
+	
+	private static void print(String label, int queues, long startTime, long stopTime, long cpu, int seconds, boolean passed)
+	{
+		System.out.println(String.format("%-22s scheduled queues: %6d, start all: %7.2f ms, stop all: %7.2f ms, CPU: %5.1f ms/s %s", label, queues, startTime / 1000000.0, stopTime / 1000000.0, cpu / 1000000.0 / seconds, passed ? "" : "WRONG PERIODS"));
+	}
+	
+	/**
+	 * Counts its regenerations instead of changing HP and MP, so it never stops by itself.
+	 */
+	private static class TestStatus extends CreatureStatus
+	{
+		protected final AtomicInteger _regenerations = new AtomicInteger();
+		
+		protected TestStatus(Creature creature)
+		{
+			super(creature);
+		}
+		
+		@Override
+		public void doRegeneration()
+		{
+			_regenerations.incrementAndGet();
+		}
+	}
+	
+	private static class TestCreature extends Creature
+	{
+		protected TestStatus _status;
+		
+		protected TestCreature(int objectId, CreatureTemplate template)
+		{
+			super(objectId, template);
+		}
+		
+		@Override
+		public void initCharStatus()
+		{
+			_status = new TestStatus(this);
+			setStatus(_status);
+		}
+		
+		@Override
+		public int getId()
+		{
+			return 0;
+		}
+		
+		@Override
+		public int getLevel()
+		{
+			return 1;
+		}
+		
+		@Override
+		public Item getActiveWeaponInstance()
+		{
+			return null;
+		}
+		
+		@Override
+		public Weapon getActiveWeaponItem()
+		{
+			return null;
+		}
+		
+		@Override
+		public Item getSecondaryWeaponInstance()
+		{
+			return null;
+		}
+		
+		@Override
+		public ItemTemplate getSecondaryWeaponItem()
+		{
+			return null;
+		}
+		
+		@Override
+		public boolean isAutoAttackable(Creature attacker)
+		{
+			return false;
+		}
+		
+		@Override
+		public void sendInfo(Player player)
+		{
+		}
+	}
+}
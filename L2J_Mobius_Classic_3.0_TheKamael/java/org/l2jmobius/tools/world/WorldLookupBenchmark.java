@@ -0,0 +1,300 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.tools.world;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.l2jmobius.gameserver.model.StatSet;
+import org.l2jmobius.gameserver.model.World;
+import org.l2jmobius.gameserver.model.WorldObject;
+import org.l2jmobius.gameserver.model.WorldRegion;
+import org.l2jmobius.gameserver.model.actor.Creature;
+import org.l2jmobius.gameserver.model.actor.Player;
+import org.l2jmobius.gameserver.model.actor.templates.CreatureTemplate;
+import org.l2jmobius.gameserver.model.item.ItemTemplate;
+import org.l2jmobius.gameserver.model.item.Weapon;
+import org.l2jmobius.gameserver.model.item.instance.Item;
+
+/**
+ * Checks and measures the {@link World} visible object lookups without datapack or database.<br>
+ * Creatures and other objects, standing for dropped items, are put in the world regions of a crowded area, then:
+ * <ul>
+ * <li>every lookup is run by the {@link World} and by the region walk it replaced, both must find the same objects,</li>
+ * <li>both lookups are timed on a single thread, once for every creature of the area like the creature see task.</li>
+ * </ul>
+ * There are no players in the area, player lookups only show the cost of skipping everything else.
+ * 
+ * <pre>
+ * java -cp "./../libs/*" org.l2jmobius.tools.world.WorldLookupBenchmark [creatures] [objects] [seed]
+ * </pre>
+ */
+public class WorldLookupBenchmark
+{
+	private static final int FIRST_ID = 0x10000000;
+	private static final int CENTER_X = 83000;
+	private static final int CENTER_Y = 148000;
+	private static final int CENTER_Z = -3400;
+	private static final int AREA_SIZE = 6000;
+	private static final int ROUNDS = 5;
+	
+	public static void main(String[] args)
+	{
+		final int creatureCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		final int objectCount = args.length > 1 ? Integer.parseInt(args[1]) : 6000;
+		final long seed = args.length > 2 ? Long.parseLong(args[2]) : 12345;
+		
+		final Random random = new Random(seed);
+		final CreatureTemplate template = new CreatureTemplate(new StatSet());
+		final List<Creature> creatures = new ArrayList<>(creatureCount);
+		for (int i = 0; i < creatureCount; i++)
+		{
+			final Creature creature = new TestCreature(FIRST_ID + i, template);
+			place(creature, random);
+			creatures.add(creature);
+		}
+		for (int i = 0; i < objectCount; i++)
+		{
+			place(new TestObject(FIRST_ID + creatureCount + i), random);
+		}
+		System.out.println("Creatures: " + creatureCount + " Other objects: " + objectCount + " Area: " + AREA_SIZE + "x" + AREA_SIZE);
+		
+		// @formatter:off
+		final Lookup[] lookups =
+		{
+			new Lookup("creatures in 300", Creature.class, 300),
+			new Lookup("creatures in 1500", Creature.class, 1500),
+			new Lookup("creatures visible", Creature.class, 0),
+			new Lookup("objects in 1500", WorldObject.class, 1500),
+			new Lookup("players in 1500", Player.class, 1500),
+		};
+		// @formatter:on
+		
+		boolean passed = true;
+		for (Lookup lookup : lookups)
+		{
+			int mismatches = 0;
+			long found = 0;
+			for (Creature creature : creatures)
+			{
+				final Set<WorldObject> expected = new HashSet<>();
+				final Set<WorldObject> result = new HashSet<>();
+				lookup.reference(creature, expected::add);
+				lookup.world(creature, result::add);
+				if (!expected.equals(result))
+				{
+					mismatches++;
+				}
+				found += result.size();
+			}
+			passed &= mismatches == 0;
+			
+			// Warm up, then measure.
+			final Counter counter = new Counter();
+			time(creatures, creature -> lookup.reference(creature, counter));
+			time(creatures, creature -> lookup.world(creature, counter));
+			final double reference = time(creatures, creature -> lookup.reference(creature, counter));
+			final double world = time(creatures, creature -> lookup.world(creature, counter));
+			System.out.println(String.format("%-18s found: %5.0f per lookup, region walk: %6.2f us, world: %6.2f us, mismatches: %d", lookup._label, (double) found / creatures.size(), reference / 1000, world / 1000, mismatches));
+		}
+		
+		System.out.println(passed ? "PASSED" : "FAILED");
+		System.exit(passed ? 0 : 1);
+	}
+	
+	private static void place(WorldObject object, Random random)
+	{
+		final int x = (CENTER_X - (AREA_SIZE / 2)) + random.nextInt(AREA_SIZE);
+		final int y = (CENTER_Y - (AREA_SIZE / 2)) + random.nextInt(AREA_SIZE);
+		final int z = CENTER_Z + random.nextInt(200);
+		
+		// Set the location directly, positioning a creature would also look for zones.
+		object.getLocation().setXYZ(x, y, z);
+		final WorldRegion region = World.getInstance().getRegion(object);
+		region.addVisibleObject(object);
+		object.setWorldRegion(region);
+	}
+	
+	/**
+	 * @param creatures the creatures looking around
+	 * @param lookup the lookup to run
+	 * @return the mean time of one lookup in nanoseconds
+	 */
+	private static double time(List<Creature> creatures, Consumer<Creature> lookup)
+	{
+		final long start = System.nanoTime();
+		for (int i = 0; i < ROUNDS; i++)
+		{
+			for (Creature creature : creatures)
+			{
+				lookup.accept(creature);
+			}
+		}
+		return (double) (System.nanoTime() - start) / ROUNDS / creatures.size();
+	}
+	
+	private static class Counter implements Consumer<WorldObject>
+	{
+		protected long _count;
+		
+		@Override
+		public void accept(WorldObject object)
+		{
+			_count++;
+		}
+	}
+	
+	private static class Lookup
+	{
+		protected final String _label;
+		private final Class<? extends WorldObject> _clazz;
+		private final int _range;
+		
+		protected Lookup(String label, Class<? extends WorldObject> clazz, int range)
+		{
+			_label = label;
+			_clazz = clazz;
+			_range = range;
+		}
+		
+		protected void world(WorldObject object, Consumer<WorldObject> c)
+		{
+			if (_range > 0)
+			{
+				World.getInstance().forEachVisibleObjectInRange(object, _clazz, _range, c::accept);
+			}
+			else
+			{
+				World.getInstance().forEachVisibleObject(object, _clazz, c::accept);
+			}
+		}
+		
+		/**
+		 * The former lookup, every object of the surrounding regions is tested.
+		 * @param object the object looking around
+		 * @param c the action for each object found
+		 */
+		protected void reference(WorldObject object, Consumer<WorldObject> c)
+		{
+			final WorldRegion[] surroundingRegions = World.getInstance().getRegion(object).getSurroundingRegions();
+			for (int i = 0; i < surroundingRegions.length; i++)
+			{
+				for (WorldObject wo : surroundingRegions[i].getVisibleObjects())
+				{
+					if ((wo == object) || !_clazz.isInstance(wo))
+					{
+						continue;
+					}
+					
+					if (wo.getInstanceWorld() != object.getInstanceWorld())
+					{
+						continue;
+					}
+					
+					if ((_range <= 0) || (wo.calculateDistance3D(object) <= _range))
+					{
+						c.accept(wo);
+					}
+				}
+			}
+		}
+	}
+	
+	private static class TestCreature extends Creature
+	{
+		protected TestCreature(int objectId, CreatureTemplate template)
+		{
+			super(objectId, template);
+		}
+		
+		@Override
+		public int getId()
+		{
+			return 0;
+		}
+		
+		@Override
+		public int getLevel()
+		{
+			return 1;
+		}
+		
+		@Override
+		public Item getActiveWeaponInstance()
+		{
+			return null;
+		}
+		
+		@Override
+		public Weapon getActiveWeaponItem()
+		{
+			return null;
+		}
+		
+		@Override
+		public Item getSecondaryWeaponInstance()
+		{
+			return null;
+		}
+		
+		@Override
+		public ItemTemplate getSecondaryWeaponItem()
+		{
+			return null;
+		}
+		
+		@Override
+		public boolean isAutoAttackable(Creature attacker)
+		{
+			return false;
+		}
+		
+		@Override
+		public void sendInfo(Player player)
+		{
+		}
+	}
+	
+	private static class TestObject extends WorldObject
+	{
+		protected TestObject(int objectId)
+		{
+			super(objectId);
+		}
+		
+		@Override
+		public int getId()
+		{
+			return 0;
+		}
+		
+		@Override
+		public boolean isAutoAttackable(Creature attacker)
+		{
+			return false;
+		}
+		
+		@Override
+		public void sendInfo(Player player)
+		{
+		}
+	}
+}
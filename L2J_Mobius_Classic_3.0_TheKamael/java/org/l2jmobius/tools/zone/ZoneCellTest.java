@@ -0,0 +1,440 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.tools.zone;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.l2jmobius.gameserver.enums.ClassId;
+import org.l2jmobius.gameserver.enums.InstanceType;
+import org.l2jmobius.gameserver.model.Location;
+import org.l2jmobius.gameserver.model.StatSet;
+import org.l2jmobius.gameserver.model.WorldObject;
+import org.l2jmobius.gameserver.model.actor.Creature;
+import org.l2jmobius.gameserver.model.actor.Player;
+import org.l2jmobius.gameserver.model.actor.stat.CreatureStat;
+import org.l2jmobius.gameserver.model.actor.stat.PlayerStat;
+import org.l2jmobius.gameserver.model.actor.templates.CreatureTemplate;
+import org.l2jmobius.gameserver.model.actor.templates.PlayerTemplate;
+import org.l2jmobius.gameserver.model.item.ItemTemplate;
+import org.l2jmobius.gameserver.model.item.Weapon;
+import org.l2jmobius.gameserver.model.item.instance.Item;
+import org.l2jmobius.gameserver.model.zone.ZoneForm;
+import org.l2jmobius.gameserver.model.zone.ZoneRegion;
+import org.l2jmobius.gameserver.model.zone.ZoneType;
+import org.l2jmobius.gameserver.model.zone.form.ZoneCuboid;
+import org.l2jmobius.gameserver.model.zone.form.ZoneCylinder;
+import org.l2jmobius.gameserver.model.zone.form.ZoneNPoly;
+
+/**
+ * Checks and measures the zone cells of {@link ZoneRegion} without datapack or database.<br>
+ * A zone region is filled with random cuboid, cylinder and polygon zones, some of them limited to a level range, to fighters or mages, to a class or to players. Every zone has a copy for the former revalidation, then:
+ * <ul>
+ * <li>creatures and players move around the region, mostly by short steps that keep them in the same cell, and between moves they change level and players change class, and with it mage or fighter,</li>
+ * <li>after each move the creature is revalidated through the cells of the region, unforced like a moving creature, and through every zone copy as before, it must be inside the same zones both ways,</li>
+ * <li>both revalidations are timed per move.</li>
+ * </ul>
+ * Players are allocated without their constructor, which loads them from the database, and only get the fields zone revalidation reads.
+ * 
+ * <pre>
+ * java -cp "./../libs/*" org.l2jmobius.tools.zone.ZoneCellTest [zones] [creatures] [moves] [seed]
+ * </pre>
+ */
+public class ZoneCellTest
+{
+	private static final int ORIGIN_X = 3 << 15;
+	private static final int ORIGIN_Y = 4 << 15;
+	private static final int REGION_SIZE = 1 << 15;
+	private static final int FIRST_ID = 0x10000000;
+	private static final ClassId[] CLASS_IDS =
+	{
+		ClassId.FIGHTER,
+		ClassId.WARRIOR,
+		ClassId.KNIGHT,
+		ClassId.MAGE,
+		ClassId.WIZARD,
+		ClassId.CLERIC,
+		ClassId.ELVEN_FIGHTER,
+		ClassId.ELVEN_MAGE,
+		ClassId.DARK_FIGHTER,
+		ClassId.DARK_MAGE,
+		ClassId.ORC_FIGHTER,
+		ClassId.ORC_MAGE
+	};
+	
+	private static PlayerTemplate[] _templates;
+	
+	public static void main(String[] args) throws Exception
+	{
+		final int zoneCount = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+		final int creatureCount = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+		final int moves = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+		final long seed = args.length > 3 ? Long.parseLong(args[3]) : 12345;
+		
+		final Random random = new Random(seed);
+		_templates = new PlayerTemplate[CLASS_IDS.length];
+		for (int i = 0; i < CLASS_IDS.length; i++)
+		{
+			final StatSet set = new StatSet();
+			set.set("classId", CLASS_IDS[i].getId());
+			set.set("collisionFemaleradius", 8);
+			set.set("collisionFemaleheight", 23);
+			_templates[i] = new PlayerTemplate(set, List.of());
+		}
+		
+		// The zones of the region and their copies for the former revalidation.
+		final ZoneRegion region = new ZoneRegion(0, 0);
+		final List<ZoneType> zones = new ArrayList<>(zoneCount);
+		final List<ZoneType> referenceZones = new ArrayList<>(zoneCount);
+		for (int id = 0; id < zoneCount; id++)
+		{
+			final ZoneForm form = createForm(random);
+			final List<String[]> parameters = createParameters(random);
+			final ZoneType zone = new TestZone(id);
+			final ZoneType referenceZone = new TestZone(id);
+			zone.setZone(form);
+			referenceZone.setZone(form);
+			for (String[] parameter : parameters)
+			{
+				zone.setParameter(parameter[0], parameter[1]);
+				referenceZone.setParameter(parameter[0], parameter[1]);
+			}
+			region.getZones().put(id, zone);
+			zones.add(zone);
+			referenceZones.add(referenceZone);
+		}
+		long start = System.nanoTime();
+		region.buildCells(ORIGIN_X, ORIGIN_Y);
+		final long buildTime = System.nanoTime() - start;
+		
+		final CreatureTemplate template = new CreatureTemplate(new StatSet());
+		final List<Creature> creatures = new ArrayList<>(creatureCount);
+		for (int i = 0; i < creatureCount; i++)
+		{
+			final Creature creature = (i % 2) == 0 ? new TestCreature(FIRST_ID + i, template) : createPlayer(FIRST_ID + i);
+			creature.getLocation().setXYZ(ORIGIN_X + random.nextInt(REGION_SIZE), ORIGIN_Y + random.nextInt(REGION_SIZE), random.nextInt(3000) - 1500);
+			setLevel(creature, 1 + random.nextInt(99));
+			region.revalidateZones(creature, true);
+			for (ZoneType zone : referenceZones)
+			{
+				zone.revalidateInZone(creature);
+			}
+			creatures.add(creature);
+		}
+		
+		System.out.println("Zone cell test, " + zoneCount + " zones, " + creatureCount + " creatures, " + moves + " moves each, seed " + seed + ".");
+		System.out.println(String.format("Cells built in %.2f ms.", buildTime / 1000000.0));
+		
+		long cellTime = 0;
+		long referenceTime = 0;
+		int changes = 0;
+		int mismatches = 0;
+		for (int move = 0; move < moves; move++)
+		{
+			for (Creature creature : creatures)
+			{
+				changes += step(creature, random);
+				
+				start = System.nanoTime();
+				region.revalidateZones(creature, false);
+				cellTime += System.nanoTime() - start;
+				
+				start = System.nanoTime();
+				for (ZoneType zone : referenceZones)
+				{
+					zone.revalidateInZone(creature);
+				}
+				referenceTime += System.nanoTime() - start;
+				
+				for (int i = 0; i < zoneCount; i++)
+				{
+					if (zones.get(i).isCharacterInZone(creature) != referenceZones.get(i).isCharacterInZone(creature))
+					{
+						if (mismatches++ < 10)
+						{
+							System.out.println("Mismatch: creature " + creature.getObjectId() + " zone " + i + " at " + creature.getX() + ", " + creature.getY() + ", " + creature.getZ() + " level " + creature.getLevel() + (creature.isPlayer() ? " class " + ((Player) creature).getClassId() : ""));
+						}
+					}
+				}
+			}
+		}
+		
+		final int total = creatureCount * moves;
+		System.out.println("Moves: " + total + ", level or class changes: " + changes + ", mismatches: " + mismatches);
+		System.out.println(String.format("Every region zone: %7.3f us per move", referenceTime / 1000.0 / total));
+		System.out.println(String.format("Zone cells:        %7.3f us per move", cellTime / 1000.0 / total));
+		for (String line : ZoneRegion.getStats())
+		{
+			System.out.println(line);
+		}
+		
+		final boolean passed = mismatches == 0;
+		System.out.println(passed ? "PASSED" : "FAILED");
+		System.exit(passed ? 0 : 1);
+	}
+	
+	/**
+	 * Moves the creature, mostly inside its cell, and sometimes changes its level or class.
+	 * @param creature the creature
+	 * @param random the generator
+	 * @return the number of level and class changes
+	 * @throws ReflectiveOperationException if a field of the creature cannot be set
+	 */
+	private static int step(Creature creature, Random random) throws ReflectiveOperationException
+	{
+		final int kind = random.nextInt(100);
+		int x = creature.getX();
+		int y = creature.getY();
+		int z = creature.getZ();
+		if (kind < 70)
+		{
+			x += random.nextInt(33) - 16;
+			y += random.nextInt(33) - 16;
+			z += random.nextInt(9) - 4;
+		}
+		else if (kind < 90)
+		{
+			x += random.nextInt(1025) - 512;
+			y += random.nextInt(1025) - 512;
+			z += random.nextInt(201) - 100;
+		}
+		else
+		{
+			x = ORIGIN_X + random.nextInt(REGION_SIZE);
+			y = ORIGIN_Y + random.nextInt(REGION_SIZE);
+			z = random.nextInt(3000) - 1500;
+		}
+		creature.getLocation().setXYZ(Math.max(ORIGIN_X, Math.min((ORIGIN_X + REGION_SIZE) - 1, x)), Math.max(ORIGIN_Y, Math.min((ORIGIN_Y + REGION_SIZE) - 1, y)), z);
+		
+		int changes = 0;
+		if (random.nextInt(10) == 0)
+		{
+			setLevel(creature, 1 + random.nextInt(99));
+			changes++;
+		}
+		if (creature.isPlayer() && (random.nextInt(10) == 0))
+		{
+			setField(Creature.class, creature, "_template", _templates[random.nextInt(_templates.length)]);
+			changes++;
+		}
+		return changes;
+	}
+	
+	private static ZoneForm createForm(Random random)
+	{
+		final int x = ORIGIN_X + random.nextInt(REGION_SIZE);
+		final int y = ORIGIN_Y + random.nextInt(REGION_SIZE);
+		final int z1 = -2000 + random.nextInt(1800);
+		final int z2 = 200 + random.nextInt(2800);
+		switch (random.nextInt(3))
+		{
+			case 0:
+			{
+				return new ZoneCuboid(x, x + 500 + random.nextInt(6000), y, y + 500 + random.nextInt(6000), z1, z2);
+			}
+			case 1:
+			{
+				return new ZoneCylinder(x, y, z1, z2, 300 + random.nextInt(4000));
+			}
+			default:
+			{
+				// A star shaped polygon, with its points sorted by angle.
+				final int points = 5 + random.nextInt(6);
+				final double[] angles = new double[points];
+				for (int i = 0; i < points; i++)
+				{
+					angles[i] = random.nextDouble() * 2 * Math.PI;
+				}
+				Arrays.sort(angles);
+				final int[] xs = new int[points];
+				final int[] ys = new int[points];
+				for (int i = 0; i < points; i++)
+				{
+					final int radius = 500 + random.nextInt(5000);
+					xs[i] = x + (int) (Math.cos(angles[i]) * radius);
+					ys[i] = y + (int) (Math.sin(angles[i]) * radius);
+				}
+				return new ZoneNPoly(xs, ys, z1, z2);
+			}
+		}
+	}
+	
+	private static List<String[]> createParameters(Random random)
+	{
+		final List<String[]> parameters = new ArrayList<>();
+		if (random.nextInt(10) < 3)
+		{
+			final int min = 1 + random.nextInt(60);
+			parameters.add(new String[]
+			{
+				"affectedLvlMin",
+				String.valueOf(min)
+			});
+			parameters.add(new String[]
+			{
+				"affectedLvlMax",
+				String.valueOf(min + 10 + random.nextInt(30))
+			});
+		}
+		if (random.nextInt(10) < 2)
+		{
+			parameters.add(new String[]
+			{
+				"affectedClassType",
+				random.nextBoolean() ? "Fighter" : "Mage"
+			});
+		}
+		if (random.nextInt(10) == 0)
+		{
+			parameters.add(new String[]
+			{
+				"affectedClassId",
+				String.valueOf(CLASS_IDS[random.nextInt(CLASS_IDS.length)].getId())
+			});
+		}
+		if (random.nextInt(10) == 0)
+		{
+			parameters.add(new String[]
+			{
+				"targetClass",
+				InstanceType.Player.name()
+			});
+		}
+		return parameters;
+	}
+	
+	/**
+	 * @param objectId the object id
+	 * @return a player allocated without its constructor, with only the fields zone revalidation reads
+	 * @throws ReflectiveOperationException if the player cannot be allocated
+	 */
+	private static Player createPlayer(int objectId) throws ReflectiveOperationException
+	{
+		final Field unsafeField = sun.misc.Unsafe.class.getDeclaredField("theUnsafe");
+		unsafeField.setAccessible(true);
+		final Player player = (Player) ((sun.misc.Unsafe) unsafeField.get(null)).allocateInstance(Player.class);
+		setField(WorldObject.class, player, "_objectId", objectId);
+		setField(WorldObject.class, player, "_location", new Location(0, 0, 0));
+		setField(WorldObject.class, player, "_instanceType", InstanceType.Player);
+		setField(Creature.class, player, "_template", _templates[objectId % _templates.length]);
+		setField(Creature.class, player, "_stat", new PlayerStat(player));
+		return player;
+	}
+	
+	/**
+	 * Sets the level of a player without the experience table, which limits it.
+	 * @param creature the creature
+	 * @param level the level
+	 * @throws ReflectiveOperationException if the level of a player cannot be set
+	 */
+	private static void setLevel(Creature creature, int level) throws ReflectiveOperationException
+	{
+		if (creature instanceof TestCreature)
+		{
+			((TestCreature) creature)._level = level;
+		}
+		else
+		{
+			setField(CreatureStat.class, creature.getStat(), "_level", (byte) level);
+		}
+	}
+	
+	private static void setField(Class<?> type, Object object, String name, Object value) throws ReflectiveOperationException
+	{
+		final Field field = type.getDeclaredField(name);
+		field.setAccessible(true);
+		field.set(object, value);
+	}
+	
+	private static class TestZone extends ZoneType
+	{
+		protected TestZone(int id)
+		{
+			super(id);
+		}
+		
+		@Override
+		protected void onEnter(Creature creature)
+		{
+		}
+		
+		@Override
+		protected void onExit(Creature creature)
+		{
+		}
+	}
+	
+	private static class TestCreature extends Creature
+	{
+		protected int _level;
+		
+		protected TestCreature(int objectId, CreatureTemplate template)
+		{
+			super(objectId, template);
+		}
+		
+		@Override
+		public int getId()
+		{
+			return 0;
+		}
+		
+		@Override
+		public int getLevel()
+		{
+			return _level;
+		}
+		
+		@Override
+		public Item getActiveWeaponInstance()
+		{
+			return null;
+		}
+		
+		@Override
+		public Weapon getActiveWeaponItem()
+		{
+			return null;
+		}
+		
+		@Override
+		public Item getSecondaryWeaponInstance()
+		{
+			return null;
+		}
+		
+		@Override
+		public ItemTemplate getSecondaryWeaponItem()
+		{
+			return null;
+		}
+		
+		@Override
+		public boolean isAutoAttackable(Creature creature)
+		{
+			return false;
+		}
+		
+		@Override
+		public void sendInfo(Player player)
+		{
+		}
+	}
+}